@@ -4,10 +4,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -20,6 +22,10 @@ import org.springframework.web.context.request.ServletRequestAttributes;
  * <p>For more information on Aspect Oriented Programming (AOP) and AspectJ, including what a {@code
  * JoinPoint} is, refer to <a
  * href="https://www.baeldung.com/aspectj">https://www.baeldung.com/aspectj</a>
+ *
+ * <p>Only a fraction {@code app.logging.controllers.sampleRate} of invocations are logged (all of
+ * them in development, none if it is 0). Request timings are recorded as metrics by {@link
+ * edu.ucsb.cs156.example.config.HandlerTimingFilter}, not here.
  */
 @Slf4j
 @Aspect
@@ -40,6 +46,9 @@ public class LoggingAspect {
       new ArrayList<String>(
           Arrays.asList("edu.ucsb.cs156.example.controllers.FrontendProxyController"));
 
+  @Value("${app.logging.controllers.sampleRate:1.0}")
+  double sampleRate = 1.0;
+
   /**
    * This method is called before any controller method that is annotated with
    * {@code @RequestMapping}, {@code @GetMapping}, {@code @PostMapping}, {@code @PutMapping},
@@ -49,18 +58,22 @@ public class LoggingAspect {
    */
   @Before(pointcut)
   public void logControllers(JoinPoint joinPoint) {
+    if (!log.isInfoEnabled()
+        || sampleRate <= 0
+        || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+      return;
+    }
     getCurrentHttpRequest()
         .ifPresent(
             request -> {
               String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
               if (!stoplist.contains(declaringTypeName)) {
                 log.info(
-                    "===== %s %s handled by %s in %s"
-                        .formatted(
-                            request.getMethod(),
-                            request.getRequestURI(),
-                            joinPoint.getSignature().getName(),
-                            declaringTypeName));
+                    "===== {} {} handled by {} in {}",
+                    request.getMethod(),
+                    request.getRequestURI(),
+                    joinPoint.getSignature().getName(),
+                    declaringTypeName);
               }
             });
   }
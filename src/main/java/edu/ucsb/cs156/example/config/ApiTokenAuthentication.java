@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.entities.User;
+import java.util.Collection;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * The `ApiTokenAuthentication` is the authentication of a request that presented a valid API token
+ * (see {@link ApiTokenFilter}). Its principal is the user the token acts as, and its name is their
+ * email, as for an OAuth2 login.
+ */
+public class ApiTokenAuthentication extends AbstractAuthenticationToken {
+
+  private final User user;
+
+  /**
+   * @param user the user the token acts as
+   * @param authorities the user's roles
+   */
+  public ApiTokenAuthentication(User user, Collection<? extends GrantedAuthority> authorities) {
+    super(authorities);
+    this.user = user;
+    setAuthenticated(true);
+  }
+
+  @Override
+  public User getPrincipal() {
+    return user;
+  }
+
+  /** The token itself is not kept. */
+  @Override
+  public Object getCredentials() {
+    return null;
+  }
+
+  @Override
+  public String getName() {
+    return user.getEmail();
+  }
+}
@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.services.ApiTokenService;
+import edu.ucsb.cs156.example.services.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * The `ApiTokenFilter` authenticates requests in the API token filter chain (see {@link
+ * SecurityConfig}) from their {@code Authorization: Bearer <token>} header, using {@link
+ * ApiTokenService}. A request whose token is unknown or revoked gets 401 Unauthorized and goes no
+ * further; nothing is stored in a session.
+ *
+ * <p>A token that is not in the service's memory costs a query, and made-up tokens never are. So
+ * before such a token is looked up, the request takes a token from its IP address's bucket in
+ * {@link RateLimitService}, as if it were not logged in, and gets 429 Too Many Requests if there is
+ * none. Flooding the API with bad tokens is then limited like any other anonymous traffic.
+ */
+public class ApiTokenFilter extends OncePerRequestFilter {
+
+  static final String BEARER = "Bearer ";
+
+  private final ObjectProvider<ApiTokenService> apiTokenService;
+
+  private final Function<String, Collection<GrantedAuthority>> rolesForEmail;
+
+  private final RateLimitService rateLimitService;
+
+  private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  /**
+   * @param apiTokenService provides the service that checks the tokens
+   * @param rolesForEmail the roles of the user with a given email
+   * @param rateLimitService limits the lookups of tokens that are not in memory
+   */
+  public ApiTokenFilter(
+      ObjectProvider<ApiTokenService> apiTokenService,
+      Function<String, Collection<GrantedAuthority>> rolesForEmail,
+      RateLimitService rateLimitService) {
+    this.apiTokenService = apiTokenService;
+    this.rolesForEmail = rolesForEmail;
+    this.rateLimitService = rateLimitService;
+  }
+
+  /**
+   * @param request a request
+   * @return whether the request has an {@code Authorization: Bearer} header
+   */
+  public static boolean hasBearerToken(HttpServletRequest request) {
+    String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+    return authorization != null
+        && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length());
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String token = request.getHeader(HttpHeaders.AUTHORIZATION).substring(BEARER.length()).trim();
+    ApiTokenService tokens = apiTokenService.getObject();
+    Optional<User> user = tokens.findCached(token);
+    if (user.isEmpty()) {
+      long waitNanos =
+          rateLimitService.tryAcquire(
+              urlPathHelper.getPathWithinApplication(request), request.getRemoteAddr(), false);
+      if (waitNanos > 0) {
+        RateLimitFilter.tooManyRequests(response, waitNanos);
+        return;
+      }
+      user = tokens.authenticate(token);
+    }
+    if (user.isEmpty()) {
+      response.setStatus(HttpStatus.UNAUTHORIZED.value());
+      response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      response
+          .getWriter()
+          .write("{\"type\":\"InvalidApiToken\",\"message\":\"API token is unknown or revoked\"}");
+      return;
+    }
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(
+        new ApiTokenAuthentication(user.get(), rolesForEmail.apply(user.get().getEmail())));
+    SecurityContextHolder.setContext(context);
+    filterChain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,139 @@
+package edu.ucsb.cs156.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * The `HandlerTimingFilter` times every request and records it in a Micrometer timer named {@value
+ * #METRIC}, tagged with the controller method that handled it ({@code handler}, e.g. {@code
+ * RestaurantsController.getById}), the HTTP {@code method} and the response {@code status}. The
+ * timers publish percentile histograms, so p50/p99 per endpoint can be read from {@code
+ * /actuator/prometheus} with {@code histogram_quantile}.
+ *
+ * <p>It is a filter rather than an aspect so that it sees the final status, including statuses set
+ * by exception handlers. Timers are cached per handler and looked up by a short scan, so recording
+ * a request does not allocate tags. Requests that go asynchronous (server-sent event streams) are
+ * not timed, since their length says nothing about latency.
+ */
+public class HandlerTimingFilter extends OncePerRequestFilter {
+
+  static final String METRIC = "http.server.handler";
+
+  private static final Set<String> HTTP_METHODS =
+      Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+
+  private static final Object NO_HANDLER = new Object();
+
+  private final MeterRegistry registry;
+
+  private final Map<Object, HandlerTimers> byHandler = new ConcurrentHashMap<>();
+
+  /**
+   * @param registry where the timers are registered
+   */
+  public HandlerTimingFilter(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      filterChain.doFilter(request, response);
+      failed = false;
+    } finally {
+      if (!request.isAsyncStarted()) {
+        int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+        timerFor(request, status).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private Timer timerFor(HttpServletRequest request, int status) {
+    Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+    Object key =
+        handler instanceof HandlerMethod handlerMethod
+            ? handlerMethod.getMethod()
+            : handler != null ? handler.getClass() : NO_HANDLER;
+    String method = request.getMethod();
+    return byHandler
+        .computeIfAbsent(key, k -> new HandlerTimers(handlerName(handler)))
+        .get(HTTP_METHODS.contains(method) ? method : "OTHER", status);
+  }
+
+  /**
+   * Names the controller method that handled a request, e.g. {@code RestaurantsController.getById}.
+   *
+   * @param handler the {@link HandlerMapping#BEST_MATCHING_HANDLER_ATTRIBUTE} of the request
+   * @return the name, or {@code none} if no handler matched
+   */
+  public static String handlerName(Object handler) {
+    if (handler instanceof HandlerMethod handlerMethod) {
+      return handlerMethod.getBeanType().getSimpleName()
+          + "."
+          + handlerMethod.getMethod().getName();
+    }
+    return handler != null ? handler.getClass().getSimpleName() : "none";
+  }
+
+  /** One timer for each HTTP method and status seen for one handler. */
+  private record Slot(String method, int status, Timer timer) {}
+
+  /** The timers of one handler; a handler rarely sees more than a few statuses. */
+  private final class HandlerTimers {
+    private final String handler;
+    private volatile Slot[] slots = new Slot[0];
+
+    HandlerTimers(String handler) {
+      this.handler = handler;
+    }
+
+    Timer get(String method, int status) {
+      for (Slot slot : slots) {
+        if (slot.status() == status && slot.method().equals(method)) {
+          return slot.timer();
+        }
+      }
+      return add(method, status);
+    }
+
+    private synchronized Timer add(String method, int status) {
+      for (Slot slot : slots) {
+        if (slot.status() == status && slot.method().equals(method)) {
+          return slot.timer();
+        }
+      }
+      Timer timer =
+          Timer.builder(METRIC)
+              .description("Time to handle a request, by controller method")
+              .tag("handler", handler)
+              .tag("method", method)
+              .tag("status", Integer.toString(status))
+              .publishPercentileHistogram()
+              .minimumExpectedValue(Duration.ofMillis(1))
+              .maximumExpectedValue(Duration.ofSeconds(10))
+              .register(registry);
+      Slot[] grown = Arrays.copyOf(slots, slots.length + 1);
+      grown[slots.length] = new Slot(method, status, timer);
+      slots = grown;
+      return timer;
+    }
+  }
+}
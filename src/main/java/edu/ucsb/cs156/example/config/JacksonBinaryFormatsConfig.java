@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.example.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * The `JacksonBinaryFormatsConfig` class lets every controller answer in CBOR ({@code
+ * application/cbor}) or Smile ({@code application/x-jackson-smile}) as well as JSON, chosen by the
+ * request's Accept header.
+ *
+ * <p>Spring MVC would register these converters on its own, but with a plain ObjectMapper. Building
+ * them from Spring Boot's Jackson2ObjectMapperBuilder makes them honor the same {@code
+ * spring.jackson.*} settings and modules as the JSON converter, so all three formats carry the same
+ * fields and date handling.
+ */
+@Configuration
+public class JacksonBinaryFormatsConfig {
+
+  /**
+   * @param builder Spring Boot's Jackson builder (a fresh one per injection point)
+   * @return a converter for application/cbor
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  /**
+   * @param builder Spring Boot's Jackson builder (a fresh one per injection point)
+   * @return a converter for application/x-jackson-smile
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.factory(new SmileFactory()).build());
+  }
+}
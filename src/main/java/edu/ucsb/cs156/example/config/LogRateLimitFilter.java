@@ -0,0 +1,159 @@
+package edu.ucsb.cs156.example.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.slf4j.Marker;
+
+/**
+ * The `LogRateLimitFilter` is a Logback turbo filter (set up in {@code logback-spring.xml}) that
+ * keeps a chatty logger from flooding the log. For each logger it can:
+ *
+ * <ul>
+ *   <li>pass on only a sample of its messages, e.g. {@code <sample>org.hibernate.SQL=0.1</sample>};
+ *   <li>cap how many messages it writes per second, e.g. {@code
+ *       <limit>edu.ucsb.cs156.example.aop=20</limit>}, or {@code <defaultLimit>} for every logger.
+ * </ul>
+ *
+ * <p>Settings apply to a logger and the loggers under it; the most specific one wins. WARN and
+ * ERROR messages always pass. The check runs before the message is formatted and does not lock.
+ */
+public class LogRateLimitFilter extends TurboFilter {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  private final Map<String, Integer> limits = new HashMap<>();
+  private final Map<String, Double> samples = new HashMap<>();
+  private int defaultLimit = 0;
+
+  private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+  private final LongAdder rateLimited = new LongAdder();
+  private final LongAdder sampledOut = new LongAdder();
+
+  LongSupplier clock = System::nanoTime;
+
+  /**
+   * @param spec {@code logger=messagesPerSecond}
+   */
+  public void addLimit(String spec) {
+    String[] parts = split(spec);
+    limits.put(parts[0], Integer.parseInt(parts[1]));
+  }
+
+  /**
+   * @param spec {@code logger=fraction}, the fraction of messages to keep (0 to 1)
+   */
+  public void addSample(String spec) {
+    String[] parts = split(spec);
+    samples.put(parts[0], Double.parseDouble(parts[1]));
+  }
+
+  /**
+   * @param defaultLimit messages per second for loggers without a {@code limit} (0 = no limit)
+   */
+  public void setDefaultLimit(int defaultLimit) {
+    this.defaultLimit = defaultLimit;
+  }
+
+  /**
+   * @return how many messages were dropped for being over a logger's limit
+   */
+  public long getRateLimited() {
+    return rateLimited.sum();
+  }
+
+  /**
+   * @return how many messages were dropped by sampling
+   */
+  public long getSampledOut() {
+    return sampledOut.sum();
+  }
+
+  @Override
+  public FilterReply decide(
+      Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    // format is null when this is an isXxxEnabled() check rather than a message
+    if (format == null
+        || level.isGreaterOrEqual(Level.WARN)
+        || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+      return FilterReply.NEUTRAL;
+    }
+    Budget budget = budgets.computeIfAbsent(logger.getName(), this::budgetFor);
+    if (budget.sample < 1 && ThreadLocalRandom.current().nextDouble() >= budget.sample) {
+      sampledOut.increment();
+      return FilterReply.DENY;
+    }
+    if (budget.perSecond > 0 && !budget.tryAcquire(clock.getAsLong())) {
+      rateLimited.increment();
+      return FilterReply.DENY;
+    }
+    return FilterReply.NEUTRAL;
+  }
+
+  private Budget budgetFor(String loggerName) {
+    Integer limit = mostSpecific(limits, loggerName);
+    Double sample = mostSpecific(samples, loggerName);
+    return new Budget(
+        limit != null ? limit : defaultLimit, sample != null ? Math.max(0, sample) : 1.0);
+  }
+
+  private static <T> T mostSpecific(Map<String, T> settings, String loggerName) {
+    for (String name = loggerName; !name.isEmpty(); name = parent(name)) {
+      T value = settings.get(name);
+      if (value != null) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  private static String parent(String loggerName) {
+    int dot = loggerName.lastIndexOf('.');
+    return dot < 0 ? "" : loggerName.substring(0, dot);
+  }
+
+  private static String[] split(String spec) {
+    String[] parts = spec.trim().split("\\s*=\\s*");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("expected logger=value but got " + spec);
+    }
+    return parts;
+  }
+
+  /** How many messages one logger may still write in the current second. */
+  private static final class Budget {
+    private final int perSecond;
+    private final double sample;
+
+    /** The current second in the high 32 bits, messages written in it in the low 32 bits. */
+    private final AtomicLong state = new AtomicLong();
+
+    Budget(int perSecond, double sample) {
+      this.perSecond = perSecond;
+      this.sample = sample;
+    }
+
+    boolean tryAcquire(long now) {
+      long second = Math.floorDiv(now, SECOND) & 0xFFFFFFFFL;
+      while (true) {
+        long current = state.get();
+        long count = (current >>> 32) == second ? current & 0xFFFFFFFFL : 0;
+        if (count >= perSecond) {
+          return false;
+        }
+        if (state.compareAndSet(current, (second << 32) | (count + 1))) {
+          return true;
+        }
+      }
+    }
+  }
+}
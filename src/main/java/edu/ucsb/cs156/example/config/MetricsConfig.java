@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * The `MetricsConfig` class registers the application's own metrics with Micrometer. They are
+ * published with the JVM, Tomcat, connection pool, Hibernate and executor metrics of Spring Boot at
+ * {@code /actuator/prometheus}, which is only available to admins (see {@link SecurityConfig}).
+ * Services with metrics of their own (caches, rate limits, the help queue) are MeterBinders
+ * themselves. See docs/metrics.md.
+ */
+@Configuration
+public class MetricsConfig {
+
+  /**
+   * Times each request per controller method, ahead of Spring Security so that rejected requests
+   * are timed too.
+   *
+   * @param registry the Micrometer registry (injected by Spring)
+   * @return the registration of the {@link HandlerTimingFilter}
+   */
+  @Bean
+  public FilterRegistrationBean<HandlerTimingFilter> handlerTimingFilter(MeterRegistry registry) {
+    FilterRegistrationBean<HandlerTimingFilter> registration =
+        new FilterRegistrationBean<>(new HandlerTimingFilter(registry));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+    return registration;
+  }
+
+  /**
+   * Warns about requests that run more SQL statements than {@code app.querybudget.maxQueries}. Like
+   * the {@link HandlerTimingFilter}, it runs ahead of Spring Security, so statements run to look up
+   * the user count too.
+   *
+   * @param maxQueries how many statements a request may run without a warning
+   * @return the registration of the {@link QueryBudgetFilter}
+   */
+  @Bean
+  @ConditionalOnExpression("${app.querybudget.maxQueries:0} > 0")
+  public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(
+      @Value("${app.querybudget.maxQueries}") long maxQueries) {
+    FilterRegistrationBean<QueryBudgetFilter> registration =
+        new FilterRegistrationBean<>(new QueryBudgetFilter(maxQueries));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 11);
+    return registration;
+  }
+
+  /**
+   * Publishes how many background jobs are running and have finished; see {@link
+   * JobService#bindTo}.
+   *
+   * @param jobService the job service (injected by Spring)
+   * @return a binder for the job metrics
+   */
+  @Bean
+  public MeterBinder jobMetrics(JobService jobService) {
+    return jobService::bindTo;
+  }
+}
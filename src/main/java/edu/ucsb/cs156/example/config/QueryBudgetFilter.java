@@ -0,0 +1,53 @@
+package edu.ucsb.cs156.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * The `QueryBudgetFilter` logs a warning for every request that makes Hibernate run more SQL
+ * statements than its budget, naming the controller method that handled it, e.g. {@code GET
+ * /api/jobs/all ran 23 SQL statements (budget 10) in JobsController.allJobs}. A request over budget
+ * usually loads a lazy association once per row. It is only installed when {@code
+ * app.querybudget.maxQueries} is set (see {@link MetricsConfig}); the counting is done by {@link
+ * QueryCountInspector}.
+ */
+@Slf4j
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+  private final long maxQueries;
+
+  /**
+   * @param maxQueries how many statements a request may run without a warning
+   */
+  public QueryBudgetFilter(long maxQueries) {
+    this.maxQueries = maxQueries;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long before = QueryCountInspector.count();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      long queries = QueryCountInspector.count() - before;
+      if (queries > maxQueries) {
+        log.warn(
+            "{} {} ran {} SQL statements (budget {}) in {}",
+            request.getMethod(),
+            request.getRequestURI(),
+            queries,
+            maxQueries,
+            HandlerTimingFilter.handlerName(
+                request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)));
+      }
+    }
+  }
+}
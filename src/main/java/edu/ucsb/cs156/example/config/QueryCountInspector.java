@@ -0,0 +1,61 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * The `QueryCountInspector` is a Hibernate {@link StatementInspector} (set up with {@code
+ * hibernate.session_factory.statement_inspector} in {@code application.properties}) that counts the
+ * SQL statements Hibernate prepares on each thread. The {@link QueryBudgetFilter} uses the count to
+ * warn about requests that run too many statements, and tests use it to pin the number of
+ * statements an endpoint runs, so that a lazy association turning one query into N fails the build.
+ *
+ * <p>The count only grows; callers read it before and after the work they measure. Statements run
+ * through a {@code JdbcTemplate} rather than Hibernate are not counted.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+  /** Per thread: how many statements were prepared, and the SQL while recording. */
+  private static final class Tally {
+    private long count;
+    private List<String> recorded;
+  }
+
+  private static final ThreadLocal<Tally> TALLY = ThreadLocal.withInitial(Tally::new);
+
+  @Override
+  public String inspect(String sql) {
+    Tally tally = TALLY.get();
+    tally.count++;
+    if (tally.recorded != null) {
+      tally.recorded.add(sql);
+    }
+    return sql;
+  }
+
+  /**
+   * @return how many statements Hibernate has prepared on this thread
+   */
+  public static long count() {
+    return TALLY.get().count;
+  }
+
+  /** Starts keeping the SQL of the statements prepared on this thread, dropping any kept before. */
+  public static void startRecording() {
+    TALLY.get().recorded = new ArrayList<>();
+  }
+
+  /**
+   * Stops keeping SQL on this thread.
+   *
+   * @return the SQL of the statements prepared on this thread since {@link #startRecording}, in
+   *     order (empty if it was not called)
+   */
+  public static List<String> stopRecording() {
+    Tally tally = TALLY.get();
+    List<String> recorded = tally.recorded != null ? tally.recorded : List.of();
+    tally.recorded = null;
+    return recorded;
+  }
+}
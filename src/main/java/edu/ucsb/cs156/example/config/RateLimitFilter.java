@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.services.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * The `RateLimitFilter` runs in the Spring Security filter chain (see {@link SecurityConfig}),
+ * after the user is known, and turns away requests over the limits of {@link RateLimitService} with
+ * 429 Too Many Requests and a {@code Retry-After} header giving the seconds to wait. Logged-in
+ * users are limited by their name; other requests by their IP address.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private final RateLimitService rateLimitService;
+
+  private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  /**
+   * @param rateLimitService holds the limits and the clients' buckets
+   */
+  public RateLimitFilter(RateLimitService rateLimitService) {
+    this.rateLimitService = rateLimitService;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    boolean user =
+        authentication != null
+            && authentication.isAuthenticated()
+            && !(authentication instanceof AnonymousAuthenticationToken);
+    long waitNanos =
+        rateLimitService.tryAcquire(
+            urlPathHelper.getPathWithinApplication(request),
+            user ? authentication.getName() : request.getRemoteAddr(),
+            user);
+    if (waitNanos == 0) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    tooManyRequests(response, waitNanos);
+  }
+
+  /**
+   * Writes a 429 Too Many Requests response.
+   *
+   * @param response the response to write
+   * @param waitNanos how many nanoseconds until the request would be allowed
+   */
+  static void tooManyRequests(HttpServletResponse response, long waitNanos) throws IOException {
+    long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / 1_000_000_000L);
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response
+        .getWriter()
+        .write(
+            "{\"type\":\"TooManyRequests\",\"message\":\"Too many requests; retry after "
+                + retryAfter
+                + " seconds\"}");
+  }
+}
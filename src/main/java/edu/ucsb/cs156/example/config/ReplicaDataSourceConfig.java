@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+
+/**
+ * The `ReplicaDataSourceConfig` class routes read-only transactions to read replicas. It only takes
+ * effect when {@code app.datasource.replicas.urls} lists at least one JDBC URL; otherwise Spring
+ * Boot's single {@code spring.datasource.*} DataSource is used as before.
+ *
+ * <p>Every Spring Data finder (and so every controller GET) runs in a read-only transaction and is
+ * served by a replica; saves, deletes and anything else in a read-write transaction go to the
+ * primary. See {@link ReplicaRoutingDataSource} for the failover and read-your-writes rules.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+@Slf4j
+public class ReplicaDataSourceConfig {
+
+  @Value("${app.datasource.replicas.urls}")
+  private String[] replicaUrls;
+
+  @Value("${app.datasource.replicas.username:${spring.datasource.username:}}")
+  private String replicaUsername;
+
+  @Value("${app.datasource.replicas.password:${spring.datasource.password:}}")
+  private String replicaPassword;
+
+  @Value("${app.datasource.replicas.stickyMs:5000}")
+  private long stickyMs = 5000;
+
+  private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+  /**
+   * Spring Boot only publishes pool metrics for DataSource beans, so the pools inside the routing
+   * DataSource are given the MeterRegistry themselves; their {@code hikaricp_*} metrics are
+   * labelled {@code pool="primary"} and {@code pool="replica-1"} and so on.
+   *
+   * @param properties the {@code spring.datasource.*} settings, used for the primary
+   * @param meterRegistry where the pools publish their metrics, if anywhere
+   * @return a DataSource that sends read-only transactions to the replicas
+   */
+  @Bean
+  @Primary
+  public ReplicaRoutingDataSource dataSource(
+      DataSourceProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariDataSource primary =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName("primary");
+    meterRegistry.ifAvailable(primary::setMetricRegistry);
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    for (String url : replicaUrls) {
+      if (!StringUtils.hasText(url)) {
+        continue;
+      }
+      HikariDataSource replica = new HikariDataSource();
+      replica.setJdbcUrl(url.trim());
+      replica.setUsername(replicaUsername);
+      replica.setPassword(replicaPassword);
+      replica.setReadOnly(true);
+      replica.setPoolName("replica-" + (replicas.size() + 1));
+      meterRegistry.ifAvailable(replica::setMetricRegistry);
+      replicas.put(url.trim(), replica);
+    }
+    log.info("Routing read-only transactions to {} read replica(s)", replicas.size());
+    replicaRoutingDataSource =
+        new ReplicaRoutingDataSource(
+            primary, replicas, stickyMs, ReplicaDataSourceConfig::currentUserName);
+    return replicaRoutingDataSource;
+  }
+
+  /** Takes unhealthy replicas out of rotation and puts recovered ones back. */
+  @Scheduled(fixedDelayString = "${app.datasource.replicas.healthCheckMs:5000}")
+  public void checkReplicaHealth() {
+    replicaRoutingDataSource.checkHealth();
+  }
+
+  private static String currentUserName() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null
+        || !authentication.isAuthenticated()
+        || authentication instanceof AnonymousAuthenticationToken) {
+      return null;
+    }
+    return authentication.getName();
+  }
+}
@@ -0,0 +1,194 @@
+package edu.ucsb.cs156.example.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The `ReplicaRoutingDataSource` sends read-only transactions to read replicas and everything else
+ * to the primary database.
+ *
+ * <p>It is a {@link LazyConnectionDataSourceProxy}: the physical connection is only fetched when
+ * the first statement runs, by which point the transaction manager has marked the connection
+ * read-only or not. Read-only connections come from the replicas in round-robin order, skipping any
+ * that failed their last health check; if none are healthy they come from the primary.
+ *
+ * <p>Read-your-writes: when a transaction that used the primary commits, the current user (as given
+ * by {@code stickinessKey}) reads from the primary for the next {@code stickyMs} milliseconds, long
+ * enough for the replicas to catch up, so a user never sees their own change disappear.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy
+    implements AutoCloseable {
+
+  /** A replica and whether it passed its last health check. */
+  static final class Replica {
+    final String name;
+    final DataSource dataSource;
+    volatile boolean healthy = true;
+
+    Replica(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+  }
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final long stickyNanos;
+  private final Supplier<String> stickinessKey;
+  private final Map<String, Long> lastWriteByKey = new ConcurrentHashMap<>();
+  private final AtomicInteger next = new AtomicInteger();
+  private final AtomicLong replicaReads = new AtomicLong();
+
+  /**
+   * @param primary the primary (read-write) database
+   * @param replicas the replicas by name, e.g. their JDBC URL
+   * @param stickyMs how long after a write the writer keeps reading from the primary; 0 turns
+   *     read-your-writes off
+   * @param stickinessKey who is asking, e.g. the logged in user; null means nobody in particular
+   */
+  public ReplicaRoutingDataSource(
+      DataSource primary,
+      Map<String, DataSource> replicas,
+      long stickyMs,
+      Supplier<String> stickinessKey) {
+    this.primary = primary;
+    this.replicas =
+        replicas.entrySet().stream().map(e -> new Replica(e.getKey(), e.getValue())).toList();
+    this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMs);
+    this.stickinessKey = stickinessKey;
+    setTargetDataSource(new WriteTrackingDataSource());
+    setReadOnlyDataSource(new ReplicaSelectingDataSource());
+  }
+
+  /**
+   * Probes every replica and updates whether it is used for reads. Called periodically; a replica
+   * that fails a probe is skipped until a later probe succeeds.
+   */
+  public void checkHealth() {
+    for (Replica replica : replicas) {
+      boolean healthy;
+      try (Connection connection = replica.dataSource.getConnection()) {
+        healthy = connection.isValid(2);
+      } catch (SQLException e) {
+        healthy = false;
+      }
+      if (healthy != replica.healthy) {
+        log.warn("Read replica {} is now {}", replica.name, healthy ? "healthy" : "unhealthy");
+      }
+      replica.healthy = healthy;
+    }
+    long now = System.nanoTime();
+    lastWriteByKey.values().removeIf(wroteAt -> now - wroteAt >= stickyNanos);
+  }
+
+  /**
+   * @return the number of replicas currently used for reads
+   */
+  public int healthyReplicas() {
+    return (int) replicas.stream().filter(r -> r.healthy).count();
+  }
+
+  /**
+   * @return how many read-only transactions have been served by a replica so far
+   */
+  public long replicaReads() {
+    return replicaReads.get();
+  }
+
+  /** Closes the primary and replica pools. */
+  @Override
+  public void close() throws Exception {
+    for (Replica replica : replicas) {
+      if (replica.dataSource instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+    if (primary instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  private boolean recentlyWrote(String key) {
+    if (key == null) {
+      return false;
+    }
+    Long wroteAt = lastWriteByKey.get(key);
+    return wroteAt != null && System.nanoTime() - wroteAt < stickyNanos;
+  }
+
+  private void recordWrite(String key) {
+    lastWriteByKey.put(key, System.nanoTime());
+  }
+
+  /**
+   * The primary, remembering who committed a transaction on it so their next reads can stick to it.
+   * Connections taken outside a transaction (such as the proxy's own probe for connection defaults)
+   * are not counted as writes.
+   */
+  private final class WriteTrackingDataSource extends DelegatingDataSource {
+    WriteTrackingDataSource() {
+      super(primary);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      String key = stickyNanos > 0 ? stickinessKey.get() : null;
+      if (key != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+              @Override
+              public void afterCommit() {
+                recordWrite(key);
+              }
+            });
+      }
+      return super.getConnection();
+    }
+  }
+
+  /** A healthy replica, or the primary when there is none or the caller just wrote. */
+  private final class ReplicaSelectingDataSource extends AbstractDataSource {
+    @Override
+    public Connection getConnection() throws SQLException {
+      if (!recentlyWrote(stickinessKey.get())) {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+          Replica replica = replicas.get((start + i) % replicas.size());
+          if (!replica.healthy) {
+            continue;
+          }
+          try {
+            Connection connection = replica.dataSource.getConnection();
+            replicaReads.incrementAndGet();
+            return connection;
+          } catch (SQLException e) {
+            replica.healthy = false;
+            log.warn("Read replica {} failed, reading from the primary instead", replica.name, e);
+          }
+        }
+      }
+      return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      throw new SQLFeatureNotSupportedException("connections use the configured credentials");
+    }
+  }
+}
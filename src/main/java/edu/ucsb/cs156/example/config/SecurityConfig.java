@@ -2,36 +2,40 @@ package edu.ucsb.cs156.example.config;
 
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
-import edu.ucsb.cs156.example.entities.User;
-import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AdminRoleService;
+import edu.ucsb.cs156.example.services.ApiTokenService;
+import edu.ucsb.cs156.example.services.RateLimitService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
 import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
 import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
@@ -39,6 +43,7 @@ import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.security.web.csrf.CsrfTokenRequestHandler;
 import org.springframework.security.web.csrf.XorCsrfTokenRequestAttributeHandler;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -53,15 +58,47 @@ import org.springframework.web.filter.OncePerRequestFilter;
 @Slf4j
 public class SecurityConfig {
 
-  @Value("${app.admin.emails}")
-  private final List<String> adminEmails = new ArrayList<>();
+  @Autowired AdminRoleService adminRoleService;
 
-  @Autowired UserRepository userRepository;
+  @Autowired RateLimitService rateLimitService;
+
+  /** Looked up when the first token is checked, so the web layer tests need not provide it. */
+  @Autowired ObjectProvider<ApiTokenService> apiTokenService;
+
+  /**
+   * The `apiTokenFilterChain` handles API calls that carry an {@code Authorization: Bearer} header,
+   * i.e. scripts and load generators using an API token (see {@link ApiTokenService}) rather than a
+   * browser session. It is stateless: the token is checked on every request (against an in-memory
+   * cache, or after an IP rate limit check if it is not cached) by {@link ApiTokenFilter}, no
+   * session is read or created, and there is no CSRF check, since a browser never adds an
+   * Authorization header to a cross-site request by itself. All other requests go to {@link
+   * #filterChain}.
+   *
+   * @param http injected HttpSecurity object (injected by Spring framework)
+   */
+  @Bean
+  @Order(1)
+  public SecurityFilterChain apiTokenFilterChain(HttpSecurity http) throws Exception {
+    http.securityMatcher(
+            new AndRequestMatcher(antMatcher("/api/**"), ApiTokenFilter::hasBearerToken))
+        .sessionManagement(
+            session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+        .csrf(csrf -> csrf.disable())
+        .requestCache(cache -> cache.disable())
+        .exceptionHandling(
+            handling -> handling.authenticationEntryPoint(new Http403ForbiddenEntryPoint()))
+        .addFilterBefore(
+            new ApiTokenFilter(apiTokenService, this::rolesForEmail, rateLimitService),
+            AnonymousAuthenticationFilter.class)
+        .addFilterAfter(new RateLimitFilter(rateLimitService), AnonymousAuthenticationFilter.class)
+        .authorizeHttpRequests(auth -> auth.anyRequest().authenticated());
+    return http.build();
+  }
 
   /**
    * The `filterChain` method in this Java code configures various security settings for an HTTP
-   * request, including authorization, exception handling, OAuth2 login, CSRF protection, and logout
-   * behavior.
+   * request, including authorization, exception handling, OAuth2 login, CSRF protection, rate
+   * limiting (see {@link RateLimitFilter}), and logout behavior.
    *
    * @param http injected HttpSecurity object (injected by Spring framework) //
    */
@@ -79,7 +116,13 @@ public class SecurityConfig {
                 csrf.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
                     .csrfTokenRequestHandler(new SpaCsrfTokenRequestHandler()))
         .addFilterAfter(new CsrfCookieFilter(), BasicAuthenticationFilter.class)
-        .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+        .addFilterAfter(new RateLimitFilter(rateLimitService), AnonymousAuthenticationFilter.class)
+        .authorizeHttpRequests(
+            auth ->
+                auth.requestMatchers(antMatcher("/actuator/**"))
+                    .hasRole("ADMIN")
+                    .anyRequest()
+                    .permitAll())
         .logout(
             logout ->
                 logout
@@ -100,46 +143,51 @@ public class SecurityConfig {
   private GrantedAuthoritiesMapper userAuthoritiesMapper() {
     return (authorities) -> {
       Set<GrantedAuthority> mappedAuthorities = new HashSet<>();
-      log.info("********** authorities={}", authorities);
+      log.debug("authorities={}", authorities);
 
       authorities.forEach(
           authority -> {
-            log.info("********** authority={}", authority);
             mappedAuthorities.add(authority);
             if (authority instanceof OAuth2UserAuthority oauth2UserAuthority) {
               Map<String, Object> userAttributes = oauth2UserAuthority.getAttributes();
-              log.info("********** userAttributes={}", userAttributes);
-
-              mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+              log.debug("userAttributes={}", userAttributes);
 
-              String email = (String) userAttributes.get("email");
-              if (getAdmin(email)) {
-                mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
-              }
-
-              if (email.endsWith("@ucsb.edu")) {
-                mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_MEMBER"));
-              }
+              mappedAuthorities.addAll(rolesForEmail((String) userAttributes.get("email")));
             }
           });
-      log.info("********** mappedAuthorities={}", mappedAuthorities);
+      log.debug("mappedAuthorities={}", mappedAuthorities);
       return mappedAuthorities;
     };
   }
 
+  /**
+   * The roles of a logged-in user: ROLE_USER, ROLE_ADMIN for admins (see {@link #getAdmin}), and
+   * ROLE_MEMBER for UCSB email addresses.
+   *
+   * @param email email address of the user
+   * @return the user's roles
+   */
+  public Collection<GrantedAuthority> rolesForEmail(String email) {
+    List<GrantedAuthority> roles = new ArrayList<>();
+    roles.add(new SimpleGrantedAuthority("ROLE_USER"));
+    if (getAdmin(email)) {
+      roles.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    }
+    if (email.endsWith("@ucsb.edu")) {
+      roles.add(new SimpleGrantedAuthority("ROLE_MEMBER"));
+    }
+    return roles;
+  }
+
   /**
    * This method checks if the given email belongs to an admin user either from a predefined list or
-   * by querying the user repository.
+   * from the stored user; see {@link AdminRoleService#isAdmin(String)}.
    *
    * @param email email address of the user
    * @return whether the user with the given email is an admin
    */
   public boolean getAdmin(String email) {
-    if (adminEmails.contains(email)) {
-      return true;
-    }
-    Optional<User> u = userRepository.findByEmail(email);
-    return u.isPresent() && u.get().getAdmin();
+    return adminRoleService.isAdmin(email);
   }
 
   @Bean
@@ -0,0 +1,202 @@
+package edu.ucsb.cs156.example.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * The `SessionAttributeSerializer` turns session attributes into the bytes stored in {@code
+ * SPRING_SESSION_ATTRIBUTES} and back.
+ *
+ * <p>The attribute written on every logged-in request is the security context of an OAuth2 login.
+ * Java serialization of it repeats class descriptors for a dozen classes and the user's attributes
+ * twice (in the principal and in its {@code OAuth2UserAuthority}). It is instead written as what it
+ * is made of (the client registration, the user's attributes, the authority names and the login
+ * details) in Smile, a binary JSON, and rebuilt from that when read. Anything else, including
+ * logins whose principal or attributes are not the plain kinds written by Google's user info
+ * endpoint, is Java-serialized. Reading tells the two apart by Smile's header, so sessions written
+ * before this change still load.
+ */
+public class SessionAttributeSerializer {
+
+  private static final TypeReference<Map<String, Object>> LOGIN_TYPE = new TypeReference<>() {};
+
+  private final ObjectMapper smile;
+  private final SerializingConverter javaSerializer = new SerializingConverter();
+  private final DeserializingConverter javaDeserializer;
+
+  /**
+   * @param classLoader the class loader used to read Java-serialized attributes
+   */
+  public SessionAttributeSerializer(ClassLoader classLoader) {
+    SmileFactory factory = new SmileFactory();
+    factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+    smile = new ObjectMapper(factory);
+    javaDeserializer = new DeserializingConverter(classLoader);
+  }
+
+  /**
+   * @param value a session attribute
+   * @return the bytes to store
+   */
+  public byte[] serialize(Object value) {
+    Map<String, Object> login = compactLogin(value);
+    if (login == null) {
+      return javaSerializer.convert(value);
+    }
+    try {
+      return smile.writeValueAsBytes(login);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @param bytes bytes written by {@link #serialize(Object)}
+   * @return the session attribute
+   */
+  public Object deserialize(byte[] bytes) {
+    if (!isSmile(bytes)) {
+      return javaDeserializer.convert(bytes);
+    }
+    try {
+      return readLogin(smile.readValue(bytes, LOGIN_TYPE));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static boolean isSmile(byte[] bytes) {
+    return bytes.length >= 3
+        && bytes[0] == SmileConstants.HEADER_BYTE_1
+        && bytes[1] == SmileConstants.HEADER_BYTE_2
+        && bytes[2] == SmileConstants.HEADER_BYTE_3;
+  }
+
+  /**
+   * @return the parts of an OAuth2 login, or null if value is anything else
+   */
+  static Map<String, Object> compactLogin(Object value) {
+    if (value == null
+        || value.getClass() != SecurityContextImpl.class
+        || !(((SecurityContextImpl) value).getAuthentication()
+            instanceof OAuth2AuthenticationToken token)
+        || token.getClass() != OAuth2AuthenticationToken.class
+        || token.getPrincipal().getClass() != DefaultOAuth2User.class) {
+      return null;
+    }
+    DefaultOAuth2User user = (DefaultOAuth2User) token.getPrincipal();
+    Map<String, Object> attributes = user.getAttributes();
+    if (!attributes.values().stream().allMatch(v -> v instanceof String || v instanceof Boolean)) {
+      return null;
+    }
+    String nameKey = nameKey(user);
+    List<Object> authorities = authorityNames(token.getAuthorities(), attributes);
+    List<Object> userAuthorities = authorityNames(user.getAuthorities(), attributes);
+    if (nameKey == null || authorities == null || userAuthorities == null) {
+      return null;
+    }
+    Map<String, Object> login = new LinkedHashMap<>();
+    login.put("registration", token.getAuthorizedClientRegistrationId());
+    login.put("nameKey", nameKey);
+    login.put("attributes", attributes);
+    login.put("authorities", authorities);
+    login.put("userAuthorities", userAuthorities);
+    if (token.getDetails() instanceof WebAuthenticationDetails details
+        && details.getClass() == WebAuthenticationDetails.class) {
+      login.put("details", List.of(details.getRemoteAddress(), details.getSessionId()));
+    } else if (token.getDetails() != null) {
+      return null;
+    }
+    return login;
+  }
+
+  /** The attribute that {@link DefaultOAuth2User#getName()} reads. */
+  private static String nameKey(DefaultOAuth2User user) {
+    for (Map.Entry<String, Object> attribute : user.getAttributes().entrySet()) {
+      if (attribute.getValue().toString().equals(user.getName())) {
+        return attribute.getKey();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Authorities in order; a name for a SimpleGrantedAuthority, {@code {authority, nameKey}} for an
+   * OAuth2UserAuthority holding the user's attributes, or null if there is any other kind.
+   */
+  private static List<Object> authorityNames(
+      Collection<? extends GrantedAuthority> authorities, Map<String, Object> attributes) {
+    List<Object> names = new ArrayList<>();
+    for (GrantedAuthority authority : authorities) {
+      if (authority.getClass() == SimpleGrantedAuthority.class) {
+        names.add(authority.getAuthority());
+      } else if (authority.getClass() == OAuth2UserAuthority.class
+          && ((OAuth2UserAuthority) authority).getAttributes().equals(attributes)) {
+        Map<String, Object> userAuthority = new LinkedHashMap<>();
+        userAuthority.put("authority", authority.getAuthority());
+        userAuthority.put("nameKey", ((OAuth2UserAuthority) authority).getUserNameAttributeName());
+        names.add(userAuthority);
+      } else {
+        return null;
+      }
+    }
+    return names;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static SecurityContextImpl readLogin(Map<String, Object> login) {
+    Map<String, Object> attributes = (Map<String, Object>) login.get("attributes");
+    DefaultOAuth2User user =
+        new DefaultOAuth2User(
+            authorities((List<Object>) login.get("userAuthorities"), attributes),
+            attributes,
+            (String) login.get("nameKey"));
+    OAuth2AuthenticationToken token =
+        new OAuth2AuthenticationToken(
+            user,
+            authorities((List<Object>) login.get("authorities"), attributes),
+            (String) login.get("registration"));
+    List<String> details = (List<String>) login.get("details");
+    if (details != null) {
+      token.setDetails(new WebAuthenticationDetails(details.get(0), details.get(1)));
+    }
+    return new SecurityContextImpl(token);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<GrantedAuthority> authorities(
+      List<Object> names, Map<String, Object> attributes) {
+    List<GrantedAuthority> authorities = new ArrayList<>();
+    for (Object name : names) {
+      if (name instanceof Map<?, ?> userAuthority) {
+        authorities.add(
+            new OAuth2UserAuthority(
+                (String) userAuthority.get("authority"),
+                attributes,
+                (String) userAuthority.get("nameKey")));
+      } else {
+        authorities.add(new SimpleGrantedAuthority((String) name));
+      }
+    }
+    return authorities;
+  }
+}
@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+
+/**
+ * The `SessionConfig` class sets how HTTP sessions are stored.
+ *
+ * <p>Sessions (and with them the OAuth2 login state and security context) are kept in the {@code
+ * SPRING_SESSION} tables through Spring Session JDBC, which Spring Boot sets up from the {@code
+ * spring.session.*} properties. Any instance of the app can therefore serve any request, and a
+ * restart does not log anyone out. The tables are created by Liquibase; expired sessions are
+ * deleted on the {@code spring.session.jdbc.cleanup-cron} schedule. See docs/sessions.md.
+ */
+@Configuration
+public class SessionConfig implements BeanClassLoaderAware {
+
+  private ClassLoader classLoader;
+
+  @Override
+  public void setBeanClassLoader(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Picked up by name by Spring Session JDBC to turn session attributes into bytes and back.
+   *
+   * @return converters backed by a {@link SessionAttributeSerializer}
+   */
+  @Bean
+  public ConversionService springSessionConversionService() {
+    SessionAttributeSerializer serializer = new SessionAttributeSerializer(classLoader);
+    GenericConversionService conversionService = new GenericConversionService();
+    conversionService.addConverter(Object.class, byte[].class, serializer::serialize);
+    conversionService.addConverter(byte[].class, Object.class, serializer::deserialize);
+    return conversionService;
+  }
+}
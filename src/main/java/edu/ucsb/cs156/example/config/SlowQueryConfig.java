@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.services.SlowQueryService;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * The `SlowQueryConfig` class wraps the app's DataSource in a <a
+ * href="https://jdbc-observations.github.io/datasource-proxy/">datasource-proxy</a>, so that every
+ * SQL statement, whether run by Hibernate, a {@code JdbcTemplate}, Spring Session or Liquibase, is
+ * timed by the {@link SlowQueryService}. See docs/metrics.md.
+ */
+@Configuration
+public class SlowQueryConfig {
+
+  /**
+   * Wraps each DataSource bean (Spring Boot's, or the one from {@link ReplicaDataSourceConfig}).
+   * The service is looked up on the first statement, since the DataSource is needed before it can
+   * be created. The proxy unwraps to what it wraps (e.g. {@code
+   * dataSource.unwrap(ReplicaRoutingDataSource.class)}), so the pool metrics still find the pools.
+   *
+   * @param slowQueryService the service that times statements
+   * @return a post processor that wraps DataSources
+   */
+  @Bean
+  public static BeanPostProcessor slowQueryDataSourceProxy(
+      ObjectProvider<SlowQueryService> slowQueryService) {
+    SingletonSupplier<SlowQueryService> service = SingletonSupplier.of(slowQueryService::getObject);
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+          return bean;
+        }
+        return ProxyDataSourceBuilder.create(beanName, dataSource)
+            .afterQuery((execution, queries) -> service.obtain().afterQuery(execution, queries))
+            .build();
+      }
+    };
+  }
+}
@@ -0,0 +1,91 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.entities.ApiToken;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.IssuedApiToken;
+import edu.ucsb.cs156.example.repositories.ApiTokenRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ApiTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for issuing and revoking API tokens, which scripts and load generators
+ * send as {@code Authorization: Bearer <token>} to call the API as a user without a browser
+ * session. See docs/api-tokens.md.
+ *
+ * <p>These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ */
+@Tag(name = "API tokens (admin only)")
+@RequestMapping("/api/admin/tokens")
+@RestController
+public class ApiTokensController extends ApiController {
+
+  @Autowired ApiTokenRepository apiTokenRepository;
+
+  @Autowired UserRepository userRepository;
+
+  @Autowired ApiTokenService apiTokenService;
+
+  /**
+   * This method lists all API tokens (without the tokens themselves, which are not stored).
+   *
+   * @return all API tokens, with their users
+   */
+  @Operation(summary = "List all API tokens")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/all")
+  public List<ApiToken> allTokens() {
+    return apiTokenRepository.findAllByOrderByIdAsc();
+  }
+
+  /**
+   * This method issues a new API token that acts as an existing user. The token is in the response
+   * and cannot be retrieved again.
+   *
+   * @param email email address of the user the token acts as
+   * @param name what the token is for
+   * @return the new token
+   */
+  @Operation(summary = "Issue a new API token for a user")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/post")
+  public IssuedApiToken postToken(
+      @Parameter(name = "email") @RequestParam String email,
+      @Parameter(name = "name") @RequestParam String name) {
+    User user =
+        userRepository
+            .findByEmail(email)
+            .orElseThrow(() -> new EntityNotFoundException(User.class, email));
+    return apiTokenService.issue(user, name);
+  }
+
+  /**
+   * This method revokes an API token.
+   *
+   * @param id id of the token to revoke
+   * @return a message indicating that the token was revoked
+   */
+  @Operation(summary = "Revoke an API token")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @DeleteMapping("")
+  public Object deleteToken(@Parameter(name = "id") @RequestParam Long id) {
+    ApiToken apiToken =
+        apiTokenRepository
+            .findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(ApiToken.class, id));
+    apiTokenService.revoke(apiToken);
+    return genericMessage("ApiToken with id %s deleted".formatted(id));
+  }
+}
@@ -3,7 +3,9 @@ package edu.ucsb.cs156.example.controllers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import edu.ucsb.cs156.example.entities.Article;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ArticleView;
 import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.services.ArticleSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,7 +13,10 @@ import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +26,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /** This is a REST controller for Articles */
 @Tag(name = "Articles")
@@ -31,6 +37,8 @@ public class ArticlesController extends ApiController {
 
   @Autowired ArticlesRepository articlesRepository;
 
+  @Autowired ArticleSearchService articleSearchService;
+
   /**
    * List all Articles
    *
@@ -39,11 +47,33 @@ public class ArticlesController extends ApiController {
   @Operation(summary = "List all articles")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<Article> allArticles() {
-    Iterable<Article> articles = articlesRepository.findAll();
+  public Iterable<ArticleView> allArticles() {
+    Iterable<ArticleView> articles = articlesRepository.findAllViewsBy();
     return articles;
   }
 
+  /**
+   * Search articles by keywords in their title, url and explanation
+   *
+   * @param q the search terms
+   * @param page zero-based page number
+   * @param pageSize number of articles per page (1 to 500)
+   * @return a page of matching articles, best match first
+   */
+  @Operation(summary = "Search articles by keyword (ranked, paged)")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/search")
+  public Page<Article> searchArticles(
+      @Parameter(name = "q") @RequestParam String q,
+      @Parameter(name = "page") @RequestParam(defaultValue = "0") int page,
+      @Parameter(name = "pageSize") @RequestParam(defaultValue = "20") int pageSize) {
+    if (page < 0) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must not be negative");
+    }
+    return articleSearchService.search(
+        q, PageRequest.of(page, Math.max(1, Math.min(pageSize, 500))));
+  }
+
   /**
    * Get a single article by id
    *
@@ -53,10 +83,10 @@ public class ArticlesController extends ApiController {
   @Operation(summary = "Get a single article")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public Article getById(@Parameter(name = "id") @RequestParam Long id) {
-    Article article =
+  public ArticleView getById(@Parameter(name = "id") @RequestParam Long id) {
+    ArticleView article =
         articlesRepository
-            .findById(id)
+            .findViewById(id)
             .orElseThrow(() -> new EntityNotFoundException(Article.class, id));
 
     return article;
@@ -94,6 +124,7 @@ public class ArticlesController extends ApiController {
     article.setDateAdded(dateAdded);
 
     Article savedArticle = articlesRepository.save(article);
+    articleSearchService.index(savedArticle);
 
     return savedArticle;
   }
@@ -114,6 +145,7 @@ public class ArticlesController extends ApiController {
             .orElseThrow(() -> new EntityNotFoundException(Article.class, id));
 
     articlesRepository.delete(article);
+    articleSearchService.remove(id);
     return genericMessage("Article with id %s deleted".formatted(id));
   }
 
@@ -142,6 +174,7 @@ public class ArticlesController extends ApiController {
     article.setDateAdded(incoming.getDateAdded());
 
     articlesRepository.save(article);
+    articleSearchService.index(article);
 
     return article;
   }
@@ -3,7 +3,9 @@ package edu.ucsb.cs156.example.controllers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import edu.ucsb.cs156.example.entities.HelpRequest;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.HelpRequestView;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.services.HelpRequestQueueBroadcaster;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +14,7 @@ import java.time.LocalDateTime;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +24,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /** This is a REST controller for HelpRequest */
 @Tag(name = "HelpRequest")
@@ -31,6 +35,8 @@ public class HelpRequestController extends ApiController {
 
   @Autowired HelpRequestRepository helpRequestRepository;
 
+  @Autowired HelpRequestQueueBroadcaster helpRequestQueueBroadcaster;
+
   /**
    * List all help requests
    *
@@ -39,11 +45,26 @@ public class HelpRequestController extends ApiController {
   @Operation(summary = "List all help requests")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<HelpRequest> allHelpRequests() {
-    Iterable<HelpRequest> helpRequests = helpRequestRepository.findAll();
+  public Iterable<HelpRequestView> allHelpRequests() {
+    Iterable<HelpRequestView> helpRequests = helpRequestRepository.findAllViewsBy();
     return helpRequests;
   }
 
+  /**
+   * Stream the queue of unsolved help requests as server-sent events. The first event, named
+   * "snapshot", holds the open requests ordered by requestTime; after that "upsert" carries a
+   * created or edited open request and "remove" carries the id of a request that was solved or
+   * deleted.
+   *
+   * @return the event stream
+   */
+  @Operation(summary = "Stream the queue of unsolved help requests")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping(value = "/queue/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamOpenQueue() {
+    return helpRequestQueueBroadcaster.subscribe();
+  }
+
   /**
    * Get a single date by id
    *
@@ -53,10 +74,10 @@ public class HelpRequestController extends ApiController {
   @Operation(summary = "Get a single request")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public HelpRequest getById(@Parameter(name = "id") @RequestParam Long id) {
-    HelpRequest helpRequest =
+  public HelpRequestView getById(@Parameter(name = "id") @RequestParam Long id) {
+    HelpRequestView helpRequest =
         helpRequestRepository
-            .findById(id)
+            .findViewById(id)
             .orElseThrow(() -> new EntityNotFoundException(HelpRequest.class, id));
 
     return helpRequest;
@@ -105,6 +126,7 @@ public class HelpRequestController extends ApiController {
     helpRequest.setSolved(solved);
 
     HelpRequest savedHelpRequest = helpRequestRepository.save(helpRequest);
+    helpRequestQueueBroadcaster.requestSaved(savedHelpRequest);
 
     return savedHelpRequest;
   }
@@ -125,6 +147,7 @@ public class HelpRequestController extends ApiController {
             .orElseThrow(() -> new EntityNotFoundException(HelpRequest.class, id));
 
     helpRequestRepository.delete(helpRequest);
+    helpRequestQueueBroadcaster.requestDeleted(id);
     return genericMessage("HelpRequest with id %s deleted".formatted(id));
   }
 
@@ -154,6 +177,7 @@ public class HelpRequestController extends ApiController {
     helpRequest.setSolved(incoming.getSolved());
 
     helpRequestRepository.save(helpRequest);
+    helpRequestQueueBroadcaster.requestSaved(helpRequest);
 
     return helpRequest;
   }
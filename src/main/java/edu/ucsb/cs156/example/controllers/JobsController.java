@@ -4,8 +4,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.entities.Job;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.jobs.RebuildArticleSearchIndexJob;
+import edu.ucsb.cs156.example.jobs.RebuildMenuItemRatingStatsJob;
 import edu.ucsb.cs156.example.jobs.TestJob;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.ArticleSearchService;
+import edu.ucsb.cs156.example.services.MenuItemRatingStatsService;
 import edu.ucsb.cs156.example.services.jobs.JobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,6 +37,10 @@ public class JobsController extends ApiController {
 
   @Autowired ObjectMapper mapper;
 
+  @Autowired MenuItemRatingStatsService menuItemRatingStatsService;
+
+  @Autowired ArticleSearchService articleSearchService;
+
   @Operation(summary = "List all jobs")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/all")
@@ -84,6 +92,26 @@ public class JobsController extends ApiController {
     return jobService.runAsJob(testJob);
   }
 
+  @Operation(summary = "Launch job to rebuild menu item rating stats from all reviews")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/launch/rebuildMenuItemRatingStats")
+  public Job launchRebuildMenuItemRatingStatsJob() {
+    RebuildMenuItemRatingStatsJob job =
+        RebuildMenuItemRatingStatsJob.builder()
+            .menuItemRatingStatsService(menuItemRatingStatsService)
+            .build();
+    return jobService.runAsJob(job);
+  }
+
+  @Operation(summary = "Launch job to rebuild the article search index")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/launch/rebuildArticleSearchIndex")
+  public Job launchRebuildArticleSearchIndexJob() {
+    RebuildArticleSearchIndexJob job =
+        RebuildArticleSearchIndexJob.builder().articleSearchService(articleSearchService).build();
+    return jobService.runAsJob(job);
+  }
+
   @Operation(summary = "Get long job logs")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/logs/{id}")
@@ -1,18 +1,30 @@
 package edu.ucsb.cs156.example.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import edu.ucsb.cs156.example.entities.MenuItemRatingStats;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.MenuItemLeaderboardEntry;
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewSpecifications;
+import edu.ucsb.cs156.example.services.MenuItemLeaderboardService;
+import edu.ucsb.cs156.example.services.MenuItemRatingStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,6 +33,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @Tag(name = "MenuItemReview")
 @RequestMapping("/api/menuitemreview")
@@ -30,17 +43,103 @@ public class MenuItemReviewController extends ApiController {
 
   @Autowired MenuItemReviewRepository menuItemReviewRepository;
 
+  @Autowired MenuItemRatingStatsService menuItemRatingStatsService;
+
+  @Autowired MenuItemLeaderboardService menuItemLeaderboardService;
+
   @Operation(summary = "List all menu item reviews")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<MenuItemReview> allMenuItemReviews() {
-    Iterable<MenuItemReview> reviews = menuItemReviewRepository.findAll();
+  public Iterable<MenuItemReviewView> allMenuItemReviews() {
+    Iterable<MenuItemReviewView> reviews = menuItemReviewRepository.findAllViewsBy();
     return reviews;
   }
 
+  /**
+   * Search menu item reviews, optionally filtered by item, reviewer, star range and review date
+   * range. Results are paged and ordered by most recent review first.
+   *
+   * @param itemId only return reviews of this menu item
+   * @param reviewerEmail only return reviews by this reviewer
+   * @param minStars only return reviews with at least this many stars
+   * @param maxStars only return reviews with at most this many stars
+   * @param reviewedFrom only return reviews on or after this date
+   * @param reviewedTo only return reviews on or before this date
+   * @param page zero-based page number
+   * @param pageSize number of reviews per page (1 to 500)
+   * @return a page of matching menu item reviews
+   */
+  @Operation(summary = "Search menu item reviews (paged)")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/search")
+  public Page<MenuItemReview> searchMenuItemReviews(
+      @Parameter(name = "itemId") @RequestParam(required = false) Long itemId,
+      @Parameter(name = "reviewerEmail") @RequestParam(required = false) String reviewerEmail,
+      @Parameter(name = "minStars") @RequestParam(required = false) Integer minStars,
+      @Parameter(name = "maxStars") @RequestParam(required = false) Integer maxStars,
+      @Parameter(name = "reviewedFrom", description = "ISO datetime e.g. 2025-10-01T00:00:00")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime reviewedFrom,
+      @Parameter(name = "reviewedTo", description = "ISO datetime e.g. 2025-10-31T23:59:59")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime reviewedTo,
+      @Parameter(name = "page") @RequestParam(defaultValue = "0") int page,
+      @Parameter(name = "pageSize") @RequestParam(defaultValue = "20") int pageSize) {
+    if (page < 0) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must not be negative");
+    }
+    PageRequest pageRequest =
+        PageRequest.of(
+            page,
+            Math.max(1, Math.min(pageSize, 500)),
+            Sort.by(Sort.Direction.DESC, "dateReviewed", "id"));
+    return menuItemReviewRepository.findAll(
+        MenuItemReviewSpecifications.search(
+            itemId, reviewerEmail, minStars, maxStars, reviewedFrom, reviewedTo),
+        pageRequest);
+  }
+
+  /**
+   * Get the rating aggregates (count, sum, average, star histogram and last review time) for one or
+   * more menu items. Items that have no reviews are returned with zeroed stats.
+   *
+   * @param itemIds ids of the menu items
+   * @return stats for each requested item, in request order
+   */
+  @Operation(summary = "Get rating stats for one or more menu items")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/stats")
+  public List<MenuItemRatingStats> ratingStats(
+      @Parameter(name = "itemIds", description = "comma separated list of menu item ids")
+          @RequestParam
+          List<Long> itemIds) {
+    return menuItemRatingStatsService.getStats(itemIds);
+  }
+
+  /**
+   * Get the best rated menu items right now, ranked by a time-decayed Bayesian average of their
+   * reviews. Served from memory.
+   *
+   * @param k number of items to return
+   * @param diningCommonsCode only rank items served at this dining commons (optional)
+   * @return up to k leaderboard entries, best first
+   */
+  @Operation(summary = "Get the top rated menu items right now")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/top")
+  public List<MenuItemLeaderboardEntry> topMenuItems(
+      @Parameter(name = "k") @RequestParam(defaultValue = "10") int k,
+      @Parameter(name = "diningCommonsCode") @RequestParam(required = false)
+          String diningCommonsCode) {
+    return menuItemLeaderboardService.top(k, diningCommonsCode);
+  }
+
   @Operation(summary = "Create a new MenuItemReview")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @PostMapping("/post")
+  @Transactional
   public MenuItemReview postMenuItemReview(
 
       /*
@@ -76,6 +175,8 @@ public class MenuItemReviewController extends ApiController {
 
     // log.info("dateReviewed={}", dateReviewed);
 
+    checkStars(stars);
+
     MenuItemReview menuitemreview = new MenuItemReview();
     menuitemreview.setItemId(itemId);
     menuitemreview.setReviewerEmail(reviewerEmail);
@@ -84,6 +185,8 @@ public class MenuItemReviewController extends ApiController {
     menuitemreview.setDateReviewed(dateReviewed);
 
     MenuItemReview savedMenuItemReview = menuItemReviewRepository.save(menuitemreview);
+    menuItemRatingStatsService.reviewAdded(savedMenuItemReview);
+    menuItemLeaderboardService.reviewAdded(savedMenuItemReview);
 
     return savedMenuItemReview;
   }
@@ -91,10 +194,10 @@ public class MenuItemReviewController extends ApiController {
   @Operation(summary = "Get a single menu item review")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public MenuItemReview getById(@Parameter(name = "id") @RequestParam Long id) {
-    MenuItemReview menuItemReview1 =
+  public MenuItemReviewView getById(@Parameter(name = "id") @RequestParam Long id) {
+    MenuItemReviewView menuItemReview1 =
         menuItemReviewRepository
-            .findById(id)
+            .findViewById(id)
             .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
 
     return menuItemReview1;
@@ -110,22 +213,23 @@ public class MenuItemReviewController extends ApiController {
   @Operation(summary = "Update a single menu item review")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @PutMapping("")
+  @Transactional
   public MenuItemReview updateMenuItemReview(
       @Parameter(name = "id") @RequestParam Long id, @RequestBody @Valid MenuItemReview incoming) {
+    checkStars(incoming.getStars());
 
     MenuItemReview menuItemReview1 =
         menuItemReviewRepository
             .findById(id)
             .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
 
-    /*
-
-      private long itemId;
-      private String reviewerEmail;
-      private int stars;
-      private LocalDateTime dateReviewed;
-      private String comments;
-    */
+    MenuItemReview before =
+        MenuItemReview.builder()
+            .id(menuItemReview1.getId())
+            .itemId(menuItemReview1.getItemId())
+            .stars(menuItemReview1.getStars())
+            .dateReviewed(menuItemReview1.getDateReviewed())
+            .build();
 
     menuItemReview1.setItemId(incoming.getItemId());
     menuItemReview1.setReviewerEmail(incoming.getReviewerEmail());
@@ -134,6 +238,8 @@ public class MenuItemReviewController extends ApiController {
     menuItemReview1.setDateReviewed(incoming.getDateReviewed());
 
     menuItemReviewRepository.save(menuItemReview1);
+    menuItemRatingStatsService.reviewUpdated(before, menuItemReview1);
+    menuItemLeaderboardService.reviewUpdated(before, menuItemReview1);
 
     return menuItemReview1;
   }
@@ -147,6 +253,7 @@ public class MenuItemReviewController extends ApiController {
   @Operation(summary = "Delete a MenuItemReview")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @DeleteMapping("")
+  @Transactional
   public Object deleteMenuItemReview(@Parameter(name = "id") @RequestParam Long id) {
     MenuItemReview menuItemReview1 =
         menuItemReviewRepository
@@ -154,6 +261,15 @@ public class MenuItemReviewController extends ApiController {
             .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
 
     menuItemReviewRepository.delete(menuItemReview1);
+    menuItemRatingStatsService.reviewRemoved(menuItemReview1);
+    menuItemLeaderboardService.reviewRemoved(menuItemReview1);
     return genericMessage("MenuItemReview with id %s deleted".formatted(id));
   }
+
+  /** Rejects stars outside 1 to 5, which the rating stats have no histogram bucket for. */
+  private static void checkStars(int stars) {
+    if (stars < 1 || stars > 5) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "stars must be between 1 and 5");
+    }
+  }
 }
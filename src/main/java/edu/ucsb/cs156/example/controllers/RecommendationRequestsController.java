@@ -3,12 +3,16 @@ package edu.ucsb.cs156.example.controllers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import edu.ucsb.cs156.example.entities.RecommendationRequest;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.RecommendationRequestSearchResult;
+import edu.ucsb.cs156.example.models.RecommendationRequestView;
 import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+import edu.ucsb.cs156.example.repositories.RecommendationRequestSpecifications;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -39,12 +43,77 @@ public class RecommendationRequestsController extends ApiController {
   @Operation(summary = "List all recommendation requests")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<RecommendationRequest> allRecommendationRequests() {
-    Iterable<RecommendationRequest> recommendationRequests =
-        recommendationRequestRepository.findAll();
+  public Iterable<RecommendationRequestView> allRecommendationRequests() {
+    Iterable<RecommendationRequestView> recommendationRequests =
+        recommendationRequestRepository.findAllViewsBy();
     return recommendationRequests;
   }
 
+  /**
+   * Search recommendation requests, soonest dateNeeded first, one keyset page at a time. All
+   * filters are optional. To get the next page, pass the nextDateNeeded and nextId from this page
+   * as afterDateNeeded and afterId. Requests with no dateNeeded are not included.
+   *
+   * @param professorEmail only requests to this professor
+   * @param requesterEmail only requests from this requester
+   * @param done only requests with this done flag
+   * @param neededFrom earliest dateNeeded to include
+   * @param neededTo latest dateNeeded to include
+   * @param afterDateNeeded dateNeeded of the last request on the previous page
+   * @param afterId id of the last request on the previous page
+   * @param pageSize number of requests per page (1 to 100)
+   * @return the page and the cursor for the next one
+   */
+  @Operation(summary = "Search recommendation requests by deadline, with keyset pagination")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/search")
+  public RecommendationRequestSearchResult searchRecommendationRequests(
+      @Parameter(name = "professorEmail") @RequestParam(required = false) String professorEmail,
+      @Parameter(name = "requesterEmail") @RequestParam(required = false) String requesterEmail,
+      @Parameter(name = "done") @RequestParam(required = false) Boolean done,
+      @Parameter(name = "neededFrom", description = "ISO datetime e.g. 2025-10-01T00:00:00")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime neededFrom,
+      @Parameter(name = "neededTo", description = "ISO datetime e.g. 2025-10-31T23:59:59")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime neededTo,
+      @Parameter(name = "afterDateNeeded", description = "nextDateNeeded from the previous page")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime afterDateNeeded,
+      @Parameter(name = "afterId", description = "nextId from the previous page")
+          @RequestParam(required = false)
+          Long afterId,
+      @Parameter(name = "pageSize") @RequestParam(defaultValue = "20") int pageSize) {
+    int limit = Math.max(1, Math.min(pageSize, 100));
+
+    // fetch one extra row to learn whether there is a next page, without a count query
+    List<RecommendationRequest> rows =
+        recommendationRequestRepository.findBy(
+            RecommendationRequestSpecifications.search(
+                professorEmail,
+                requesterEmail,
+                done,
+                neededFrom,
+                neededTo,
+                afterDateNeeded,
+                afterId),
+            q -> q.sortBy(RecommendationRequestSpecifications.KEYSET_ORDER).limit(limit + 1).all());
+
+    if (rows.size() <= limit) {
+      return RecommendationRequestSearchResult.builder().content(rows).build();
+    }
+    List<RecommendationRequest> content = rows.subList(0, limit);
+    RecommendationRequest last = content.get(limit - 1);
+    return RecommendationRequestSearchResult.builder()
+        .content(List.copyOf(content))
+        .nextDateNeeded(last.getDateNeeded())
+        .nextId(last.getId())
+        .build();
+  }
+
   /**
    * Look up a single RecommendationRequest by id.
    *
@@ -55,10 +124,10 @@ public class RecommendationRequestsController extends ApiController {
   @Operation(summary = "Get a single recommendationRequest")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public RecommendationRequest getById(@Parameter(name = "id") @RequestParam Long id) {
-    RecommendationRequest recommendationRequest =
+  public RecommendationRequestView getById(@Parameter(name = "id") @RequestParam Long id) {
+    RecommendationRequestView recommendationRequest =
         recommendationRequestRepository
-            .findById(id)
+            .findViewById(id)
             .orElseThrow(() -> new EntityNotFoundException(RecommendationRequest.class, id));
 
     return recommendationRequest;
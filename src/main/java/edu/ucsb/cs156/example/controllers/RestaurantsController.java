@@ -2,7 +2,9 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.RestaurantView;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.services.TypeaheadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -26,6 +28,8 @@ public class RestaurantsController extends ApiController {
 
   @Autowired RestaurantRepository restaurantRepository;
 
+  @Autowired TypeaheadService typeaheadService;
+
   /**
    * This method returns a list of all restaurants.
    *
@@ -34,8 +38,8 @@ public class RestaurantsController extends ApiController {
   @Operation(summary = "List all restaurants")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<Restaurant> allRestaurants() {
-    Iterable<Restaurant> restaurants = restaurantRepository.findAll();
+  public Iterable<RestaurantView> allRestaurants() {
+    Iterable<RestaurantView> restaurants = restaurantRepository.findAllViewsBy();
     return restaurants;
   }
 
@@ -48,10 +52,10 @@ public class RestaurantsController extends ApiController {
   @Operation(summary = "Get a single restaurant")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public Restaurant getById(@Parameter(name = "id") @RequestParam Long id) {
-    Restaurant restaurant =
+  public RestaurantView getById(@Parameter(name = "id") @RequestParam Long id) {
+    RestaurantView restaurant =
         restaurantRepository
-            .findById(id)
+            .findViewById(id)
             .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
 
     return restaurant;
@@ -76,6 +80,7 @@ public class RestaurantsController extends ApiController {
     restaurant.setDescription(description);
 
     Restaurant savedrestaurant = restaurantRepository.save(restaurant);
+    typeaheadService.restaurantSaved(savedrestaurant);
     return savedrestaurant;
   }
 
@@ -95,6 +100,7 @@ public class RestaurantsController extends ApiController {
             .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
 
     restaurantRepository.delete(restaurant);
+    typeaheadService.restaurantDeleted(id);
     return genericMessage("Restaurant with id %s deleted".formatted(id));
   }
 
@@ -120,6 +126,7 @@ public class RestaurantsController extends ApiController {
     restaurant.setDescription(incoming.getDescription());
 
     restaurantRepository.save(restaurant);
+    typeaheadService.restaurantSaved(restaurant);
 
     return restaurant;
   }
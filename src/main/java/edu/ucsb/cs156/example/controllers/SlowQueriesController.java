@@ -0,0 +1,58 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.SlowQueryShape;
+import edu.ucsb.cs156.example.services.SlowQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for the SQL statement timings kept by the {@link SlowQueryService}. See
+ * docs/metrics.md.
+ *
+ * <p>These endpoints are only accessible to users with the role "ROLE_ADMIN", since the bind values
+ * they show can be personal data.
+ */
+@Tag(name = "Slow queries (admin only)")
+@RequestMapping("/api/admin/slowqueries")
+@RestController
+public class SlowQueriesController extends ApiController {
+
+  @Autowired SlowQueryService slowQueryService;
+
+  /**
+   * This method lists the SQL statement shapes with the slowest executions since the app started
+   * (or the timings were reset).
+   *
+   * @param n how many shapes to list (at most 100)
+   * @return the shapes, slowest first
+   */
+  @Operation(summary = "List the SQL statements with the slowest executions")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("")
+  public List<SlowQueryShape> slowest(
+      @Parameter(name = "n") @RequestParam(defaultValue = "10") int n) {
+    return slowQueryService.slowest(Math.max(1, Math.min(n, 100)));
+  }
+
+  /**
+   * This method forgets all timings, e.g. to see whether a fix worked.
+   *
+   * @return a message indicating that the timings were reset
+   */
+  @Operation(summary = "Reset the SQL statement timings")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @DeleteMapping("")
+  public Object reset() {
+    slowQueryService.reset();
+    return genericMessage("SQL statement timings reset");
+  }
+}
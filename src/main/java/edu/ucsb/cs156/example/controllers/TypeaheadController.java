@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.TypeaheadSuggestion;
+import edu.ucsb.cs156.example.services.TypeaheadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** This is a REST controller for typeahead suggestions */
+@Tag(name = "Typeahead")
+@RequestMapping("/api/typeahead")
+@RestController
+public class TypeaheadController extends ApiController {
+
+  @Autowired TypeaheadService typeaheadService;
+
+  /**
+   * Suggest completions for what the user has typed so far. Served from memory.
+   *
+   * @param type which field to complete: RESTAURANT (restaurant name), ORGANIZATION_SHORT
+   *     (orgTranslationShort) or ORGANIZATION (orgTranslation)
+   * @param prefix the text typed so far; case and accents are ignored, and it may match the start
+   *     of any word
+   * @param limit maximum number of suggestions (1 to 50)
+   * @return the suggestions, whole-name matches first
+   */
+  @Operation(summary = "Suggest restaurant or organization names for a prefix")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("")
+  public List<TypeaheadSuggestion> suggest(
+      @Parameter(name = "type") @RequestParam TypeaheadService.Type type,
+      @Parameter(name = "prefix") @RequestParam String prefix,
+      @Parameter(name = "limit") @RequestParam(defaultValue = "10") int limit) {
+    return typeaheadService.suggest(type, prefix, Math.max(1, Math.min(limit, 50)));
+  }
+}
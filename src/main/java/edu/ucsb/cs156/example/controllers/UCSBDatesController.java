@@ -3,18 +3,22 @@ package edu.ucsb.cs156.example.controllers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.UCSBDateView;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.UCSBDateCalendarService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -31,6 +35,8 @@ public class UCSBDatesController extends ApiController {
 
   @Autowired UCSBDateRepository ucsbDateRepository;
 
+  @Autowired UCSBDateCalendarService ucsbDateCalendarService;
+
   /**
    * List all UCSB dates
    *
@@ -39,11 +45,46 @@ public class UCSBDatesController extends ApiController {
   @Operation(summary = "List all ucsb dates")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<UCSBDate> allUCSBDates() {
-    Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
+  public Iterable<UCSBDateView> allUCSBDates() {
+    Iterable<UCSBDateView> dates = ucsbDateRepository.findAllViewsBy();
     return dates;
   }
 
+  /**
+   * List the dates in one quarter, in time order. Served from memory.
+   *
+   * @param yyyyq quarter in the format YYYYQ, e.g. 20244 for Fall 2024
+   * @return the dates in that quarter
+   */
+  @Operation(summary = "List the dates in a quarter")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/quarter/{yyyyq}")
+  public List<UCSBDate> datesInQuarter(@Parameter(name = "yyyyq") @PathVariable String yyyyq) {
+    return ucsbDateCalendarService.quarter(yyyyq);
+  }
+
+  /**
+   * List the dates between two times, inclusive, in time order. Served from memory.
+   *
+   * @param from earliest time to include
+   * @param to latest time to include
+   * @return the dates in the range
+   */
+  @Operation(summary = "List the dates in a time range")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/range")
+  public List<UCSBDate> datesInRange(
+      @Parameter(name = "from", description = "ISO datetime e.g. 2024-09-01T00:00:00")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime from,
+      @Parameter(name = "to", description = "ISO datetime e.g. 2024-12-31T23:59:59")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime to) {
+    return ucsbDateCalendarService.range(from, to);
+  }
+
   /**
    * Get a single date by id
    *
@@ -53,10 +94,10 @@ public class UCSBDatesController extends ApiController {
   @Operation(summary = "Get a single date")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public UCSBDate getById(@Parameter(name = "id") @RequestParam Long id) {
-    UCSBDate ucsbDate =
+  public UCSBDateView getById(@Parameter(name = "id") @RequestParam Long id) {
+    UCSBDateView ucsbDate =
         ucsbDateRepository
-            .findById(id)
+            .findViewById(id)
             .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
     return ucsbDate;
@@ -96,6 +137,7 @@ public class UCSBDatesController extends ApiController {
     ucsbDate.setLocalDateTime(localDateTime);
 
     UCSBDate savedUcsbDate = ucsbDateRepository.save(ucsbDate);
+    ucsbDateCalendarService.dateSaved(savedUcsbDate);
 
     return savedUcsbDate;
   }
@@ -116,6 +158,7 @@ public class UCSBDatesController extends ApiController {
             .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
     ucsbDateRepository.delete(ucsbDate);
+    ucsbDateCalendarService.dateDeleted(id);
     return genericMessage("UCSBDate with id %s deleted".formatted(id));
   }
 
@@ -142,6 +185,7 @@ public class UCSBDatesController extends ApiController {
     ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
 
     ucsbDateRepository.save(ucsbDate);
+    ucsbDateCalendarService.dateSaved(ucsbDate);
 
     return ucsbDate;
   }
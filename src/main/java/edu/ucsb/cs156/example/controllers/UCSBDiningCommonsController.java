@@ -2,16 +2,24 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsView;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsLocationService;
+import edu.ucsb.cs156.example.services.DiningCommonsMenuService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -28,6 +36,10 @@ public class UCSBDiningCommonsController extends ApiController {
 
   @Autowired UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+  @Autowired DiningCommonsLocationService diningCommonsLocationService;
+
+  @Autowired DiningCommonsMenuService diningCommonsMenuService;
+
   /**
    * THis method returns a list of all ucsbdiningcommons.
    *
@@ -36,8 +48,8 @@ public class UCSBDiningCommonsController extends ApiController {
   @Operation(summary = "List all ucsb dining commons")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<UCSBDiningCommons> allCommonss() {
-    Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
+  public Iterable<UCSBDiningCommonsView> allCommonss() {
+    Iterable<UCSBDiningCommonsView> commons = ucsbDiningCommonsRepository.findAllViewsBy();
     return commons;
   }
 
@@ -50,15 +62,86 @@ public class UCSBDiningCommonsController extends ApiController {
   @Operation(summary = "Get a single commons")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public UCSBDiningCommons getById(@Parameter(name = "code") @RequestParam String code) {
-    UCSBDiningCommons commons =
+  public UCSBDiningCommonsView getById(@Parameter(name = "code") @RequestParam String code) {
+    UCSBDiningCommonsView commons =
         ucsbDiningCommonsRepository
-            .findById(code)
+            .findViewByCode(code)
             .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
     return commons;
   }
 
+  /**
+   * This method returns the menu of a dining commons grouped by station. The response is cached per
+   * commons and rebuilt after its menu items change.
+   *
+   * @param code code of the diningcommons
+   * @return a list of stations, each with its menu items
+   */
+  @Operation(summary = "Get the menu of a commons, grouped by station")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/{code}/menu")
+  public ResponseEntity<byte[]> getMenu(@Parameter(name = "code") @PathVariable String code) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(diningCommonsMenuService.getMenuJson(code));
+  }
+
+  /**
+   * This method returns the dining commons closest to a point, optionally only those with certain
+   * features.
+   *
+   * @param lat latitude of the point
+   * @param lon longitude of the point
+   * @param k maximum number of commons to return
+   * @param hasSackMeal if given, only commons with this value of hasSackMeal
+   * @param hasTakeOutMeal if given, only commons with this value of hasTakeOutMeal
+   * @param hasDiningCam if given, only commons with this value of hasDiningCam
+   * @return up to k commons with their distances in meters, nearest first
+   */
+  @Operation(summary = "List the dining commons nearest to a point")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/nearest")
+  public List<NearbyDiningCommons> nearest(
+      @Parameter(name = "lat") @RequestParam double lat,
+      @Parameter(name = "lon") @RequestParam double lon,
+      @Parameter(name = "k") @RequestParam(defaultValue = "3") int k,
+      @Parameter(name = "hasSackMeal") @RequestParam(required = false) Boolean hasSackMeal,
+      @Parameter(name = "hasTakeOutMeal") @RequestParam(required = false) Boolean hasTakeOutMeal,
+      @Parameter(name = "hasDiningCam") @RequestParam(required = false) Boolean hasDiningCam) {
+    return diningCommonsLocationService.nearest(
+        lat, lon, k, hasSackMeal, hasTakeOutMeal, hasDiningCam);
+  }
+
+  /**
+   * This method returns the dining commons inside a latitude/longitude bounding box, optionally
+   * only those with certain features. If minLon is greater than maxLon the box wraps across the
+   * antimeridian.
+   *
+   * @param minLat southern edge of the box
+   * @param maxLat northern edge of the box
+   * @param minLon western edge of the box
+   * @param maxLon eastern edge of the box
+   * @param hasSackMeal if given, only commons with this value of hasSackMeal
+   * @param hasTakeOutMeal if given, only commons with this value of hasTakeOutMeal
+   * @param hasDiningCam if given, only commons with this value of hasDiningCam
+   * @return the commons inside the box
+   */
+  @Operation(summary = "List the dining commons inside a bounding box")
+  @PreAuthorize("hasRole('ROLE_USER')")
+  @GetMapping("/within")
+  public List<UCSBDiningCommons> within(
+      @Parameter(name = "minLat") @RequestParam double minLat,
+      @Parameter(name = "maxLat") @RequestParam double maxLat,
+      @Parameter(name = "minLon") @RequestParam double minLon,
+      @Parameter(name = "maxLon") @RequestParam double maxLon,
+      @Parameter(name = "hasSackMeal") @RequestParam(required = false) Boolean hasSackMeal,
+      @Parameter(name = "hasTakeOutMeal") @RequestParam(required = false) Boolean hasTakeOutMeal,
+      @Parameter(name = "hasDiningCam") @RequestParam(required = false) Boolean hasDiningCam) {
+    return diningCommonsLocationService.within(
+        minLat, maxLat, minLon, maxLon, hasSackMeal, hasTakeOutMeal, hasDiningCam);
+  }
+
   /**
    * This method creates a new diningcommons. Accessible only to users with the role "ROLE_ADMIN".
    *
@@ -93,6 +176,7 @@ public class UCSBDiningCommonsController extends ApiController {
     commons.setLongitude(longitude);
 
     UCSBDiningCommons savedCommons = ucsbDiningCommonsRepository.save(commons);
+    diningCommonsLocationService.commonsSaved(savedCommons);
 
     return savedCommons;
   }
@@ -113,6 +197,8 @@ public class UCSBDiningCommonsController extends ApiController {
             .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
     ucsbDiningCommonsRepository.delete(commons);
+    diningCommonsLocationService.commonsDeleted(code);
+    diningCommonsMenuService.evict(code);
     return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
   }
 
@@ -143,6 +229,7 @@ public class UCSBDiningCommonsController extends ApiController {
     commons.setLongitude(incoming.getLongitude());
 
     ucsbDiningCommonsRepository.save(commons);
+    diningCommonsLocationService.commonsSaved(commons);
 
     return commons;
   }
@@ -2,7 +2,10 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsMenuItemsView;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsMenuService;
+import edu.ucsb.cs156.example.services.MenuItemLeaderboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,6 +31,10 @@ public class UCSBDiningCommonsMenuItemsController extends ApiController {
 
   @Autowired UCSBDiningCommonsMenuItemsRepository UCSBDiningCommonsMenuItemsRepository;
 
+  @Autowired MenuItemLeaderboardService menuItemLeaderboardService;
+
+  @Autowired DiningCommonsMenuService diningCommonsMenuService;
+
   /**
    * List all menu items
    *
@@ -36,8 +43,9 @@ public class UCSBDiningCommonsMenuItemsController extends ApiController {
   @Operation(summary = "List all items")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<UCSBDiningCommonsMenuItems> allItems() {
-    Iterable<UCSBDiningCommonsMenuItems> items = UCSBDiningCommonsMenuItemsRepository.findAll();
+  public Iterable<UCSBDiningCommonsMenuItemsView> allItems() {
+    Iterable<UCSBDiningCommonsMenuItemsView> items =
+        UCSBDiningCommonsMenuItemsRepository.findAllViewsBy();
     return items;
   }
 
@@ -50,9 +58,9 @@ public class UCSBDiningCommonsMenuItemsController extends ApiController {
   @Operation(summary = "Get a single item")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public UCSBDiningCommonsMenuItems getById(@Parameter(name = "id") @RequestParam Long id) {
-    UCSBDiningCommonsMenuItems UCSBDiningCommonsMenuItems =
-        UCSBDiningCommonsMenuItemsRepository.findById(id)
+  public UCSBDiningCommonsMenuItemsView getById(@Parameter(name = "id") @RequestParam Long id) {
+    UCSBDiningCommonsMenuItemsView UCSBDiningCommonsMenuItems =
+        UCSBDiningCommonsMenuItemsRepository.findViewById(id)
             .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItems.class, id));
 
     return UCSBDiningCommonsMenuItems;
@@ -80,6 +88,8 @@ public class UCSBDiningCommonsMenuItemsController extends ApiController {
     items.setStation(station);
 
     UCSBDiningCommonsMenuItems savedItems = UCSBDiningCommonsMenuItemsRepository.save(items);
+    menuItemLeaderboardService.menuItemChanged(savedItems);
+    diningCommonsMenuService.evict(savedItems.getDiningCommonsCode());
 
     return savedItems;
   }
@@ -102,11 +112,15 @@ public class UCSBDiningCommonsMenuItemsController extends ApiController {
         UCSBDiningCommonsMenuItemsRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItems.class, id));
 
+    String previousDiningCommonsCode = UCSBDiningCommonsMenuItems.getDiningCommonsCode();
     UCSBDiningCommonsMenuItems.setDiningCommonsCode(incoming.getDiningCommonsCode());
     UCSBDiningCommonsMenuItems.setName(incoming.getName());
     UCSBDiningCommonsMenuItems.setStation(incoming.getStation());
 
     UCSBDiningCommonsMenuItemsRepository.save(UCSBDiningCommonsMenuItems);
+    menuItemLeaderboardService.menuItemChanged(UCSBDiningCommonsMenuItems);
+    diningCommonsMenuService.evict(previousDiningCommonsCode);
+    diningCommonsMenuService.evict(UCSBDiningCommonsMenuItems.getDiningCommonsCode());
 
     return UCSBDiningCommonsMenuItems;
   }
@@ -126,6 +140,8 @@ public class UCSBDiningCommonsMenuItemsController extends ApiController {
             .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItems.class, id));
 
     UCSBDiningCommonsMenuItemsRepository.delete(UCSBDiningCommonsMenuItems);
+    menuItemLeaderboardService.menuItemDeleted(id);
+    diningCommonsMenuService.evict(UCSBDiningCommonsMenuItems.getDiningCommonsCode());
     return genericMessage("UCSBDiningCommonsMenuItems with id %s deleted".formatted(id));
   }
 }
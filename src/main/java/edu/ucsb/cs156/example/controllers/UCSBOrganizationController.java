@@ -2,7 +2,9 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.UCSBOrganizationView;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.services.TypeaheadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,6 +30,8 @@ public class UCSBOrganizationController extends ApiController {
 
   @Autowired UCSBOrganizationRepository ucsbOrganizationRepository;
 
+  @Autowired TypeaheadService typeaheadService;
+
   /**
    * THis method returns a list of all ucsborganizations.
    *
@@ -36,8 +40,8 @@ public class UCSBOrganizationController extends ApiController {
   @Operation(summary = "List all ucsb organizations")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("/all")
-  public Iterable<UCSBOrganization> allOrganization() {
-    Iterable<UCSBOrganization> organization = ucsbOrganizationRepository.findAll();
+  public Iterable<UCSBOrganizationView> allOrganization() {
+    Iterable<UCSBOrganizationView> organization = ucsbOrganizationRepository.findAllViewsBy();
     return organization;
   }
 
@@ -65,6 +69,7 @@ public class UCSBOrganizationController extends ApiController {
     organization.setInactive(inactive);
 
     UCSBOrganization savedOrganization = ucsbOrganizationRepository.save(organization);
+    typeaheadService.organizationSaved(savedOrganization);
 
     return savedOrganization;
   }
@@ -78,10 +83,10 @@ public class UCSBOrganizationController extends ApiController {
   @Operation(summary = "Get a single organization")
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public UCSBOrganization getById(@Parameter(name = "orgCode") @RequestParam String orgCode) {
-    UCSBOrganization organization =
+  public UCSBOrganizationView getById(@Parameter(name = "orgCode") @RequestParam String orgCode) {
+    UCSBOrganizationView organization =
         ucsbOrganizationRepository
-            .findById(orgCode)
+            .findViewByOrgCode(orgCode)
             .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
 
     return organization;
@@ -111,6 +116,7 @@ public class UCSBOrganizationController extends ApiController {
     organization.setInactive(incoming.getInactive());
 
     ucsbOrganizationRepository.save(organization);
+    typeaheadService.organizationSaved(organization);
 
     return organization;
   }
@@ -131,6 +137,7 @@ public class UCSBOrganizationController extends ApiController {
             .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
 
     ucsbOrganizationRepository.delete(organization);
+    typeaheadService.organizationDeleted(orgCode);
     return genericMessage("UCSBOrganization with id %s deleted".formatted(orgCode));
   }
 }
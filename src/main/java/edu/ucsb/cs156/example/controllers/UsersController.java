@@ -1,16 +1,27 @@
 package edu.ucsb.cs156.example.controllers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.AdminRoleCacheStats;
+import edu.ucsb.cs156.example.models.UserSearchResult;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.repositories.UserSpecifications;
+import edu.ucsb.cs156.example.services.AdminRoleService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -26,18 +37,105 @@ public class UsersController extends ApiController {
 
   @Autowired ObjectMapper mapper;
 
+  @Autowired AdminRoleService adminRoleService;
+
+  @Value("${app.users.exportBatchSize:500}")
+  int exportBatchSize = 500;
+
   /**
-   * This method returns a list of all users. Accessible only to users with the role "ROLE_ADMIN".
+   * This method lists users one keyset page at a time, in id order, optionally filtered. To get the
+   * next page, pass the nextId from this page as afterId. Accessible only to users with the role
+   * "ROLE_ADMIN".
    *
-   * @return a list of all users
-   * @throws JsonProcessingException if there is an error processing the JSON
+   * @param emailPrefix only users whose email starts with this
+   * @param admin only users with this admin flag
+   * @param hostedDomain only users with this Google hosted domain (e.g. ucsb.edu)
+   * @param afterId id of the last user on the previous page
+   * @param pageSize number of users per page (1 to 500)
+   * @return the page and the cursor for the next one
    */
-  @Operation(summary = "Get a list of all users")
+  @Operation(summary = "List users, with filters and keyset pagination")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("")
-  public ResponseEntity<String> users() throws JsonProcessingException {
-    Iterable<User> users = userRepository.findAll();
-    String body = mapper.writeValueAsString(users);
-    return ResponseEntity.ok().body(body);
+  public UserSearchResult users(
+      @Parameter(name = "emailPrefix") @RequestParam(required = false) String emailPrefix,
+      @Parameter(name = "admin") @RequestParam(required = false) Boolean admin,
+      @Parameter(name = "hostedDomain") @RequestParam(required = false) String hostedDomain,
+      @Parameter(name = "afterId", description = "nextId from the previous page")
+          @RequestParam(required = false)
+          Long afterId,
+      @Parameter(name = "pageSize") @RequestParam(defaultValue = "50") int pageSize) {
+    int limit = Math.max(1, Math.min(pageSize, 500));
+
+    // fetch one extra row to learn whether there is a next page, without a count query
+    List<User> rows = page(emailPrefix, admin, hostedDomain, afterId, limit + 1);
+
+    if (rows.size() <= limit) {
+      return UserSearchResult.builder().content(rows).build();
+    }
+    List<User> content = rows.subList(0, limit);
+    return UserSearchResult.builder()
+        .content(List.copyOf(content))
+        .nextId(content.get(limit - 1).getId())
+        .build();
+  }
+
+  /**
+   * This method downloads every matching user as one JSON array. Users are read {@code
+   * exportBatchSize} at a time and each batch is written to the response as soon as it is read, so
+   * the whole table is never held in memory. Accessible only to users with the role "ROLE_ADMIN".
+   *
+   * @param emailPrefix only users whose email starts with this
+   * @param admin only users with this admin flag
+   * @param hostedDomain only users with this Google hosted domain (e.g. ucsb.edu)
+   * @param response the response the JSON is written to
+   * @throws IOException if the response cannot be written
+   */
+  @Operation(summary = "Download all users (optionally filtered) as JSON")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/export")
+  public void exportUsers(
+      @Parameter(name = "emailPrefix") @RequestParam(required = false) String emailPrefix,
+      @Parameter(name = "admin") @RequestParam(required = false) Boolean admin,
+      @Parameter(name = "hostedDomain") @RequestParam(required = false) String hostedDomain,
+      HttpServletResponse response)
+      throws IOException {
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.json\"");
+    try (JsonGenerator json = mapper.getFactory().createGenerator(response.getOutputStream())) {
+      json.writeStartArray();
+      Long afterId = null;
+      List<User> batch;
+      do {
+        batch = page(emailPrefix, admin, hostedDomain, afterId, exportBatchSize);
+        for (User user : batch) {
+          json.writeObject(user);
+          afterId = user.getId();
+        }
+        json.flush();
+      } while (batch.size() == exportBatchSize);
+      json.writeEndArray();
+    }
+  }
+
+  private List<User> page(
+      String emailPrefix, Boolean admin, String hostedDomain, Long afterId, int limit) {
+    return userRepository.findBy(
+        UserSpecifications.search(emailPrefix, admin, hostedDomain, afterId),
+        q -> q.sortBy(UserSpecifications.KEYSET_ORDER).limit(limit).all());
+  }
+
+  /**
+   * This method returns how admin role lookups at login were answered (from the list of admin
+   * emails, from the cache, or from the database). Accessible only to users with the role
+   * "ROLE_ADMIN".
+   *
+   * @return counts of admin role lookups and the cache hit rate
+   */
+  @Operation(summary = "Get statistics for the cache of admin roles")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/roleCacheStats")
+  public AdminRoleCacheStats roleCacheStats() {
+    return adminRoleService.stats();
   }
 }
@@ -0,0 +1,53 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that holds running rating aggregates for a single menu item.
+ *
+ * <p>One row exists per {@code itemId} that has at least one MenuItemReview. The row is kept up to
+ * date by MenuItemRatingStatsService whenever a review is created, updated or deleted, so reading
+ * the average rating for an item is a primary key lookup rather than a scan of the reviews.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "menu_item_rating_stats")
+public class MenuItemRatingStats {
+  @Id private long itemId;
+
+  private long reviewCount;
+  private long starsSum;
+  private long oneStarCount;
+  private long twoStarCount;
+  private long threeStarCount;
+  private long fourStarCount;
+  private long fiveStarCount;
+  private LocalDateTime lastReviewed;
+
+  /**
+   * Average star rating over all reviews of this item.
+   *
+   * @return the average rating, or 0 if there are no reviews
+   */
+  public double getAverageStars() {
+    return reviewCount == 0 ? 0.0 : (double) starsSum / reviewCount;
+  }
+
+  /**
+   * Empty aggregates for an item that has not been reviewed.
+   *
+   * @param itemId id of the menu item
+   * @return stats with every count set to zero
+   */
+  public static MenuItemRatingStats empty(long itemId) {
+    return MenuItemRatingStats.builder().itemId(itemId).build();
+  }
+}
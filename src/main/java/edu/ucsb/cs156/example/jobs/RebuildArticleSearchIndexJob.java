@@ -0,0 +1,20 @@
+package edu.ucsb.cs156.example.jobs;
+
+import edu.ucsb.cs156.example.services.ArticleSearchService;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import lombok.Builder;
+
+/** Job that rebuilds the in-memory article search index from the database. */
+@Builder
+public class RebuildArticleSearchIndexJob implements JobContextConsumer {
+
+  private ArticleSearchService articleSearchService;
+
+  @Override
+  public void accept(JobContext ctx) throws Exception {
+    ctx.log("Rebuilding article search index");
+    int articles = articleSearchService.rebuild();
+    ctx.log("Indexed %d articles".formatted(articles));
+  }
+}
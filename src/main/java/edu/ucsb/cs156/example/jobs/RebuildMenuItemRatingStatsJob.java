@@ -0,0 +1,20 @@
+package edu.ucsb.cs156.example.jobs;
+
+import edu.ucsb.cs156.example.services.MenuItemRatingStatsService;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import lombok.Builder;
+
+/** Job that recomputes the menu item rating aggregates from scratch. */
+@Builder
+public class RebuildMenuItemRatingStatsJob implements JobContextConsumer {
+
+  private MenuItemRatingStatsService menuItemRatingStatsService;
+
+  @Override
+  public void accept(JobContext ctx) throws Exception {
+    ctx.log("Rebuilding menu item rating stats");
+    int items = menuItemRatingStatsService.rebuildAll();
+    ctx.log("Rebuilt rating stats for %d menu items".formatted(items));
+  }
+}
@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * This is a model class that reports how well the cache of admin flags is working.
+ *
+ * <p>Lookups for emails in {@code app.admin.emails} never need the cache and are counted as listed;
+ * every other lookup is either a hit or a miss (a miss reads the users table).
+ */
+@Data
+@AllArgsConstructor
+@Builder
+public class AdminRoleCacheStats {
+  private long listed;
+  private long hits;
+  private long misses;
+  private double hitRate; // hits / (hits + misses), or 0 if there were none
+  private int size; // number of emails whose admin flag is cached
+}
@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a {@link edu.ucsb.cs156.example.entities.Article}, as returned by the list and
+ * get endpoints.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class ArticleView {
+  long id;
+  String title;
+  String url;
+  String explanation;
+  String email;
+  LocalDateTime dateAdded;
+}
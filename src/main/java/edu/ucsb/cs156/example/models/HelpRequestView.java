@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a {@link edu.ucsb.cs156.example.entities.HelpRequest}, as returned by the list
+ * and get endpoints.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class HelpRequestView {
+  long id;
+  String requesterEmail;
+  String teamId;
+  String tableOrBreakoutRoom;
+  LocalDateTime requestTime;
+  String explanation;
+  boolean solved;
+}
@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a newly issued API token.
+ *
+ * <p>This is the only time the token itself is returned; only its hash is stored.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class IssuedApiToken {
+  private long id;
+  private String name;
+  private String email;
+  private String token;
+}
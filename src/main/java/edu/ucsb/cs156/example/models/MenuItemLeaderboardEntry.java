@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents one row of the "best rated right now" menu item
+ * leaderboard.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class MenuItemLeaderboardEntry {
+  private long itemId;
+  private String name;
+  private String diningCommonsCode;
+  private String station;
+  private double score; // time-decayed Bayesian average, on the 1-5 star scale
+  private long reviewCount;
+  private double averageStars; // plain (undecayed) average
+}
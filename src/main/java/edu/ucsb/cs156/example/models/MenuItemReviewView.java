@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a {@link edu.ucsb.cs156.example.entities.MenuItemReview}, as returned by the
+ * list and get endpoints.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class MenuItemReviewView {
+  long id;
+  long itemId;
+  String reviewerEmail;
+  int stars;
+  LocalDateTime dateReviewed;
+  String comments;
+}
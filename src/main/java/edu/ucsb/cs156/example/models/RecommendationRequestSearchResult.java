@@ -0,0 +1,26 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents one keyset page of recommendation requests.
+ *
+ * <p>To fetch the next page, pass nextDateNeeded and nextId back as afterDateNeeded and afterId.
+ * Both are null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class RecommendationRequestSearchResult {
+  private List<RecommendationRequest> content;
+  private LocalDateTime nextDateNeeded;
+  private Long nextId;
+}
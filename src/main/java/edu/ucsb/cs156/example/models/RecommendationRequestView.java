@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a {@link edu.ucsb.cs156.example.entities.RecommendationRequest}, as returned by
+ * the list and get endpoints.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class RecommendationRequestView {
+  long id;
+  String code;
+  String requesterEmail;
+  String professorEmail;
+  String explanation;
+  LocalDateTime dateRequested;
+  LocalDateTime dateNeeded;
+  boolean done;
+}
@@ -0,0 +1,18 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a {@link edu.ucsb.cs156.example.entities.Restaurant}, as returned by the list
+ * and get endpoints.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class RestaurantView {
+  long id;
+  String name;
+  String description;
+}
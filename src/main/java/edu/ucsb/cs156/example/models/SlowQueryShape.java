@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents the timings of one SQL statement shape: the SQL with its
+ * literals and bind values replaced by {@code ?}.
+ *
+ * <p>The handler, parameters and plan are those of the slowest execution seen; the plan is only
+ * captured when {@code app.slowqueries.explain} is on.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SlowQueryShape {
+  private String sql;
+  private long count;
+  private long totalMs;
+  private long maxMs;
+  private double meanMs;
+  private String handler;
+  private String parameters;
+  private String plan;
+}
@@ -0,0 +1,20 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a {@link edu.ucsb.cs156.example.entities.UCSBDate}, as returned by the list and
+ * get endpoints.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class UCSBDateView {
+  long id;
+  String quarterYYYYQ;
+  String name;
+  LocalDateTime localDateTime;
+}
@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a {@link edu.ucsb.cs156.example.entities.UCSBDiningCommons}, as returned by the
+ * list and get endpoints.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class UCSBDiningCommonsView {
+  String code;
+  String name;
+  boolean hasSackMeal;
+  boolean hasTakeOutMeal;
+  boolean hasDiningCam;
+  Double latitude;
+  Double longitude;
+}
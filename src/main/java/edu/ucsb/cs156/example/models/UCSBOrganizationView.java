@@ -0,0 +1,19 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a {@link edu.ucsb.cs156.example.entities.UCSBOrganization}, as returned by the
+ * list and get endpoints.
+ */
+@Value
+@AllArgsConstructor
+@Builder
+public class UCSBOrganizationView {
+  String orgCode;
+  String orgTranslationShort;
+  String orgTranslation;
+  boolean inactive;
+}
@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.User;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents one keyset page of users.
+ *
+ * <p>To fetch the next page, pass nextId back as afterId. It is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class UserSearchResult {
+  private List<User> content;
+  private Long nextId;
+}
@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.ApiToken;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/** The ApiTokenRepository is a repository for ApiToken entities. */
+@Repository
+public interface ApiTokenRepository extends CrudRepository<ApiToken, Long> {
+  /**
+   * This method returns the token with a given hash, with its user, in one query.
+   *
+   * @param tokenHash SHA-256 hash of the token, in hex
+   * @return Optional of ApiToken (empty if not found)
+   */
+  @EntityGraph(attributePaths = "user")
+  Optional<ApiToken> findByTokenHash(String tokenHash);
+
+  /**
+   * This method returns all tokens, with their users, in id order.
+   *
+   * @return all tokens
+   */
+  @EntityGraph(attributePaths = "user")
+  List<ApiToken> findAllByOrderByIdAsc();
+}
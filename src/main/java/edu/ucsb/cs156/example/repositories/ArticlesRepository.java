@@ -1,9 +1,30 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.models.ArticleView;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** The ArticlesRepository is a repository for Articles entities. */
 @Repository
-public interface ArticlesRepository extends CrudRepository<Article, Long> {}
+public interface ArticlesRepository extends CrudRepository<Article, Long> {
+  /**
+   * Lists all articles as read-only views.
+   *
+   * @return all articles
+   */
+  @Transactional(readOnly = true)
+  List<ArticleView> findAllViewsBy();
+
+  /**
+   * Looks up one of the articles as a read-only view.
+   *
+   * @param id id of the article
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<ArticleView> findViewById(long id);
+}
@@ -1,9 +1,43 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestView;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** The HelpRequestRepository is a repository for HelpRequest entities. */
 @Repository
-public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long> {}
+public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long> {
+  /**
+   * Help requests by solved flag. Only used to seed the in-memory open queue, so the rows are
+   * loaded read-only and Hibernate keeps no snapshots of them.
+   *
+   * @param solved whether to return solved or open requests
+   * @return the matching help requests
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  Iterable<HelpRequest> findAllBySolved(boolean solved);
+
+  /**
+   * Lists all help requests as read-only views.
+   *
+   * @return all help requests
+   */
+  @Transactional(readOnly = true)
+  List<HelpRequestView> findAllViewsBy();
+
+  /**
+   * Looks up one of the help requests as a read-only view.
+   *
+   * @param id id of the help request
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<HelpRequestView> findViewById(long id);
+}
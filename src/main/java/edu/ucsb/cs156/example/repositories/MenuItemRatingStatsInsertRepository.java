@@ -0,0 +1,13 @@
+package edu.ucsb.cs156.example.repositories;
+
+/** Custom methods of {@link MenuItemRatingStatsRepository} that are written in SQL. */
+public interface MenuItemRatingStatsInsertRepository {
+  /**
+   * Stores empty stats for an item unless a row for it is already stored, including one that a
+   * concurrent transaction has inserted but not yet committed. Afterwards the row can be locked
+   * with {@link MenuItemRatingStatsRepository#findByIdForUpdate}.
+   *
+   * @param itemId id of the menu item
+   */
+  void insertIfAbsent(long itemId);
+}
@@ -0,0 +1,76 @@
+package edu.ucsb.cs156.example.repositories;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implements {@link MenuItemRatingStatsInsertRepository} with one native statement that relies on
+ * the primary key of {@code MENU_ITEM_RATING_STATS}:
+ *
+ * <ul>
+ *   <li>on PostgreSQL, {@code INSERT ... ON CONFLICT (ITEM_ID) DO NOTHING}, which waits for a
+ *       concurrent insert of the same item and then skips its own;
+ *   <li>otherwise (H2), {@code MERGE ... WHEN NOT MATCHED THEN INSERT}, where losing to a
+ *       concurrent insert is reported as a duplicate key and ignored.
+ * </ul>
+ */
+@Transactional
+public class MenuItemRatingStatsInsertRepositoryImpl
+    implements MenuItemRatingStatsInsertRepository {
+
+  static final String COLUMNS =
+      "ITEM_ID, REVIEW_COUNT, STARS_SUM, ONE_STAR_COUNT, TWO_STAR_COUNT, THREE_STAR_COUNT,"
+          + " FOUR_STAR_COUNT, FIVE_STAR_COUNT";
+
+  static final String VALUES = ":itemId, 0, 0, 0, 0, 0, 0, 0";
+
+  static final String POSTGRES_INSERT =
+      "INSERT INTO MENU_ITEM_RATING_STATS ("
+          + COLUMNS
+          + ") VALUES ("
+          + VALUES
+          + ") ON CONFLICT (ITEM_ID) DO NOTHING";
+
+  static final String MERGE_INSERT =
+      "MERGE INTO MENU_ITEM_RATING_STATS S"
+          + " USING (VALUES (CAST(:itemId AS BIGINT))) N(ITEM_ID) ON S.ITEM_ID = N.ITEM_ID"
+          + " WHEN NOT MATCHED THEN INSERT ("
+          + COLUMNS
+          + ") VALUES ("
+          + VALUES
+          + ")";
+
+  @Autowired NamedParameterJdbcTemplate jdbcTemplate;
+
+  private volatile String insertSql;
+
+  @Override
+  public void insertIfAbsent(long itemId) {
+    try {
+      jdbcTemplate.update(insertSql(), Map.of("itemId", itemId));
+    } catch (DuplicateKeyException e) {
+      // the row was inserted by a concurrent transaction, which has now committed
+    }
+  }
+
+  private String insertSql() {
+    if (insertSql == null) {
+      insertSql =
+          insertSqlFor(
+              jdbcTemplate
+                  .getJdbcTemplate()
+                  .execute(
+                      (ConnectionCallback<String>)
+                          connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+    return insertSql;
+  }
+
+  static String insertSqlFor(String databaseProductName) {
+    return "PostgreSQL".equals(databaseProductName) ? POSTGRES_INSERT : MERGE_INSERT;
+  }
+}
@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.MenuItemRatingStats;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The MenuItemRatingStatsRepository is a repository for MenuItemRatingStats entities.
+ *
+ * <p>An item's first review has no row to lock yet; call {@link #insertIfAbsent} before {@link
+ * #findByIdForUpdate} rather than saving a new row, so that concurrent first reviews share one row.
+ */
+@Repository
+public interface MenuItemRatingStatsRepository
+    extends CrudRepository<MenuItemRatingStats, Long>, MenuItemRatingStatsInsertRepository {
+  /**
+   * Load the stats row for an item, locking it for the rest of the current transaction so that
+   * concurrent review writes for the same item are applied one after another.
+   *
+   * @param itemId id of the menu item
+   * @return Optional of MenuItemRatingStats (empty if the item has no row yet)
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM menu_item_rating_stats s WHERE s.itemId = :itemId")
+  Optional<MenuItemRatingStats> findByIdForUpdate(@Param("itemId") long itemId);
+}
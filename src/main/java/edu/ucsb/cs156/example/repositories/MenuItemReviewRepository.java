@@ -1,8 +1,45 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * The MenuItemReviewRepository is a repository for MenuItemReview entities.
+ *
+ * <p>Filtered, paged searches are built from {@link MenuItemReviewSpecifications} so that only the
+ * predicates that were actually requested end up in the generated SQL.
+ */
 @Repository
-public interface MenuItemReviewRepository extends CrudRepository<MenuItemReview, Long> {}
+public interface MenuItemReviewRepository
+    extends CrudRepository<MenuItemReview, Long>, JpaSpecificationExecutor<MenuItemReview> {
+  /**
+   * This method returns the most recent review of a given menu item.
+   *
+   * @param itemId id of the menu item
+   * @return Optional of MenuItemReview (empty if the item has no reviews)
+   */
+  Optional<MenuItemReview> findFirstByItemIdOrderByDateReviewedDesc(long itemId);
+
+  /**
+   * Lists all menu item reviews as read-only views.
+   *
+   * @return all menu item reviews
+   */
+  @Transactional(readOnly = true)
+  List<MenuItemReviewView> findAllViewsBy();
+
+  /**
+   * Looks up one of the menu item reviews as a read-only view.
+   *
+   * @param id id of the review
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<MenuItemReviewView> findViewById(long id);
+}
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specifications used to build filtered queries over MenuItemReview entities.
+ *
+ * <p>Each method returns {@code null} when its filter value is absent; {@link
+ * Specification#where(Specification)} and {@link Specification#and(Specification)} skip null
+ * specifications, so an omitted filter adds no predicate at all.
+ */
+public final class MenuItemReviewSpecifications {
+
+  private MenuItemReviewSpecifications() {}
+
+  /**
+   * Build a specification combining all of the supplied filters.
+   *
+   * @param itemId id of the menu item being reviewed (optional)
+   * @param reviewerEmail email of the reviewer (optional)
+   * @param minStars lowest star rating to include (optional)
+   * @param maxStars highest star rating to include (optional)
+   * @param reviewedFrom earliest dateReviewed to include (optional)
+   * @param reviewedTo latest dateReviewed to include (optional)
+   * @return a specification matching all of the supplied filters
+   */
+  public static Specification<MenuItemReview> search(
+      Long itemId,
+      String reviewerEmail,
+      Integer minStars,
+      Integer maxStars,
+      LocalDateTime reviewedFrom,
+      LocalDateTime reviewedTo) {
+    return Specification.where(hasItemId(itemId))
+        .and(hasReviewerEmail(reviewerEmail))
+        .and(starsAtLeast(minStars))
+        .and(starsAtMost(maxStars))
+        .and(reviewedOnOrAfter(reviewedFrom))
+        .and(reviewedOnOrBefore(reviewedTo));
+  }
+
+  static Specification<MenuItemReview> hasItemId(Long itemId) {
+    if (itemId == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("itemId"), itemId);
+  }
+
+  static Specification<MenuItemReview> hasReviewerEmail(String reviewerEmail) {
+    if (reviewerEmail == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("reviewerEmail"), reviewerEmail);
+  }
+
+  static Specification<MenuItemReview> starsAtLeast(Integer minStars) {
+    if (minStars == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("stars"), minStars);
+  }
+
+  static Specification<MenuItemReview> starsAtMost(Integer maxStars) {
+    if (maxStars == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("stars"), maxStars);
+  }
+
+  static Specification<MenuItemReview> reviewedOnOrAfter(LocalDateTime reviewedFrom) {
+    if (reviewedFrom == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dateReviewed"), reviewedFrom);
+  }
+
+  static Specification<MenuItemReview> reviewedOnOrBefore(LocalDateTime reviewedTo) {
+    if (reviewedTo == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dateReviewed"), reviewedTo);
+  }
+}
@@ -1,10 +1,33 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.models.RecommendationRequestView;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** The RecommendationRequestRepository is a repository for RecomendationRequest entities */
 @Repository
 public interface RecommendationRequestRepository
-    extends CrudRepository<RecommendationRequest, Long> {}
+    extends CrudRepository<RecommendationRequest, Long>,
+        JpaSpecificationExecutor<RecommendationRequest> {
+  /**
+   * Lists all recommendation requests as read-only views.
+   *
+   * @return all recommendation requests
+   */
+  @Transactional(readOnly = true)
+  List<RecommendationRequestView> findAllViewsBy();
+
+  /**
+   * Looks up one of the recommendation requests as a read-only view.
+   *
+   * @param id id of the recommendation request
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<RecommendationRequestView> findViewById(long id);
+}
@@ -0,0 +1,123 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import jakarta.persistence.criteria.Path;
+import java.time.LocalDateTime;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specifications used to build filtered, keyset-paginated queries over RecommendationRequest
+ * entities.
+ *
+ * <p>Results are ordered by {@link #KEYSET_ORDER} (dateNeeded, then id). A page is continued by
+ * passing the dateNeeded and id of the last row already seen to {@link #after(LocalDateTime,
+ * Long)}, which lets the database seek straight to the next row through the dateNeeded indexes
+ * instead of counting past an offset. Requests with no dateNeeded are never returned, because they
+ * have no place in that order.
+ *
+ * <p>As in {@link MenuItemReviewSpecifications}, each filter returns {@code null} when its value is
+ * absent, which adds no predicate.
+ */
+public final class RecommendationRequestSpecifications {
+
+  /** The order that keyset pages follow. */
+  public static final Sort KEYSET_ORDER = Sort.by(Sort.Direction.ASC, "dateNeeded", "id");
+
+  private RecommendationRequestSpecifications() {}
+
+  /**
+   * Build a specification combining all of the supplied filters.
+   *
+   * @param professorEmail email of the professor (optional)
+   * @param requesterEmail email of the requester (optional)
+   * @param done whether the request is done (optional)
+   * @param neededFrom earliest dateNeeded to include (optional)
+   * @param neededTo latest dateNeeded to include (optional)
+   * @param afterDateNeeded dateNeeded of the last row of the previous page (optional)
+   * @param afterId id of the last row of the previous page (optional)
+   * @return a specification matching all of the supplied filters
+   */
+  public static Specification<RecommendationRequest> search(
+      String professorEmail,
+      String requesterEmail,
+      Boolean done,
+      LocalDateTime neededFrom,
+      LocalDateTime neededTo,
+      LocalDateTime afterDateNeeded,
+      Long afterId) {
+    return Specification.where(hasDateNeeded())
+        .and(hasProfessorEmail(professorEmail))
+        .and(hasRequesterEmail(requesterEmail))
+        .and(isDone(done))
+        .and(neededOnOrAfter(neededFrom))
+        .and(neededOnOrBefore(neededTo))
+        .and(after(afterDateNeeded, afterId));
+  }
+
+  static Specification<RecommendationRequest> hasDateNeeded() {
+    return (root, query, cb) -> cb.isNotNull(root.get("dateNeeded"));
+  }
+
+  static Specification<RecommendationRequest> hasProfessorEmail(String professorEmail) {
+    if (professorEmail == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("professorEmail"), professorEmail);
+  }
+
+  static Specification<RecommendationRequest> hasRequesterEmail(String requesterEmail) {
+    if (requesterEmail == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("requesterEmail"), requesterEmail);
+  }
+
+  static Specification<RecommendationRequest> isDone(Boolean done) {
+    if (done == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("done"), done);
+  }
+
+  static Specification<RecommendationRequest> neededOnOrAfter(LocalDateTime neededFrom) {
+    if (neededFrom == null) {
+      return null;
+    }
+    return (root, query, cb) ->
+        cb.greaterThanOrEqualTo(root.<LocalDateTime>get("dateNeeded"), neededFrom);
+  }
+
+  static Specification<RecommendationRequest> neededOnOrBefore(LocalDateTime neededTo) {
+    if (neededTo == null) {
+      return null;
+    }
+    return (root, query, cb) ->
+        cb.lessThanOrEqualTo(root.<LocalDateTime>get("dateNeeded"), neededTo);
+  }
+
+  /**
+   * Rows that come after (dateNeeded, id) in {@link #KEYSET_ORDER}. If only afterDateNeeded is
+   * given, rows strictly after that date.
+   *
+   * @param afterDateNeeded dateNeeded of the last row already seen (optional)
+   * @param afterId id of the last row already seen (optional)
+   * @return the keyset predicate, or null when there is no cursor
+   */
+  static Specification<RecommendationRequest> after(LocalDateTime afterDateNeeded, Long afterId) {
+    if (afterDateNeeded == null) {
+      return null;
+    }
+    return (root, query, cb) -> {
+      Path<LocalDateTime> dateNeeded = root.get("dateNeeded");
+      if (afterId == null) {
+        return cb.greaterThan(dateNeeded, afterDateNeeded);
+      }
+      return cb.or(
+          cb.greaterThan(dateNeeded, afterDateNeeded),
+          cb.and(
+              cb.equal(dateNeeded, afterDateNeeded),
+              cb.greaterThan(root.<Long>get("id"), afterId)));
+    };
+  }
+}
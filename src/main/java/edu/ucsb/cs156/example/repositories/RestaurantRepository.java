@@ -1,9 +1,30 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.models.RestaurantView;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** The RestaurantRepository is a repository for Restaurant entities */
 @Repository
-public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {}
+public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
+  /**
+   * Lists all restaurants as read-only views.
+   *
+   * @return all restaurants
+   */
+  @Transactional(readOnly = true)
+  List<RestaurantView> findAllViewsBy();
+
+  /**
+   * Looks up one of the restaurants as a read-only view.
+   *
+   * @param id id of the restaurant
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<RestaurantView> findViewById(long id);
+}
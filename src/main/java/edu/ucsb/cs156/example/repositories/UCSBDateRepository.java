@@ -1,8 +1,12 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.UCSBDateView;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** The UCSBDateRepository is a repository for UCSBDate entities. */
 @Repository
@@ -15,4 +19,21 @@ public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
    * @return all UCSBDate entities with a given quarterYYYYQ
    */
   Iterable<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
+
+  /**
+   * Lists all UCSB dates as read-only views.
+   *
+   * @return all UCSB dates
+   */
+  @Transactional(readOnly = true)
+  List<UCSBDateView> findAllViewsBy();
+
+  /**
+   * Looks up one of the UCSB dates as a read-only view.
+   *
+   * @param id id of the date
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<UCSBDateView> findViewById(long id);
 }
@@ -1,10 +1,47 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsMenuItemsView;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** The UCSBDiningCommonsRepository is a repository for UCSBDiningCommonsMenuItems entities */
 @Repository
 public interface UCSBDiningCommonsMenuItemsRepository
-    extends CrudRepository<UCSBDiningCommonsMenuItems, Long> {}
+    extends CrudRepository<UCSBDiningCommonsMenuItems, Long> {
+
+  /**
+   * All menu items for one dining commons, ordered by station and then name. Served by the
+   * (dining_commons_code, station) index. The rows only feed the menu cache, so they are loaded
+   * read-only.
+   *
+   * @param diningCommonsCode code of the dining commons
+   * @return the menu items
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  List<UCSBDiningCommonsMenuItems> findByDiningCommonsCodeOrderByStationAscNameAsc(
+      String diningCommonsCode);
+
+  /**
+   * Lists all menu items as read-only views.
+   *
+   * @return all menu items
+   */
+  @Transactional(readOnly = true)
+  List<UCSBDiningCommonsMenuItemsView> findAllViewsBy();
+
+  /**
+   * Looks up one of the menu items as a read-only view.
+   *
+   * @param id id of the menu item
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<UCSBDiningCommonsMenuItemsView> findViewById(long id);
+}
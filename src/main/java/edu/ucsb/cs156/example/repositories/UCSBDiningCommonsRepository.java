@@ -1,9 +1,30 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsView;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities */
 @Repository
-public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {}
+public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
+  /**
+   * Lists all dining commons as read-only views.
+   *
+   * @return all dining commons
+   */
+  @Transactional(readOnly = true)
+  List<UCSBDiningCommonsView> findAllViewsBy();
+
+  /**
+   * Looks up one of the dining commons as a read-only view.
+   *
+   * @param code code of the dining commons
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<UCSBDiningCommonsView> findViewByCode(String code);
+}
@@ -1,8 +1,29 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.models.UCSBOrganizationView;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface UCSBOrganizationRepository extends CrudRepository<UCSBOrganization, String> {}
+public interface UCSBOrganizationRepository extends CrudRepository<UCSBOrganization, String> {
+  /**
+   * Lists all organizations as read-only views.
+   *
+   * @return all organizations
+   */
+  @Transactional(readOnly = true)
+  List<UCSBOrganizationView> findAllViewsBy();
+
+  /**
+   * Looks up one of the organizations as a read-only view.
+   *
+   * @param orgCode code of the organization
+   * @return the view, or empty if there is no such row
+   */
+  @Transactional(readOnly = true)
+  Optional<UCSBOrganizationView> findViewByOrgCode(String orgCode);
+}
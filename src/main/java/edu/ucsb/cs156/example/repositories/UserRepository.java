@@ -2,12 +2,20 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
-/** The UserRepository is a repository for User entities. */
+/**
+ * The UserRepository is a repository for User entities.
+ *
+ * <p>Emails are unique; use {@link #upsertByEmail} rather than {@code findByEmail} followed by
+ * {@code save} to create a user who may not exist yet. Listings are built from {@link
+ * UserSpecifications}.
+ */
 @Repository
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository
+    extends CrudRepository<User, Long>, JpaSpecificationExecutor<User>, UserUpsertRepository {
   /**
    * This method returns a User entity with a given email.
    *
@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specifications used to build filtered, keyset-paginated queries over User entities.
+ *
+ * <p>Results are ordered by id ({@link #KEYSET_ORDER}); a page is continued by passing the id of
+ * the last user already seen to {@link #after(Long)}, so the database seeks through the primary key
+ * rather than counting past an offset. As in {@link RecommendationRequestSpecifications}, each
+ * filter returns {@code null} when its value is absent, which adds no predicate.
+ */
+public final class UserSpecifications {
+
+  /** The order that keyset pages follow. */
+  public static final Sort KEYSET_ORDER = Sort.by(Sort.Direction.ASC, "id");
+
+  private UserSpecifications() {}
+
+  /**
+   * Build a specification combining all of the supplied filters.
+   *
+   * @param emailPrefix start of the email address (optional)
+   * @param admin whether the user is an admin (optional)
+   * @param hostedDomain the user's Google hosted domain, e.g. ucsb.edu (optional)
+   * @param afterId id of the last row of the previous page (optional)
+   * @return a specification matching all of the supplied filters
+   */
+  public static Specification<User> search(
+      String emailPrefix, Boolean admin, String hostedDomain, Long afterId) {
+    return Specification.where(emailStartsWith(emailPrefix))
+        .and(isAdmin(admin))
+        .and(hasHostedDomain(hostedDomain))
+        .and(after(afterId));
+  }
+
+  static Specification<User> emailStartsWith(String emailPrefix) {
+    if (emailPrefix == null || emailPrefix.isEmpty()) {
+      return null;
+    }
+    String pattern = emailPrefix.replaceAll("([\\\\%_])", "\\\\$1") + "%";
+    return (root, query, cb) -> cb.like(root.get("email"), pattern, '\\');
+  }
+
+  static Specification<User> isAdmin(Boolean admin) {
+    if (admin == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("admin"), admin);
+  }
+
+  static Specification<User> hasHostedDomain(String hostedDomain) {
+    if (hostedDomain == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("hostedDomain"), hostedDomain);
+  }
+
+  static Specification<User> after(Long afterId) {
+    if (afterId == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.greaterThan(root.<Long>get("id"), afterId);
+  }
+}
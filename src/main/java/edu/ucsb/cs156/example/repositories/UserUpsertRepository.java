@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.User;
+
+/** Custom methods of {@link UserRepository} that are written in SQL rather than derived. */
+public interface UserUpsertRepository {
+  /**
+   * Stores a user unless a user with the same email is already stored, and returns the stored row
+   * either way. This is a single statement, so two requests racing to create the same user both get
+   * the one row that was stored.
+   *
+   * @param user the user to store if their email is new (the id is ignored)
+   * @return the stored user with that email
+   */
+  User upsertByEmail(User user);
+}
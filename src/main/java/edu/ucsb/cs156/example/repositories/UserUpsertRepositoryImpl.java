@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.User;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implements {@link UserUpsertRepository} with one native statement that inserts the user if the
+ * email is new and then reads the row back, relying on the unique index on {@code USERS.EMAIL}:
+ *
+ * <ul>
+ *   <li>on PostgreSQL, {@code INSERT ... ON CONFLICT (EMAIL) DO NOTHING} in a CTE;
+ *   <li>otherwise (H2), {@code MERGE ... WHEN NOT MATCHED THEN INSERT} read through {@code FINAL
+ *       TABLE}.
+ * </ul>
+ *
+ * <p>Either way the insert is skipped for an existing user, so their row is not rewritten. If a
+ * concurrent insert of the same email wins, H2 reports a duplicate key and PostgreSQL may not see
+ * the other row yet; both cases fall back to reading the row that won.
+ */
+@Transactional
+public class UserUpsertRepositoryImpl implements UserUpsertRepository {
+
+  static final String COLUMNS =
+      "EMAIL, GOOGLE_SUB, PICTURE_URL, FULL_NAME, GIVEN_NAME, FAMILY_NAME, EMAIL_VERIFIED, LOCALE,"
+          + " HOSTED_DOMAIN, ADMIN";
+
+  static final String VALUES =
+      ":email, :googleSub, :pictureUrl, :fullName, :givenName, :familyName, :emailVerified,"
+          + " :locale, :hostedDomain, :admin";
+
+  static final String POSTGRES_UPSERT =
+      "WITH INSERTED AS (INSERT INTO USERS ("
+          + COLUMNS
+          + ") VALUES ("
+          + VALUES
+          + ") ON CONFLICT (EMAIL) DO NOTHING RETURNING *)"
+          + " SELECT * FROM INSERTED UNION ALL SELECT * FROM USERS WHERE EMAIL = :email LIMIT 1";
+
+  static final String MERGE_UPSERT =
+      "SELECT * FROM FINAL TABLE (MERGE INTO USERS U"
+          + " USING (VALUES (CAST(:email AS VARCHAR(255)))) S(EMAIL) ON U.EMAIL = S.EMAIL"
+          + " WHEN NOT MATCHED THEN INSERT ("
+          + COLUMNS
+          + ") VALUES ("
+          + VALUES
+          + "))"
+          + " UNION ALL SELECT * FROM USERS WHERE EMAIL = :email LIMIT 1";
+
+  static final String SELECT_BY_EMAIL = "SELECT * FROM USERS WHERE EMAIL = :email";
+
+  private static final BeanPropertyRowMapper<User> ROW_MAPPER =
+      BeanPropertyRowMapper.newInstance(User.class);
+
+  @Autowired NamedParameterJdbcTemplate jdbcTemplate;
+
+  private volatile String upsertSql;
+
+  @Override
+  public User upsertByEmail(User user) {
+    BeanPropertySqlParameterSource params = new BeanPropertySqlParameterSource(user);
+    List<User> rows;
+    try {
+      rows = jdbcTemplate.query(upsertSql(), params, ROW_MAPPER);
+    } catch (DuplicateKeyException e) {
+      rows = List.of();
+    }
+    if (rows.isEmpty()) {
+      rows = jdbcTemplate.query(SELECT_BY_EMAIL, params, ROW_MAPPER);
+    }
+    return rows.get(0);
+  }
+
+  private String upsertSql() {
+    if (upsertSql == null) {
+      upsertSql =
+          upsertSqlFor(
+              jdbcTemplate
+                  .getJdbcTemplate()
+                  .execute(
+                      (ConnectionCallback<String>)
+                          connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+    return upsertSql;
+  }
+
+  static String upsertSqlFor(String databaseProductName) {
+    return "PostgreSQL".equals(databaseProductName) ? POSTGRES_UPSERT : MERGE_UPSERT;
+  }
+}
@@ -0,0 +1,139 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.AdminRoleCacheStats;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that decides whether a user gets the admin role when they log in.
+ *
+ * <p>A user is an admin if their email is in {@code app.admin.emails} (kept in a hash set) or if
+ * the admin column of their row in the users table is set. The admin column is cached per email, so
+ * a burst of logins (e.g. at the start of a section) does not turn into a burst of queries. Whoever
+ * changes {@link User#getAdmin()} must call {@link #userSaved}; changes made by another instance of
+ * the app are seen after {@code app.adminroles.ttlMs} milliseconds.
+ */
+@Service
+public class AdminRoleService implements MeterBinder {
+
+  @Autowired UserRepository userRepository;
+
+  @Value("${app.admin.emails}")
+  Set<String> adminEmails = new HashSet<>();
+
+  @Value("${app.adminroles.ttlMs:600000}")
+  long ttlMs = 600000;
+
+  LongSupplier clock = System::nanoTime;
+
+  /** A cached admin flag and when it was read. */
+  private record Entry(boolean admin, long loadedAt) {}
+
+  private final Map<String, Entry> byEmail = new ConcurrentHashMap<>();
+
+  private final LongAdder listed = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Returns whether an email is in {@code app.admin.emails}.
+   *
+   * @param email email address of the user
+   * @return true if the email is listed as an admin email
+   */
+  public boolean isListedAdmin(String email) {
+    return adminEmails.contains(email);
+  }
+
+  /**
+   * Returns whether the user with the given email is an admin, either because the email is listed
+   * in {@code app.admin.emails} or because their stored user is an admin.
+   *
+   * @param email email address of the user
+   * @return whether the user with the given email is an admin
+   */
+  public boolean isAdmin(String email) {
+    if (isListedAdmin(email)) {
+      listed.increment();
+      return true;
+    }
+    long now = clock.getAsLong();
+    Entry entry = byEmail.get(email);
+    if (entry != null && !expired(entry, now)) {
+      hits.increment();
+      return entry.admin();
+    }
+    misses.increment();
+    boolean admin = userRepository.findByEmail(email).map(User::getAdmin).orElse(false);
+    byEmail.put(email, new Entry(admin, now));
+    return admin;
+  }
+
+  /**
+   * Records the admin flag of a user that was just saved, so the next login sees it at once.
+   *
+   * @param user the saved user
+   */
+  public void userSaved(User user) {
+    byEmail.put(user.getEmail(), new Entry(user.getAdmin(), clock.getAsLong()));
+  }
+
+  /**
+   * Forgets the cached admin flag for an email, so the next login reads the database.
+   *
+   * @param email email address of the user
+   */
+  public void evict(String email) {
+    byEmail.remove(email);
+  }
+
+  /**
+   * Returns counts of how admin lookups were answered since the app started.
+   *
+   * @return the cache statistics
+   */
+  public AdminRoleCacheStats stats() {
+    long h = hits.sum();
+    long m = misses.sum();
+    return AdminRoleCacheStats.builder()
+        .listed(listed.sum())
+        .hits(h)
+        .misses(m)
+        .hitRate(h + m == 0 ? 0 : (double) h / (h + m))
+        .size(byEmail.size())
+        .build();
+  }
+
+  /**
+   * Publishes the lookups answered from the cache and from the database as the {@code adminRoles}
+   * cache (see {@link CacheMetrics}); lookups answered from the list of admin emails are neither.
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CacheMetrics.bind(registry, "adminRoles", hits, misses, byEmail);
+  }
+
+  /** Drops expired flags so users who have not logged in for a while do not stay in memory. */
+  @Scheduled(fixedDelayString = "${app.adminroles.ttlMs:600000}")
+  public void purgeExpired() {
+    long now = clock.getAsLong();
+    byEmail.values().removeIf(entry -> expired(entry, now));
+  }
+
+  private boolean expired(Entry entry, long now) {
+    return now - entry.loadedAt() >= TimeUnit.MILLISECONDS.toNanos(ttlMs);
+  }
+}
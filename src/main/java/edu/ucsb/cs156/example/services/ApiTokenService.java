@@ -0,0 +1,168 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.ApiToken;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.IssuedApiToken;
+import edu.ucsb.cs156.example.repositories.ApiTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.function.ThrowingSupplier;
+
+/**
+ * This is a service that issues API tokens and checks the ones presented as {@code Authorization:
+ * Bearer} headers.
+ *
+ * <p>A token is 32 random bytes, so unlike a password it cannot be guessed from its hash, and a
+ * single SHA-256 (rather than a deliberately slow password hash) is enough to store it safely.
+ * Tokens that have been checked are kept in memory by hash for {@code app.apitokens.ttlMs}
+ * milliseconds, so a script calling the API over and over does not query the database on every
+ * call. Revoking a token here takes effect at once; another instance of the app stops accepting it
+ * when its entry expires. Unknown tokens are not cached, so made-up tokens cannot fill the cache;
+ * instead {@link edu.ucsb.cs156.example.config.ApiTokenFilter} rate limits the lookups that miss
+ * it.
+ */
+@Service
+public class ApiTokenService implements MeterBinder {
+
+  static final String PREFIX = "cs156_";
+
+  /** Every Java platform supports SHA-256, so this never actually throws. */
+  private static final ThrowingSupplier<MessageDigest> SHA_256 =
+      () -> MessageDigest.getInstance("SHA-256");
+
+  @Autowired ApiTokenRepository apiTokenRepository;
+
+  @Value("${app.apitokens.ttlMs:60000}")
+  long ttlMs = 60000;
+
+  LongSupplier clock = System::nanoTime;
+
+  private final SecureRandom random = new SecureRandom();
+
+  /** A checked token's user and when it was read. */
+  private record Entry(User user, long loadedAt) {}
+
+  private final Map<String, Entry> byHash = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Issues a new token for a user. The token is returned only here; only its hash is stored.
+   *
+   * @param user the user the token acts as
+   * @param name what the token is for, e.g. "nightly load test"
+   * @return the stored token's id and the token itself
+   */
+  public IssuedApiToken issue(User user, String name) {
+    byte[] bytes = new byte[32];
+    random.nextBytes(bytes);
+    String token = PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    ApiToken saved =
+        apiTokenRepository.save(
+            ApiToken.builder()
+                .user(user)
+                .name(name)
+                .tokenHash(hash(token))
+                .createdAt(LocalDateTime.now())
+                .build());
+    return IssuedApiToken.builder()
+        .id(saved.getId())
+        .name(name)
+        .email(user.getEmail())
+        .token(token)
+        .build();
+  }
+
+  /**
+   * Returns the user a token acts as if it was checked recently, without going to the database.
+   *
+   * @param token the token from the Authorization header
+   * @return the user, or empty if the token is not in memory
+   */
+  public Optional<User> findCached(String token) {
+    Entry entry = byHash.get(hash(token));
+    if (entry == null || expired(entry, clock.getAsLong())) {
+      return Optional.empty();
+    }
+    hits.increment();
+    return Optional.of(entry.user());
+  }
+
+  /**
+   * Returns the user a token acts as, from memory if it was checked recently.
+   *
+   * @param token the token from the Authorization header
+   * @return the user, or empty if there is no such token
+   */
+  public Optional<User> authenticate(String token) {
+    String hash = hash(token);
+    long now = clock.getAsLong();
+    Entry entry = byHash.get(hash);
+    if (entry != null && !expired(entry, now)) {
+      hits.increment();
+      return Optional.of(entry.user());
+    }
+    misses.increment();
+    Optional<User> user = apiTokenRepository.findByTokenHash(hash).map(ApiToken::getUser);
+    if (user.isPresent() && ttlMs > 0) {
+      byHash.put(hash, new Entry(user.get(), now));
+    } else {
+      byHash.remove(hash);
+    }
+    return user;
+  }
+
+  /**
+   * Deletes a token, so this instance of the app no longer accepts it.
+   *
+   * @param apiToken the token to delete
+   */
+  public void revoke(ApiToken apiToken) {
+    apiTokenRepository.delete(apiToken);
+    byHash.remove(apiToken.getTokenHash());
+  }
+
+  /**
+   * Publishes token checks answered from memory and from the database; see {@link CacheMetrics}.
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CacheMetrics.bind(registry, "apiTokens", hits, misses, byHash);
+  }
+
+  /** Drops expired entries so tokens that are no longer used do not stay in memory. */
+  @Scheduled(fixedDelayString = "${app.apitokens.ttlMs:60000}")
+  public void purgeExpired() {
+    long now = clock.getAsLong();
+    byHash.values().removeIf(entry -> expired(entry, now));
+  }
+
+  private boolean expired(Entry entry, long now) {
+    return now - entry.loadedAt() >= TimeUnit.MILLISECONDS.toNanos(ttlMs);
+  }
+
+  /**
+   * @param token a token
+   * @return the SHA-256 hash of the token, in hex, as stored in {@code API_TOKENS.TOKEN_HASH}
+   */
+  static String hash(String token) {
+    return HexFormat.of().formatHex(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+  }
+}
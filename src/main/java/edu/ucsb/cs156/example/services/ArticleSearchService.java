@@ -0,0 +1,179 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that keeps an in-process inverted index over the {@code title}, {@code url} and
+ * {@code explanation} of every Article.
+ *
+ * <p>Text is lower-cased and split on anything that is not a letter or digit. Each posting holds a
+ * field-weighted term frequency (title matches count {@value #TITLE_WEIGHT} times as much as url or
+ * explanation matches), and results are ranked by a BM25-style saturating tf times idf summed over
+ * the query terms. Documents matching more of the query terms therefore rank higher.
+ */
+@Slf4j
+@Service
+public class ArticleSearchService {
+
+  static final double TITLE_WEIGHT = 3.0;
+  private static final double K1 = 1.2;
+
+  @Autowired ArticlesRepository articlesRepository;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, Article> documents = new HashMap<>();
+  private final Map<Long, Map<String, Double>> termsByDocument = new HashMap<>();
+  private final Map<String, Map<Long, Double>> postings = new HashMap<>();
+
+  /** A document id and its relevance score. */
+  private record Hit(long id, double score) {}
+
+  /**
+   * Search articles by keyword.
+   *
+   * @param query free text query
+   * @param pageable which page of results to return
+   * @return the matching articles, best match first
+   */
+  public Page<Article> search(String query, Pageable pageable) {
+    Set<String> terms = new LinkedHashSet<>(tokenize(query));
+    lock.readLock().lock();
+    try {
+      Map<Long, Double> scores = new HashMap<>();
+      for (String term : terms) {
+        Map<Long, Double> posting = postings.get(term);
+        if (posting == null) {
+          continue;
+        }
+        double idf = Math.log(1.0 + (double) documents.size() / posting.size());
+        posting.forEach((id, tf) -> scores.merge(id, idf * tf * (K1 + 1) / (tf + K1), Double::sum));
+      }
+
+      List<Hit> hits = new ArrayList<>(scores.size());
+      scores.forEach((id, score) -> hits.add(new Hit(id, score)));
+      hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::id));
+
+      int from = (int) Math.min(pageable.getOffset(), hits.size());
+      int to = Math.min(from + pageable.getPageSize(), hits.size());
+      List<Article> content =
+          hits.subList(from, to).stream().map(hit -> documents.get(hit.id())).toList();
+      return new PageImpl<>(content, pageable, hits.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Add an article to the index, replacing any earlier version of it.
+   *
+   * @param article the article as saved
+   */
+  public void index(Article article) {
+    Map<String, Double> terms = new HashMap<>();
+    addTerms(terms, article.getTitle(), TITLE_WEIGHT);
+    addTerms(terms, article.getUrl(), 1.0);
+    addTerms(terms, article.getExplanation(), 1.0);
+
+    lock.writeLock().lock();
+    try {
+      unindex(article.getId());
+      documents.put(article.getId(), article);
+      termsByDocument.put(article.getId(), terms);
+      terms.forEach(
+          (term, tf) ->
+              postings.computeIfAbsent(term, t -> new HashMap<>()).put(article.getId(), tf));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove an article from the index.
+   *
+   * @param id id of the deleted article
+   */
+  public void remove(long id) {
+    lock.writeLock().lock();
+    try {
+      unindex(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drop the index and rebuild it from every Article in the database. The write lock is held from
+   * before the articles are read, so a write that lands during the rebuild is either read here or
+   * indexed after it, never indexed and then wiped. Searches wait for the rebuild.
+   *
+   * @return the number of articles indexed
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public int rebuild() {
+    lock.writeLock().lock();
+    try {
+      Iterable<Article> articles = articlesRepository.findAll();
+      documents.clear();
+      termsByDocument.clear();
+      postings.clear();
+      articles.forEach(this::index);
+      log.info("Article search index built for {} articles", documents.size());
+      return documents.size();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void unindex(long id) {
+    documents.remove(id);
+    Map<String, Double> terms = termsByDocument.remove(id);
+    if (terms == null) {
+      return;
+    }
+    for (String term : terms.keySet()) {
+      Map<Long, Double> posting = postings.get(term);
+      posting.remove(id);
+      if (posting.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+  }
+
+  private static void addTerms(Map<String, Double> terms, String text, double weight) {
+    for (String term : tokenize(text)) {
+      terms.merge(term, weight, Double::sum);
+    }
+  }
+
+  static List<String> tokenize(String text) {
+    if (text == null) {
+      return List.of();
+    }
+    List<String> tokens = new ArrayList<>();
+    for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+}
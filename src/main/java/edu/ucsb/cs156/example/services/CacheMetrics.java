@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the hits, misses and size of one of the app's in-memory caches under the names
+ * Micrometer uses for caches ({@code cache.gets} tagged {@code result=hit|miss}, and {@code
+ * cache.size}), so the hit ratio of every cache is charted the same way.
+ */
+final class CacheMetrics {
+
+  private CacheMetrics() {}
+
+  /**
+   * @param registry the registry to publish to
+   * @param cache the cache's name, e.g. "users"
+   * @param hits lookups answered from the cache
+   * @param misses lookups that went to the database
+   * @param entries the cache's entries
+   */
+  static void bind(
+      MeterRegistry registry, String cache, LongAdder hits, LongAdder misses, Map<?, ?> entries) {
+    FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+        .description("Lookups answered from the cache")
+        .tag("cache", cache)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+        .description("Lookups that missed the cache")
+        .tag("cache", cache)
+        .tag("result", "miss")
+        .register(registry);
+    Gauge.builder("cache.size", entries, Map::size)
+        .description("Entries in the cache")
+        .tag("cache", cache)
+        .register(registry);
+  }
+}
@@ -1,15 +1,12 @@
 package edu.ucsb.cs156.example.services;
 
+import edu.ucsb.cs156.example.config.ApiTokenAuthentication;
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.repositories.UserRepository;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -32,8 +29,9 @@ public class CurrentUserServiceImpl extends CurrentUserService {
 
   @Autowired GrantedAuthoritiesService grantedAuthoritiesService;
 
-  @Value("${app.admin.emails}")
-  private final List<String> adminEmails = new ArrayList<String>();
+  @Autowired UserCacheService userCacheService;
+
+  @Autowired AdminRoleService adminRoleService;
 
   /**
    * This method returns the current user as a User object.
@@ -42,7 +40,7 @@ public class CurrentUserServiceImpl extends CurrentUserService {
    */
   public CurrentUser getCurrentUser() {
     CurrentUser cu = CurrentUser.builder().user(this.getUser()).roles(this.getRoles()).build();
-    log.info("getCurrentUser returns {}", cu);
+    log.debug("getCurrentUser returns {}", cu);
     return cu;
   }
 
@@ -51,7 +49,9 @@ public class CurrentUserServiceImpl extends CurrentUserService {
    * automatically injected by Spring.
    *
    * <p>This method also has a side effect of storing the user in the database if they are not
-   * already there.
+   * already there. Lookups go through {@link UserCacheService}, so repeated calls in one request
+   * (and usually across requests) do not query the database, and a first login stores the user with
+   * a single upsert that is safe against concurrent first requests.
    *
    * @param securityContext the security context (provided by Spring)
    * @param authentication the authentication token (provided by Spring)
@@ -61,47 +61,35 @@ public class CurrentUserServiceImpl extends CurrentUserService {
       SecurityContext securityContext, Authentication authentication) {
     OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
     String email = oAuthUser.getAttribute("email");
-    String googleSub = oAuthUser.getAttribute("sub");
-    String pictureUrl = oAuthUser.getAttribute("picture");
-    String fullName = oAuthUser.getAttribute("name");
-    String givenName = oAuthUser.getAttribute("given_name");
-    String familyName = oAuthUser.getAttribute("family_name");
-    boolean emailVerified = oAuthUser.getAttribute("email_verified");
-    String locale = oAuthUser.getAttribute("locale");
-    String hostedDomain = oAuthUser.getAttribute("hd");
-
-    java.util.Map<java.lang.String, java.lang.Object> attrs = oAuthUser.getAttributes();
-    log.info("attrs={}", attrs);
-
-    Optional<User> ou = userRepository.findByEmail(email);
-    if (ou.isPresent()) {
-      User u = ou.get();
-      if (adminEmails.contains(email) && !u.getAdmin()) {
-        u.setAdmin(true);
-        userRepository.save(u);
-      }
-      return u;
-    }
 
     User u =
-        User.builder()
-            .googleSub(googleSub)
-            .email(email)
-            .pictureUrl(pictureUrl)
-            .fullName(fullName)
-            .givenName(givenName)
-            .familyName(familyName)
-            .emailVerified(emailVerified)
-            .locale(locale)
-            .hostedDomain(hostedDomain)
-            .admin(adminEmails.contains(email))
-            .build();
-    userRepository.save(u);
+        userCacheService.findOrCreate(
+            User.builder()
+                .googleSub(oAuthUser.getAttribute("sub"))
+                .email(email)
+                .pictureUrl(oAuthUser.getAttribute("picture"))
+                .fullName(oAuthUser.getAttribute("name"))
+                .givenName(oAuthUser.getAttribute("given_name"))
+                .familyName(oAuthUser.getAttribute("family_name"))
+                .emailVerified(oAuthUser.getAttribute("email_verified"))
+                .locale(oAuthUser.getAttribute("locale"))
+                .hostedDomain(oAuthUser.getAttribute("hd"))
+                .admin(adminRoleService.isListedAdmin(email))
+                .build());
+    if (adminRoleService.isListedAdmin(email) && !u.getAdmin()) {
+      // a new instance, so the flag is only seen by others once the save has succeeded
+      User promoted = u.toBuilder().admin(true).build();
+      userRepository.save(promoted);
+      userCacheService.put(promoted);
+      adminRoleService.userSaved(promoted);
+      return promoted;
+    }
     return u;
   }
 
   /**
-   * This method returns the current user as a User object.
+   * This method returns the current user as a User object: the OAuth2 logged-in user, or the user
+   * an API token acts as.
    *
    * @return the current user
    */
@@ -112,6 +100,9 @@ public class CurrentUserServiceImpl extends CurrentUserService {
     if (authentication instanceof OAuth2AuthenticationToken) {
       return getOAuth2AuthenticatedUser(securityContext, authentication);
     }
+    if (authentication instanceof ApiTokenAuthentication apiToken) {
+      return apiToken.getPrincipal();
+    }
     return null;
   }
 
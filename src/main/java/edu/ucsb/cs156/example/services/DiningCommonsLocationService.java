@@ -0,0 +1,119 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that answers location queries about dining commons from an in-memory {@link
+ * DiningCommonsSpatialIndex}.
+ *
+ * <p>The index is loaded from the database at startup and rebuilt (without going back to the
+ * database) whenever UCSBDiningCommonsController creates, updates or deletes a commons. Readers
+ * always see a complete, immutable index.
+ */
+@Slf4j
+@Service
+public class DiningCommonsLocationService {
+
+  @Autowired UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  private final Map<String, UCSBDiningCommons> commonsByCode = new HashMap<>();
+
+  private volatile DiningCommonsSpatialIndex index = DiningCommonsSpatialIndex.build(List.of());
+
+  /**
+   * Find the dining commons nearest to a point.
+   *
+   * @param lat latitude in degrees
+   * @param lon longitude in degrees
+   * @param k maximum number of results
+   * @param hasSackMeal if not null, only commons whose hasSackMeal matches
+   * @param hasTakeOutMeal if not null, only commons whose hasTakeOutMeal matches
+   * @param hasDiningCam if not null, only commons whose hasDiningCam matches
+   * @return up to k commons with their distances, nearest first
+   */
+  public List<NearbyDiningCommons> nearest(
+      double lat,
+      double lon,
+      int k,
+      Boolean hasSackMeal,
+      Boolean hasTakeOutMeal,
+      Boolean hasDiningCam) {
+    return index.nearest(lat, lon, k, filter(hasSackMeal, hasTakeOutMeal, hasDiningCam));
+  }
+
+  /**
+   * Find the dining commons inside a bounding box.
+   *
+   * @param minLat southern edge in degrees
+   * @param maxLat northern edge in degrees
+   * @param minLon western edge in degrees
+   * @param maxLon eastern edge in degrees
+   * @param hasSackMeal if not null, only commons whose hasSackMeal matches
+   * @param hasTakeOutMeal if not null, only commons whose hasTakeOutMeal matches
+   * @param hasDiningCam if not null, only commons whose hasDiningCam matches
+   * @return the matching commons
+   */
+  public List<UCSBDiningCommons> within(
+      double minLat,
+      double maxLat,
+      double minLon,
+      double maxLon,
+      Boolean hasSackMeal,
+      Boolean hasTakeOutMeal,
+      Boolean hasDiningCam) {
+    return index.within(
+        minLat, maxLat, minLon, maxLon, filter(hasSackMeal, hasTakeOutMeal, hasDiningCam));
+  }
+
+  /** Load every dining commons from the database and rebuild the index. */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    commonsByCode.clear();
+    ucsbDiningCommonsRepository.findAll().forEach(c -> commonsByCode.put(c.getCode(), c));
+    publish();
+    log.info("Dining commons spatial index built for {} commons", index.size());
+  }
+
+  /**
+   * Add or replace a dining commons in the index.
+   *
+   * @param commons the commons as saved
+   */
+  public synchronized void commonsSaved(UCSBDiningCommons commons) {
+    commonsByCode.put(commons.getCode(), commons);
+    publish();
+  }
+
+  /**
+   * Remove a dining commons from the index.
+   *
+   * @param code code of the deleted commons
+   */
+  public synchronized void commonsDeleted(String code) {
+    commonsByCode.remove(code);
+    publish();
+  }
+
+  private void publish() {
+    index = DiningCommonsSpatialIndex.build(List.copyOf(commonsByCode.values()));
+  }
+
+  private static Predicate<UCSBDiningCommons> filter(
+      Boolean hasSackMeal, Boolean hasTakeOutMeal, Boolean hasDiningCam) {
+    return c ->
+        (hasSackMeal == null || hasSackMeal == c.getHasSackMeal())
+            && (hasTakeOutMeal == null || hasTakeOutMeal == c.getHasTakeOutMeal())
+            && (hasDiningCam == null || hasDiningCam == c.getHasDiningCam());
+  }
+}
@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.DiningCommonsMenuStation;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that serves each dining commons' menu, grouped by station, as JSON.
+ *
+ * <p>The JSON for each commons is built once and kept until a menu item in that commons (or the
+ * commons itself) changes, so repeated reads at mealtimes skip both the database and Jackson.
+ * Callers evict after their write has committed. An evict that arrives while the same commons is
+ * being loaded waits for the load to finish and then removes it, so a stale menu is never left in
+ * the cache.
+ */
+@Slf4j
+@Service
+public class DiningCommonsMenuService {
+
+  @Autowired UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired UCSBDiningCommonsMenuItemsRepository ucsbDiningCommonsMenuItemsRepository;
+
+  @Autowired ObjectMapper mapper;
+
+  private final Map<String, byte[]> menus = new ConcurrentHashMap<>();
+
+  /**
+   * Get the menu for a dining commons as serialized JSON: a list of {@link
+   * DiningCommonsMenuStation}, ordered by station, with items ordered by name.
+   *
+   * @param code code of the dining commons
+   * @return the menu as UTF-8 JSON
+   * @throws EntityNotFoundException if there is no dining commons with this code
+   */
+  public byte[] getMenuJson(String code) {
+    return menus.computeIfAbsent(code, this::load);
+  }
+
+  /**
+   * Drop the cached menu for a dining commons.
+   *
+   * @param code code of the dining commons
+   */
+  public void evict(String code) {
+    if (code != null) {
+      menus.remove(code);
+    }
+  }
+
+  private byte[] load(String code) {
+    if (!ucsbDiningCommonsRepository.existsById(code)) {
+      throw new EntityNotFoundException(UCSBDiningCommons.class, code);
+    }
+    Map<String, List<UCSBDiningCommonsMenuItems>> byStation = new LinkedHashMap<>();
+    for (UCSBDiningCommonsMenuItems item :
+        ucsbDiningCommonsMenuItemsRepository.findByDiningCommonsCodeOrderByStationAscNameAsc(
+            code)) {
+      byStation.computeIfAbsent(item.getStation(), s -> new ArrayList<>()).add(item);
+    }
+    List<DiningCommonsMenuStation> stations =
+        byStation.entrySet().stream()
+            .map(
+                e ->
+                    DiningCommonsMenuStation.builder()
+                        .station(e.getKey())
+                        .items(e.getValue())
+                        .build())
+            .toList();
+    try {
+      byte[] json = mapper.writeValueAsBytes(stations);
+      log.info("Cached menu for dining commons {} ({} stations)", code, stations.size());
+      return json;
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
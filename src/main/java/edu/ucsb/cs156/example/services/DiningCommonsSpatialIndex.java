@@ -0,0 +1,202 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * An immutable spatial index over dining commons locations.
+ *
+ * <p>Nearest-neighbour queries use a k-d tree over each location's position on the unit sphere (x,
+ * y, z). Straight-line (chord) distance in 3D grows monotonically with great-circle distance, so
+ * pruning the tree with plain Euclidean bounds is exact, and there is no special casing near the
+ * poles or the antimeridian. Bounding-box queries binary search an array sorted by latitude and
+ * then check longitude.
+ *
+ * <p>Commons without a latitude or longitude are left out of the index.
+ */
+public final class DiningCommonsSpatialIndex {
+
+  static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+  private final Node root;
+  private final Point[] byLatitude;
+
+  private record Point(UCSBDiningCommons commons, double lat, double lon, double[] xyz) {}
+
+  private record Node(Point point, int axis, Node left, Node right) {}
+
+  private record Candidate(Point point, double chord) {}
+
+  private DiningCommonsSpatialIndex(Point[] points) {
+    this.root = build(points.clone(), 0, points.length, 0);
+    this.byLatitude = points.clone();
+    Arrays.sort(byLatitude, Comparator.comparingDouble(Point::lat));
+  }
+
+  /**
+   * Build an index over the given dining commons.
+   *
+   * @param commons the dining commons to index
+   * @return a new index
+   */
+  public static DiningCommonsSpatialIndex build(Collection<UCSBDiningCommons> commons) {
+    return new DiningCommonsSpatialIndex(
+        commons.stream()
+            .filter(c -> c.getLatitude() != null && c.getLongitude() != null)
+            .map(
+                c ->
+                    new Point(
+                        c,
+                        c.getLatitude(),
+                        c.getLongitude(),
+                        toXyz(c.getLatitude(), c.getLongitude())))
+            .toArray(Point[]::new));
+  }
+
+  /**
+   * Find the k dining commons closest to a point that satisfy a filter.
+   *
+   * @param lat latitude of the query point in degrees
+   * @param lon longitude of the query point in degrees
+   * @param k maximum number of results
+   * @param filter only commons matching this filter are returned
+   * @return up to k commons, nearest first
+   */
+  public List<NearbyDiningCommons> nearest(
+      double lat, double lon, int k, Predicate<UCSBDiningCommons> filter) {
+    if (k <= 0) {
+      return List.of();
+    }
+    double[] target = toXyz(lat, lon);
+    PriorityQueue<Candidate> best =
+        new PriorityQueue<>(Comparator.comparingDouble(Candidate::chord).reversed());
+    search(root, target, k, filter, best);
+
+    List<Candidate> ordered = new ArrayList<>(best);
+    ordered.sort(Comparator.comparingDouble(Candidate::chord));
+    return ordered.stream()
+        .map(
+            c ->
+                NearbyDiningCommons.builder()
+                    .commons(c.point().commons())
+                    .distanceMeters(
+                        2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, c.chord() / 2)))
+                    .build())
+        .toList();
+  }
+
+  /**
+   * Find the dining commons inside a latitude/longitude box that satisfy a filter. If minLon is
+   * greater than maxLon the box is taken to wrap across the antimeridian.
+   *
+   * @param minLat southern edge in degrees
+   * @param maxLat northern edge in degrees
+   * @param minLon western edge in degrees
+   * @param maxLon eastern edge in degrees
+   * @param filter only commons matching this filter are returned
+   * @return the matching commons, ordered by latitude
+   */
+  public List<UCSBDiningCommons> within(
+      double minLat,
+      double maxLat,
+      double minLon,
+      double maxLon,
+      Predicate<UCSBDiningCommons> filter) {
+    List<UCSBDiningCommons> result = new ArrayList<>();
+    for (int i = firstAtOrAbove(minLat); i < byLatitude.length; i++) {
+      Point p = byLatitude[i];
+      if (p.lat() > maxLat) {
+        break;
+      }
+      boolean inLon =
+          minLon <= maxLon
+              ? p.lon() >= minLon && p.lon() <= maxLon
+              : p.lon() >= minLon || p.lon() <= maxLon;
+      if (inLon && filter.test(p.commons())) {
+        result.add(p.commons());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of indexed commons
+   */
+  public int size() {
+    return byLatitude.length;
+  }
+
+  private int firstAtOrAbove(double lat) {
+    int lo = 0;
+    int hi = byLatitude.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (byLatitude[mid].lat() < lat) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private static Node build(Point[] points, int from, int to, int depth) {
+    if (from >= to) {
+      return null;
+    }
+    int axis = depth % 3;
+    Arrays.sort(points, from, to, Comparator.comparingDouble(p -> p.xyz()[axis]));
+    int mid = (from + to) >>> 1;
+    return new Node(
+        points[mid],
+        axis,
+        build(points, from, mid, depth + 1),
+        build(points, mid + 1, to, depth + 1));
+  }
+
+  private static void search(
+      Node node,
+      double[] target,
+      int k,
+      Predicate<UCSBDiningCommons> filter,
+      PriorityQueue<Candidate> best) {
+    if (node == null) {
+      return;
+    }
+    if (filter.test(node.point().commons())) {
+      best.offer(new Candidate(node.point(), chord(node.point().xyz(), target)));
+      if (best.size() > k) {
+        best.poll();
+      }
+    }
+    double diff = target[node.axis()] - node.point().xyz()[node.axis()];
+    Node near = diff < 0 ? node.left() : node.right();
+    Node far = diff < 0 ? node.right() : node.left();
+    search(near, target, k, filter, best);
+    if (best.size() < k || Math.abs(diff) < best.peek().chord()) {
+      search(far, target, k, filter, best);
+    }
+  }
+
+  private static double chord(double[] a, double[] b) {
+    double dx = a[0] - b[0];
+    double dy = a[1] - b[1];
+    double dz = a[2] - b[2];
+    return Math.sqrt(dx * dx + dy * dy + dz * dz);
+  }
+
+  private static double[] toXyz(double lat, double lon) {
+    double phi = Math.toRadians(lat);
+    double lambda = Math.toRadians(lon);
+    return new double[] {
+      Math.cos(phi) * Math.cos(lambda), Math.cos(phi) * Math.sin(lambda), Math.sin(phi)
+    };
+  }
+}
@@ -0,0 +1,290 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * This is a service that pushes the queue of unsolved help requests to subscribers over server-sent
+ * events.
+ *
+ * <p>The open queue is kept in memory, loaded once at startup and then updated by
+ * HelpRequestController on every write, so subscribing never touches the database. Each new
+ * subscriber receives a {@code snapshot} event (the open requests ordered by requestTime), then
+ * {@code upsert} and {@code remove} events as requests are created, edited, solved or deleted.
+ *
+ * <p>All state changes run on one broadcaster thread, which keeps events in order and means a
+ * subscriber can never miss or double-count a change made while its snapshot is being queued. Each
+ * event is serialized once, however many subscribers there are, and handed to every subscriber's
+ * own queue of at most {@code subscriberBacklog} events. A pool of sender threads writes each queue
+ * to its client, one client per thread at a time, so a slow or half-open client only holds up
+ * itself. A client that falls so far behind that its queue is full is dropped and its emitter
+ * completed; the browser's EventSource reconnects and starts again from a fresh snapshot.
+ */
+@Slf4j
+@Service
+public class HelpRequestQueueBroadcaster implements MeterBinder {
+
+  static final Comparator<HelpRequest> QUEUE_ORDER =
+      Comparator.comparing(
+              HelpRequest::getRequestTime,
+              Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+          .thenComparingLong(HelpRequest::getId);
+
+  @Autowired HelpRequestRepository helpRequestRepository;
+
+  @Autowired ObjectMapper mapper;
+
+  @Value("${app.helpqueue.emitterTimeoutMs:1800000}")
+  long emitterTimeoutMs = 1_800_000;
+
+  @Value("${app.helpqueue.subscriberBacklog:100}")
+  int subscriberBacklog = 100;
+
+  // a ThreadPoolExecutor rather than Executors.newSingleThreadExecutor, so its metrics can be read
+  private final ThreadPoolExecutor broadcasterThread =
+      new ThreadPoolExecutor(
+          1,
+          1,
+          0,
+          TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(),
+          r -> {
+            Thread t = new Thread(r, "help-queue-broadcaster");
+            t.setDaemon(true);
+            return t;
+          });
+
+  Executor executor = broadcasterThread;
+
+  private final ThreadPoolExecutor senderThreads;
+
+  Executor sender;
+
+  // only read and written on the broadcaster thread
+  private final Map<Long, HelpRequest> open = new HashMap<>();
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  private final LongAdder dropped = new LongAdder();
+
+  /** A connected client and the events queued for it. */
+  private static final class Subscriber {
+    private final SseEmitter emitter;
+    private final BlockingQueue<Set<DataWithMediaType>> backlog;
+    // events queued and not yet sent; whoever takes it from 0 to 1 starts draining the queue
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private Subscriber(SseEmitter emitter, int capacity) {
+      this.emitter = emitter;
+      this.backlog = new ArrayBlockingQueue<>(capacity);
+    }
+  }
+
+  /**
+   * @param senders number of threads that write events to clients
+   */
+  public HelpRequestQueueBroadcaster(@Value("${app.helpqueue.senderThreads:8}") int senders) {
+    AtomicInteger threads = new AtomicInteger();
+    senderThreads =
+        new ThreadPoolExecutor(
+            senders,
+            senders,
+            0,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+              Thread t = new Thread(r, "help-queue-sender-" + threads.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+    sender = senderThreads;
+  }
+
+  /** Load the unsolved help requests from the database. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    executor.execute(
+        () -> {
+          open.clear();
+          helpRequestRepository.findAllBySolved(false).forEach(r -> open.put(r.getId(), r));
+          log.info("Help request queue loaded with {} open requests", open.size());
+        });
+  }
+
+  /**
+   * Subscribe to the open help request queue.
+   *
+   * @return an emitter that receives a snapshot followed by changes
+   */
+  public SseEmitter subscribe() {
+    SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+    register(emitter);
+    return emitter;
+  }
+
+  void register(SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(emitter, subscriberBacklog);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    executor.execute(
+        () -> {
+          String snapshot = toJson(open.values().stream().sorted(QUEUE_ORDER).toList());
+          subscribers.add(subscriber);
+          enqueue(subscriber, event("snapshot", snapshot));
+        });
+  }
+
+  /**
+   * Record that a help request was created or updated. Solved requests leave the queue.
+   *
+   * @param request the request as saved
+   */
+  public void requestSaved(HelpRequest request) {
+    executor.execute(
+        () -> {
+          if (request.getSolved()) {
+            removeAndBroadcast(request.getId());
+          } else {
+            open.put(request.getId(), request);
+            broadcast("upsert", toJson(request));
+          }
+        });
+  }
+
+  /**
+   * Record that a help request was deleted.
+   *
+   * @param id id of the deleted request
+   */
+  public void requestDeleted(long id) {
+    executor.execute(() -> removeAndBroadcast(id));
+  }
+
+  /** Send a comment to every subscriber so idle connections stay open and dead ones are dropped. */
+  @Scheduled(fixedDelayString = "${app.helpqueue.heartbeatMs:30000}")
+  public void heartbeat() {
+    executor.execute(
+        () -> {
+          Set<DataWithMediaType> keepAlive = SseEmitter.event().comment("keep-alive").build();
+          subscribers.forEach(subscriber -> enqueue(subscriber, keepAlive));
+        });
+  }
+
+  /**
+   * @return the number of connected subscribers
+   */
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  /**
+   * Publishes the broadcaster and sender threads' queue and task counts as the {@code
+   * helpQueueBroadcaster} and {@code helpQueueSender} executors, the number of subscribers as
+   * {@code helpqueue.subscribers}, and how many were dropped for falling behind as {@code
+   * helpqueue.dropped}.
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    new ExecutorServiceMetrics(broadcasterThread, "helpQueueBroadcaster", Tags.empty())
+        .bindTo(registry);
+    new ExecutorServiceMetrics(senderThreads, "helpQueueSender", Tags.empty()).bindTo(registry);
+    Gauge.builder("helpqueue.subscribers", subscribers, Set::size)
+        .description("Clients subscribed to the help request queue")
+        .register(registry);
+    FunctionCounter.builder("helpqueue.dropped", dropped, LongAdder::sum)
+        .description("Subscribers dropped because their queue of unsent events was full")
+        .register(registry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    broadcasterThread.shutdownNow();
+    senderThreads.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+  }
+
+  private void removeAndBroadcast(long id) {
+    if (open.remove(id) != null) {
+      broadcast("remove", toJson(Map.of("id", id)));
+    }
+  }
+
+  private void broadcast(String eventName, String json) {
+    Set<DataWithMediaType> event = event(eventName, json);
+    subscribers.forEach(subscriber -> enqueue(subscriber, event));
+  }
+
+  private static Set<DataWithMediaType> event(String name, String json) {
+    return SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON).build();
+  }
+
+  private void enqueue(Subscriber subscriber, Set<DataWithMediaType> event) {
+    if (!subscriber.backlog.offer(event)) {
+      log.info("Dropping a help queue subscriber that is {} events behind", subscriberBacklog);
+      dropped.increment();
+      subscribers.remove(subscriber);
+      subscriber.emitter.complete();
+      return;
+    }
+    if (subscriber.pending.getAndIncrement() == 0) {
+      sender.execute(() -> drain(subscriber));
+    }
+  }
+
+  /** Runs on a sender thread, at most once at a time per subscriber. */
+  private void drain(Subscriber subscriber) {
+    do {
+      try {
+        subscriber.emitter.send(subscriber.backlog.poll());
+      } catch (IOException | IllegalStateException e) {
+        // the client has gone away; the servlet container completes the emitter
+        subscribers.remove(subscriber);
+        return;
+      }
+    } while (subscriber.pending.decrementAndGet() > 0);
+  }
+
+  private String toJson(Object value) {
+    try {
+      return mapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,323 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import edu.ucsb.cs156.example.models.MenuItemLeaderboardEntry;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This is a service that keeps an in-memory "best rated right now" leaderboard of menu items.
+ *
+ * <p>Each review contributes its stars with a weight that halves every {@code halfLifeDays}, and
+ * the decayed average is shrunk towards the global mean by a Bayesian prior of {@code priorWeight}
+ * pseudo-reviews, so that a single five star review does not top the board. Each item keeps sums
+ * weighted by {@code e^(lambda * (t - reference))}. Every re-rank moves the reference time up to
+ * now and rescales the sums by {@code e^(-lambda * elapsed)}, so the weights stay at most about 1
+ * however short the half-life and however long the app runs, rather than growing until they
+ * overflow.
+ *
+ * <p>Writes update the per-item sums and re-rank into bounded heaps of at most {@code maxK} entries
+ * per dining commons. Reads only see the immutable ranked snapshot, so they never touch the
+ * database and cost O(k) regardless of how many reviews exist.
+ */
+@Slf4j
+@Service
+public class MenuItemLeaderboardService {
+
+  private static final Comparator<MenuItemLeaderboardEntry> BY_SCORE =
+      Comparator.comparingDouble(MenuItemLeaderboardEntry::getScore)
+          .thenComparingLong(MenuItemLeaderboardEntry::getReviewCount)
+          .thenComparing(Comparator.comparingLong(MenuItemLeaderboardEntry::getItemId).reversed());
+
+  @Autowired MenuItemReviewRepository menuItemReviewRepository;
+
+  @Autowired UCSBDiningCommonsMenuItemsRepository menuItemsRepository;
+
+  double halfLifeDays = 30;
+
+  @Value("${app.leaderboard.priorWeight:5}")
+  double priorWeight = 5;
+
+  @Value("${app.leaderboard.maxK:100}")
+  int maxK = 100;
+
+  Clock clock = Clock.systemDefaultZone();
+
+  private final Map<Long, ItemScore> items = new HashMap<>();
+  private LocalDateTime reference;
+  private long totalReviews;
+  private long totalStars;
+
+  private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of());
+
+  /** Running sums for a single menu item. */
+  private static final class ItemScore {
+    private String name;
+    private String diningCommonsCode;
+    private String station;
+    private long reviewCount;
+    private long starsSum;
+    private double weight;
+    private double weightedStars;
+  }
+
+  /** Immutable ranked view handed to readers. */
+  private record Snapshot(
+      List<MenuItemLeaderboardEntry> overall,
+      Map<String, List<MenuItemLeaderboardEntry>> byCommons) {}
+
+  /**
+   * @param halfLifeDays days after which a review counts half as much (must be positive)
+   */
+  @Value("${app.leaderboard.halfLifeDays:30}")
+  public void setHalfLifeDays(double halfLifeDays) {
+    if (!(halfLifeDays > 0)) {
+      throw new IllegalArgumentException("halfLifeDays must be positive but got " + halfLifeDays);
+    }
+    this.halfLifeDays = halfLifeDays;
+  }
+
+  /**
+   * Get the top rated menu items.
+   *
+   * @param k number of entries to return (capped at maxK)
+   * @param diningCommonsCode only rank items from this dining commons (null for all)
+   * @return at most k entries, best first
+   */
+  public List<MenuItemLeaderboardEntry> top(int k, String diningCommonsCode) {
+    Snapshot current = snapshot;
+    List<MenuItemLeaderboardEntry> ranked =
+        diningCommonsCode == null
+            ? current.overall()
+            : current.byCommons().getOrDefault(diningCommonsCode, List.of());
+    return ranked.subList(0, Math.max(0, Math.min(k, ranked.size())));
+  }
+
+  /** Load every review and menu item from the database and rebuild the leaderboard. */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuildFromDatabase() {
+    items.clear();
+    totalReviews = 0;
+    totalStars = 0;
+    reference = LocalDateTime.now(clock);
+    for (UCSBDiningCommonsMenuItems menuItem : menuItemsRepository.findAll()) {
+      describe(items.computeIfAbsent(menuItem.getId(), id -> new ItemScore()), menuItem);
+    }
+    for (MenuItemReview review : menuItemReviewRepository.findAll()) {
+      apply(review, 1);
+    }
+    rerank();
+    log.info("Menu item leaderboard built from {} reviews of {} items", totalReviews, items.size());
+  }
+
+  /**
+   * Re-rank periodically even without writes, since decay changes the relative order of items as
+   * time passes.
+   */
+  @Scheduled(fixedDelayString = "${app.leaderboard.rerankMs:60000}")
+  public synchronized void rerank() {
+    rebase();
+    double mean = totalReviews == 0 ? 0.0 : (double) totalStars / totalReviews;
+
+    PriorityQueue<MenuItemLeaderboardEntry> overall = new PriorityQueue<>(BY_SCORE);
+    Map<String, PriorityQueue<MenuItemLeaderboardEntry>> byCommons = new HashMap<>();
+    items.forEach(
+        (itemId, item) -> {
+          if (item.reviewCount <= 0) {
+            return;
+          }
+          MenuItemLeaderboardEntry entry =
+              MenuItemLeaderboardEntry.builder()
+                  .itemId(itemId)
+                  .name(item.name)
+                  .diningCommonsCode(item.diningCommonsCode)
+                  .station(item.station)
+                  .score((priorWeight * mean + item.weightedStars) / (priorWeight + item.weight))
+                  .reviewCount(item.reviewCount)
+                  .averageStars((double) item.starsSum / item.reviewCount)
+                  .build();
+          offer(overall, entry);
+          if (item.diningCommonsCode != null) {
+            offer(
+                byCommons.computeIfAbsent(
+                    item.diningCommonsCode, code -> new PriorityQueue<>(BY_SCORE)),
+                entry);
+          }
+        });
+
+    Map<String, List<MenuItemLeaderboardEntry>> rankedByCommons = new HashMap<>();
+    byCommons.forEach((code, heap) -> rankedByCommons.put(code, drain(heap)));
+    snapshot = new Snapshot(drain(overall), Map.copyOf(rankedByCommons));
+  }
+
+  /**
+   * Record a newly created review. Applied once the surrounding transaction commits.
+   *
+   * @param review the review that was created
+   */
+  public void reviewAdded(MenuItemReview review) {
+    afterCommit(() -> applyAndRerank(review, 1));
+  }
+
+  /**
+   * Record a deleted review. Applied once the surrounding transaction commits.
+   *
+   * @param review the review as it was before deletion
+   */
+  public void reviewRemoved(MenuItemReview review) {
+    afterCommit(() -> applyAndRerank(review, -1));
+  }
+
+  /**
+   * Record an updated review. Applied once the surrounding transaction commits.
+   *
+   * @param before the review as it was before the update
+   * @param after the review as it is after the update
+   */
+  public void reviewUpdated(MenuItemReview before, MenuItemReview after) {
+    afterCommit(
+        () -> {
+          synchronized (this) {
+            rebase();
+            apply(before, -1);
+            apply(after, 1);
+            rerank();
+          }
+        });
+  }
+
+  /**
+   * Record the new name, station or dining commons of a menu item. Applied once the surrounding
+   * transaction commits.
+   *
+   * @param menuItem the menu item as saved
+   */
+  public void menuItemChanged(UCSBDiningCommonsMenuItems menuItem) {
+    afterCommit(
+        () -> {
+          synchronized (this) {
+            describe(items.computeIfAbsent(menuItem.getId(), id -> new ItemScore()), menuItem);
+            rerank();
+          }
+        });
+  }
+
+  /**
+   * Forget the description of a deleted menu item. Its reviews still count, but it is no longer
+   * ranked within any dining commons. Applied once the surrounding transaction commits.
+   *
+   * @param itemId id of the deleted menu item
+   */
+  public void menuItemDeleted(long itemId) {
+    afterCommit(
+        () -> {
+          synchronized (this) {
+            ItemScore item = items.get(itemId);
+            if (item != null) {
+              item.name = null;
+              item.diningCommonsCode = null;
+              item.station = null;
+              rerank();
+            }
+          }
+        });
+  }
+
+  private synchronized void applyAndRerank(MenuItemReview review, int sign) {
+    rebase();
+    apply(review, sign);
+    rerank();
+  }
+
+  private void apply(MenuItemReview review, int sign) {
+    ItemScore item = items.computeIfAbsent(review.getItemId(), id -> new ItemScore());
+    item.reviewCount += sign;
+    item.starsSum += (long) sign * review.getStars();
+    totalReviews += sign;
+    totalStars += (long) sign * review.getStars();
+    if (review.getDateReviewed() != null) {
+      // a review dated after the reference counts as new, rather than growing without bound
+      double weight = Math.exp(Math.min(0, -lambda() * days(review.getDateReviewed(), reference)));
+      item.weight += sign * weight;
+      item.weightedStars += sign * weight * review.getStars();
+    }
+  }
+
+  private static void describe(ItemScore item, UCSBDiningCommonsMenuItems menuItem) {
+    item.name = menuItem.getName();
+    item.diningCommonsCode = menuItem.getDiningCommonsCode();
+    item.station = menuItem.getStation();
+  }
+
+  private void offer(PriorityQueue<MenuItemLeaderboardEntry> heap, MenuItemLeaderboardEntry entry) {
+    heap.offer(entry);
+    if (heap.size() > maxK) {
+      heap.poll();
+    }
+  }
+
+  private static List<MenuItemLeaderboardEntry> drain(
+      PriorityQueue<MenuItemLeaderboardEntry> heap) {
+    List<MenuItemLeaderboardEntry> ranked = new ArrayList<>(heap.size());
+    while (!heap.isEmpty()) {
+      ranked.add(heap.poll());
+    }
+    return List.copyOf(ranked.reversed());
+  }
+
+  /** Move the reference time up to now, decaying the sums by the time that has passed. */
+  private void rebase() {
+    LocalDateTime now = LocalDateTime.now(clock);
+    if (reference == null) {
+      reference = now;
+    } else if (now.isAfter(reference)) {
+      double decay = Math.exp(-lambda() * days(reference, now));
+      for (ItemScore item : items.values()) {
+        item.weight *= decay;
+        item.weightedStars *= decay;
+      }
+      reference = now;
+    }
+  }
+
+  private double lambda() {
+    return Math.log(2) / halfLifeDays;
+  }
+
+  private static double days(LocalDateTime from, LocalDateTime to) {
+    return Duration.between(from, to).toSeconds() / 86400.0;
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
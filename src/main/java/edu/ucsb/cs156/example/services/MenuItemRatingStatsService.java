@@ -0,0 +1,161 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.MenuItemRatingStats;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.MenuItemRatingStatsRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This is a service that maintains the per-item rating aggregates stored in {@link
+ * MenuItemRatingStats}.
+ *
+ * <p>The {@code review*} methods must be called from within the transaction that writes the review
+ * itself, so that the review and its aggregates commit or roll back together.
+ */
+@Slf4j
+@Service
+public class MenuItemRatingStatsService {
+
+  @Autowired MenuItemRatingStatsRepository menuItemRatingStatsRepository;
+
+  @Autowired MenuItemReviewRepository menuItemReviewRepository;
+
+  /**
+   * Get the stats for a list of menu items. Items without any reviews get empty stats.
+   *
+   * @param itemIds ids of the menu items
+   * @return stats for each item, in the same order as itemIds
+   */
+  @Transactional(readOnly = true)
+  public List<MenuItemRatingStats> getStats(List<Long> itemIds) {
+    Map<Long, MenuItemRatingStats> found = new HashMap<>();
+    menuItemRatingStatsRepository
+        .findAllById(itemIds)
+        .forEach(stats -> found.put(stats.getItemId(), stats));
+
+    List<MenuItemRatingStats> result = new ArrayList<>(itemIds.size());
+    for (Long itemId : itemIds) {
+      result.add(found.getOrDefault(itemId, MenuItemRatingStats.empty(itemId)));
+    }
+    return result;
+  }
+
+  /**
+   * Add a newly created review to the aggregates of its item.
+   *
+   * @param review the review that was created
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void reviewAdded(MenuItemReview review) {
+    Optional<MenuItemRatingStats> found =
+        menuItemRatingStatsRepository.findByIdForUpdate(review.getItemId());
+    if (found.isEmpty()) {
+      // the item's first review: create the row so that there is something to lock, even if
+      // another first review of the item is being written at the same time
+      menuItemRatingStatsRepository.insertIfAbsent(review.getItemId());
+      found = menuItemRatingStatsRepository.findByIdForUpdate(review.getItemId());
+    }
+    MenuItemRatingStats stats = found.orElseThrow();
+    add(stats, review);
+    menuItemRatingStatsRepository.save(stats);
+  }
+
+  /**
+   * Remove a deleted review from the aggregates of its item.
+   *
+   * @param review the review that was deleted (as it was before deletion)
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void reviewRemoved(MenuItemReview review) {
+    menuItemRatingStatsRepository
+        .findByIdForUpdate(review.getItemId())
+        .ifPresent(stats -> remove(stats, review));
+  }
+
+  /**
+   * Move an updated review from its old aggregates to its new ones. The item id, stars and review
+   * date may all have changed.
+   *
+   * @param before the review as it was before the update
+   * @param after the review as it is after the update
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void reviewUpdated(MenuItemReview before, MenuItemReview after) {
+    reviewRemoved(before);
+    reviewAdded(after);
+  }
+
+  /**
+   * Recompute every item's aggregates from the MenuItemReview table, replacing whatever was stored.
+   *
+   * @return the number of items that have stats after the rebuild
+   */
+  @Transactional
+  public int rebuildAll() {
+    Map<Long, MenuItemRatingStats> rebuilt = new HashMap<>();
+    for (MenuItemReview review : menuItemReviewRepository.findAll()) {
+      add(rebuilt.computeIfAbsent(review.getItemId(), MenuItemRatingStats::empty), review);
+    }
+    menuItemRatingStatsRepository.deleteAll();
+    menuItemRatingStatsRepository.saveAll(rebuilt.values());
+    log.info("Rebuilt menu item rating stats for {} items", rebuilt.size());
+    return rebuilt.size();
+  }
+
+  private void remove(MenuItemRatingStats stats, MenuItemReview review) {
+    if (stats.getReviewCount() <= 1) {
+      menuItemRatingStatsRepository.delete(stats);
+      return;
+    }
+    adjustHistogram(stats, review.getStars(), -1);
+    stats.setReviewCount(stats.getReviewCount() - 1);
+    stats.setStarsSum(stats.getStarsSum() - review.getStars());
+    if (review.getDateReviewed() != null
+        && review.getDateReviewed().equals(stats.getLastReviewed())) {
+      stats.setLastReviewed(
+          menuItemReviewRepository
+              .findFirstByItemIdOrderByDateReviewedDesc(review.getItemId())
+              .map(MenuItemReview::getDateReviewed)
+              .orElse(null));
+    }
+    menuItemRatingStatsRepository.save(stats);
+  }
+
+  private static void add(MenuItemRatingStats stats, MenuItemReview review) {
+    adjustHistogram(stats, review.getStars(), 1);
+    stats.setReviewCount(stats.getReviewCount() + 1);
+    stats.setStarsSum(stats.getStarsSum() + review.getStars());
+    LocalDateTime reviewed = review.getDateReviewed();
+    if (reviewed != null
+        && (stats.getLastReviewed() == null || reviewed.isAfter(stats.getLastReviewed()))) {
+      stats.setLastReviewed(reviewed);
+    }
+  }
+
+  /**
+   * Called before the count and sum are changed, so that a review the histogram has no bucket for
+   * fails (and rolls back the caller's transaction) without touching the aggregates.
+   */
+  private static void adjustHistogram(MenuItemRatingStats stats, int stars, long delta) {
+    switch (stars) {
+      case 1 -> stats.setOneStarCount(stats.getOneStarCount() + delta);
+      case 2 -> stats.setTwoStarCount(stats.getTwoStarCount() + delta);
+      case 3 -> stats.setThreeStarCount(stats.getThreeStarCount() + delta);
+      case 4 -> stats.setFourStarCount(stats.getFourStarCount() + delta);
+      case 5 -> stats.setFiveStarCount(stats.getFiveStarCount() + delta);
+      default ->
+          throw new IllegalArgumentException("stars must be between 1 and 5 but was " + stars);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.TypeaheadSuggestion;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, case-folded prefix index over short strings, built as sorted arrays.
+ *
+ * <p>Each string is indexed once under its whole folded value and once under each later word start,
+ * so "pizza" finds "Woodstock's Pizza". A lookup binary searches for the folded prefix and walks
+ * forward only as far as the limit, so its cost depends on the limit, not the number of entries.
+ * Matches on the whole string come before matches on a later word.
+ */
+public final class PrefixIndex {
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+  private final String[] ids;
+  private final String[] texts;
+  private final String[] fullKeys; // sorted; fullOwners[i] is the entry fullKeys[i] belongs to
+  private final int[] fullOwners;
+  private final String[] wordKeys; // sorted; suffixes of each folded text that start a word
+  private final int[] wordOwners;
+
+  private record Key(String key, int owner) {}
+
+  private PrefixIndex(Map<String, String> textById) {
+    int n = textById.size();
+    ids = new String[n];
+    texts = new String[n];
+    List<Key> full = new ArrayList<>(n);
+    List<Key> words = new ArrayList<>();
+    int i = 0;
+    for (Map.Entry<String, String> e : textById.entrySet()) {
+      ids[i] = e.getKey();
+      texts[i] = e.getValue();
+      String folded = fold(e.getValue());
+      full.add(new Key(folded, i));
+      for (int start = 1; start < folded.length(); start++) {
+        if (Character.isLetterOrDigit(folded.charAt(start))
+            && !Character.isLetterOrDigit(folded.charAt(start - 1))) {
+          words.add(new Key(folded.substring(start), i));
+        }
+      }
+      i++;
+    }
+    Comparator<Key> order =
+        Comparator.comparing(Key::key)
+            .thenComparing(k -> texts[k.owner()])
+            .thenComparing(k -> ids[k.owner()]);
+    full.sort(order);
+    words.sort(order);
+    fullKeys = full.stream().map(Key::key).toArray(String[]::new);
+    fullOwners = full.stream().mapToInt(Key::owner).toArray();
+    wordKeys = words.stream().map(Key::key).toArray(String[]::new);
+    wordOwners = words.stream().mapToInt(Key::owner).toArray();
+  }
+
+  /**
+   * Build an index.
+   *
+   * @param textById the text to index for each id; null texts are skipped
+   * @return a new index
+   */
+  public static PrefixIndex build(Map<String, String> textById) {
+    Map<String, String> present = new HashMap<>();
+    textById.forEach(
+        (id, text) -> {
+          if (text != null) {
+            present.put(id, text);
+          }
+        });
+    return new PrefixIndex(present);
+  }
+
+  /**
+   * Fold a string for matching: strip accents and lower-case.
+   *
+   * @param s the string
+   * @return the folded string
+   */
+  static String fold(String s) {
+    return COMBINING_MARKS
+        .matcher(Normalizer.normalize(s, Normalizer.Form.NFKD))
+        .replaceAll("")
+        .toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Find up to limit entries whose text, or a word in it, starts with prefix.
+   *
+   * @param prefix the prefix typed so far; blank returns nothing
+   * @param limit maximum number of suggestions
+   * @return suggestions, whole-text matches first, each group in alphabetical order
+   */
+  public List<TypeaheadSuggestion> suggest(String prefix, int limit) {
+    String p = fold(prefix.strip());
+    List<TypeaheadSuggestion> result = new ArrayList<>();
+    if (p.isEmpty() || limit <= 0) {
+      return result;
+    }
+    BitSet seen = new BitSet(ids.length);
+    collect(fullKeys, fullOwners, p, limit, seen, result);
+    collect(wordKeys, wordOwners, p, limit, seen, result);
+    return result;
+  }
+
+  /**
+   * @return the number of indexed entries
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  private void collect(
+      String[] keys,
+      int[] owners,
+      String p,
+      int limit,
+      BitSet seen,
+      List<TypeaheadSuggestion> result) {
+    for (int i = lowerBound(keys, p);
+        i < keys.length && result.size() < limit && keys[i].startsWith(p);
+        i++) {
+      int owner = owners[i];
+      if (!seen.get(owner)) {
+        seen.set(owner);
+        result.add(TypeaheadSuggestion.builder().id(ids[owner]).text(texts[owner]).build());
+      }
+    }
+  }
+
+  // first index whose key is >= p (Arrays.binarySearch may land on any of several equal keys)
+  private static int lowerBound(String[] keys, String p) {
+    int lo = 0;
+    int hi = keys.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (keys[mid].compareTo(p) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
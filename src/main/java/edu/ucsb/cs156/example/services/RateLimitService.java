@@ -0,0 +1,173 @@
+package edu.ucsb.cs156.example.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * This is a service that limits how often each client may call the API, so one runaway script
+ * cannot starve everyone else.
+ *
+ * <p>Limits are set per path pattern in {@code app.ratelimit.limits}, as a comma separated list of
+ * {@code pattern=requestsPerMinute} (e.g. {@code /api/**=600}). The first pattern that matches a
+ * path applies; paths that match none are not limited. Each logged-in user, and each IP address for
+ * requests that are not logged in, has its own token bucket per pattern: it holds up to
+ * requestsPerMinute requests and refills evenly over the minute.
+ *
+ * <p>A bucket is a single {@link AtomicLong} holding the time at which it will be full again (the
+ * "generic cell rate algorithm"), so taking a token is one atomic update and never locks. Full
+ * buckets are the same as absent ones and are dropped every {@code app.ratelimit.purgeMs}. Rejected
+ * requests are counted in the {@code http.server.requests.throttled} metric.
+ */
+@Service
+public class RateLimitService implements MeterBinder {
+
+  static final String METRIC = "http.server.requests.throttled";
+
+  private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+  private volatile List<Rule> rules = List.of();
+
+  LongSupplier clock = System::nanoTime;
+
+  /** A path pattern, its limit, and the buckets of the clients that have used it. */
+  private static final class Rule {
+    private final String pattern;
+
+    /** Nanoseconds for one token to refill. */
+    private final long interval;
+
+    /** How far ahead of now a bucket's full-again time may be: a full bucket's worth. */
+    private final long capacity;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongAdder rejectedUsers = new LongAdder();
+    private final LongAdder rejectedAddresses = new LongAdder();
+
+    Rule(String pattern, int perMinute) {
+      this.pattern = pattern;
+      this.interval = MINUTE / perMinute;
+      this.capacity = interval * perMinute;
+    }
+  }
+
+  /**
+   * @param limits {@code pattern=requestsPerMinute} entries, first match wins
+   */
+  @Value("${app.ratelimit.limits:}")
+  public void setLimits(List<String> limits) {
+    List<Rule> parsed = new ArrayList<>();
+    for (String limit : limits) {
+      if (limit.isBlank()) {
+        continue;
+      }
+      int equals = limit.lastIndexOf('=');
+      if (equals < 0) {
+        throw new IllegalArgumentException("expected pattern=requestsPerMinute but got " + limit);
+      }
+      int perMinute = Integer.parseInt(limit.substring(equals + 1).trim());
+      if (perMinute <= 0) {
+        throw new IllegalArgumentException("requestsPerMinute must be positive in " + limit);
+      }
+      parsed.add(new Rule(limit.substring(0, equals).trim(), perMinute));
+    }
+    rules = List.copyOf(parsed);
+  }
+
+  /**
+   * Takes a token from the client's bucket for the pattern that matches path.
+   *
+   * @param path the request path, e.g. /api/ucsbdates/post
+   * @param client the user's name, or the IP address if not logged in
+   * @param user whether client is a user rather than an IP address
+   * @return 0 if the request may go ahead, otherwise how many nanoseconds until it would be allowed
+   */
+  public long tryAcquire(String path, String client, boolean user) {
+    Rule rule = ruleFor(path);
+    if (rule == null) {
+      return 0;
+    }
+    long now = clock.getAsLong();
+    AtomicLong bucket =
+        rule.buckets.computeIfAbsent((user ? "u:" : "a:") + client, k -> new AtomicLong(now));
+    // the update leaves a bucket without a token unchanged, so a request is rejected exactly when
+    // the next full-again time computed from the value it saw is too far ahead
+    long fullAt = bucket.getAndUpdate(seen -> takeToken(rule, seen, now));
+    long next = nextFullAt(rule, fullAt, now);
+    if (next - now > rule.capacity) {
+      (user ? rule.rejectedUsers : rule.rejectedAddresses).increment();
+      return next - now - rule.capacity;
+    }
+    return 0;
+  }
+
+  private static long takeToken(Rule rule, long fullAt, long now) {
+    long next = nextFullAt(rule, fullAt, now);
+    return next - now > rule.capacity ? fullAt : next;
+  }
+
+  private static long nextFullAt(Rule rule, long fullAt, long now) {
+    // nanoTime values are compared by their difference, since they may be negative or wrap
+    return (fullAt - now > 0 ? fullAt : now) + rule.interval;
+  }
+
+  private Rule ruleFor(String path) {
+    for (Rule rule : rules) {
+      if (pathMatcher.match(rule.pattern, path)) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Drops buckets that have refilled completely; a client without a bucket gets a full one.
+   *
+   * @return how many buckets are left
+   */
+  @Scheduled(fixedDelayString = "${app.ratelimit.purgeMs:60000}")
+  public int purgeFullBuckets() {
+    long now = clock.getAsLong();
+    int left = 0;
+    for (Rule rule : rules) {
+      rule.buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+      left += rule.buckets.size();
+    }
+    return left;
+  }
+
+  /**
+   * Publishes how many requests were rejected, per pattern and per kind of client ({@code user} or
+   * {@code address}).
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (Rule rule : rules) {
+      bindCounter(registry, rule, "user", rule.rejectedUsers);
+      bindCounter(registry, rule, "address", rule.rejectedAddresses);
+    }
+  }
+
+  private static void bindCounter(
+      MeterRegistry registry, Rule rule, String client, LongAdder rejected) {
+    FunctionCounter.builder(METRIC, rejected, LongAdder::sum)
+        .description("Requests rejected with 429 Too Many Requests")
+        .tag("pattern", rule.pattern)
+        .tag("client", client)
+        .register(registry);
+  }
+}
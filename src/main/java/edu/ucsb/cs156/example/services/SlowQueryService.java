@@ -0,0 +1,299 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.config.HandlerTimingFilter;
+import edu.ucsb.cs156.example.models.SlowQueryShape;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * This is a service that times every SQL statement the app runs (it is called by the DataSource
+ * proxy set up in {@code SlowQueryConfig}).
+ *
+ * <p>Statements that take at least {@code app.slowqueries.thresholdMs} milliseconds are logged with
+ * the controller method that ran them. If {@code app.slowqueries.explain} is on, the database's
+ * plan for them is captured (H2 and PostgreSQL only; once per statement shape). Timings are also
+ * kept per statement shape, the SQL with literals and lists of bind values collapsed, for {@code
+ * /api/admin/slowqueries}, together with the bind values and plan of the slowest execution.
+ *
+ * <p>Bind values can be personal data, and a PostgreSQL plan can show them too, so by default they
+ * are only shown by that endpoint, which is for admins only. The log line leaves them out unless
+ * {@code app.slowqueries.logParameters} is on.
+ */
+@Service
+@Slf4j
+public class SlowQueryService {
+
+  @Value("${app.slowqueries.thresholdMs:500}")
+  long thresholdMs = 500;
+
+  @Value("${app.slowqueries.explain:false}")
+  boolean explain = false;
+
+  @Value("${app.slowqueries.logParameters:false}")
+  boolean logParameters = false;
+
+  @Value("${app.slowqueries.maxShapes:500}")
+  int maxShapes = 500;
+
+  static final int MAX_VALUE_LENGTH = 100;
+
+  private static final Set<String> EXPLAINABLE = Set.of("H2", "PostgreSQL");
+
+  private static final Pattern SELECT =
+      Pattern.compile("\\s*(select|with)\\b", Pattern.CASE_INSENSITIVE);
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+  private static final Pattern VALUE_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  /** The timings of one statement shape, and the details of its slowest execution. */
+  private static final class Timings {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMs = new LongAdder();
+    private final AtomicLong maxMs = new AtomicLong(-1);
+    private volatile String handler;
+    private volatile String parameters;
+    private volatile String plan;
+
+    /** Returns whether this execution is the slowest so far. */
+    boolean add(long ms) {
+      count.increment();
+      totalMs.add(ms);
+      return maxMs.getAndAccumulate(ms, Math::max) < ms;
+    }
+  }
+
+  /** The shape of each statement seen, so that most statements are only normalized once. */
+  private final Map<String, String> shapes = new ConcurrentHashMap<>();
+
+  private final Map<String, Timings> byShape = new ConcurrentHashMap<>();
+
+  /** Set while running EXPLAIN, so that its own statement is not timed. */
+  private final ThreadLocal<Boolean> explaining = ThreadLocal.withInitial(() -> false);
+
+  /**
+   * Records the statements of one execution, and logs them if they were slow.
+   *
+   * @param execution how long the execution took, and its statement
+   * @param queries the SQL and bind values run (more than one for a batch)
+   */
+  public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    if (explaining.get()) {
+      return;
+    }
+    long ms = execution.getElapsedTime();
+    boolean slow = thresholdMs >= 0 && ms >= thresholdMs;
+    for (QueryInfo query : queries) {
+      Timings timings = timingsFor(shapeOf(query.getQuery()));
+      boolean slowest = timings.add(ms);
+      if (!slow && !slowest) {
+        continue;
+      }
+      String handler = HandlerTimingFilter.handlerName(currentHandler());
+      String parameters = parameters(query);
+      if (slowest) {
+        timings.handler = handler;
+        timings.parameters = parameters;
+      }
+      if (slow) {
+        if (explain && timings.plan == null) {
+          timings.plan = explain(execution, query);
+        }
+        if (logParameters) {
+          log.warn(
+              "Slow SQL ({} ms) in {}: {} with parameters {}{}",
+              ms,
+              handler,
+              query.getQuery(),
+              parameters,
+              timings.plan != null ? "\n" + timings.plan : "");
+        } else {
+          log.warn("Slow SQL ({} ms) in {}: {}", ms, handler, query.getQuery());
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the statement shapes with the slowest executions.
+   *
+   * @param n how many shapes to return
+   * @return up to n shapes, slowest first
+   */
+  public List<SlowQueryShape> slowest(int n) {
+    List<SlowQueryShape> all = new ArrayList<>();
+    byShape.forEach((sql, timings) -> all.add(toShape(sql, timings)));
+    all.sort(
+        Comparator.comparingLong(SlowQueryShape::getMaxMs)
+            .thenComparingLong(SlowQueryShape::getTotalMs)
+            .reversed());
+    return all.subList(0, Math.min(n, all.size()));
+  }
+
+  /** Forgets all timings, e.g. after fixing a slow statement. */
+  public void reset() {
+    byShape.clear();
+  }
+
+  private static SlowQueryShape toShape(String sql, Timings timings) {
+    long count = timings.count.sum();
+    long totalMs = timings.totalMs.sum();
+    return SlowQueryShape.builder()
+        .sql(sql)
+        .count(count)
+        .totalMs(totalMs)
+        .maxMs(timings.maxMs.get())
+        .meanMs((double) totalMs / count)
+        .handler(timings.handler)
+        .parameters(timings.parameters)
+        .plan(timings.plan)
+        .build();
+  }
+
+  private String shapeOf(String sql) {
+    String shape = shapes.get(sql);
+    if (shape == null) {
+      shape = normalize(sql);
+      if (shapes.size() < 4 * maxShapes) {
+        shapes.put(sql, shape);
+      }
+    }
+    return shape;
+  }
+
+  /** Once {@code maxShapes} shapes are kept, new shapes are logged but not kept. */
+  private Timings timingsFor(String shape) {
+    Timings timings = byShape.get(shape);
+    if (timings != null) {
+      return timings;
+    }
+    if (byShape.size() >= maxShapes) {
+      return new Timings();
+    }
+    return byShape.computeIfAbsent(shape, s -> new Timings());
+  }
+
+  /**
+   * Replaces literals with {@code ?}, collapses lists of bind values (e.g. {@code in (?, ?, ?)}) to
+   * {@code (?)}, and collapses whitespace, so that statements that differ only in their values have
+   * the same shape.
+   */
+  static String normalize(String sql) {
+    String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+    shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+    shape = VALUE_LIST.matcher(shape).replaceAll("(?)");
+    return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+  }
+
+  /** Formats the bind values, one bracketed list per batch entry. */
+  static String parameters(QueryInfo query) {
+    if (query.getParametersList().isEmpty()) {
+      return "[]";
+    }
+    return query.getParametersList().stream()
+        .map(
+            operations ->
+                operations.stream()
+                    .map(SlowQueryService::value)
+                    .collect(Collectors.joining(", ", "[", "]")))
+        .collect(Collectors.joining(" "));
+  }
+
+  private static String value(ParameterSetOperation operation) {
+    if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+      return "null";
+    }
+    Object value = operation.getArgs()[1];
+    if (value instanceof byte[] bytes) {
+      return "<" + bytes.length + " bytes>";
+    }
+    String text = String.valueOf(value);
+    if (text.length() > MAX_VALUE_LENGTH) {
+      text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+    }
+    return value instanceof String ? "'" + text + "'" : text;
+  }
+
+  private static Object currentHandler() {
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    return request != null
+        ? request.getAttribute(
+            HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+        : null;
+  }
+
+  /**
+   * Runs EXPLAIN for a SELECT on the connection that ran it, with the same bind values, inside a
+   * savepoint so that a failed EXPLAIN does not spoil the caller's transaction.
+   *
+   * @return the plan, or null if there is none (not a SELECT, another database, or an error)
+   */
+  private String explain(ExecutionInfo execution, QueryInfo query) {
+    if (!SELECT.matcher(query.getQuery()).lookingAt()) {
+      return null;
+    }
+    explaining.set(true);
+    try {
+      Connection connection = execution.getStatement().getConnection();
+      if (!EXPLAINABLE.contains(connection.getMetaData().getDatabaseProductName())) {
+        return null;
+      }
+      Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+      try {
+        String plan = explain(connection, query);
+        if (savepoint != null) {
+          connection.releaseSavepoint(savepoint);
+        }
+        return plan;
+      } catch (Exception e) {
+        if (savepoint != null) {
+          connection.rollback(savepoint);
+        }
+        throw e;
+      }
+    } catch (Exception e) {
+      log.info("Could not explain {}: {}", query.getQuery(), e.toString());
+      return null;
+    } finally {
+      explaining.set(false);
+    }
+  }
+
+  private static String explain(Connection connection, QueryInfo query) throws Exception {
+    try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getQuery())) {
+      if (!query.getParametersList().isEmpty()) {
+        for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+          operation.getMethod().invoke(statement, operation.getArgs());
+        }
+      }
+      List<String> lines = new ArrayList<>();
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          lines.add(rows.getString(1));
+        }
+      }
+      return String.join("\n", lines);
+    }
+  }
+}
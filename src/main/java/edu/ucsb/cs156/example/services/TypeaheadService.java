@@ -0,0 +1,141 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.models.TypeaheadSuggestion;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that provides typeahead suggestions for restaurant names and organization names
+ * from in-memory {@link PrefixIndex}es.
+ *
+ * <p>The indexes are loaded from the repositories at startup and rebuilt for the affected field
+ * whenever RestaurantsController or UCSBOrganizationController writes. Rebuilding a few hundred
+ * short strings is cheap, and it keeps each published index immutable, so lookups need no locking.
+ */
+@Slf4j
+@Service
+public class TypeaheadService {
+
+  /** The fields that can be searched. */
+  public enum Type {
+    /** Restaurant.name */
+    RESTAURANT,
+    /** UCSBOrganization.orgTranslationShort */
+    ORGANIZATION_SHORT,
+    /** UCSBOrganization.orgTranslation */
+    ORGANIZATION
+  }
+
+  @Autowired RestaurantRepository restaurantRepository;
+
+  @Autowired UCSBOrganizationRepository ucsbOrganizationRepository;
+
+  // id -> text for each field; only touched while holding this service's lock
+  private final Map<Type, Map<String, String>> sources = new EnumMap<>(Type.class);
+
+  private final Map<Type, PrefixIndex> indexes = new ConcurrentHashMap<>();
+
+  public TypeaheadService() {
+    for (Type type : Type.values()) {
+      sources.put(type, new HashMap<>());
+      indexes.put(type, PrefixIndex.build(Map.of()));
+    }
+  }
+
+  /**
+   * Suggest completions for a prefix.
+   *
+   * @param type the field to search
+   * @param prefix the text typed so far (case and accents are ignored)
+   * @param limit maximum number of suggestions
+   * @return up to limit suggestions
+   */
+  public List<TypeaheadSuggestion> suggest(Type type, String prefix, int limit) {
+    return indexes.get(type).suggest(prefix, limit);
+  }
+
+  /** Load every restaurant and organization and rebuild all of the indexes. */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    sources.values().forEach(Map::clear);
+    restaurantRepository.findAll().forEach(this::putRestaurant);
+    ucsbOrganizationRepository.findAll().forEach(this::putOrganization);
+    for (Type type : Type.values()) {
+      publish(type);
+    }
+    log.info(
+        "Typeahead indexes built: {} restaurants, {} organizations",
+        sources.get(Type.RESTAURANT).size(),
+        sources.get(Type.ORGANIZATION).size());
+  }
+
+  /**
+   * Add or replace a restaurant.
+   *
+   * @param restaurant the restaurant as saved
+   */
+  public synchronized void restaurantSaved(Restaurant restaurant) {
+    putRestaurant(restaurant);
+    publish(Type.RESTAURANT);
+  }
+
+  /**
+   * Remove a restaurant.
+   *
+   * @param id id of the deleted restaurant
+   */
+  public synchronized void restaurantDeleted(long id) {
+    sources.get(Type.RESTAURANT).remove(Long.toString(id));
+    publish(Type.RESTAURANT);
+  }
+
+  /**
+   * Add or replace an organization.
+   *
+   * @param organization the organization as saved
+   */
+  public synchronized void organizationSaved(UCSBOrganization organization) {
+    putOrganization(organization);
+    publish(Type.ORGANIZATION_SHORT);
+    publish(Type.ORGANIZATION);
+  }
+
+  /**
+   * Remove an organization.
+   *
+   * @param orgCode code of the deleted organization
+   */
+  public synchronized void organizationDeleted(String orgCode) {
+    sources.get(Type.ORGANIZATION_SHORT).remove(orgCode);
+    sources.get(Type.ORGANIZATION).remove(orgCode);
+    publish(Type.ORGANIZATION_SHORT);
+    publish(Type.ORGANIZATION);
+  }
+
+  private void putRestaurant(Restaurant restaurant) {
+    sources.get(Type.RESTAURANT).put(Long.toString(restaurant.getId()), restaurant.getName());
+  }
+
+  private void putOrganization(UCSBOrganization organization) {
+    sources
+        .get(Type.ORGANIZATION_SHORT)
+        .put(organization.getOrgCode(), organization.getOrgTranslationShort());
+    sources.get(Type.ORGANIZATION).put(organization.getOrgCode(), organization.getOrgTranslation());
+  }
+
+  private void publish(Type type) {
+    indexes.put(type, PrefixIndex.build(sources.get(type)));
+  }
+}
@@ -0,0 +1,147 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that answers academic calendar lookups from memory.
+ *
+ * <p>Every UCSBDate is held in two sorted maps: one keyed by (localDateTime, id) for date ranges,
+ * and one keyed by (quarterYYYYQ, localDateTime, id) so that a quarter is a contiguous sub-map.
+ * Both are loaded from the database at startup and kept current by UCSBDatesController, so lookups
+ * never touch the database. Writers are serialized; readers are lock-free.
+ */
+@Slf4j
+@Service
+public class UCSBDateCalendarService {
+
+  private record TimeKey(LocalDateTime time, long id) {}
+
+  private record QuarterKey(String quarter, LocalDateTime time, long id) {}
+
+  private static final Comparator<TimeKey> TIME_ORDER =
+      Comparator.comparing(TimeKey::time).thenComparingLong(TimeKey::id);
+
+  private static final Comparator<QuarterKey> QUARTER_ORDER =
+      Comparator.comparing(QuarterKey::quarter)
+          .thenComparing(
+              QuarterKey::time, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+          .thenComparingLong(QuarterKey::id);
+
+  @Autowired UCSBDateRepository ucsbDateRepository;
+
+  private final NavigableMap<TimeKey, UCSBDate> byTime = new ConcurrentSkipListMap<>(TIME_ORDER);
+
+  private final NavigableMap<QuarterKey, UCSBDate> byQuarter =
+      new ConcurrentSkipListMap<>(QUARTER_ORDER);
+
+  // the copy currently indexed for each id, so an update or delete can find its old keys
+  private final Map<Long, UCSBDate> byId = new HashMap<>();
+
+  /**
+   * Get the dates in a quarter.
+   *
+   * @param quarterYYYYQ quarter in the format YYYYQ, e.g. 20244 for Fall 2024
+   * @return the quarter's dates in time order (dates with no time last)
+   */
+  public List<UCSBDate> quarter(String quarterYYYYQ) {
+    return new ArrayList<>(
+        byQuarter
+            .subMap(
+                new QuarterKey(quarterYYYYQ, LocalDateTime.MIN, Long.MIN_VALUE),
+                true,
+                new QuarterKey(quarterYYYYQ, null, Long.MAX_VALUE), // null times sort last
+                true)
+            .values());
+  }
+
+  /**
+   * Get the dates between two times, inclusive.
+   *
+   * @param from earliest time to include
+   * @param to latest time to include
+   * @return the dates in time order
+   */
+  public List<UCSBDate> range(LocalDateTime from, LocalDateTime to) {
+    if (from.isAfter(to)) {
+      return List.of();
+    }
+    return new ArrayList<>(
+        byTime
+            .subMap(new TimeKey(from, Long.MIN_VALUE), true, new TimeKey(to, Long.MAX_VALUE), true)
+            .values());
+  }
+
+  /** Load every date from the database. */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    byTime.clear();
+    byQuarter.clear();
+    byId.clear();
+    ucsbDateRepository.findAll().forEach(this::add);
+    log.info("UCSB date calendar loaded with {} dates", byId.size());
+  }
+
+  /**
+   * Add a date, or replace the indexed copy of it.
+   *
+   * @param date the date as saved
+   */
+  public synchronized void dateSaved(UCSBDate date) {
+    remove(date.getId());
+    add(date);
+  }
+
+  /**
+   * Remove a date.
+   *
+   * @param id id of the deleted date
+   */
+  public synchronized void dateDeleted(long id) {
+    remove(id);
+  }
+
+  private void add(UCSBDate date) {
+    UCSBDate copy =
+        UCSBDate.builder()
+            .id(date.getId())
+            .quarterYYYYQ(date.getQuarterYYYYQ())
+            .name(date.getName())
+            .localDateTime(date.getLocalDateTime())
+            .build();
+    byId.put(copy.getId(), copy);
+    if (copy.getLocalDateTime() != null) {
+      byTime.put(new TimeKey(copy.getLocalDateTime(), copy.getId()), copy);
+    }
+    if (copy.getQuarterYYYYQ() != null) {
+      byQuarter.put(
+          new QuarterKey(copy.getQuarterYYYYQ(), copy.getLocalDateTime(), copy.getId()), copy);
+    }
+  }
+
+  private void remove(long id) {
+    UCSBDate old = byId.remove(id);
+    if (old == null) {
+      return;
+    }
+    if (old.getLocalDateTime() != null) {
+      byTime.remove(new TimeKey(old.getLocalDateTime(), id));
+    }
+    if (old.getQuarterYYYYQ() != null) {
+      byQuarter.remove(new QuarterKey(old.getQuarterYYYYQ(), old.getLocalDateTime(), id));
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * This is a service that looks up users by email without going to the database on every call.
+ *
+ * <p>Within one HTTP request a user is looked up at most once (the result is kept as a request
+ * attribute). Across requests, results are kept for {@code app.usercache.ttlMs} milliseconds, so
+ * the hot path for a logged in user usually makes no query at all. Whoever changes a stored user
+ * (e.g. makes them an admin) must call {@link #put} or {@link #evict} so the change is seen at
+ * once; changes made by another instance of the app are seen when the entry expires.
+ *
+ * <p>Users are mutable entities, so the cache keeps its own copy of each and hands every request a
+ * fresh copy; a request that changes the user it got cannot change what other requests see.
+ */
+@Service
+public class UserCacheService implements MeterBinder {
+
+  static final String REQUEST_ATTRIBUTE = UserCacheService.class.getName() + ".users";
+
+  @Autowired UserRepository userRepository;
+
+  @Value("${app.usercache.ttlMs:30000}")
+  long ttlMs = 30000;
+
+  LongSupplier clock = System::nanoTime;
+
+  /** A lookup result (user is null if there is no such user) and when it was made. */
+  private record Entry(User user, long loadedAt) {}
+
+  private final Map<String, Entry> byEmail = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Looks up a user by email, from this request's memo or the cache if possible.
+   *
+   * @param email email address of the user
+   * @return the user, or empty if there is no user with that email
+   */
+  public Optional<User> findByEmail(String email) {
+    Map<String, Optional<User>> memo = requestMemo();
+    if (memo != null && memo.containsKey(email)) {
+      hits.increment();
+      return memo.get(email);
+    }
+    Optional<User> user = lookup(email);
+    if (memo != null) {
+      memo.put(email, user);
+    }
+    return user;
+  }
+
+  /**
+   * Returns the stored user with the same email as {@code user}, storing {@code user} first if
+   * there is none. Only a user not already cached costs a query, usually a plain lookup by email;
+   * the upsert (see {@link UserRepository#upsertByEmail}) runs only for an email that is not
+   * stored.
+   *
+   * @param user the user to store if their email is new
+   * @return the stored user with that email
+   */
+  public User findOrCreate(User user) {
+    String email = user.getEmail();
+    Map<String, Optional<User>> memo = requestMemo();
+    Optional<User> known = memo != null ? memo.get(email) : null;
+    if (known != null && known.isPresent()) {
+      hits.increment();
+      return known.get();
+    }
+    Entry entry = byEmail.get(email);
+    if (entry != null && entry.user() != null && !expired(entry, clock.getAsLong())) {
+      hits.increment();
+      User cached = copy(entry.user());
+      if (memo != null) {
+        memo.put(email, Optional.of(cached));
+      }
+      return cached;
+    }
+    misses.increment();
+    User stored =
+        userRepository.findByEmail(email).orElseGet(() -> userRepository.upsertByEmail(user));
+    put(stored);
+    return stored;
+  }
+
+  /**
+   * Records a user that was just saved, replacing whatever was cached for their email.
+   *
+   * @param user the saved user
+   */
+  public void put(User user) {
+    if (ttlMs > 0) {
+      byEmail.put(user.getEmail(), new Entry(copy(user), clock.getAsLong()));
+    }
+    Map<String, Optional<User>> memo = requestMemo();
+    if (memo != null) {
+      memo.put(user.getEmail(), Optional.of(user));
+    }
+  }
+
+  /**
+   * Forgets what is cached for an email, so the next lookup reads the database.
+   *
+   * @param email email address of the user
+   */
+  public void evict(String email) {
+    byEmail.remove(email);
+    Map<String, Optional<User>> memo = requestMemo();
+    if (memo != null) {
+      memo.remove(email);
+    }
+  }
+
+  /** Drops expired entries so users who have gone away do not stay in memory. */
+  @Scheduled(fixedDelayString = "${app.usercache.ttlMs:30000}")
+  public void purgeExpired() {
+    long now = clock.getAsLong();
+    byEmail.values().removeIf(entry -> expired(entry, now));
+  }
+
+  /**
+   * Publishes lookups answered without a query (hits) and with one (misses) as the {@code users}
+   * cache; see {@link CacheMetrics}.
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CacheMetrics.bind(registry, "users", hits, misses, byEmail);
+  }
+
+  private Optional<User> lookup(String email) {
+    long now = clock.getAsLong();
+    Entry entry = byEmail.get(email);
+    if (entry != null && !expired(entry, now)) {
+      hits.increment();
+      return Optional.ofNullable(entry.user()).map(UserCacheService::copy);
+    }
+    misses.increment();
+    Optional<User> user = userRepository.findByEmail(email);
+    if (ttlMs > 0) {
+      byEmail.put(email, new Entry(user.map(UserCacheService::copy).orElse(null), now));
+    }
+    return user;
+  }
+
+  private static User copy(User user) {
+    return user.toBuilder().build();
+  }
+
+  private boolean expired(Entry entry, long now) {
+    return now - entry.loadedAt() >= TimeUnit.MILLISECONDS.toNanos(ttlMs);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Optional<User>> requestMemo() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return null;
+    }
+    Object memo = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (memo == null) {
+      memo = new HashMap<String, Optional<User>>();
+      attributes.setAttribute(REQUEST_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+    }
+    return (Map<String, Optional<User>>) memo;
+  }
+}
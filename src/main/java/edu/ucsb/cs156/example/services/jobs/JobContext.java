@@ -12,7 +12,7 @@ public class JobContext {
   private Job job;
 
   public void log(String message) {
-    log.info("Job %s: %s".formatted(job.getId(), message));
+    log.info("Job {}: {}", job.getId(), message);
     String previousLog = job.getLog() == null ? "" : (job.getLog() + "\n");
     job.setLog(previousLog + message);
     if (jobsRepository != null) jobsRepository.save(job);
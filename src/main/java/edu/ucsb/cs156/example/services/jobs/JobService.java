@@ -3,11 +3,24 @@ package edu.ucsb.cs156.example.services.jobs;
 import edu.ucsb.cs156.example.entities.Job;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+/**
+ * This is a service that runs jobs in the background, on Spring's {@code applicationTaskExecutor},
+ * and keeps their status and log in the jobs table.
+ *
+ * <p>Jobs waiting for a thread are counted by the executor's own metrics ({@code
+ * executor.queued{name="applicationTaskExecutor"}}); this service publishes how many jobs are
+ * running ({@code jobs.active}) and how many have finished, by status ({@code jobs.finished}).
+ */
 @Service
 public class JobService {
   @Autowired private JobsRepository jobsRepository;
@@ -16,6 +29,10 @@ public class JobService {
 
   @Lazy @Autowired private JobService self;
 
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
   public Job runAsJob(JobContextConsumer jobFunction) {
     Job job = Job.builder().createdBy(currentUserService.getUser()).status("running").build();
 
@@ -29,16 +46,41 @@ public class JobService {
   public void runJobAsync(Job job, JobContextConsumer jobFunction) {
     JobContext context = new JobContext(jobsRepository, job);
 
+    active.incrementAndGet();
     try {
       jobFunction.accept(context);
     } catch (Exception e) {
       job.setStatus("error");
       context.log(e.getMessage());
+      failed.increment();
       return;
+    } finally {
+      active.decrementAndGet();
     }
 
     job.setStatus("complete");
     jobsRepository.save(job);
+    completed.increment();
+  }
+
+  /**
+   * Publishes the job metrics; called through the MeterBinder in {@code MetricsConfig}, since this
+   * class is proxied for {@code @Async} and so cannot itself be one.
+   *
+   * @param registry the registry to publish to
+   */
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("jobs.active", active, AtomicInteger::get)
+        .description("Jobs running now")
+        .register(registry);
+    FunctionCounter.builder("jobs.finished", completed, LongAdder::sum)
+        .description("Jobs finished since the app started")
+        .tag("status", "complete")
+        .register(registry);
+    FunctionCounter.builder("jobs.finished", failed, LongAdder::sum)
+        .description("Jobs finished since the app started")
+        .tag("status", "error")
+        .register(registry);
   }
 
   public String getJobLogs(Long jobId) {
@@ -7,6 +7,7 @@ import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
 import edu.ucsb.cs156.example.services.wiremock.WiremockService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.io.UnsupportedEncodingException;
+import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -33,4 +34,16 @@ public abstract class ControllerTestCase {
     String responseString = result.getResponse().getContentAsString();
     return mapper.readValue(responseString, Map.class);
   }
+
+  /**
+   * Builds the read-only view that a repository projection would return for an entity. Views
+   * serialize to the same JSON as their entities, so the entity's JSON is read back as the view.
+   */
+  protected <V> V view(Object entity, Class<V> viewType) {
+    return mapper.convertValue(entity, viewType);
+  }
+
+  protected <V> List<V> views(List<?> entities, Class<V> viewType) {
+    return entities.stream().map(entity -> view(entity, viewType)).toList();
+  }
 }
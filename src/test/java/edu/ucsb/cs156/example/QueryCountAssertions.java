@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.ucsb.cs156.example.config.QueryCountInspector;
+import java.util.List;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+/**
+ * Pins how many SQL statements Hibernate runs for a piece of work, e.g.
+ *
+ * <pre>
+ * assertQueryCount(1, () -&gt; mockMvc.perform(get("/api/restaurants/all")));
+ * </pre>
+ *
+ * <p>The work must run on the test thread (MockMvc does; a real HTTP call does not). On failure the
+ * message lists the statements that ran, so a query repeated once per row is easy to spot.
+ */
+public final class QueryCountAssertions {
+
+  private QueryCountAssertions() {}
+
+  /**
+   * Runs the work and checks how many statements it ran.
+   *
+   * @param expected how many statements the work should run
+   * @param work the work to measure
+   * @return what the work returned
+   */
+  public static <T> T assertQueryCount(int expected, ThrowingSupplier<T> work) throws Throwable {
+    QueryCountInspector.startRecording();
+    List<String> statements;
+    T result;
+    try {
+      result = work.get();
+    } finally {
+      statements = QueryCountInspector.stopRecording();
+    }
+    assertEquals(
+        expected, statements.size(), () -> "SQL statements run:\n" + String.join("\n", statements));
+    return result;
+  }
+}
@@ -0,0 +1,143 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Measures what a 100k-row /api/menuitemreview/all costs the server in CPU time and heap
+ * allocation, loading the rows three ways: as entities inside a read-write transaction (every row
+ * is snapshotted and dirty-checked on commit), as entities through the repository's read-only
+ * findAll, and as the {@link MenuItemReviewView} projection the endpoint now uses. Each variant
+ * also serializes the result to JSON, as the endpoint would.
+ *
+ * <p>Like the *IT classes this is not picked up by a plain {@code mvn test}; run it with {@code
+ * INTEGRATION=true mvn test -Dtest=ReadOnlyViewsBenchmark} and read the table in the log.
+ */
+@Slf4j
+@SpringBootTest(properties = {"logging.level.sql=WARN", "logging.level.org.hibernate=WARN"})
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+public class ReadOnlyViewsBenchmark {
+
+  private static final int ROWS = 100_000;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 7;
+
+  @Autowired MenuItemReviewRepository menuItemReviewRepository;
+
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @Autowired TransactionTemplate transactionTemplate;
+
+  @Autowired ObjectMapper mapper;
+
+  @MockBean UserRepository userRepository;
+
+  private final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  @BeforeEach
+  public void loadRows() {
+    if (menuItemReviewRepository.count() >= ROWS) {
+      return;
+    }
+    LocalDateTime start = LocalDateTime.of(2024, 9, 26, 7, 0);
+    List<Object[]> rows = new ArrayList<>(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      rows.add(
+          new Object[] {
+            1 + i % 400,
+            "student%d@ucsb.edu".formatted(i % 5000),
+            1 + i % 5,
+            Timestamp.valueOf(start.plusMinutes(i)),
+            "Review number %d of a fairly ordinary dining commons meal".formatted(i)
+          });
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO MENUITEMREVIEW (ITEM_ID, REVIEWER_EMAIL, STARS, DATE_REVIEWED, COMMENTS)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        rows);
+  }
+
+  private record Result(double cpuMs, double allocatedMb) {}
+
+  private static double median(double[] values) {
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+
+  private Result measure(Supplier<List<?>> load) throws Exception {
+    long thread = Thread.currentThread().threadId();
+    double[] cpu = new double[MEASURED_ROUNDS];
+    double[] allocated = new double[MEASURED_ROUNDS];
+    for (int i = 0; i < WARMUP_ROUNDS + MEASURED_ROUNDS; i++) {
+      long cpu0 = threads.getThreadCpuTime(thread);
+      long bytes0 = threads.getThreadAllocatedBytes(thread);
+      List<?> rows = load.get();
+      mapper.writeValueAsBytes(rows);
+      long cpu1 = threads.getThreadCpuTime(thread);
+      long bytes1 = threads.getThreadAllocatedBytes(thread);
+      assertEquals(ROWS, rows.size());
+      if (i >= WARMUP_ROUNDS) {
+        cpu[i - WARMUP_ROUNDS] = (cpu1 - cpu0) / 1_000_000.0;
+        allocated[i - WARMUP_ROUNDS] = (bytes1 - bytes0) / (1024.0 * 1024.0);
+      }
+    }
+    return new Result(median(cpu), median(allocated));
+  }
+
+  @Test
+  public void compare_entities_and_views_on_a_100k_row_list() throws Exception {
+    Result readWrite =
+        measure(
+            () -> {
+              List<MenuItemReview> reviews = new ArrayList<>(ROWS);
+              transactionTemplate.executeWithoutResult(
+                  status -> menuItemReviewRepository.findAll().forEach(reviews::add));
+              return reviews;
+            });
+    Result readOnly =
+        measure(
+            () -> {
+              List<MenuItemReview> reviews = new ArrayList<>(ROWS);
+              menuItemReviewRepository.findAll().forEach(reviews::add);
+              return reviews;
+            });
+    Result views = measure(() -> menuItemReviewRepository.findAllViewsBy());
+
+    StringBuilder table = new StringBuilder();
+    table.append("%n%-34s %12s %16s%n".formatted("variant", "cpu ms", "allocated MB"));
+    table.append(row("entities, read-write transaction", readWrite));
+    table.append(row("entities, read-only findAll", readOnly));
+    table.append(row("MenuItemReviewView projection", views));
+    log.info("{} rows of /api/menuitemreview/all:{}", ROWS, table);
+  }
+
+  private static String row(String name, Result result) {
+    return "%-34s %12.1f %16.1f%n".formatted(name, result.cpuMs(), result.allocatedMb());
+  }
+}
@@ -0,0 +1,161 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares JSON, Smile and CBOR for the payloads of the bulk /all endpoints: encoded size, size
+ * after gzip (what the client downloads once server.compression applies), and serialize and
+ * deserialize time.
+ *
+ * <p>Like the *IT classes this is not picked up by a plain {@code mvn test}; run it with {@code mvn
+ * test -Dtest=SerializationFormatsBenchmark} and read the table in the log. The only assertions are
+ * sanity checks that each format round-trips and that the binary formats are smaller.
+ */
+@Slf4j
+public class SerializationFormatsBenchmark {
+
+  private static final int WARMUP_ROUNDS = 15;
+  private static final int MEASURED_ROUNDS = 30;
+
+  private static final String[] COMMENTS = {
+    "Great flavor, would get again",
+    "A bit too salty for me",
+    "Portion was small but tasty",
+    "Cold by the time I sat down",
+    "Best thing on the menu this week!",
+    "Fine. Nothing special.",
+  };
+
+  private static final String[] STATIONS = {
+    "Entrees", "Grill (Cafe)", "Greens & Grains", "Bakery", "Pizza", "Soups", "Desserts"
+  };
+
+  private static List<MenuItemReview> reviews(int n) {
+    Random random = new Random(156);
+    List<MenuItemReview> reviews = new ArrayList<>(n);
+    LocalDateTime start = LocalDateTime.of(2024, 9, 26, 7, 0);
+    for (int i = 0; i < n; i++) {
+      reviews.add(
+          MenuItemReview.builder()
+              .id(i + 1)
+              .itemId(1 + random.nextInt(400))
+              .reviewerEmail("student%d@ucsb.edu".formatted(random.nextInt(5000)))
+              .stars(1 + random.nextInt(5))
+              .dateReviewed(start.plusMinutes(random.nextInt(60 * 24 * 365)))
+              .comments(COMMENTS[random.nextInt(COMMENTS.length)])
+              .build());
+    }
+    return reviews;
+  }
+
+  private static List<UCSBDiningCommonsMenuItems> menuItems(int n) {
+    Random random = new Random(42);
+    String[] commons = {"carrillo", "de-la-guerra", "ortega", "portola"};
+    List<UCSBDiningCommonsMenuItems> items = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      items.add(
+          UCSBDiningCommonsMenuItems.builder()
+              .id(i + 1)
+              .diningCommonsCode(commons[random.nextInt(commons.length)])
+              .name("Menu item number %d with a realistic length name".formatted(i))
+              .station(STATIONS[random.nextInt(STATIONS.length)])
+              .build());
+    }
+    return items;
+  }
+
+  private static int gzipSize(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.size();
+  }
+
+  private static double medianMillis(long[] nanos) {
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2] / 1_000_000.0;
+  }
+
+  private record Result(int bytes, int gzipBytes, double serializeMs, double deserializeMs) {}
+
+  private static Result measure(ObjectMapper mapper, Object payload, Class<?> arrayType)
+      throws IOException {
+    byte[] encoded = mapper.writeValueAsBytes(payload);
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      mapper.readValue(mapper.writeValueAsBytes(payload), arrayType);
+    }
+    long[] write = new long[MEASURED_ROUNDS];
+    long[] read = new long[MEASURED_ROUNDS];
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      long t0 = System.nanoTime();
+      encoded = mapper.writeValueAsBytes(payload);
+      long t1 = System.nanoTime();
+      mapper.readValue(encoded, arrayType);
+      long t2 = System.nanoTime();
+      write[i] = t1 - t0;
+      read[i] = t2 - t1;
+    }
+    return new Result(encoded.length, gzipSize(encoded), medianMillis(write), medianMillis(read));
+  }
+
+  @Test
+  public void compare_formats_on_bulk_payloads() throws Exception {
+    Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+    formats.put("json", Jackson2ObjectMapperBuilder.json().build());
+    formats.put("smile", Jackson2ObjectMapperBuilder.smile().build());
+    formats.put("cbor", Jackson2ObjectMapperBuilder.cbor().build());
+
+    Map<String, Object> payloads = new LinkedHashMap<>();
+    payloads.put("20k MenuItemReview", reviews(20_000));
+    payloads.put("5k UCSBDiningCommonsMenuItems", menuItems(5_000));
+    Map<String, Class<?>> arrayTypes =
+        Map.of(
+            "20k MenuItemReview", MenuItemReview[].class,
+            "5k UCSBDiningCommonsMenuItems", UCSBDiningCommonsMenuItems[].class);
+
+    StringBuilder table = new StringBuilder();
+    table.append(
+        "%n%-30s %-6s %12s %12s %12s %12s%n"
+            .formatted("payload", "format", "bytes", "gzip bytes", "write ms", "read ms"));
+    for (Map.Entry<String, Object> payload : payloads.entrySet()) {
+      Result json = null;
+      for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+        Result r = measure(format.getValue(), payload.getValue(), arrayTypes.get(payload.getKey()));
+        table.append(
+            "%-30s %-6s %12d %12d %12.2f %12.2f%n"
+                .formatted(
+                    payload.getKey(),
+                    format.getKey(),
+                    r.bytes(),
+                    r.gzipBytes(),
+                    r.serializeMs(),
+                    r.deserializeMs()));
+        if (json == null) {
+          json = r;
+        } else {
+          assertTrue(r.bytes() < json.bytes(), format.getKey() + " should be smaller than json");
+        }
+      }
+    }
+    log.info("Serialization format comparison:{}", table);
+  }
+}
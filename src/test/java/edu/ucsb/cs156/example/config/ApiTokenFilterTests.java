@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.services.ApiTokenService;
+import edu.ucsb.cs156.example.services.RateLimitService;
+import jakarta.servlet.FilterChain;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public class ApiTokenFilterTests {
+
+  private final ApiTokenService apiTokenService = mock(ApiTokenService.class);
+  private final RateLimitService rateLimitService = new RateLimitService();
+  private final FilterChain chain = mock(FilterChain.class);
+
+  private final User alice = User.builder().id(1L).email("alice@ucsb.edu").build();
+
+  private ApiTokenFilter filter;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    ObjectProvider<ApiTokenService> provider = mock(ObjectProvider.class);
+    when(provider.getObject()).thenReturn(apiTokenService);
+    when(apiTokenService.findCached(any())).thenReturn(Optional.empty());
+    when(apiTokenService.authenticate(any())).thenReturn(Optional.empty());
+    rateLimitService.setLimits(List.of("/api/**=10"));
+    filter = new ApiTokenFilter(provider, email -> List.of(), rateLimitService);
+  }
+
+  @AfterEach
+  public void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private MockHttpServletResponse perform(String token) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/currentUser");
+    request.setRemoteAddr("10.0.0.7");
+    request.addHeader("Authorization", "Bearer " + token);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+
+  @Test
+  public void a_flood_of_bad_tokens_is_looked_up_only_as_often_as_the_address_limit_allows()
+      throws Exception {
+    int unauthorized = 0;
+    int throttled = 0;
+    for (int i = 0; i < 100; i++) {
+      int status = perform("cs156_guess" + i).getStatus();
+      if (status == 401) {
+        unauthorized++;
+      } else if (status == 429) {
+        throttled++;
+      }
+    }
+
+    assertEquals(10, unauthorized);
+    assertEquals(90, throttled);
+    verify(apiTokenService, times(10)).authenticate(any());
+    verify(chain, never()).doFilter(any(), any());
+  }
+
+  @Test
+  public void a_cached_token_is_not_charged_to_the_address() throws Exception {
+    when(apiTokenService.findCached("cs156_secret")).thenReturn(Optional.of(alice));
+
+    for (int i = 0; i < 20; i++) {
+      assertEquals(200, perform("cs156_secret").getStatus());
+    }
+
+    verify(apiTokenService, never()).authenticate(any());
+    verify(chain, times(20)).doFilter(any(), any());
+    assertEquals(0, rateLimitService.purgeFullBuckets());
+  }
+
+  @Test
+  public void a_token_that_is_not_cached_is_looked_up_after_the_limit_check() throws Exception {
+    when(apiTokenService.authenticate("cs156_secret")).thenReturn(Optional.of(alice));
+
+    MockHttpServletResponse response = perform("cs156_secret");
+
+    assertEquals(200, response.getStatus());
+    verify(apiTokenService).authenticate("cs156_secret");
+    assertEquals(
+        "alice@ucsb.edu", SecurityContextHolder.getContext().getAuthentication().getName());
+  }
+}
@@ -0,0 +1,137 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+public class HandlerTimingFilterTests {
+
+  /** Stands in for a controller. */
+  static class WidgetsController {
+    public String getById() {
+      return "widget";
+    }
+  }
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final HandlerTimingFilter filter = new HandlerTimingFilter(registry);
+
+  private static HandlerMethod getById() throws Exception {
+    return new HandlerMethod(new WidgetsController(), WidgetsController.class.getMethod("getById"));
+  }
+
+  private MockHttpServletResponse perform(String method, Object handler, int status)
+      throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/widgets");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(
+        request,
+        response,
+        (req, res) -> {
+          if (handler != null) {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+          }
+          ((MockHttpServletResponse) res).setStatus(status);
+        });
+    return response;
+  }
+
+  private Timer timer(String handler, String method, String status) {
+    return registry
+        .find(HandlerTimingFilter.METRIC)
+        .tags("handler", handler, "method", method, "status", status)
+        .timer();
+  }
+
+  @Test
+  public void requests_are_timed_per_handler_method_and_status() throws Exception {
+    HandlerMethod handler = getById();
+    perform("GET", handler, 200);
+    perform("GET", handler, 200);
+    perform("GET", handler, 404);
+    perform("DELETE", handler, 200);
+
+    assertEquals(2, timer("WidgetsController.getById", "GET", "200").count());
+    assertEquals(1, timer("WidgetsController.getById", "GET", "404").count());
+    assertEquals(1, timer("WidgetsController.getById", "DELETE", "200").count());
+    assertEquals(3, registry.find(HandlerTimingFilter.METRIC).timers().size());
+  }
+
+  @Test
+  public void timers_publish_histograms_for_prometheus() throws Exception {
+    PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    new HandlerTimingFilter(prometheus)
+        .doFilter(
+            new MockHttpServletRequest("GET", "/api/widgets"),
+            new MockHttpServletResponse(),
+            new MockFilterChain());
+    assertTrue(
+        prometheus
+            .scrape()
+            .contains(
+                "http_server_handler_seconds_bucket{handler=\"none\",method=\"GET\",status=\"200\",le=\"0.001\"}"));
+  }
+
+  @Test
+  public void the_same_timer_is_reused() throws Exception {
+    HandlerMethod handler = getById();
+    perform("GET", handler, 200);
+    Timer first = timer("WidgetsController.getById", "GET", "200");
+    perform("GET", handler, 200);
+    assertSame(first, timer("WidgetsController.getById", "GET", "200"));
+  }
+
+  @Test
+  public void requests_without_a_controller_method_are_timed_too() throws Exception {
+    perform("GET", null, 404);
+    perform("GET", new ResourceHttpRequestHandler(), 200);
+    perform("BREW", null, 405);
+
+    assertEquals(1, timer("none", "GET", "404").count());
+    assertEquals(1, timer("ResourceHttpRequestHandler", "GET", "200").count());
+    assertEquals(1, timer("none", "OTHER", "405").count());
+  }
+
+  @Test
+  public void an_exception_is_timed_as_a_500_and_rethrown() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/widgets");
+    assertThrows(
+        ServletException.class,
+        () ->
+            filter.doFilter(
+                request,
+                new MockHttpServletResponse(),
+                (req, res) -> {
+                  throw new ServletException("boom");
+                }));
+    assertEquals(1, timer("none", "GET", "500").count());
+  }
+
+  @Test
+  public void async_requests_are_not_timed() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stream");
+    request.setAsyncSupported(true);
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+    assertEquals(0, registry.getMeters().size());
+
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/widgets"),
+        new MockHttpServletResponse(),
+        new MockFilterChain());
+    assertEquals(1, timer("none", "GET", "200").count());
+  }
+}
@@ -0,0 +1,121 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LogRateLimitFilterTests {
+
+  private final LoggerContext context = new LoggerContext();
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+  private final LogRateLimitFilter filter = new LogRateLimitFilter();
+  private final AtomicLong now = new AtomicLong(5_000_000_000L);
+
+  @BeforeEach
+  public void setup() {
+    appender.setContext(context);
+    appender.start();
+    Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.setLevel(Level.INFO);
+    root.addAppender(appender);
+    filter.clock = now::get;
+  }
+
+  private void start() {
+    filter.setContext(context);
+    filter.start();
+    context.addTurboFilter(filter);
+  }
+
+  private void log(String logger, int times) {
+    for (int i = 0; i < times; i++) {
+      context.getLogger(logger).info("message {}", i);
+    }
+  }
+
+  private long count(String logger) {
+    return appender.list.stream().filter(e -> e.getLoggerName().equals(logger)).count();
+  }
+
+  @Test
+  public void each_logger_is_capped_per_second() {
+    filter.setDefaultLimit(3);
+    start();
+
+    log("a", 5);
+    log("b", 2);
+    assertEquals(3, count("a"));
+    assertEquals(2, count("b"));
+    assertEquals(2, filter.getRateLimited());
+
+    now.addAndGet(1_000_000_000L);
+    log("a", 5);
+    assertEquals(6, count("a"));
+  }
+
+  @Test
+  public void the_most_specific_limit_wins() {
+    filter.setDefaultLimit(100);
+    filter.addLimit("edu.ucsb = 2");
+    filter.addLimit("edu.ucsb.cs156.example.aop=1");
+    start();
+
+    log("edu.ucsb.cs156.example.aop.LoggingAspect", 5);
+    log("edu.ucsb.cs156.example.services.Foo", 5);
+    log("org.hibernate.SQL", 5);
+
+    assertEquals(1, count("edu.ucsb.cs156.example.aop.LoggingAspect"));
+    assertEquals(2, count("edu.ucsb.cs156.example.services.Foo"));
+    assertEquals(5, count("org.hibernate.SQL"));
+  }
+
+  @Test
+  public void sampling_keeps_a_fraction_of_messages() {
+    filter.addSample("noisy=0.25");
+    filter.addSample("silent=-1");
+    start();
+
+    log("noisy", 4000);
+    log("silent", 10);
+    log("other", 10);
+
+    long kept = count("noisy");
+    assertTrue(kept > 800 && kept < 1200, "kept " + kept);
+    assertEquals(0, count("silent"));
+    assertEquals(10, count("other"));
+    assertEquals(4000 - kept + 10, filter.getSampledOut());
+  }
+
+  @Test
+  public void warnings_errors_and_disabled_levels_are_left_alone() {
+    filter.setDefaultLimit(1);
+    start();
+
+    Logger logger = context.getLogger("a");
+    for (int i = 0; i < 3; i++) {
+      logger.warn("warn");
+      logger.error("error");
+      logger.debug("debug");
+      assertTrue(logger.isInfoEnabled());
+    }
+    logger.info("info");
+
+    assertEquals(7, count("a"));
+    assertEquals(0, filter.getRateLimited());
+  }
+
+  @Test
+  public void malformed_settings_are_rejected() {
+    assertThrows(IllegalArgumentException.class, () -> filter.addLimit("no-value"));
+    assertThrows(NumberFormatException.class, () -> filter.addSample("a=b"));
+  }
+}
@@ -0,0 +1,115 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.ServletException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class QueryBudgetFilterTests {
+
+  /** Stands in for a controller. */
+  static class WidgetsController {
+    public String allWidgets() {
+      return "widgets";
+    }
+  }
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger(QueryBudgetFilter.class);
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  private final QueryCountInspector inspector = new QueryCountInspector();
+  private final QueryBudgetFilter filter = new QueryBudgetFilter(2);
+
+  @BeforeEach
+  public void setup() {
+    appender.start();
+    logger.addAppender(appender);
+  }
+
+  @AfterEach
+  public void teardown() {
+    logger.detachAppender(appender);
+  }
+
+  private void perform(int statements) throws Exception {
+    HandlerMethod handler =
+        new HandlerMethod(new WidgetsController(), WidgetsController.class.getMethod("allWidgets"));
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/widgets/all"),
+        new MockHttpServletResponse(),
+        (req, res) -> {
+          req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+          for (int i = 0; i < statements; i++) {
+            inspector.inspect("select * from widgets where id=?");
+          }
+        });
+  }
+
+  @Test
+  public void requests_within_budget_are_not_logged() throws Exception {
+    perform(0);
+    perform(2);
+    assertEquals(List.of(), appender.list);
+  }
+
+  @Test
+  public void requests_over_budget_are_logged_with_their_handler() throws Exception {
+    perform(3);
+
+    assertEquals(1, appender.list.size());
+    ILoggingEvent event = appender.list.get(0);
+    assertEquals(Level.WARN, event.getLevel());
+    assertEquals(
+        "GET /api/widgets/all ran 3 SQL statements (budget 2) in WidgetsController.allWidgets",
+        event.getFormattedMessage());
+  }
+
+  @Test
+  public void requests_that_fail_are_still_counted() {
+    assertThrows(
+        ServletException.class,
+        () ->
+            filter.doFilter(
+                new MockHttpServletRequest("POST", "/api/widgets/post"),
+                new MockHttpServletResponse(),
+                (req, res) -> {
+                  for (int i = 0; i < 5; i++) {
+                    inspector.inspect("insert into widgets values (?)");
+                  }
+                  throw new ServletException("boom");
+                }));
+
+    assertEquals(
+        "POST /api/widgets/post ran 5 SQL statements (budget 2) in none",
+        appender.list.get(0).getFormattedMessage());
+  }
+
+  @Test
+  public void the_inspector_counts_per_thread_and_records_only_when_asked() throws Exception {
+    long before = QueryCountInspector.count();
+    assertEquals("select 1", inspector.inspect("select 1"));
+    assertEquals(List.of(), QueryCountInspector.stopRecording());
+
+    QueryCountInspector.startRecording();
+    inspector.inspect("select 2");
+    Thread other = new Thread(() -> inspector.inspect("select 3"));
+    other.start();
+    other.join();
+
+    assertEquals(List.of("select 2"), QueryCountInspector.stopRecording());
+    assertEquals(before + 2, QueryCountInspector.count());
+  }
+}
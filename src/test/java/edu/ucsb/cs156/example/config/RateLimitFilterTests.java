@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.services.RateLimitService;
+import jakarta.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public class RateLimitFilterTests {
+
+  private final RateLimitService rateLimitService = mock(RateLimitService.class);
+  private final RateLimitFilter filter = new RateLimitFilter(rateLimitService);
+  private final FilterChain chain = mock(FilterChain.class);
+
+  @AfterEach
+  public void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+
+  private static MockHttpServletRequest post() {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/ucsbdates/post");
+    request.setRemoteAddr("10.0.0.7");
+    return request;
+  }
+
+  @Test
+  public void logged_in_users_are_limited_by_name() throws Exception {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new TestingAuthenticationToken("alice", null, "ROLE_USER"));
+    MockHttpServletRequest request = post();
+
+    MockHttpServletResponse response = perform(request);
+
+    verify(rateLimitService).tryAcquire("/api/ucsbdates/post", "alice", true);
+    verify(chain).doFilter(request, response);
+    assertEquals(200, response.getStatus());
+  }
+
+  @Test
+  public void other_requests_are_limited_by_address() throws Exception {
+    perform(post());
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+    perform(post());
+    TestingAuthenticationToken unauthenticated = new TestingAuthenticationToken("bob", null);
+    unauthenticated.setAuthenticated(false);
+    SecurityContextHolder.getContext().setAuthentication(unauthenticated);
+    perform(post());
+
+    verify(rateLimitService, times(3)).tryAcquire("/api/ucsbdates/post", "10.0.0.7", false);
+  }
+
+  @Test
+  public void requests_over_the_limit_get_429_with_retry_after() throws Exception {
+    when(rateLimitService.tryAcquire("/api/ucsbdates/post", "10.0.0.7", false))
+        .thenReturn(TimeUnit.MILLISECONDS.toNanos(2500));
+    MockHttpServletRequest request = post();
+
+    MockHttpServletResponse response = perform(request);
+
+    verify(chain, never()).doFilter(request, response);
+    assertEquals(429, response.getStatus());
+    assertEquals("3", response.getHeader("Retry-After"));
+    assertEquals("application/json", response.getContentType());
+    assertEquals(
+        "{\"type\":\"TooManyRequests\",\"message\":\"Too many requests; retry after 3 seconds\"}",
+        response.getContentAsString());
+  }
+
+  @Test
+  public void retry_after_is_at_least_one_second() throws Exception {
+    when(rateLimitService.tryAcquire("/api/ucsbdates/post", "10.0.0.7", false)).thenReturn(1L);
+    assertEquals("1", perform(post()).getHeader("Retry-After"));
+  }
+}
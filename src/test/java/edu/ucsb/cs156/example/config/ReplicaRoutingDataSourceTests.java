@@ -0,0 +1,230 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReplicaRoutingDataSourceTests {
+
+  /** A database that can be switched off, standing in for a replica that goes down. */
+  static class FlakyDataSource extends DelegatingDataSource implements AutoCloseable {
+    volatile boolean down = false;
+    boolean closed = false;
+
+    FlakyDataSource(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      if (down) {
+        throw new SQLException("connection refused");
+      }
+      return super.getConnection();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private final AtomicReference<String> user = new AtomicReference<>();
+
+  private FlakyDataSource primary;
+  private FlakyDataSource replicaA;
+  private FlakyDataSource replicaB;
+
+  /** An H2 in-memory database with one row saying which database it is. */
+  private static DataSource database(String name) {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("CREATE TABLE WHO_AM_I (NAME VARCHAR(20))");
+    jdbc.update("INSERT INTO WHO_AM_I VALUES (?)", name);
+    return dataSource;
+  }
+
+  @BeforeEach
+  public void setup() {
+    primary = new FlakyDataSource(database("primary"));
+    replicaA = new FlakyDataSource(database("replicaA"));
+    replicaB = new FlakyDataSource(database("replicaB"));
+    user.set(null);
+  }
+
+  private ReplicaRoutingDataSource router(long stickyMs, FlakyDataSource... replicas) {
+    Map<String, DataSource> byName = new LinkedHashMap<>();
+    for (int i = 0; i < replicas.length; i++) {
+      byName.put("replica" + i, replicas[i]);
+    }
+    return new ReplicaRoutingDataSource(primary, byName, stickyMs, user::get);
+  }
+
+  private static String whoAmI(DataSource dataSource, boolean readOnly) {
+    TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    tx.setReadOnly(readOnly);
+    return tx.execute(
+        status ->
+            new JdbcTemplate(dataSource).queryForObject("SELECT NAME FROM WHO_AM_I", String.class));
+  }
+
+  private static void write(DataSource dataSource) {
+    TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    tx.executeWithoutResult(
+        status -> new JdbcTemplate(dataSource).update("UPDATE WHO_AM_I SET NAME = NAME"));
+  }
+
+  @Test
+  public void read_only_transactions_go_to_the_replica() {
+    ReplicaRoutingDataSource router = router(0, replicaA);
+    assertEquals("replicaA", whoAmI(router, true));
+    assertEquals(1, router.replicaReads());
+  }
+
+  @Test
+  public void read_write_transactions_go_to_the_primary() {
+    ReplicaRoutingDataSource router = router(0, replicaA);
+    assertEquals("primary", whoAmI(router, false));
+    assertEquals(0, router.replicaReads());
+  }
+
+  @Test
+  public void work_outside_a_transaction_goes_to_the_primary() {
+    ReplicaRoutingDataSource router = router(0, replicaA);
+    assertEquals(
+        "primary",
+        new JdbcTemplate(router).queryForObject("SELECT NAME FROM WHO_AM_I", String.class));
+  }
+
+  @Test
+  public void reads_are_spread_round_robin_over_the_replicas() {
+    ReplicaRoutingDataSource router = router(0, replicaA, replicaB);
+    assertEquals("replicaA", whoAmI(router, true));
+    assertEquals("replicaB", whoAmI(router, true));
+    assertEquals("replicaA", whoAmI(router, true));
+  }
+
+  @Test
+  public void a_replica_that_refuses_connections_is_skipped() {
+    ReplicaRoutingDataSource router = router(0, replicaA, replicaB);
+    replicaA.down = true;
+    assertEquals("replicaB", whoAmI(router, true));
+    assertEquals(1, router.healthyReplicas());
+    assertEquals("replicaB", whoAmI(router, true));
+  }
+
+  @Test
+  public void reads_fall_back_to_the_primary_when_no_replica_is_healthy() {
+    ReplicaRoutingDataSource router = router(0, replicaA);
+    replicaA.down = true;
+    assertEquals("primary", whoAmI(router, true));
+    assertEquals(0, router.healthyReplicas());
+    assertEquals(0, router.replicaReads());
+  }
+
+  @Test
+  public void health_check_takes_replicas_out_and_puts_them_back() {
+    ReplicaRoutingDataSource router = router(0, replicaA);
+    replicaA.down = true;
+    router.checkHealth();
+    assertEquals(0, router.healthyReplicas());
+    assertEquals("primary", whoAmI(router, true));
+
+    replicaA.down = false;
+    router.checkHealth();
+    assertEquals(1, router.healthyReplicas());
+    assertEquals("replicaA", whoAmI(router, true));
+  }
+
+  @Test
+  public void a_writer_reads_their_writes_from_the_primary() {
+    ReplicaRoutingDataSource router = router(60_000, replicaA);
+    user.set("alice@ucsb.edu");
+    write(router);
+    assertEquals("primary", whoAmI(router, true));
+
+    user.set("bob@ucsb.edu");
+    assertEquals("replicaA", whoAmI(router, true));
+
+    user.set(null);
+    assertEquals("replicaA", whoAmI(router, true));
+  }
+
+  @Test
+  public void a_rolled_back_write_does_not_stick() {
+    ReplicaRoutingDataSource router = router(60_000, replicaA);
+    user.set("alice@ucsb.edu");
+    TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(router));
+    tx.executeWithoutResult(
+        status -> {
+          new JdbcTemplate(router).update("UPDATE WHO_AM_I SET NAME = NAME");
+          status.setRollbackOnly();
+        });
+    assertEquals("replicaA", whoAmI(router, true));
+  }
+
+  @Test
+  public void work_outside_a_transaction_does_not_stick() {
+    ReplicaRoutingDataSource router = router(60_000, replicaA);
+    user.set("alice@ucsb.edu");
+    new JdbcTemplate(router).update("UPDATE WHO_AM_I SET NAME = NAME");
+    assertEquals("replicaA", whoAmI(router, true));
+  }
+
+  @Test
+  public void stickiness_expires() throws Exception {
+    ReplicaRoutingDataSource router = router(1, replicaA);
+    user.set("alice@ucsb.edu");
+    write(router);
+    Thread.sleep(5);
+    router.checkHealth();
+    assertEquals("replicaA", whoAmI(router, true));
+  }
+
+  @Test
+  public void stickiness_can_be_turned_off() {
+    ReplicaRoutingDataSource router = router(0, replicaA);
+    user.set("alice@ucsb.edu");
+    write(router);
+    assertEquals("replicaA", whoAmI(router, true));
+  }
+
+  @Test
+  public void close_closes_the_pools() throws Exception {
+    ReplicaRoutingDataSource router = router(0, replicaA, replicaB);
+    router.close();
+    assertTrue(primary.closed);
+    assertTrue(replicaA.closed);
+    assertTrue(replicaB.closed);
+  }
+
+  @Test
+  public void connections_with_other_credentials_are_not_supported() {
+    ReplicaRoutingDataSource router = router(0, replicaA);
+    assertThrows(SQLFeatureNotSupportedException.class, () -> whoAmIWithCredentials(router));
+  }
+
+  private static void whoAmIWithCredentials(ReplicaRoutingDataSource router) throws SQLException {
+    try (Connection connection = router.getConnection("someone", "else")) {
+      connection.setReadOnly(true);
+      connection.createStatement().execute("SELECT 1");
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+public class SessionAttributeSerializerTests {
+
+  private final SessionAttributeSerializer serializer =
+      new SessionAttributeSerializer(getClass().getClassLoader());
+
+  private static final Map<String, Object> ATTRIBUTES =
+      Map.of(
+          "sub", "115856948234298493496",
+          "name", "Chris Gaucho",
+          "given_name", "Chris",
+          "family_name", "Gaucho",
+          "picture", "https://lh3.googleusercontent.com/a/ACg8ocK2-photo=s96-c",
+          "email", "cgaucho@ucsb.edu",
+          "email_verified", true,
+          "hd", "ucsb.edu");
+
+  /** A login as built by Spring Security: the token's authorities are the mapped ones. */
+  private static SecurityContext oauth2Login(Map<String, Object> attributes) {
+    DefaultOAuth2User user =
+        new DefaultOAuth2User(
+            List.of(
+                new OAuth2UserAuthority("OAUTH2_USER", attributes, "sub"),
+                new SimpleGrantedAuthority("SCOPE_email")),
+            attributes,
+            "sub");
+    OAuth2AuthenticationToken token =
+        new OAuth2AuthenticationToken(
+            user,
+            List.of(
+                new SimpleGrantedAuthority("SCOPE_email"),
+                new OAuth2UserAuthority(attributes),
+                new SimpleGrantedAuthority("ROLE_USER"),
+                new SimpleGrantedAuthority("ROLE_MEMBER")),
+            "google");
+    token.setDetails(new WebAuthenticationDetails("10.0.0.1", "4F1C2B"));
+    return new SecurityContextImpl(token);
+  }
+
+  private void assertRoundTrips(Object value, boolean compact) {
+    byte[] bytes = serializer.serialize(value);
+    assertEquals(compact, SessionAttributeSerializer.isSmile(bytes));
+    assertEquals(value, serializer.deserialize(bytes));
+  }
+
+  @Test
+  public void an_oauth2_login_round_trips_in_a_fraction_of_the_java_serialized_size() {
+    SecurityContext context = oauth2Login(ATTRIBUTES);
+
+    byte[] bytes = serializer.serialize(context);
+
+    assertTrue(SessionAttributeSerializer.isSmile(bytes));
+    SecurityContext read = (SecurityContext) serializer.deserialize(bytes);
+    assertEquals(context, read);
+    assertEquals(
+        context.getAuthentication().getAuthorities(), read.getAuthentication().getAuthorities());
+    assertEquals(context.getAuthentication().getDetails(), read.getAuthentication().getDetails());
+    int javaSize = new SerializingConverter().convert(context).length;
+    assertTrue(bytes.length * 3 < javaSize, bytes.length + " vs " + javaSize);
+  }
+
+  @Test
+  public void a_login_without_details_round_trips() {
+    SecurityContext context = oauth2Login(ATTRIBUTES);
+    ((OAuth2AuthenticationToken) context.getAuthentication()).setDetails(null);
+    assertRoundTrips(context, true);
+  }
+
+  @Test
+  public void logins_that_are_not_plain_oauth2_logins_are_java_serialized() {
+    SecurityContext oidcStyle = oauth2Login(Map.of("sub", "115", "iat", Instant.EPOCH));
+    SecurityContext otherDetails = oauth2Login(ATTRIBUTES);
+    ((OAuth2AuthenticationToken) otherDetails.getAuthentication()).setDetails("details");
+    SecurityContext otherAuthority =
+        new SecurityContextImpl(
+            new OAuth2AuthenticationToken(
+                new DefaultOAuth2User(
+                    List.of(new OAuth2UserAuthority(Map.of("sub", "other"))), ATTRIBUTES, "sub"),
+                List.of(),
+                "google"));
+    SecurityContext passwordLogin =
+        new SecurityContextImpl(
+            UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+    assertRoundTrips(oidcStyle, false);
+    assertRoundTrips(otherDetails, false);
+    assertRoundTrips(otherAuthority, false);
+    assertRoundTrips(passwordLogin, false);
+    assertRoundTrips(new SecurityContextImpl(), false);
+  }
+
+  @Test
+  public void other_attributes_are_java_serialized() {
+    OAuth2AuthorizationRequest request =
+        OAuth2AuthorizationRequest.authorizationCode()
+            .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+            .clientId("client_id")
+            .state("state")
+            .build();
+    byte[] bytes = serializer.serialize(request);
+    assertFalse(SessionAttributeSerializer.isSmile(bytes));
+    assertEquals(
+        request.getAuthorizationRequestUri(),
+        ((OAuth2AuthorizationRequest) serializer.deserialize(bytes)).getAuthorizationRequestUri());
+
+    assertRoundTrips(new ArrayList<>(List.of("a", "b")), false);
+    assertRoundTrips("text", false);
+    assertFalse(SessionAttributeSerializer.isSmile(new byte[] {':', ')'}));
+  }
+
+  @Test
+  public void the_conversion_service_uses_the_serializer() {
+    SessionConfig config = new SessionConfig();
+    config.setBeanClassLoader(getClass().getClassLoader());
+    ConversionService conversionService = config.springSessionConversionService();
+    SecurityContext context = oauth2Login(ATTRIBUTES);
+
+    byte[] bytes = conversionService.convert(context, byte[].class);
+
+    assertTrue(SessionAttributeSerializer.isSmile(bytes));
+    assertEquals(context, conversionService.convert(bytes, Object.class));
+  }
+}
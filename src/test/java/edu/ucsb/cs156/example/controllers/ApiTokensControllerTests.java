@@ -0,0 +1,197 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.ApiToken;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.IssuedApiToken;
+import edu.ucsb.cs156.example.repositories.ApiTokenRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ApiTokenService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = ApiTokensController.class)
+@Import(TestConfig.class)
+@SuppressWarnings("unchecked")
+public class ApiTokensControllerTests extends ControllerTestCase {
+
+  @MockBean ApiTokenRepository apiTokenRepository;
+
+  @MockBean UserRepository userRepository;
+
+  @MockBean ApiTokenService apiTokenService;
+
+  private final User admin = User.builder().id(1L).email("admin@ucsb.edu").admin(true).build();
+
+  private final User student = User.builder().id(2L).email("student@ucsb.edu").build();
+
+  private final ApiToken token =
+      ApiToken.builder().id(7L).user(student).name("load test").tokenHash("abc").build();
+
+  @Test
+  public void logged_out_users_cannot_list_tokens() throws Exception {
+    mockMvc.perform(get("/api/admin/tokens/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_issue_tokens() throws Exception {
+    mockMvc
+        .perform(post("/api/admin/tokens/post?email=student@ucsb.edu&name=x").with(csrf()))
+        .andExpect(status().is(403));
+    verify(apiTokenService, never()).issue(any(), any());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_list_tokens_without_their_hashes() throws Exception {
+    when(apiTokenRepository.findAllByOrderByIdAsc()).thenReturn(List.of(token));
+
+    MvcResult response =
+        mockMvc.perform(get("/api/admin/tokens/all")).andExpect(status().isOk()).andReturn();
+
+    List<Map<String, Object>> json =
+        mapper.readValue(response.getResponse().getContentAsString(), List.class);
+    assertEquals(1, json.size());
+    assertEquals("load test", json.get(0).get("name"));
+    assertEquals("student@ucsb.edu", ((Map<String, Object>) json.get(0).get("user")).get("email"));
+    assertNull(json.get(0).get("tokenHash"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_issue_a_token_for_a_user() throws Exception {
+    IssuedApiToken issued =
+        IssuedApiToken.builder()
+            .id(7L)
+            .name("load test")
+            .email("student@ucsb.edu")
+            .token("cs156_secret")
+            .build();
+    when(userRepository.findByEmail("student@ucsb.edu")).thenReturn(Optional.of(student));
+    when(apiTokenService.issue(student, "load test")).thenReturn(issued);
+
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/admin/tokens/post?email=student@ucsb.edu&name=load test").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    assertEquals(mapper.writeValueAsString(issued), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void issuing_a_token_for_an_unknown_user_is_not_found() throws Exception {
+    when(userRepository.findByEmail("nobody@ucsb.edu")).thenReturn(Optional.empty());
+
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/admin/tokens/post?email=nobody@ucsb.edu&name=x").with(csrf()))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    assertEquals("User with id nobody@ucsb.edu not found", responseToJson(response).get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_revoke_a_token() throws Exception {
+    when(apiTokenRepository.findById(7L)).thenReturn(Optional.of(token));
+
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/admin/tokens?id=7").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    verify(apiTokenService).revoke(token);
+    assertEquals("ApiToken with id 7 deleted", responseToJson(response).get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void revoking_an_unknown_token_is_not_found() throws Exception {
+    when(apiTokenRepository.findById(7L)).thenReturn(Optional.empty());
+
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/admin/tokens?id=7").with(csrf()))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    verify(apiTokenService, never()).revoke(any());
+    assertEquals("ApiToken with id 7 not found", responseToJson(response).get("message"));
+  }
+
+  // Requests with an API token go through the stateless filter chain
+
+  @Test
+  public void a_valid_api_token_authenticates_without_a_session_or_csrf_token() throws Exception {
+    when(apiTokenService.authenticate("cs156_admin")).thenReturn(Optional.of(admin));
+    when(userRepository.findByEmail("admin@ucsb.edu")).thenReturn(Optional.of(admin));
+    when(userRepository.findByEmail("student@ucsb.edu")).thenReturn(Optional.of(student));
+    when(apiTokenService.issue(eq(student), eq("x")))
+        .thenReturn(IssuedApiToken.builder().id(8L).name("x").build());
+
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/admin/tokens/post?email=student@ucsb.edu&name=x")
+                    .header("Authorization", "Bearer cs156_admin"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Set-Cookie"))
+            .andReturn();
+
+    assertNull(response.getRequest().getSession(false));
+    verify(apiTokenService).issue(student, "x");
+  }
+
+  @Test
+  public void an_api_token_gets_the_roles_of_its_user() throws Exception {
+    when(apiTokenService.authenticate("cs156_student")).thenReturn(Optional.of(student));
+    when(userRepository.findByEmail("student@ucsb.edu")).thenReturn(Optional.of(student));
+
+    mockMvc
+        .perform(get("/api/admin/tokens/all").header("Authorization", "bearer cs156_student"))
+        .andExpect(status().is(403));
+  }
+
+  @Test
+  public void an_unknown_api_token_is_unauthorized() throws Exception {
+    when(apiTokenService.authenticate("cs156_guess")).thenReturn(Optional.empty());
+
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/admin/tokens/all").header("Authorization", "Bearer cs156_guess"))
+            .andExpect(status().isUnauthorized())
+            .andExpect(header().string("WWW-Authenticate", "Bearer error=\"invalid_token\""))
+            .andReturn();
+
+    assertEquals("InvalidApiToken", responseToJson(response).get("type"));
+    verify(apiTokenRepository, never()).findAllByOrderByIdAsc();
+  }
+}
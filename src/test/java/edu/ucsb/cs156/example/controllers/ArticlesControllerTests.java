@@ -3,6 +3,7 @@ package edu.ucsb.cs156.example.controllers;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -15,18 +16,23 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.models.ArticleView;
 import edu.ucsb.cs156.example.repositories.ArticlesRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ArticleSearchService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -38,6 +44,8 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
   @MockBean UserRepository userRepository;
 
+  @MockBean ArticleSearchService articleSearchService;
+
   @Test
   public void logged_out_users_cannot_get_all() throws Exception {
     mockMvc
@@ -99,7 +107,8 @@ public class ArticlesControllerTests extends ControllerTestCase {
     ArrayList<Article> expectedArticles = new ArrayList<>();
     expectedArticles.addAll(Arrays.asList(article1, article2));
 
-    when(articlesRepository.findAll()).thenReturn(expectedArticles);
+    when(articlesRepository.findAllViewsBy())
+        .thenReturn(views(expectedArticles, ArticleView.class));
 
     // act
     MvcResult response =
@@ -107,7 +116,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(articlesRepository, times(1)).findAll();
+    verify(articlesRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedArticles);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -142,6 +151,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
     // assert
     verify(articlesRepository, times(1)).save(eq(article1));
+    verify(articleSearchService, times(1)).index(eq(article1));
     String expectedJson = mapper.writeValueAsString(article1);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -165,7 +175,8 @@ public class ArticlesControllerTests extends ControllerTestCase {
             .dateAdded(ldt)
             .build();
 
-    when(articlesRepository.findById(eq(7L))).thenReturn(Optional.of(article));
+    when(articlesRepository.findViewById(eq(7L)))
+        .thenReturn(Optional.of(view(article, ArticleView.class)));
 
     // act
     MvcResult response =
@@ -173,7 +184,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(articlesRepository, times(1)).findById(eq(7L));
+    verify(articlesRepository, times(1)).findViewById(eq(7L));
     String expectedJson = mapper.writeValueAsString(article);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -185,7 +196,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
     // arrange
 
-    when(articlesRepository.findById(eq(7L))).thenReturn(Optional.empty());
+    when(articlesRepository.findViewById(eq(7L))).thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -193,7 +204,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(articlesRepository, times(1)).findById(eq(7L));
+    verify(articlesRepository, times(1)).findViewById(eq(7L));
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
     assertEquals("Article with id 7 not found", json.get("message"));
@@ -227,6 +238,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
     // assert
     verify(articlesRepository, times(1)).findById(15L);
     verify(articlesRepository, times(1)).delete(any());
+    verify(articleSearchService, times(1)).remove(15L);
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("Article with id 15 deleted", json.get("message"));
@@ -298,6 +310,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
     // assert
     verify(articlesRepository, times(1)).findById(67L);
     verify(articlesRepository, times(1)).save(articleEdited); // should be saved with correct user
+    verify(articleSearchService, times(1)).index(articleEdited);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(requestBody, responseString);
   }
@@ -339,4 +352,74 @@ public class ArticlesControllerTests extends ControllerTestCase {
     Map<String, Object> json = responseToJson(response);
     assertEquals("Article with id 67 not found", json.get("message"));
   }
+
+  @Test
+  public void logged_out_users_cannot_search() throws Exception {
+    mockMvc.perform(get("/api/articles/search?q=spring")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_search_articles() throws Exception {
+    // arrange
+    Article article1 =
+        Article.builder()
+            .id(1L)
+            .title("Spring Boot tips")
+            .url("https://example.org/spring")
+            .explanation("useful")
+            .email("a@ucsb.edu")
+            .dateAdded(LocalDateTime.parse("2022-01-03T00:00:00"))
+            .build();
+    PageRequest pageRequest = PageRequest.of(1, 5);
+    when(articleSearchService.search("spring boot", pageRequest))
+        .thenReturn(new PageImpl<>(List.of(article1), pageRequest, 6));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/articles/search?q=spring boot&page=1&pageSize=5"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(articleSearchService, times(1)).search("spring boot", pageRequest);
+    Map<String, Object> json = responseToJson(response);
+    List<?> content = (List<?>) json.get("content");
+    assertEquals("Spring Boot tips", ((Map<?, ?>) content.get(0)).get("title"));
+    assertEquals(6, ((Map<?, ?>) json.get("page")).get("totalElements"));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void search_uses_default_paging() throws Exception {
+    when(articleSearchService.search("spring", PageRequest.of(0, 20)))
+        .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0));
+
+    mockMvc.perform(get("/api/articles/search?q=spring")).andExpect(status().isOk());
+
+    verify(articleSearchService, times(1)).search("spring", PageRequest.of(0, 20));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void the_search_page_size_is_clamped() throws Exception {
+    when(articleSearchService.search(eq("spring"), any(PageRequest.class)))
+        .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 1), 0));
+
+    mockMvc.perform(get("/api/articles/search?q=spring&pageSize=0")).andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/articles/search?q=spring&pageSize=100000"))
+        .andExpect(status().isOk());
+
+    verify(articleSearchService, times(1)).search("spring", PageRequest.of(0, 1));
+    verify(articleSearchService, times(1)).search("spring", PageRequest.of(0, 500));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void a_negative_search_page_is_rejected() throws Exception {
+    mockMvc.perform(get("/api/articles/search?q=spring&page=-1")).andExpect(status().is(400));
+    verify(articleSearchService, never()).search(any(), any());
+  }
 }
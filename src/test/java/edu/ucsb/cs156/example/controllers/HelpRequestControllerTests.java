@@ -11,16 +11,20 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestView;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.HelpRequestQueueBroadcaster;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
@@ -30,6 +34,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @WebMvcTest(controllers = HelpRequestController.class)
 @Import(TestConfig.class)
@@ -39,6 +44,8 @@ public class HelpRequestControllerTests extends ControllerTestCase {
 
   @MockBean UserRepository userRepository;
 
+  @MockBean HelpRequestQueueBroadcaster helpRequestQueueBroadcaster;
+
   // Authorization tests for /api/helprequest/admin/all
 
   @Test
@@ -96,7 +103,8 @@ public class HelpRequestControllerTests extends ControllerTestCase {
             .solved(true)
             .build();
 
-    when(helpRequestRepository.findById(eq(7L))).thenReturn(Optional.of(helpRequest));
+    when(helpRequestRepository.findViewById(eq(7L)))
+        .thenReturn(Optional.of(view(helpRequest, HelpRequestView.class)));
 
     // act
     MvcResult response =
@@ -104,7 +112,7 @@ public class HelpRequestControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(helpRequestRepository, times(1)).findById(eq(7L));
+    verify(helpRequestRepository, times(1)).findViewById(eq(7L));
     String expectedJson = mapper.writeValueAsString(helpRequest);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -116,7 +124,7 @@ public class HelpRequestControllerTests extends ControllerTestCase {
 
     // arrange
 
-    when(helpRequestRepository.findById(eq(7L))).thenReturn(Optional.empty());
+    when(helpRequestRepository.findViewById(eq(7L))).thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -124,7 +132,7 @@ public class HelpRequestControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(helpRequestRepository, times(1)).findById(eq(7L));
+    verify(helpRequestRepository, times(1)).findViewById(eq(7L));
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
     assertEquals("HelpRequest with id 7 not found", json.get("message"));
@@ -162,7 +170,8 @@ public class HelpRequestControllerTests extends ControllerTestCase {
     ArrayList<HelpRequest> expectedRequests = new ArrayList<>();
     expectedRequests.addAll(Arrays.asList(helpRequest1, helpRequest1));
 
-    when(helpRequestRepository.findAll()).thenReturn(expectedRequests);
+    when(helpRequestRepository.findAllViewsBy())
+        .thenReturn(views(expectedRequests, HelpRequestView.class));
 
     // act
     MvcResult response =
@@ -170,7 +179,7 @@ public class HelpRequestControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(helpRequestRepository, times(1)).findAll();
+    verify(helpRequestRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedRequests);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -206,6 +215,7 @@ public class HelpRequestControllerTests extends ControllerTestCase {
 
     // assert
     verify(helpRequestRepository, times(1)).save(helpRequest1);
+    verify(helpRequestQueueBroadcaster, times(1)).requestSaved(helpRequest1);
     String expectedJson = mapper.writeValueAsString(helpRequest1);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -240,6 +250,7 @@ public class HelpRequestControllerTests extends ControllerTestCase {
     // assert
     verify(helpRequestRepository, times(1)).findById(15L);
     verify(helpRequestRepository, times(1)).delete(any());
+    verify(helpRequestQueueBroadcaster, times(1)).requestDeleted(15L);
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("HelpRequest with id 15 deleted", json.get("message"));
@@ -314,6 +325,7 @@ public class HelpRequestControllerTests extends ControllerTestCase {
     verify(helpRequestRepository, times(1)).findById(67L);
     verify(helpRequestRepository, times(1)).save(helpRequestEdited); // should be saved with
     //   correct user
+    verify(helpRequestQueueBroadcaster, times(1)).requestSaved(helpRequestEdited);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(requestBody, responseString);
   }
@@ -356,4 +368,27 @@ public class HelpRequestControllerTests extends ControllerTestCase {
     Map<String, Object> json = responseToJson(response);
     assertEquals("HelpRequest with id 67 not found", json.get("message"));
   }
+
+  // Tests for the open queue stream
+
+  @Test
+  public void logged_out_users_cannot_stream_the_queue() throws Exception {
+    mockMvc.perform(get("/api/helprequest/queue/stream")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_users_can_stream_the_queue() throws Exception {
+    // arrange
+    when(helpRequestQueueBroadcaster.subscribe()).thenReturn(new SseEmitter());
+
+    // act
+    mockMvc
+        .perform(get("/api/helprequest/queue/stream").accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isOk())
+        .andExpect(request().asyncStarted());
+
+    // assert
+    verify(helpRequestQueueBroadcaster, times(1)).subscribe();
+  }
 }
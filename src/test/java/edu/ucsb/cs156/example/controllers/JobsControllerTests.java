@@ -23,6 +23,8 @@ import edu.ucsb.cs156.example.entities.Job;
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ArticleSearchService;
+import edu.ucsb.cs156.example.services.MenuItemRatingStatsService;
 import edu.ucsb.cs156.example.services.jobs.JobService;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -48,6 +50,10 @@ public class JobsControllerTests extends ControllerTestCase {
 
   @MockitoBean UserRepository userRepository;
 
+  @MockitoBean MenuItemRatingStatsService menuItemRatingStatsService;
+
+  @MockitoBean ArticleSearchService articleSearchService;
+
   @Autowired JobService jobService;
 
   @Autowired ObjectMapper objectMapper;
@@ -325,4 +331,64 @@ public class JobsControllerTests extends ControllerTestCase {
         .atMost(10, SECONDS)
         .untilAsserted(() -> verify(jobsRepository, times(3)).save(eq(jobFailed)));
   }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_launch_rebuild_menu_item_rating_stats_job() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+
+    Job jobStarted = Job.builder().id(0L).createdBy(user).status("running").build();
+
+    when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted);
+    when(menuItemRatingStatsService.rebuildAll()).thenReturn(3);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/rebuildMenuItemRatingStats").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Job jobReturned =
+        objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals(0L, jobReturned.getId());
+
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(() -> verify(menuItemRatingStatsService, times(1)).rebuildAll());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_launch_rebuild_article_search_index_job() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+
+    Job jobStarted = Job.builder().id(0L).createdBy(user).status("running").build();
+
+    when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted);
+    when(articleSearchService.rebuild()).thenReturn(4);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/rebuildArticleSearchIndex").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Job jobReturned =
+        objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals(0L, jobReturned.getId());
+
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(() -> verify(articleSearchService, times(1)).rebuild());
+  }
 }
@@ -3,8 +3,10 @@ package edu.ucsb.cs156.example.controllers;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -14,19 +16,29 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.MenuItemRatingStats;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.MenuItemLeaderboardEntry;
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.MenuItemLeaderboardService;
+import edu.ucsb.cs156.example.services.MenuItemRatingStatsService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -39,6 +51,10 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
   @MockBean UserRepository userRepository;
 
+  @MockBean MenuItemRatingStatsService menuItemRatingStatsService;
+
+  @MockBean MenuItemLeaderboardService menuItemLeaderboardService;
+
   // get, but not all -> skip
   // get all include,
 
@@ -98,7 +114,8 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
     ArrayList<MenuItemReview> expectedReviews = new ArrayList<>();
     expectedReviews.addAll(Arrays.asList(menuItemReview1, menuItemReview2));
 
-    when(menuItemReviewRepository.findAll()).thenReturn(expectedReviews);
+    when(menuItemReviewRepository.findAllViewsBy())
+        .thenReturn(views(expectedReviews, MenuItemReviewView.class));
 
     // act
     MvcResult response =
@@ -106,7 +123,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(menuItemReviewRepository, times(1)).findAll();
+    verify(menuItemReviewRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedReviews);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -149,6 +166,8 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
     // assert
     verify(menuItemReviewRepository, times(1)).save(menuItemReview1);
+    verify(menuItemRatingStatsService, times(1)).reviewAdded(menuItemReview1);
+    verify(menuItemLeaderboardService, times(1)).reviewAdded(menuItemReview1);
     String expectedJson = mapper.writeValueAsString(menuItemReview1);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -169,7 +188,8 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
             .comments("bleh")
             .build();
 
-    when(menuItemReviewRepository.findById(eq(7L))).thenReturn(Optional.of(menuItemReview1));
+    when(menuItemReviewRepository.findViewById(eq(7L)))
+        .thenReturn(Optional.of(view(menuItemReview1, MenuItemReviewView.class)));
 
     // act
     MvcResult response =
@@ -177,7 +197,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(menuItemReviewRepository, times(1)).findById(eq(7L));
+    verify(menuItemReviewRepository, times(1)).findViewById(eq(7L));
     String expectedJson = mapper.writeValueAsString(menuItemReview1);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -189,7 +209,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
     // arrange
 
-    when(menuItemReviewRepository.findById(eq(7L))).thenReturn(Optional.empty());
+    when(menuItemReviewRepository.findViewById(eq(7L))).thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -200,7 +220,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(menuItemReviewRepository, times(1)).findById(eq(7L));
+    verify(menuItemReviewRepository, times(1)).findViewById(eq(7L));
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
     assertEquals("MenuItemReview with id 7 not found", json.get("message"));
@@ -261,6 +281,9 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
     verify(menuItemReviewRepository, times(1)).findById(67L);
     verify(menuItemReviewRepository, times(1))
         .save(menuItemReviewEdited); // should be saved with correct user
+    MenuItemReview before = MenuItemReview.builder().itemId(10).stars(5).dateReviewed(ldt1).build();
+    verify(menuItemRatingStatsService, times(1)).reviewUpdated(before, menuItemReviewEdited);
+    verify(menuItemLeaderboardService, times(1)).reviewUpdated(before, menuItemReviewEdited);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(requestBody, responseString);
   }
@@ -332,7 +355,9 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
     // assert
     verify(menuItemReviewRepository, times(1)).findById(15L);
-    verify(menuItemReviewRepository, times(1)).delete(any());
+    verify(menuItemReviewRepository, times(1)).delete(any(MenuItemReview.class));
+    verify(menuItemRatingStatsService, times(1)).reviewRemoved(menuItemReview1);
+    verify(menuItemLeaderboardService, times(1)).reviewRemoved(menuItemReview1);
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("MenuItemReview with id 15 deleted", json.get("message"));
@@ -358,4 +383,214 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
     Map<String, Object> json = responseToJson(response);
     assertEquals("MenuItemReview with id 15 not found", json.get("message"));
   }
+
+  @Test
+  public void logged_out_users_cannot_search() throws Exception {
+    mockMvc.perform(get("/api/menuitemreview/search")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_search_with_default_paging() throws Exception {
+    // arrange
+    MenuItemReview menuItemReview1 =
+        MenuItemReview.builder()
+            .id(1L)
+            .itemId(10)
+            .reviewerEmail("oyararbas@ucsb.edu")
+            .stars(5)
+            .dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00"))
+            .comments("bleh")
+            .build();
+
+    PageRequest expectedPageRequest =
+        PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "dateReviewed", "id"));
+
+    when(menuItemReviewRepository.findAll(any(Specification.class), eq(expectedPageRequest)))
+        .thenReturn(new PageImpl<>(List.of(menuItemReview1), expectedPageRequest, 1));
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/menuitemreview/search")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(menuItemReviewRepository, times(1))
+        .findAll(any(Specification.class), eq(expectedPageRequest));
+    Map<String, Object> json = responseToJson(response);
+    List<?> content = (List<?>) json.get("content");
+    assertEquals(1, content.size());
+    assertEquals("oyararbas@ucsb.edu", ((Map<?, ?>) content.get(0)).get("reviewerEmail"));
+    Map<?, ?> page = (Map<?, ?>) json.get("page");
+    assertEquals(1, page.get("totalElements"));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_search_with_filters_and_paging() throws Exception {
+    // arrange
+    PageRequest expectedPageRequest =
+        PageRequest.of(2, 5, Sort.by(Sort.Direction.DESC, "dateReviewed", "id"));
+
+    when(menuItemReviewRepository.findAll(any(Specification.class), eq(expectedPageRequest)))
+        .thenReturn(new PageImpl<>(List.of(), expectedPageRequest, 10));
+
+    // act
+    mockMvc
+        .perform(
+            get(
+                "/api/menuitemreview/search?itemId=10&reviewerEmail=oyararbas@ucsb.edu&minStars=3&maxStars=5&reviewedFrom=2022-01-01T00:00:00&reviewedTo=2022-12-31T23:59:59&page=2&pageSize=5"))
+        .andExpect(status().isOk());
+
+    // assert
+    verify(menuItemReviewRepository, times(1))
+        .findAll(any(Specification.class), eq(expectedPageRequest));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void the_search_page_size_is_clamped() throws Exception {
+    // arrange
+    PageRequest smallest = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "dateReviewed", "id"));
+    PageRequest largest =
+        PageRequest.of(0, 500, Sort.by(Sort.Direction.DESC, "dateReviewed", "id"));
+
+    when(menuItemReviewRepository.findAll(any(Specification.class), any(PageRequest.class)))
+        .thenReturn(new PageImpl<>(List.of(), smallest, 0));
+
+    // act
+    mockMvc.perform(get("/api/menuitemreview/search?pageSize=0")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/menuitemreview/search?pageSize=100000")).andExpect(status().isOk());
+
+    // assert
+    verify(menuItemReviewRepository, times(1)).findAll(any(Specification.class), eq(smallest));
+    verify(menuItemReviewRepository, times(1)).findAll(any(Specification.class), eq(largest));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_review_with_stars_outside_one_to_five_cannot_be_posted() throws Exception {
+    for (int stars : new int[] {0, 6, -1}) {
+      mockMvc
+          .perform(
+              post("/api/menuitemreview/post?itemId=10&reviewerEmail=oyararbas@ucsb.edu&stars="
+                      + stars
+                      + "&comments=bleh&dateReviewed=2022-01-03T00:00:00")
+                  .with(csrf()))
+          .andExpect(status().is(400));
+    }
+
+    verify(menuItemReviewRepository, never()).save(any());
+    verifyNoInteractions(menuItemRatingStatsService);
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_review_cannot_be_edited_to_stars_outside_one_to_five() throws Exception {
+    MenuItemReview edited =
+        MenuItemReview.builder()
+            .itemId(1)
+            .reviewerEmail("oyararbas2@ucsb.edu")
+            .stars(6)
+            .dateReviewed(LocalDateTime.parse("2023-01-03T00:00:00"))
+            .comments("asd")
+            .build();
+
+    mockMvc
+        .perform(
+            put("/api/menuitemreview?id=67")
+                .contentType(MediaType.APPLICATION_JSON)
+                .characterEncoding("utf-8")
+                .content(mapper.writeValueAsString(edited))
+                .with(csrf()))
+        .andExpect(status().is(400));
+
+    verify(menuItemReviewRepository, never()).save(any());
+    verifyNoInteractions(menuItemRatingStatsService);
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void a_negative_search_page_is_rejected() throws Exception {
+    mockMvc.perform(get("/api/menuitemreview/search?page=-1")).andExpect(status().is(400));
+    verify(menuItemReviewRepository, never())
+        .findAll(any(Specification.class), any(PageRequest.class));
+  }
+
+  @Test
+  public void logged_out_users_cannot_get_stats() throws Exception {
+    mockMvc.perform(get("/api/menuitemreview/stats?itemIds=1")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_stats_for_several_items() throws Exception {
+    // arrange
+    MenuItemRatingStats stats10 =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(2)
+            .starsSum(9)
+            .fourStarCount(1)
+            .fiveStarCount(1)
+            .lastReviewed(LocalDateTime.parse("2022-03-11T00:00:00"))
+            .build();
+    MenuItemRatingStats stats12 = MenuItemRatingStats.empty(12);
+    List<MenuItemRatingStats> expected = List.of(stats10, stats12);
+
+    when(menuItemRatingStatsService.getStats(eq(List.of(10L, 12L)))).thenReturn(expected);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/menuitemreview/stats?itemIds=10,12"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(menuItemRatingStatsService, times(1)).getStats(eq(List.of(10L, 12L)));
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @Test
+  public void logged_out_users_cannot_get_top() throws Exception {
+    mockMvc.perform(get("/api/menuitemreview/top")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_top_with_defaults() throws Exception {
+    // arrange
+    List<MenuItemLeaderboardEntry> expected =
+        List.of(
+            MenuItemLeaderboardEntry.builder()
+                .itemId(10)
+                .name("Pizza")
+                .diningCommonsCode("ortega")
+                .station("Grill")
+                .score(4.5)
+                .reviewCount(3)
+                .averageStars(4.67)
+                .build());
+    when(menuItemLeaderboardService.top(10, null)).thenReturn(expected);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/menuitemreview/top")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(menuItemLeaderboardService, times(1)).top(10, null);
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_top_for_one_commons() throws Exception {
+    when(menuItemLeaderboardService.top(3, "ortega")).thenReturn(List.of());
+
+    mockMvc
+        .perform(get("/api/menuitemreview/top?k=3&diningCommonsCode=ortega"))
+        .andExpect(status().isOk());
+
+    verify(menuItemLeaderboardService, times(1)).top(3, "ortega");
+  }
 }
@@ -15,8 +15,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.models.UCSBOrganizationView;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.TypeaheadService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -38,6 +40,8 @@ public class OrganizationControllerTests extends ControllerTestCase {
 
   @MockBean UserRepository userRepository;
 
+  @MockBean TypeaheadService typeaheadService;
+
   // Authorization tests for /api/ucsborganization/admin/all
   @Test
   public void logged_out_users_cannot_get_all() throws Exception {
@@ -93,7 +97,8 @@ public class OrganizationControllerTests extends ControllerTestCase {
     ArrayList<UCSBOrganization> expectedOrganization = new ArrayList<>();
     expectedOrganization.addAll(Arrays.asList(ab, zpr));
 
-    when(ucsbOrganizationRepository.findAll()).thenReturn(expectedOrganization);
+    when(ucsbOrganizationRepository.findAllViewsBy())
+        .thenReturn(views(expectedOrganization, UCSBOrganizationView.class));
 
     // act
     MvcResult response =
@@ -101,7 +106,7 @@ public class OrganizationControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbOrganizationRepository, times(1)).findAll();
+    verify(ucsbOrganizationRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedOrganization);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -133,6 +138,7 @@ public class OrganizationControllerTests extends ControllerTestCase {
 
     // assert
     verify(ucsbOrganizationRepository, times(1)).save(krc);
+    verify(typeaheadService, times(1)).organizationSaved(krc);
     String expectedJson = mapper.writeValueAsString(krc);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -166,7 +172,8 @@ public class OrganizationControllerTests extends ControllerTestCase {
             .inactive(false)
             .build();
 
-    when(ucsbOrganizationRepository.findById(eq("AB"))).thenReturn(Optional.of(organization));
+    when(ucsbOrganizationRepository.findViewByOrgCode(eq("AB")))
+        .thenReturn(Optional.of(view(organization, UCSBOrganizationView.class)));
 
     // act
     MvcResult response =
@@ -177,7 +184,7 @@ public class OrganizationControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbOrganizationRepository, times(1)).findById(eq("AB"));
+    verify(ucsbOrganizationRepository, times(1)).findViewByOrgCode(eq("AB"));
     String expectedJson = mapper.writeValueAsString(organization);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -189,7 +196,7 @@ public class OrganizationControllerTests extends ControllerTestCase {
 
     // arrange
 
-    when(ucsbOrganizationRepository.findById(eq("ASB"))).thenReturn(Optional.empty());
+    when(ucsbOrganizationRepository.findViewByOrgCode(eq("ASB"))).thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -200,7 +207,7 @@ public class OrganizationControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbOrganizationRepository, times(1)).findById(eq("ASB"));
+    verify(ucsbOrganizationRepository, times(1)).findViewByOrgCode(eq("ASB"));
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
     assertEquals("UCSBOrganization with id ASB not found", json.get("message"));
@@ -247,6 +254,7 @@ public class OrganizationControllerTests extends ControllerTestCase {
     verify(ucsbOrganizationRepository, times(1)).findById("WPC");
     verify(ucsbOrganizationRepository, times(1))
         .save(WaterPoloClubEdited); // should be saved with updated info
+    verify(typeaheadService, times(1)).organizationSaved(WaterPoloClubEdited);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(requestBody, responseString);
   }
@@ -311,6 +319,7 @@ public class OrganizationControllerTests extends ControllerTestCase {
     // assert
     verify(ucsbOrganizationRepository, times(1)).findById("LI");
     verify(ucsbOrganizationRepository, times(1)).delete(any());
+    verify(typeaheadService, times(1)).organizationDeleted("LI");
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("UCSBOrganization with id LI deleted", json.get("message"));
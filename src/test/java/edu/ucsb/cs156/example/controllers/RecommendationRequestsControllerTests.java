@@ -2,7 +2,9 @@ package edu.ucsb.cs156.example.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -15,19 +17,26 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.models.RecommendationRequestSearchResult;
+import edu.ucsb.cs156.example.models.RecommendationRequestView;
 import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+import edu.ucsb.cs156.example.repositories.RecommendationRequestSpecifications;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -86,7 +95,8 @@ public class RecommendationRequestsControllerTests extends ControllerTestCase {
     ArrayList<RecommendationRequest> expectedRequests = new ArrayList<>();
     expectedRequests.addAll(Arrays.asList(rr1, rr2));
 
-    when(recommendationRequestRepository.findAll()).thenReturn(expectedRequests);
+    when(recommendationRequestRepository.findAllViewsBy())
+        .thenReturn(views(expectedRequests, RecommendationRequestView.class));
 
     // act
     MvcResult response =
@@ -96,7 +106,7 @@ public class RecommendationRequestsControllerTests extends ControllerTestCase {
             .andReturn();
 
     // assert
-    verify(recommendationRequestRepository, times(1)).findAll();
+    verify(recommendationRequestRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedRequests);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -213,7 +223,8 @@ public class RecommendationRequestsControllerTests extends ControllerTestCase {
             .done(false)
             .build();
 
-    when(recommendationRequestRepository.findById(eq(7L))).thenReturn(Optional.of(rr));
+    when(recommendationRequestRepository.findViewById(eq(7L)))
+        .thenReturn(Optional.of(view(rr, RecommendationRequestView.class)));
 
     // act
     MvcResult response =
@@ -223,7 +234,7 @@ public class RecommendationRequestsControllerTests extends ControllerTestCase {
             .andReturn();
 
     // assert
-    verify(recommendationRequestRepository, times(1)).findById(eq(7L));
+    verify(recommendationRequestRepository, times(1)).findViewById(eq(7L));
     String expectedJson = mapper.writeValueAsString(rr);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -234,7 +245,7 @@ public class RecommendationRequestsControllerTests extends ControllerTestCase {
   public void test_that_logged_in_user_gets_404_when_id_does_not_exist() throws Exception {
 
     // arrange
-    when(recommendationRequestRepository.findById(eq(7L))).thenReturn(Optional.empty());
+    when(recommendationRequestRepository.findViewById(eq(7L))).thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -244,7 +255,7 @@ public class RecommendationRequestsControllerTests extends ControllerTestCase {
             .andReturn();
 
     // assert
-    verify(recommendationRequestRepository, times(1)).findById(eq(7L));
+    verify(recommendationRequestRepository, times(1)).findViewById(eq(7L));
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
@@ -284,7 +295,7 @@ public class RecommendationRequestsControllerTests extends ControllerTestCase {
 
     // assert
     verify(recommendationRequestRepository, times(1)).findById(15L);
-    verify(recommendationRequestRepository, times(1)).delete(any());
+    verify(recommendationRequestRepository, times(1)).delete(any(RecommendationRequest.class));
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("RecommendationRequest with id 15 deleted", json.get("message"));
@@ -429,4 +440,100 @@ public class RecommendationRequestsControllerTests extends ControllerTestCase {
     Map<String, Object> json = responseToJson(response);
     assertEquals("RecommendationRequest with id 67 not found", json.get("message"));
   }
+
+  // Tests for /api/recommendationrequests/search
+
+  private RecommendationRequest due(long id, String dateNeeded) {
+    return RecommendationRequest.builder()
+        .id(id)
+        .code("REC" + id)
+        .requesterEmail("student@ucsb.edu")
+        .professorEmail("prof@ucsb.edu")
+        .explanation("letter")
+        .dateRequested(LocalDateTime.parse("2025-09-01T00:00:00"))
+        .dateNeeded(LocalDateTime.parse(dateNeeded))
+        .done(false)
+        .build();
+  }
+
+  /** Stub the keyset query, checking it is sorted by the keyset order and limited to limit. */
+  @SuppressWarnings("unchecked")
+  private void stubSearch(int expectedLimit, List<RecommendationRequest> rows) {
+    when(recommendationRequestRepository.findBy(any(Specification.class), any()))
+        .thenAnswer(
+            invocation -> {
+              Function<FetchableFluentQuery<RecommendationRequest>, Object> queryFunction =
+                  invocation.getArgument(1);
+              FetchableFluentQuery<RecommendationRequest> query = mock(FetchableFluentQuery.class);
+              when(query.sortBy(any())).thenReturn(query);
+              when(query.limit(anyInt())).thenReturn(query);
+              when(query.all()).thenReturn(rows);
+              Object result = queryFunction.apply(query);
+              verify(query).sortBy(RecommendationRequestSpecifications.KEYSET_ORDER);
+              verify(query).limit(expectedLimit);
+              return result;
+            });
+  }
+
+  private RecommendationRequestSearchResult search(String queryString) throws Exception {
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/recommendationrequests/search" + queryString))
+            .andExpect(status().isOk())
+            .andReturn();
+    return mapper.readValue(
+        response.getResponse().getContentAsString(), RecommendationRequestSearchResult.class);
+  }
+
+  @Test
+  public void logged_out_users_cannot_search() throws Exception {
+    mockMvc.perform(get("/api/recommendationrequests/search")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void last_page_has_no_cursor() throws Exception {
+    List<RecommendationRequest> rows =
+        List.of(due(1L, "2025-11-01T00:00:00"), due(2L, "2025-11-02T00:00:00"));
+    stubSearch(21, rows);
+
+    RecommendationRequestSearchResult result =
+        search("?professorEmail=prof@ucsb.edu&done=false&neededFrom=2025-10-01T00:00:00");
+
+    assertEquals(rows, result.getContent());
+    assertEquals(null, result.getNextDateNeeded());
+    assertEquals(null, result.getNextId());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void full_page_returns_a_cursor_from_its_last_row() throws Exception {
+    List<RecommendationRequest> rows =
+        List.of(
+            due(1L, "2025-11-01T00:00:00"),
+            due(4L, "2025-11-02T00:00:00"),
+            due(3L, "2025-11-03T00:00:00"));
+    stubSearch(3, rows);
+
+    RecommendationRequestSearchResult result =
+        search("?pageSize=2&afterDateNeeded=2025-10-31T00:00:00&afterId=9");
+
+    assertEquals(rows.subList(0, 2), result.getContent());
+    assertEquals(LocalDateTime.parse("2025-11-02T00:00:00"), result.getNextDateNeeded());
+    assertEquals(4L, result.getNextId());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void page_size_is_clamped() throws Exception {
+    stubSearch(101, List.of());
+    assertEquals(List.of(), search("?pageSize=500").getContent());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void page_size_has_a_minimum_of_one() throws Exception {
+    stubSearch(2, List.of());
+    assertEquals(List.of(), search("?pageSize=0").getContent());
+  }
 }
@@ -13,13 +13,19 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.models.RestaurantView;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.TypeaheadService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
@@ -38,6 +44,8 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
   @MockBean UserRepository userRepository;
 
+  @MockBean TypeaheadService typeaheadService;
+
   // Authorization tests for /api/phones/admin/all
 
   @Test
@@ -86,8 +94,9 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
     Restaurant restaurant = Restaurant.builder().name("Taco Bell").description("Mexican").build();
 
-    when(restaurantRepository.findById(eq(7L)))
-        .thenReturn(Optional.of(restaurant)); // Check not sure why id is 7
+    when(restaurantRepository.findViewById(eq(7L)))
+        .thenReturn(
+            Optional.of(view(restaurant, RestaurantView.class))); // Check not sure why id is 7
 
     // act
     MvcResult response =
@@ -95,7 +104,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(restaurantRepository, times(1)).findById(eq(7L));
+    verify(restaurantRepository, times(1)).findViewById(eq(7L));
     String expectedJson = mapper.writeValueAsString(restaurant);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -107,7 +116,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
     // arrange
 
-    when(restaurantRepository.findById(eq(7L))).thenReturn(Optional.empty());
+    when(restaurantRepository.findViewById(eq(7L))).thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -115,7 +124,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(restaurantRepository, times(1)).findById(eq(7L));
+    verify(restaurantRepository, times(1)).findViewById(eq(7L));
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
     assertEquals("Restaurant with id 7 not found", json.get("message"));
@@ -134,7 +143,8 @@ public class RestaurantsControllerTests extends ControllerTestCase {
     ArrayList<Restaurant> expectedRestaurants = new ArrayList<>();
     expectedRestaurants.addAll(Arrays.asList(restaurant1, restaurant2));
 
-    when(restaurantRepository.findAll()).thenReturn(expectedRestaurants);
+    when(restaurantRepository.findAllViewsBy())
+        .thenReturn(views(expectedRestaurants, RestaurantView.class));
 
     // act
     MvcResult response =
@@ -142,7 +152,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(restaurantRepository, times(1)).findAll();
+    verify(restaurantRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedRestaurants);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -166,6 +176,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
     // assert
     verify(restaurantRepository, times(1)).save(restaurant1);
+    verify(typeaheadService, times(1)).restaurantSaved(restaurant1);
     String expectedJson = mapper.writeValueAsString(restaurant1);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -190,6 +201,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
     // assert
     verify(restaurantRepository, times(1)).findById(15L);
     verify(restaurantRepository, times(1)).delete(any());
+    verify(typeaheadService, times(1)).restaurantDeleted(15L);
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("Restaurant with id 15 deleted", json.get("message"));
@@ -247,6 +259,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
     verify(restaurantRepository, times(1)).findById(67L);
     verify(restaurantRepository, times(1))
         .save(restaurantEdited); // should be saved with correct user
+    verify(typeaheadService, times(1)).restaurantSaved(restaurantEdited);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(requestBody, responseString);
   }
@@ -280,4 +293,42 @@ public class RestaurantsControllerTests extends ControllerTestCase {
     Map<String, Object> json = responseToJson(response);
     assertEquals("Restaurant with id 67 not found", json.get("message"));
   }
+
+  // Tests for binary response formats (the same converters serve every controller)
+
+  private void assertAllRestaurantsIn(MediaType mediaType, ObjectMapper formatMapper)
+      throws Exception {
+    // arrange
+    List<Restaurant> expectedRestaurants =
+        List.of(
+            Restaurant.builder().id(1L).name("Taco Bell").description("Mexican").build(),
+            Restaurant.builder().id(2L).name("McDonalds").description("American").build());
+    when(restaurantRepository.findAllViewsBy())
+        .thenReturn(views(expectedRestaurants, RestaurantView.class));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/restaurants/all").accept(mediaType))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(mediaType.toString(), response.getResponse().getContentType());
+    Restaurant[] decoded =
+        formatMapper.readValue(response.getResponse().getContentAsByteArray(), Restaurant[].class);
+    assertEquals(expectedRestaurants, List.of(decoded));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_all_restaurants_as_cbor() throws Exception {
+    assertAllRestaurantsIn(MediaType.APPLICATION_CBOR, new CBORMapper());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_all_restaurants_as_smile() throws Exception {
+    assertAllRestaurantsIn(MediaType.valueOf("application/x-jackson-smile"), new SmileMapper());
+  }
 }
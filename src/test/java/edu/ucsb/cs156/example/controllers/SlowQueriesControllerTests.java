@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.SlowQueryShape;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.SlowQueryService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = SlowQueriesController.class)
+@Import(TestConfig.class)
+public class SlowQueriesControllerTests extends ControllerTestCase {
+
+  @MockBean UserRepository userRepository;
+
+  @MockBean SlowQueryService slowQueryService;
+
+  private final SlowQueryShape shape =
+      SlowQueryShape.builder()
+          .sql("select r.id from restaurants r where r.id=?")
+          .count(3)
+          .totalMs(900)
+          .maxMs(600)
+          .meanMs(300.0)
+          .handler("RestaurantsController.getById")
+          .parameters("[7]")
+          .build();
+
+  @Test
+  public void logged_out_users_cannot_list_slow_queries() throws Exception {
+    mockMvc.perform(get("/api/admin/slowqueries")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_list_or_reset_slow_queries() throws Exception {
+    mockMvc.perform(get("/api/admin/slowqueries")).andExpect(status().is(403));
+    mockMvc.perform(delete("/api/admin/slowqueries").with(csrf())).andExpect(status().is(403));
+    verify(slowQueryService, never()).slowest(anyInt());
+    verify(slowQueryService, never()).reset();
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_list_the_slowest_queries() throws Exception {
+    when(slowQueryService.slowest(10)).thenReturn(List.of(shape));
+
+    MvcResult response =
+        mockMvc.perform(get("/api/admin/slowqueries")).andExpect(status().isOk()).andReturn();
+
+    assertEquals(
+        mapper.writeValueAsString(List.of(shape)), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void the_number_of_queries_listed_is_clamped() throws Exception {
+    mockMvc.perform(get("/api/admin/slowqueries?n=0")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/admin/slowqueries?n=5000")).andExpect(status().isOk());
+
+    verify(slowQueryService).slowest(1);
+    verify(slowQueryService).slowest(100);
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_reset_the_timings() throws Exception {
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/admin/slowqueries").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    verify(slowQueryService).reset();
+    assertEquals("SQL statement timings reset", responseToJson(response).get("message"));
+  }
+}
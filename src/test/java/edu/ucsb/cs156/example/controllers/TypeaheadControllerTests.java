@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.TypeaheadSuggestion;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.TypeaheadService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = TypeaheadController.class)
+@Import(TestConfig.class)
+public class TypeaheadControllerTests extends ControllerTestCase {
+
+  @MockBean TypeaheadService typeaheadService;
+
+  @MockBean UserRepository userRepository;
+
+  @Test
+  public void logged_out_users_cannot_get_suggestions() throws Exception {
+    mockMvc.perform(get("/api/typeahead?type=RESTAURANT&prefix=fr")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_users_get_suggestions() throws Exception {
+    // arrange
+    List<TypeaheadSuggestion> expected =
+        List.of(TypeaheadSuggestion.builder().id("3").text("Freebirds").build());
+    when(typeaheadService.suggest(TypeaheadService.Type.RESTAURANT, "fr", 5)).thenReturn(expected);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/typeahead?type=RESTAURANT&prefix=fr&limit=5"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(typeaheadService, times(1)).suggest(TypeaheadService.Type.RESTAURANT, "fr", 5);
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void limit_defaults_to_ten_and_is_clamped() throws Exception {
+    mockMvc.perform(get("/api/typeahead?type=ORGANIZATION&prefix=w")).andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/typeahead?type=ORGANIZATION_SHORT&prefix=w&limit=1000"))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/typeahead?type=ORGANIZATION_SHORT&prefix=w&limit=0"))
+        .andExpect(status().isOk());
+
+    verify(typeaheadService, times(1)).suggest(TypeaheadService.Type.ORGANIZATION, "w", 10);
+    verify(typeaheadService, times(1)).suggest(TypeaheadService.Type.ORGANIZATION_SHORT, "w", 50);
+    verify(typeaheadService, times(1)).suggest(TypeaheadService.Type.ORGANIZATION_SHORT, "w", 1);
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void unknown_type_is_a_bad_request() throws Exception {
+    mockMvc.perform(get("/api/typeahead?type=planet&prefix=f")).andExpect(status().isBadRequest());
+  }
+}
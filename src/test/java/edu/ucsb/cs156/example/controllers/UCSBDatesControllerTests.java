@@ -15,12 +15,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.UCSBDateView;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.UCSBDateCalendarService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
@@ -39,6 +42,8 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
   @MockBean UserRepository userRepository;
 
+  @MockBean UCSBDateCalendarService ucsbDateCalendarService;
+
   // Authorization tests for /api/ucsbdates/admin/all
 
   @Test
@@ -93,7 +98,8 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
             .localDateTime(ldt)
             .build();
 
-    when(ucsbDateRepository.findById(eq(7L))).thenReturn(Optional.of(ucsbDate));
+    when(ucsbDateRepository.findViewById(eq(7L)))
+        .thenReturn(Optional.of(view(ucsbDate, UCSBDateView.class)));
 
     // act
     MvcResult response =
@@ -101,7 +107,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbDateRepository, times(1)).findById(eq(7L));
+    verify(ucsbDateRepository, times(1)).findViewById(eq(7L));
     String expectedJson = mapper.writeValueAsString(ucsbDate);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -113,7 +119,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
     // arrange
 
-    when(ucsbDateRepository.findById(eq(7L))).thenReturn(Optional.empty());
+    when(ucsbDateRepository.findViewById(eq(7L))).thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -121,7 +127,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbDateRepository, times(1)).findById(eq(7L));
+    verify(ucsbDateRepository, times(1)).findViewById(eq(7L));
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
     assertEquals("UCSBDate with id 7 not found", json.get("message"));
@@ -153,7 +159,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
     ArrayList<UCSBDate> expectedDates = new ArrayList<>();
     expectedDates.addAll(Arrays.asList(ucsbDate1, ucsbDate2));
 
-    when(ucsbDateRepository.findAll()).thenReturn(expectedDates);
+    when(ucsbDateRepository.findAllViewsBy()).thenReturn(views(expectedDates, UCSBDateView.class));
 
     // act
     MvcResult response =
@@ -161,7 +167,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbDateRepository, times(1)).findAll();
+    verify(ucsbDateRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedDates);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -194,6 +200,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
     // assert
     verify(ucsbDateRepository, times(1)).save(ucsbDate1);
+    verify(ucsbDateCalendarService, times(1)).dateSaved(ucsbDate1);
     String expectedJson = mapper.writeValueAsString(ucsbDate1);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -225,6 +232,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
     // assert
     verify(ucsbDateRepository, times(1)).findById(15L);
     verify(ucsbDateRepository, times(1)).delete(any());
+    verify(ucsbDateCalendarService, times(1)).dateDeleted(15L);
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("UCSBDate with id 15 deleted", json.get("message"));
@@ -292,6 +300,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
     // assert
     verify(ucsbDateRepository, times(1)).findById(67L);
     verify(ucsbDateRepository, times(1)).save(ucsbDateEdited); // should be saved with correct user
+    verify(ucsbDateCalendarService, times(1)).dateSaved(ucsbDateEdited);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(requestBody, responseString);
   }
@@ -331,4 +340,69 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
     Map<String, Object> json = responseToJson(response);
     assertEquals("UCSBDate with id 67 not found", json.get("message"));
   }
+
+  // Tests for the calendar lookups
+
+  @Test
+  public void logged_out_users_cannot_get_a_quarter() throws Exception {
+    mockMvc.perform(get("/api/ucsbdates/quarter/20222")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_the_dates_in_a_quarter() throws Exception {
+    // arrange
+    UCSBDate firstDay =
+        UCSBDate.builder()
+            .id(1L)
+            .name("firstDayOfClasses")
+            .quarterYYYYQ("20222")
+            .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00"))
+            .build();
+    when(ucsbDateCalendarService.quarter("20222")).thenReturn(List.of(firstDay));
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/ucsbdates/quarter/20222")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(ucsbDateCalendarService, times(1)).quarter("20222");
+    assertEquals(
+        mapper.writeValueAsString(List.of(firstDay)), response.getResponse().getContentAsString());
+  }
+
+  @Test
+  public void logged_out_users_cannot_get_a_range() throws Exception {
+    mockMvc
+        .perform(get("/api/ucsbdates/range?from=2022-01-01T00:00:00&to=2022-12-31T23:59:59"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_the_dates_in_a_range() throws Exception {
+    // arrange
+    LocalDateTime from = LocalDateTime.parse("2022-01-01T00:00:00");
+    LocalDateTime to = LocalDateTime.parse("2022-12-31T23:59:59");
+    UCSBDate lastDay =
+        UCSBDate.builder()
+            .id(2L)
+            .name("lastDayOfClasses")
+            .quarterYYYYQ("20222")
+            .localDateTime(LocalDateTime.parse("2022-06-03T00:00:00"))
+            .build();
+    when(ucsbDateCalendarService.range(from, to)).thenReturn(List.of(lastDay));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/ucsbdates/range?from=2022-01-01T00:00:00&to=2022-12-31T23:59:59"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(ucsbDateCalendarService, times(1)).range(from, to);
+    assertEquals(
+        mapper.writeValueAsString(List.of(lastDay)), response.getResponse().getContentAsString());
+  }
 }
@@ -15,11 +15,18 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsView;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsLocationService;
+import edu.ucsb.cs156.example.services.DiningCommonsMenuService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
@@ -38,6 +45,10 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
   @MockBean UserRepository userRepository;
 
+  @MockBean DiningCommonsLocationService diningCommonsLocationService;
+
+  @MockBean DiningCommonsMenuService diningCommonsMenuService;
+
   // Authorization tests for /api/ucsbdiningcommons/admin/all
 
   @Test
@@ -95,7 +106,8 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
             .longitude(-119.85277)
             .build();
 
-    when(ucsbDiningCommonsRepository.findById(eq("carrillo"))).thenReturn(Optional.of(commons));
+    when(ucsbDiningCommonsRepository.findViewByCode(eq("carrillo")))
+        .thenReturn(Optional.of(view(commons, UCSBDiningCommonsView.class)));
 
     // act
     MvcResult response =
@@ -106,7 +118,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbDiningCommonsRepository, times(1)).findById(eq("carrillo"));
+    verify(ucsbDiningCommonsRepository, times(1)).findViewByCode(eq("carrillo"));
     String expectedJson = mapper.writeValueAsString(commons);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -118,7 +130,8 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
     // arrange
 
-    when(ucsbDiningCommonsRepository.findById(eq("munger-hall"))).thenReturn(Optional.empty());
+    when(ucsbDiningCommonsRepository.findViewByCode(eq("munger-hall")))
+        .thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -129,7 +142,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbDiningCommonsRepository, times(1)).findById(eq("munger-hall"));
+    verify(ucsbDiningCommonsRepository, times(1)).findViewByCode(eq("munger-hall"));
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
     assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
@@ -166,7 +179,8 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
     ArrayList<UCSBDiningCommons> expectedCommons = new ArrayList<>();
     expectedCommons.addAll(Arrays.asList(carrillo, dlg));
 
-    when(ucsbDiningCommonsRepository.findAll()).thenReturn(expectedCommons);
+    when(ucsbDiningCommonsRepository.findAllViewsBy())
+        .thenReturn(views(expectedCommons, UCSBDiningCommonsView.class));
 
     // act
     MvcResult response =
@@ -174,7 +188,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(ucsbDiningCommonsRepository, times(1)).findAll();
+    verify(ucsbDiningCommonsRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedCommons);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -209,6 +223,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
     // assert
     verify(ucsbDiningCommonsRepository, times(1)).save(ortega);
+    verify(diningCommonsLocationService, times(1)).commonsSaved(ortega);
     String expectedJson = mapper.writeValueAsString(ortega);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -242,6 +257,8 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
     // assert
     verify(ucsbDiningCommonsRepository, times(1)).findById("portola");
     verify(ucsbDiningCommonsRepository, times(1)).delete(any());
+    verify(diningCommonsLocationService, times(1)).commonsDeleted("portola");
+    verify(diningCommonsMenuService, times(1)).evict("portola");
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("UCSBDiningCommons with id portola deleted", json.get("message"));
@@ -316,6 +333,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
     verify(ucsbDiningCommonsRepository, times(1)).findById("carrillo");
     verify(ucsbDiningCommonsRepository, times(1))
         .save(carrilloEdited); // should be saved with updated info
+    verify(diningCommonsLocationService, times(1)).commonsSaved(carrilloEdited);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(requestBody, responseString);
   }
@@ -357,4 +375,152 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
     Map<String, Object> json = responseToJson(response);
     assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
   }
+
+  // Tests for the location queries
+
+  @Test
+  public void logged_out_users_cannot_get_nearest() throws Exception {
+    mockMvc
+        .perform(get("/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.85"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_nearest_commons() throws Exception {
+    // arrange
+
+    UCSBDiningCommons ortega =
+        UCSBDiningCommons.builder()
+            .name("Ortega")
+            .code("ortega")
+            .hasSackMeal(true)
+            .hasTakeOutMeal(true)
+            .hasDiningCam(true)
+            .latitude(34.410987)
+            .longitude(-119.84709)
+            .build();
+
+    List<NearbyDiningCommons> expected =
+        List.of(NearbyDiningCommons.builder().commons(ortega).distanceMeters(120.5).build());
+    when(diningCommonsLocationService.nearest(34.41, -119.848, 2, true, null, false))
+        .thenReturn(expected);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                get(
+                    "/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.848&k=2&hasSackMeal=true&hasDiningCam=false"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(diningCommonsLocationService, times(1)).nearest(34.41, -119.848, 2, true, null, false);
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void nearest_defaults_to_three_results_and_no_filters() throws Exception {
+    when(diningCommonsLocationService.nearest(34.41, -119.848, 3, null, null, null))
+        .thenReturn(List.of());
+
+    mockMvc
+        .perform(get("/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.848"))
+        .andExpect(status().isOk());
+
+    verify(diningCommonsLocationService, times(1)).nearest(34.41, -119.848, 3, null, null, null);
+  }
+
+  @Test
+  public void logged_out_users_cannot_get_within() throws Exception {
+    mockMvc
+        .perform(get("/api/ucsbdiningcommons/within?minLat=34&maxLat=35&minLon=-120&maxLon=-119"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_can_get_commons_within_a_box() throws Exception {
+    // arrange
+
+    UCSBDiningCommons portola =
+        UCSBDiningCommons.builder()
+            .name("Portola")
+            .code("portola")
+            .hasSackMeal(true)
+            .hasTakeOutMeal(true)
+            .hasDiningCam(true)
+            .latitude(34.417723)
+            .longitude(-119.867427)
+            .build();
+
+    when(diningCommonsLocationService.within(34.0, 35.0, -120.0, -119.0, null, true, null))
+        .thenReturn(List.of(portola));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                get(
+                    "/api/ucsbdiningcommons/within?minLat=34&maxLat=35&minLon=-120&maxLon=-119&hasTakeOutMeal=true"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(diningCommonsLocationService, times(1))
+        .within(34.0, 35.0, -120.0, -119.0, null, true, null);
+    assertEquals(
+        mapper.writeValueAsString(List.of(portola)), response.getResponse().getContentAsString());
+  }
+
+  // Tests for the grouped menu
+
+  @Test
+  public void logged_out_users_cannot_get_menu() throws Exception {
+    mockMvc.perform(get("/api/ucsbdiningcommons/ortega/menu")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_user_gets_the_cached_menu_json() throws Exception {
+    // arrange
+
+    String menuJson = "[{\"station\":\"Grill\",\"items\":[]}]";
+    when(diningCommonsMenuService.getMenuJson("ortega"))
+        .thenReturn(menuJson.getBytes(StandardCharsets.UTF_8));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/ucsbdiningcommons/ortega/menu"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(diningCommonsMenuService, times(1)).getMenuJson("ortega");
+    assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getResponse().getContentType());
+    assertEquals(menuJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void menu_for_unknown_commons_is_not_found() throws Exception {
+    // arrange
+
+    when(diningCommonsMenuService.getMenuJson("munger-hall"))
+        .thenThrow(new EntityNotFoundException(UCSBDiningCommons.class, "munger-hall"));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/ucsbdiningcommons/munger-hall/menu"))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
+  }
 }
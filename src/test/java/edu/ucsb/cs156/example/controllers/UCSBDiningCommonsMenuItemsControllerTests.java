@@ -15,8 +15,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import edu.ucsb.cs156.example.models.UCSBDiningCommonsMenuItemsView;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsMenuService;
+import edu.ucsb.cs156.example.services.MenuItemLeaderboardService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -35,6 +38,8 @@ import org.springframework.test.web.servlet.MvcResult;
 public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCase {
   @MockBean UCSBDiningCommonsMenuItemsRepository UCSBDiningCommonsMenuItemsRepository;
   @MockBean UserRepository userRepository;
+  @MockBean MenuItemLeaderboardService menuItemLeaderboardService;
+  @MockBean DiningCommonsMenuService diningCommonsMenuService;
 
   @Test
   public void logged_out_users_cannot_get_all() throws Exception {
@@ -77,8 +82,9 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
             .station("italian")
             .build();
 
-    when(UCSBDiningCommonsMenuItemsRepository.findById(eq(7L)))
-        .thenReturn(Optional.of(UCSBDiningCommonsMenuItem));
+    when(UCSBDiningCommonsMenuItemsRepository.findViewById(eq(7L)))
+        .thenReturn(
+            Optional.of(view(UCSBDiningCommonsMenuItem, UCSBDiningCommonsMenuItemsView.class)));
 
     // act
     MvcResult response =
@@ -89,7 +95,7 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
 
     // assert
 
-    verify(UCSBDiningCommonsMenuItemsRepository, times(1)).findById(eq(7L));
+    verify(UCSBDiningCommonsMenuItemsRepository, times(1)).findViewById(eq(7L));
     String expectedJson = mapper.writeValueAsString(UCSBDiningCommonsMenuItem);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -101,7 +107,7 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
 
     // arrange
 
-    when(UCSBDiningCommonsMenuItemsRepository.findById(eq(7L))).thenReturn(Optional.empty());
+    when(UCSBDiningCommonsMenuItemsRepository.findViewById(eq(7L))).thenReturn(Optional.empty());
 
     // act
     MvcResult response =
@@ -112,7 +118,7 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
 
     // assert
 
-    verify(UCSBDiningCommonsMenuItemsRepository, times(1)).findById(eq(7L));
+    verify(UCSBDiningCommonsMenuItemsRepository, times(1)).findViewById(eq(7L));
     Map<String, Object> json = responseToJson(response);
     assertEquals("EntityNotFoundException", json.get("type"));
     assertEquals("UCSBDiningCommonsMenuItems with id 7 not found", json.get("message"));
@@ -141,7 +147,8 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
     ArrayList<UCSBDiningCommonsMenuItems> expectedItems = new ArrayList<>();
     expectedItems.addAll(Arrays.asList(UCSBDiningCommonsMenuItems1, UCSBDiningCommonsMenuItems2));
 
-    when(UCSBDiningCommonsMenuItemsRepository.findAll()).thenReturn(expectedItems);
+    when(UCSBDiningCommonsMenuItemsRepository.findAllViewsBy())
+        .thenReturn(views(expectedItems, UCSBDiningCommonsMenuItemsView.class));
 
     // act
     MvcResult response =
@@ -152,7 +159,7 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
 
     // assert
 
-    verify(UCSBDiningCommonsMenuItemsRepository, times(1)).findAll();
+    verify(UCSBDiningCommonsMenuItemsRepository, times(1)).findAllViewsBy();
     String expectedJson = mapper.writeValueAsString(expectedItems);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -184,6 +191,8 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
 
     // assert
     verify(UCSBDiningCommonsMenuItemsRepository, times(1)).save(UCSBDiningCommonsMenuItems3);
+    verify(menuItemLeaderboardService, times(1)).menuItemChanged(UCSBDiningCommonsMenuItems3);
+    verify(diningCommonsMenuService, times(1)).evict("dlg");
     String expectedJson = mapper.writeValueAsString(UCSBDiningCommonsMenuItems3);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -229,6 +238,9 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
     verify(UCSBDiningCommonsMenuItemsRepository, times(1)).findById(67L);
     verify(UCSBDiningCommonsMenuItemsRepository, times(1))
         .save(UCSBDiningCommonsMenuItemsEdited); // should be saved with correct user
+    verify(menuItemLeaderboardService, times(1)).menuItemChanged(UCSBDiningCommonsMenuItemsEdited);
+    verify(diningCommonsMenuService, times(1)).evict("dlg");
+    verify(diningCommonsMenuService, times(1)).evict("ortega");
     String responseString = response.getResponse().getContentAsString();
     assertEquals(requestBody, responseString);
   }
@@ -292,6 +304,8 @@ public class UCSBDiningCommonsMenuItemsControllerTests extends ControllerTestCas
     // assert
     verify(UCSBDiningCommonsMenuItemsRepository, times(1)).findById(15L);
     verify(UCSBDiningCommonsMenuItemsRepository, times(1)).delete(any());
+    verify(menuItemLeaderboardService, times(1)).menuItemDeleted(15L);
+    verify(diningCommonsMenuService, times(1)).evict("ortega");
 
     Map<String, Object> json = responseToJson(response);
     assertEquals("UCSBDiningCommonsMenuItems with id 15 deleted", json.get("message"));
@@ -1,6 +1,10 @@
 package edu.ucsb.cs156.example.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -9,23 +13,38 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.AdminRoleCacheStats;
+import edu.ucsb.cs156.example.models.UserSearchResult;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.repositories.UserSpecifications;
+import edu.ucsb.cs156.example.services.AdminRoleService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.AopTestUtils;
 import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(controllers = UsersController.class)
 @Import(TestConfig.class)
+@SuppressWarnings("unchecked")
 public class UsersControllerTests extends ControllerTestCase {
 
   @MockBean UserRepository userRepository;
 
+  @MockBean AdminRoleService adminRoleService;
+
+  @Autowired UsersController usersController;
+
   @Test
   public void users__logged_out() throws Exception {
     mockMvc.perform(get("/api/admin/users")).andExpect(status().is(403));
@@ -37,31 +56,152 @@ public class UsersControllerTests extends ControllerTestCase {
     mockMvc.perform(get("/api/admin/users")).andExpect(status().is(403));
   }
 
+  private static User user(long id) {
+    return User.builder().id(id).email("user" + id + "@ucsb.edu").hostedDomain("ucsb.edu").build();
+  }
+
+  private static List<User> users(long... ids) {
+    return LongStream.of(ids).mapToObj(UsersControllerTests::user).toList();
+  }
+
+  /**
+   * Stub the keyset query: each call returns the next of pages, after checking that it is sorted by
+   * id and limited to expectedLimit.
+   */
+  private void stubPages(int expectedLimit, List<List<User>> pages) {
+    Iterator<List<User>> next = pages.iterator();
+    when(userRepository.findBy(any(Specification.class), any()))
+        .thenAnswer(
+            invocation -> {
+              Function<FetchableFluentQuery<User>, Object> queryFunction =
+                  invocation.getArgument(1);
+              FetchableFluentQuery<User> query = mock(FetchableFluentQuery.class);
+              when(query.sortBy(any())).thenReturn(query);
+              when(query.limit(anyInt())).thenReturn(query);
+              when(query.all()).thenReturn(next.next());
+              Object result = queryFunction.apply(query);
+              verify(query).sortBy(UserSpecifications.KEYSET_ORDER);
+              verify(query).limit(expectedLimit);
+              return result;
+            });
+  }
+
+  private UserSearchResult search(String queryString) throws Exception {
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/admin/users" + queryString))
+            .andExpect(status().isOk())
+            .andReturn();
+    return mapper.readValue(response.getResponse().getContentAsString(), UserSearchResult.class);
+  }
+
   @WithMockUser(roles = {"ADMIN", "USER"})
   @Test
-  public void users__admin_logged_in() throws Exception {
+  public void users__last_page_has_no_cursor() throws Exception {
+    stubPages(51, List.of(users(1, 2, 3)));
 
-    // arrange
+    UserSearchResult result = search("?emailPrefix=user&admin=false&hostedDomain=ucsb.edu");
 
-    User u1 = User.builder().id(1L).build();
-    User u2 = User.builder().id(2L).build();
-    User u = currentUserService.getCurrentUser().getUser();
+    assertEquals(users(1, 2, 3), result.getContent());
+    assertNull(result.getNextId());
+  }
 
-    ArrayList<User> expectedUsers = new ArrayList<>();
-    expectedUsers.addAll(Arrays.asList(u1, u2, u));
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void users__full_page_returns_a_cursor_from_its_last_row() throws Exception {
+    stubPages(3, List.of(users(4, 5, 6)));
+
+    UserSearchResult result = search("?pageSize=2&afterId=3");
+
+    assertEquals(users(4, 5), result.getContent());
+    assertEquals(5L, result.getNextId());
+  }
 
-    when(userRepository.findAll()).thenReturn(expectedUsers);
-    String expectedJson = mapper.writeValueAsString(expectedUsers);
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void users__page_size_is_clamped() throws Exception {
+    stubPages(501, List.of(List.of()));
+    assertEquals(List.of(), search("?pageSize=5000").getContent());
+  }
 
-    // act
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void users__page_size_has_a_minimum_of_one() throws Exception {
+    stubPages(2, List.of(List.of()));
+    assertEquals(List.of(), search("?pageSize=0").getContent());
+  }
+
+  @Test
+  public void export__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/users/export")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void export__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users/export")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void export__writes_every_batch_as_one_json_array() throws Exception {
+    UsersController target = AopTestUtils.getTargetObject(usersController);
+    target.exportBatchSize = 2;
+    stubPages(2, List.of(users(1, 2), users(3, 4), users(5)));
+
+    MvcResult response;
+    try {
+      response =
+          mockMvc
+              .perform(get("/api/admin/users/export?hostedDomain=ucsb.edu"))
+              .andExpect(status().isOk())
+              .andReturn();
+    } finally {
+      target.exportBatchSize = 500;
+    }
+
+    assertEquals(
+        mapper.writeValueAsString(users(1, 2, 3, 4, 5)),
+        response.getResponse().getContentAsString());
+    assertEquals("application/json", response.getResponse().getContentType());
+    assertEquals(
+        "attachment; filename=\"users.json\"",
+        response.getResponse().getHeader("Content-Disposition"));
+    verify(userRepository, times(3)).findBy(any(Specification.class), any());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void export__of_nothing_is_an_empty_array() throws Exception {
+    stubPages(500, List.of(List.of()));
 
     MvcResult response =
-        mockMvc.perform(get("/api/admin/users")).andExpect(status().isOk()).andReturn();
+        mockMvc
+            .perform(get("/api/admin/users/export?admin=true"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    assertEquals("[]", response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void role_cache_stats__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users/roleCacheStats")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void role_cache_stats__admin_logged_in() throws Exception {
+    AdminRoleCacheStats stats = new AdminRoleCacheStats(3, 8, 2, 0.8, 2);
+    when(adminRoleService.stats()).thenReturn(stats);
 
-    // assert
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/admin/users/roleCacheStats"))
+            .andExpect(status().isOk())
+            .andReturn();
 
-    verify(userRepository, times(1)).findAll();
-    String responseString = response.getResponse().getContentAsString();
-    assertEquals(expectedJson, responseString);
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
   }
 }
@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Checks that the metrics charted by docs/metrics-dashboard.json are published, to admins only. */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ActuatorMetricsIT {
+
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired UserRepository userRepository;
+
+  private static final List<String> ENDPOINTS =
+      List.of("/actuator/prometheus", "/actuator/metrics", "/actuator/health", "/actuator/info");
+
+  @Test
+  public void actuator_endpoints_are_forbidden_when_logged_out() throws Exception {
+    for (String endpoint : ENDPOINTS) {
+      mockMvc.perform(get(endpoint)).andExpect(status().isForbidden());
+    }
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void actuator_endpoints_are_forbidden_to_regular_users() throws Exception {
+    for (String endpoint : ENDPOINTS) {
+      mockMvc.perform(get(endpoint)).andExpect(status().isForbidden());
+    }
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admins_see_pool_hibernate_executor_job_and_cache_metrics() throws Exception {
+    userRepository.findByEmail("nobody@ucsb.edu");
+    mockMvc.perform(get("/api/restaurants/all")).andExpect(status().isOk());
+    for (String endpoint : ENDPOINTS) {
+      mockMvc.perform(get(endpoint)).andExpect(status().isOk());
+    }
+
+    String metrics =
+        mockMvc
+            .perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    for (String expected :
+        List.of(
+            "hikaricp_connections_active{pool=\"primary\"}",
+            "hikaricp_connections_pending{pool=\"primary\"}",
+            "hikaricp_connections_max{pool=\"primary\"}",
+            "hikaricp_connections_acquire_seconds_bucket{pool=\"primary\",le=",
+            "hibernate_query_executions_total{",
+            "hibernate_entities_loads_total{",
+            "executor_queued_tasks{name=\"applicationTaskExecutor\"",
+            "executor_active_threads{name=\"helpQueueBroadcaster\"",
+            "tomcat_threads_busy_threads{",
+            "jvm_memory_used_bytes{",
+            "jobs_active ",
+            "jobs_finished_total{status=\"error\"}",
+            "cache_gets_total{cache=\"users\",result=\"hit\"}",
+            "cache_gets_total{cache=\"adminRoles\",result=\"miss\"}",
+            "cache_gets_total{cache=\"apiTokens\",result=\"hit\"}",
+            "helpqueue_subscribers ")) {
+      assertTrue(metrics.contains(expected), expected + " missing from\n" + metrics);
+    }
+  }
+}
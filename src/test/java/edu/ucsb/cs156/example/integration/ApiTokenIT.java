@@ -0,0 +1,134 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.IssuedApiToken;
+import edu.ucsb.cs156.example.repositories.ApiTokenRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ApiTokenService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Calls the API with a token stored in the api_tokens table built by the Liquibase changesets. */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "app.ratelimit.limits=/api/**=5")
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ApiTokenIT {
+
+  @Autowired UserRepository userRepository;
+
+  @Autowired ApiTokenRepository apiTokenRepository;
+
+  @Autowired ApiTokenService apiTokenService;
+
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @Autowired TestRestTemplate restTemplate;
+
+  @Autowired MockMvc mockMvc;
+
+  private ResponseEntity<String> call(HttpMethod method, String url, String token) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    return restTemplate.exchange(url, method, new HttpEntity<>(headers), String.class);
+  }
+
+  private IssuedApiToken issueFor(String email, boolean admin) {
+    User user =
+        userRepository.save(
+            User.builder()
+                .email(email)
+                .fullName("Load Generator")
+                .emailVerified(true)
+                .admin(admin)
+                .build());
+    return apiTokenService.issue(user, "load test");
+  }
+
+  @Test
+  public void a_token_calls_the_api_as_its_user_without_a_session() {
+    IssuedApiToken token = issueFor("loadgen@ucsb.edu", false);
+
+    ResponseEntity<String> response = call(HttpMethod.GET, "/api/currentUser", token.getToken());
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertTrue(response.getBody().contains("\"email\":\"loadgen@ucsb.edu\""), response.getBody());
+    assertTrue(response.getBody().contains("ROLE_MEMBER"), response.getBody());
+    assertNull(response.getHeaders().get(HttpHeaders.SET_COOKIE));
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION", Long.class));
+  }
+
+  @Test
+  public void a_token_can_post_without_a_csrf_token_and_is_refused_once_revoked() {
+    IssuedApiToken token = issueFor("admin-script@ucsb.edu", true);
+
+    ResponseEntity<String> posted =
+        call(
+            HttpMethod.POST,
+            "/api/ucsbdates/post?quarterYYYYQ=20251&name=finals&localDateTime=2025-03-17T08:00:00",
+            token.getToken());
+    assertEquals(HttpStatus.OK, posted.getStatusCode(), posted.getBody());
+    assertTrue(posted.getBody().contains("\"name\":\"finals\""), posted.getBody());
+
+    apiTokenService.revoke(apiTokenRepository.findById(token.getId()).get());
+
+    ResponseEntity<String> refused = call(HttpMethod.GET, "/api/currentUser", token.getToken());
+    assertEquals(HttpStatus.UNAUTHORIZED, refused.getStatusCode());
+    assertEquals(0, apiTokenRepository.count());
+  }
+
+  @Test
+  public void a_flood_of_bad_tokens_is_throttled_by_address_before_the_lookup() throws Exception {
+    IssuedApiToken token = issueFor("loadgen@ucsb.edu", false);
+    assertEquals(200, status(token.getToken()));
+
+    // through MockMvc, since the HTTP client behind TestRestTemplate retries 429s after Retry-After
+    int unauthorized = 0;
+    int throttled = 0;
+    for (int i = 0; i < 20; i++) {
+      int status = status("cs156_guess" + i);
+      if (status == 401) {
+        unauthorized++;
+      } else if (status == 429) {
+        throttled++;
+      }
+    }
+
+    // the good token's first lookup took one of the address's 5 requests
+    assertEquals(4, unauthorized);
+    assertEquals(16, throttled);
+    // a token already in memory is still served
+    assertEquals(200, status(token.getToken()));
+  }
+
+  private int status(String token) throws Exception {
+    return mockMvc
+        .perform(get("/api/currentUser").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+        .andReturn()
+        .getResponse()
+        .getStatus();
+  }
+}
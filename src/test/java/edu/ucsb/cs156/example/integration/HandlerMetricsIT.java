@@ -0,0 +1,68 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class HandlerMetricsIT {
+
+  @Autowired public MockMvc mockMvc;
+
+  @MockBean UserRepository userRepository;
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void handler_latency_histograms_are_published_to_prometheus() throws Exception {
+    mockMvc.perform(get("/api/restaurants/all")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/restaurants?id=42")).andExpect(status().isNotFound());
+
+    String metrics =
+        mockMvc
+            .perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    assertTrue(
+        metrics.contains(
+            "http_server_handler_seconds_bucket{handler=\"RestaurantsController.allRestaurants\","
+                + "method=\"GET\",status=\"200\""),
+        metrics);
+    assertTrue(
+        metrics.contains(
+            "http_server_handler_seconds_bucket{handler=\"RestaurantsController.getById\","
+                + "method=\"GET\",status=\"404\""),
+        metrics);
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void metrics_are_for_admins_only() throws Exception {
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+  }
+}
@@ -0,0 +1,182 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.MenuItemRatingStats;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.MenuItemLeaderboardEntry;
+import edu.ucsb.cs156.example.repositories.MenuItemRatingStatsRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.MenuItemRatingStatsService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class MenuItemReviewIT {
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired public ObjectMapper mapper;
+
+  @MockBean UserRepository userRepository;
+
+  @Autowired MenuItemReviewRepository menuItemReviewRepository;
+
+  @Autowired MenuItemRatingStatsRepository menuItemRatingStatsRepository;
+
+  @Autowired MenuItemRatingStatsService menuItemRatingStatsService;
+
+  @Autowired TransactionTemplate transactionTemplate;
+
+  private MenuItemRatingStats[] stats(String itemIds) throws Exception {
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/menuitemreview/stats?itemIds=" + itemIds))
+            .andExpect(status().isOk())
+            .andReturn();
+    return mapper.readValue(
+        response.getResponse().getContentAsString(), MenuItemRatingStats[].class);
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void rating_stats_follow_review_writes() throws Exception {
+    // arrange: two reviews of item 10
+    mockMvc
+        .perform(
+            post("/api/menuitemreview/post?itemId=10&reviewerEmail=a@ucsb.edu&stars=5&comments=yum&dateReviewed=2022-01-03T00:00:00")
+                .with(csrf()))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(
+            post("/api/menuitemreview/post?itemId=10&reviewerEmail=b@ucsb.edu&stars=2&comments=meh&dateReviewed=2022-03-11T00:00:00")
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    MenuItemRatingStats[] afterPosts = stats("10,12");
+    assertEquals(2, afterPosts[0].getReviewCount());
+    assertEquals(7, afterPosts[0].getStarsSum());
+    assertEquals(LocalDateTime.parse("2022-03-11T00:00:00"), afterPosts[0].getLastReviewed());
+    assertEquals(0, afterPosts[1].getReviewCount());
+
+    MvcResult top =
+        mockMvc.perform(get("/api/menuitemreview/top?k=5")).andExpect(status().isOk()).andReturn();
+    MenuItemLeaderboardEntry[] leaders =
+        mapper.readValue(top.getResponse().getContentAsString(), MenuItemLeaderboardEntry[].class);
+    assertEquals(1, leaders.length);
+    assertEquals(10, leaders[0].getItemId());
+    assertEquals(2, leaders[0].getReviewCount());
+
+    // act: move the newer review to item 12
+    MenuItemReview moved =
+        MenuItemReview.builder()
+            .itemId(12)
+            .reviewerEmail("b@ucsb.edu")
+            .stars(4)
+            .comments("better")
+            .dateReviewed(LocalDateTime.parse("2022-03-11T00:00:00"))
+            .build();
+    mockMvc
+        .perform(
+            put("/api/menuitemreview?id=2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(moved))
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    MenuItemRatingStats[] afterUpdate = stats("10,12");
+    assertEquals(1, afterUpdate[0].getReviewCount());
+    assertEquals(5, afterUpdate[0].getStarsSum());
+    assertEquals(LocalDateTime.parse("2022-01-03T00:00:00"), afterUpdate[0].getLastReviewed());
+    assertEquals(1, afterUpdate[1].getReviewCount());
+    assertEquals(1, afterUpdate[1].getFourStarCount());
+
+    // act: delete the only review of item 10
+    mockMvc.perform(delete("/api/menuitemreview?id=1").with(csrf())).andExpect(status().isOk());
+
+    MenuItemRatingStats[] afterDelete = stats("10,12");
+    assertEquals(0, afterDelete[0].getReviewCount());
+    assertEquals(4.0, afterDelete[1].getAverageStars());
+  }
+
+  @Test
+  public void concurrent_first_reviews_of_an_item_share_one_stats_row() throws Exception {
+    CountDownLatch firstWritten = new CountDownLatch(1);
+    CountDownLatch commitFirst = new CountDownLatch(1);
+    CompletableFuture<Void> first =
+        CompletableFuture.runAsync(
+            () ->
+                transactionTemplate.executeWithoutResult(
+                    status -> {
+                      writeReview("a@ucsb.edu", 5);
+                      firstWritten.countDown();
+                      await(commitFirst);
+                    }));
+    await(firstWritten);
+
+    // the second review finds no committed stats row and has to wait for the first one's
+    CompletableFuture<Void> second =
+        CompletableFuture.runAsync(
+            () -> transactionTemplate.executeWithoutResult(status -> writeReview("b@ucsb.edu", 2)));
+    Thread.sleep(200);
+    commitFirst.countDown();
+
+    first.get(10, TimeUnit.SECONDS);
+    second.get(10, TimeUnit.SECONDS);
+    MenuItemRatingStats stats = menuItemRatingStatsRepository.findById(20L).orElseThrow();
+    assertEquals(2, stats.getReviewCount());
+    assertEquals(7, stats.getStarsSum());
+  }
+
+  private void writeReview(String reviewerEmail, int stars) {
+    MenuItemReview review =
+        menuItemReviewRepository.save(
+            MenuItemReview.builder()
+                .itemId(20)
+                .reviewerEmail(reviewerEmail)
+                .stars(stars)
+                .comments("first!")
+                .dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00"))
+                .build());
+    menuItemRatingStatsService.reviewAdded(review);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package edu.ucsb.cs156.example.integration;
+
+import static edu.ucsb.cs156.example.QueryCountAssertions.assertQueryCount;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.entities.ApiToken;
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.ApiTokenRepository;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Pins how many SQL statements the hot endpoints of each controller run against a real database,
+ * with several rows in each table, so that a change which loads rows one at a time fails the build.
+ * If a count goes up on purpose, update it here; if it goes up by the number of rows, look for a
+ * lazy association being loaded per row.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+@WithMockUser(roles = {"ADMIN", "USER"})
+public class QueryCountIT {
+
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired UserRepository userRepository;
+
+  @Autowired ApiTokenRepository apiTokenRepository;
+
+  @Autowired ArticlesRepository articlesRepository;
+
+  @Autowired HelpRequestRepository helpRequestRepository;
+
+  @Autowired MenuItemReviewRepository menuItemReviewRepository;
+
+  @Autowired RecommendationRequestRepository recommendationRequestRepository;
+
+  @Autowired RestaurantRepository restaurantRepository;
+
+  @Autowired UCSBDateRepository ucsbDateRepository;
+
+  @Autowired UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired UCSBDiningCommonsMenuItemsRepository ucsbDiningCommonsMenuItemsRepository;
+
+  @Autowired UCSBOrganizationRepository ucsbOrganizationRepository;
+
+  private static final int ROWS = 3;
+
+  private static final LocalDateTime LDT = LocalDateTime.parse("2025-10-01T12:30:00");
+
+  private void assertQueries(int expected, String url) throws Throwable {
+    assertQueryCount(expected, () -> mockMvc.perform(get(url)).andExpect(status().isOk()));
+  }
+
+  private void assertQueries(int expected, String url, int rows) throws Throwable {
+    assertQueryCount(
+        expected,
+        () ->
+            mockMvc
+                .perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(rows)));
+  }
+
+  private List<User> saveUsers() {
+    return List.of(
+        userRepository.save(User.builder().email("a@ucsb.edu").emailVerified(true).build()),
+        userRepository.save(User.builder().email("b@ucsb.edu").emailVerified(true).build()),
+        userRepository.save(User.builder().email("c@ucsb.edu").emailVerified(true).build()));
+  }
+
+  @Test
+  public void articles() throws Throwable {
+    for (int i = 0; i < ROWS; i++) {
+      articlesRepository.save(
+          Article.builder()
+              .title("Article " + i)
+              .url("https://example.org/" + i)
+              .explanation("about caching")
+              .email("a@ucsb.edu")
+              .dateAdded(LDT)
+              .build());
+    }
+    long id = articlesRepository.findAll().iterator().next().getId();
+
+    assertQueries(1, "/api/articles/all", ROWS);
+    assertQueries(1, "/api/articles?id=" + id);
+    // searched in the index built at startup
+    assertQueries(0, "/api/articles/search?q=caching");
+  }
+
+  @Test
+  public void help_requests() throws Throwable {
+    for (int i = 0; i < ROWS; i++) {
+      helpRequestRepository.save(
+          HelpRequest.builder()
+              .requesterEmail("h" + i + "@ucsb.edu")
+              .teamId("s25-5pm-3")
+              .tableOrBreakoutRoom("7")
+              .requestTime(LDT)
+              .explanation("stuck")
+              .solved(false)
+              .build());
+    }
+    long id = helpRequestRepository.findAll().iterator().next().getId();
+
+    assertQueries(1, "/api/helprequest/all", ROWS);
+    assertQueries(1, "/api/helprequest?id=" + id);
+  }
+
+  @Test
+  public void menu_item_reviews() throws Throwable {
+    for (int i = 0; i < ROWS; i++) {
+      menuItemReviewRepository.save(
+          MenuItemReview.builder()
+              .itemId(i + 1)
+              .reviewerEmail("r@ucsb.edu")
+              .stars(4)
+              .dateReviewed(LDT)
+              .comments("good")
+              .build());
+    }
+    long id = menuItemReviewRepository.findAll().iterator().next().getId();
+
+    assertQueries(1, "/api/menuitemreview/all", ROWS);
+    assertQueries(1, "/api/menuitemreview?id=" + id);
+    assertQueries(1, "/api/menuitemreview/search?reviewerEmail=r@ucsb.edu");
+    assertQueries(1, "/api/menuitemreview/stats?itemIds=1,2,3");
+    // ranked in memory
+    assertQueries(0, "/api/menuitemreview/top?k=10");
+  }
+
+  @Test
+  public void recommendation_requests() throws Throwable {
+    for (int i = 0; i < ROWS; i++) {
+      recommendationRequestRepository.save(
+          RecommendationRequest.builder()
+              .code("rec-" + i)
+              .requesterEmail("s@ucsb.edu")
+              .professorEmail("p@ucsb.edu")
+              .explanation("grad school")
+              .dateRequested(LDT)
+              .dateNeeded(LDT.plusDays(30))
+              .done(false)
+              .build());
+    }
+    long id = recommendationRequestRepository.findAll().iterator().next().getId();
+
+    assertQueries(1, "/api/recommendationrequests/all", ROWS);
+    assertQueries(1, "/api/recommendationrequests?id=" + id);
+    assertQueries(1, "/api/recommendationrequests/search?professorEmail=p@ucsb.edu");
+  }
+
+  @Test
+  public void restaurants() throws Throwable {
+    for (int i = 0; i < ROWS; i++) {
+      restaurantRepository.save(
+          Restaurant.builder().name("Restaurant " + i).description("Burritos").build());
+    }
+    long id = restaurantRepository.findAll().iterator().next().getId();
+
+    assertQueries(1, "/api/restaurants/all", ROWS);
+    assertQueries(1, "/api/restaurants?id=" + id);
+  }
+
+  @Test
+  public void ucsb_dates() throws Throwable {
+    for (int i = 0; i < ROWS; i++) {
+      ucsbDateRepository.save(
+          UCSBDate.builder()
+              .quarterYYYYQ("20254")
+              .name("day " + i)
+              .localDateTime(LDT.plusDays(i))
+              .build());
+    }
+    long id = ucsbDateRepository.findAll().iterator().next().getId();
+
+    assertQueries(1, "/api/ucsbdates/all", ROWS);
+    assertQueries(1, "/api/ucsbdates?id=" + id);
+    // served from the calendar built at startup
+    assertQueries(0, "/api/ucsbdates/quarter/20254");
+    assertQueries(0, "/api/ucsbdates/range?from=2025-10-01T00:00:00&to=2025-10-31T00:00:00");
+  }
+
+  @Test
+  public void dining_commons_and_menu_items() throws Throwable {
+    for (int i = 0; i < ROWS; i++) {
+      ucsbDiningCommonsRepository.save(
+          UCSBDiningCommons.builder()
+              .code("commons" + i)
+              .name("Commons " + i)
+              .hasSackMeal(true)
+              .hasTakeOutMeal(true)
+              .hasDiningCam(false)
+              .latitude(34.41 + i / 100.0)
+              .longitude(-119.84)
+              .build());
+      ucsbDiningCommonsMenuItemsRepository.save(
+          UCSBDiningCommonsMenuItems.builder()
+              .diningCommonsCode("commons0")
+              .name("Item " + i)
+              .station("Entrees")
+              .build());
+    }
+    long itemId = ucsbDiningCommonsMenuItemsRepository.findAll().iterator().next().getId();
+
+    assertQueries(1, "/api/ucsbdiningcommons/all", ROWS);
+    assertQueries(1, "/api/ucsbdiningcommons?code=commons0");
+    // served from the spatial index built at startup
+    assertQueries(0, "/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.84&k=3");
+    assertQueries(0, "/api/ucsbdiningcommons/within?minLat=34&maxLat=35&minLon=-120&maxLon=-119");
+    assertQueries(1, "/api/ucsbdiningcommonsmenuitems/all", ROWS);
+    assertQueries(1, "/api/ucsbdiningcommonsmenuitems?id=" + itemId);
+  }
+
+  @Test
+  public void organizations() throws Throwable {
+    for (int i = 0; i < ROWS; i++) {
+      ucsbOrganizationRepository.save(
+          UCSBOrganization.builder()
+              .orgCode("ORG" + i)
+              .orgTranslationShort("ORG " + i)
+              .orgTranslation("Organization " + i)
+              .inactive(false)
+              .build());
+    }
+
+    assertQueries(1, "/api/ucsborganization/all", ROWS);
+    assertQueries(1, "/api/ucsborganization?orgCode=ORG0");
+  }
+
+  @Test
+  public void users_and_api_tokens() throws Throwable {
+    for (User user : saveUsers()) {
+      apiTokenRepository.save(
+          ApiToken.builder()
+              .user(user)
+              .name("load test")
+              .tokenHash("hash-" + user.getEmail())
+              .createdAt(LDT)
+              .build());
+    }
+
+    assertQueries(1, "/api/admin/users?pageSize=10");
+    assertQueries(1, "/api/admin/tokens/all", ROWS);
+  }
+}
@@ -0,0 +1,224 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Runs the read-only view projections behind the list and get endpoints against a real database and
+ * checks that they serve exactly the JSON the entities would.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+@WithMockUser(roles = {"USER"})
+public class ReadOnlyViewsIT {
+  @Autowired public CurrentUserService currentUserService;
+
+  @Autowired public GrantedAuthoritiesService grantedAuthoritiesService;
+
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired public ObjectMapper mapper;
+
+  @MockBean UserRepository userRepository;
+
+  @Autowired ArticlesRepository articlesRepository;
+
+  @Autowired HelpRequestRepository helpRequestRepository;
+
+  @Autowired MenuItemReviewRepository menuItemReviewRepository;
+
+  @Autowired RecommendationRequestRepository recommendationRequestRepository;
+
+  @Autowired RestaurantRepository restaurantRepository;
+
+  @Autowired UCSBDateRepository ucsbDateRepository;
+
+  @Autowired UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired UCSBDiningCommonsMenuItemsRepository ucsbDiningCommonsMenuItemsRepository;
+
+  @Autowired UCSBOrganizationRepository ucsbOrganizationRepository;
+
+  private static final LocalDateTime LDT = LocalDateTime.parse("2025-10-01T12:30:00");
+
+  private void assertServedLikeEntity(String baseUrl, String getQuery, Object entity)
+      throws Exception {
+    String all =
+        mockMvc
+            .perform(get(baseUrl + "/all"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    assertEquals(mapper.writeValueAsString(List.of(entity)), all);
+
+    String one =
+        mockMvc
+            .perform(get(baseUrl + "?" + getQuery))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    assertEquals(mapper.writeValueAsString(entity), one);
+  }
+
+  @Test
+  public void articles_are_served_from_views() throws Exception {
+    Article article =
+        articlesRepository.save(
+            Article.builder()
+                .title("Views")
+                .url("https://example.org/views")
+                .explanation("read-only")
+                .email("a@ucsb.edu")
+                .dateAdded(LDT)
+                .build());
+    assertServedLikeEntity("/api/articles", "id=" + article.getId(), article);
+  }
+
+  @Test
+  public void help_requests_are_served_from_views() throws Exception {
+    HelpRequest helpRequest =
+        helpRequestRepository.save(
+            HelpRequest.builder()
+                .requesterEmail("h@ucsb.edu")
+                .teamId("s25-5pm-3")
+                .tableOrBreakoutRoom("7")
+                .requestTime(LDT)
+                .explanation("stuck")
+                .solved(true)
+                .build());
+    assertServedLikeEntity("/api/helprequest", "id=" + helpRequest.getId(), helpRequest);
+  }
+
+  @Test
+  public void menu_item_reviews_are_served_from_views() throws Exception {
+    MenuItemReview review =
+        menuItemReviewRepository.save(
+            MenuItemReview.builder()
+                .itemId(3)
+                .reviewerEmail("r@ucsb.edu")
+                .stars(4)
+                .dateReviewed(LDT)
+                .comments("good")
+                .build());
+    assertServedLikeEntity("/api/menuitemreview", "id=" + review.getId(), review);
+  }
+
+  @Test
+  public void recommendation_requests_are_served_from_views() throws Exception {
+    RecommendationRequest request =
+        recommendationRequestRepository.save(
+            RecommendationRequest.builder()
+                .code("rec-1")
+                .requesterEmail("s@ucsb.edu")
+                .professorEmail("p@ucsb.edu")
+                .explanation("grad school")
+                .dateRequested(LDT)
+                .dateNeeded(LDT.plusDays(30))
+                .done(true)
+                .build());
+    assertServedLikeEntity("/api/recommendationrequests", "id=" + request.getId(), request);
+  }
+
+  @Test
+  public void restaurants_are_served_from_views() throws Exception {
+    Restaurant restaurant =
+        restaurantRepository.save(
+            Restaurant.builder().name("Freebirds").description("Burritos").build());
+    assertServedLikeEntity("/api/restaurants", "id=" + restaurant.getId(), restaurant);
+  }
+
+  @Test
+  public void ucsb_dates_are_served_from_views() throws Exception {
+    UCSBDate date =
+        ucsbDateRepository.save(
+            UCSBDate.builder().quarterYYYYQ("20254").name("firstDay").localDateTime(LDT).build());
+    assertServedLikeEntity("/api/ucsbdates", "id=" + date.getId(), date);
+  }
+
+  @Test
+  public void dining_commons_are_served_from_views() throws Exception {
+    UCSBDiningCommons commons =
+        ucsbDiningCommonsRepository.save(
+            UCSBDiningCommons.builder()
+                .code("ortega")
+                .name("Ortega")
+                .hasSackMeal(true)
+                .hasTakeOutMeal(true)
+                .hasDiningCam(false)
+                .latitude(34.41)
+                .longitude(-119.84)
+                .build());
+    assertServedLikeEntity("/api/ucsbdiningcommons", "code=ortega", commons);
+  }
+
+  @Test
+  public void dining_commons_menu_items_are_served_from_views() throws Exception {
+    UCSBDiningCommonsMenuItems item =
+        ucsbDiningCommonsMenuItemsRepository.save(
+            UCSBDiningCommonsMenuItems.builder()
+                .diningCommonsCode("ortega")
+                .name("Tofu Banh Mi")
+                .station("Entrees")
+                .build());
+    assertServedLikeEntity("/api/ucsbdiningcommonsmenuitems", "id=" + item.getId(), item);
+  }
+
+  @Test
+  public void organizations_are_served_from_views() throws Exception {
+    UCSBOrganization organization =
+        ucsbOrganizationRepository.save(
+            UCSBOrganization.builder()
+                .orgCode("ZPR")
+                .orgTranslationShort("ZETA PHI RHO")
+                .orgTranslation("ZETA PHI RHO")
+                .inactive(true)
+                .build());
+    assertServedLikeEntity("/api/ucsborganization", "orgCode=ZPR", organization);
+  }
+}
@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.config.ReplicaRoutingDataSource;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Boots the app with a read replica configured. The "replica" is the same in-memory H2 database
+ * opened through a second URL and connection pool, so it has the schema and the data; what is
+ * checked is which pool each request's transaction used.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:readreplicait;DB_CLOSE_DELAY=-1",
+      "app.datasource.replicas.urls=jdbc:h2:mem:readreplicait;DB_CLOSE_DELAY=-1;IFEXISTS=TRUE",
+      "app.datasource.replicas.stickyMs=60000"
+    })
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ReadReplicaIT {
+  @Autowired public CurrentUserService currentUserService;
+
+  @Autowired public GrantedAuthoritiesService grantedAuthoritiesService;
+
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired DataSource dataSource;
+
+  @MockBean UserRepository userRepository;
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void gets_are_served_by_the_replica() throws Exception {
+    ReplicaRoutingDataSource router = dataSource.unwrap(ReplicaRoutingDataSource.class);
+    assertEquals(1, router.healthyReplicas());
+    long before = router.replicaReads();
+
+    mockMvc.perform(get("/api/restaurants/all")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/ucsbdates/all")).andExpect(status().isOk());
+
+    assertEquals(before + 2, router.replicaReads());
+  }
+
+  @WithMockUser(
+      username = "admin",
+      roles = {"ADMIN", "USER"})
+  @Test
+  public void a_writer_reads_their_own_write_from_the_primary() throws Exception {
+    ReplicaRoutingDataSource router = dataSource.unwrap(ReplicaRoutingDataSource.class);
+
+    mockMvc
+        .perform(post("/api/restaurants/post?name=Habit&description=Burgers").with(csrf()))
+        .andExpect(status().isOk());
+    long afterWrite = router.replicaReads();
+
+    String all =
+        mockMvc
+            .perform(get("/api/restaurants/all"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    assertTrue(all.contains("Habit"));
+    assertEquals(afterWrite, router.replicaReads());
+  }
+}
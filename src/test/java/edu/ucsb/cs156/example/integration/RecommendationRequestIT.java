@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.models.RecommendationRequestSearchResult;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class RecommendationRequestIT {
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired public ObjectMapper mapper;
+
+  @MockBean UserRepository userRepository;
+
+  private void postRequest(String code, String professorEmail, String dateNeeded, boolean done)
+      throws Exception {
+    mockMvc
+        .perform(
+            post("/api/recommendationrequests/post?code=%s&requesterEmail=student@ucsb.edu&professorEmail=%s&explanation=letter&dateRequested=2025-09-01T00:00:00&dateNeeded=%s&done=%s"
+                    .formatted(code, professorEmail, dateNeeded, done))
+                .with(csrf()))
+        .andExpect(status().isOk());
+  }
+
+  private RecommendationRequestSearchResult search(String queryString) throws Exception {
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/recommendationrequests/search" + queryString))
+            .andExpect(status().isOk())
+            .andReturn();
+    return mapper.readValue(
+        response.getResponse().getContentAsString(), RecommendationRequestSearchResult.class);
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void keyset_pages_walk_open_requests_by_deadline() throws Exception {
+    // arrange: two requests share a deadline, so paging must also order by id
+    postRequest("A", "prof@ucsb.edu", "2025-11-03T00:00:00", false);
+    postRequest("B", "prof@ucsb.edu", "2025-11-01T00:00:00", false);
+    postRequest("C", "prof@ucsb.edu", "2025-11-02T00:00:00", false);
+    postRequest("D", "prof@ucsb.edu", "2025-11-02T00:00:00", false);
+    postRequest("E", "prof@ucsb.edu", "2025-10-15T00:00:00", true);
+    postRequest("F", "other@ucsb.edu", "2025-10-20T00:00:00", false);
+
+    // act: walk the pages two at a time
+    List<String> codes = new ArrayList<>();
+    String filters = "?professorEmail=prof@ucsb.edu&done=false&pageSize=2";
+    RecommendationRequestSearchResult page = search(filters);
+    page.getContent().forEach(r -> codes.add(r.getCode()));
+    int pages = 1;
+    while (page.getNextId() != null) {
+      page =
+          search(
+              filters
+                  + "&afterDateNeeded="
+                  + page.getNextDateNeeded()
+                  + "&afterId="
+                  + page.getNextId());
+      page.getContent().forEach(r -> codes.add(r.getCode()));
+      pages++;
+    }
+
+    // assert
+    assertEquals(List.of("B", "C", "D", "A"), codes);
+    assertEquals(2, pages);
+    assertNull(page.getNextDateNeeded());
+
+    List<RecommendationRequest> ranged =
+        search("?neededFrom=2025-10-16T00:00:00&neededTo=2025-11-01T23:59:59").getContent();
+    assertEquals(List.of("F", "B"), ranged.stream().map(RecommendationRequest::getCode).toList());
+  }
+}
@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Stores a login in the session tables directly, as another instance of the app would, and checks
+ * that this instance serves requests for it.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("integration")
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class SharedSessionIT {
+
+  @Autowired JdbcIndexedSessionRepository sessionRepository;
+
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @Autowired TestRestTemplate restTemplate;
+
+  private static <S extends Session> String store(
+      SessionRepository<S> repository, SecurityContext context) {
+    S session = repository.createSession();
+    session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+    repository.save(session);
+    return session.getId();
+  }
+
+  private static <S extends Session> void expire(SessionRepository<S> repository, String id) {
+    S session = repository.findById(id);
+    session.setLastAccessedTime(Instant.now().minus(Duration.ofDays(1)));
+    repository.save(session);
+  }
+
+  private String loggedInSession() {
+    Map<String, Object> attributes =
+        Map.of(
+            "sub", "1234",
+            "email", "cgaucho@ucsb.edu",
+            "name", "Chris Gaucho",
+            "email_verified", true);
+    OAuth2AuthenticationToken token =
+        new OAuth2AuthenticationToken(
+            new DefaultOAuth2User(List.of(new OAuth2UserAuthority(attributes)), attributes, "sub"),
+            List.of(new OAuth2UserAuthority(attributes), new SimpleGrantedAuthority("ROLE_USER")),
+            "my-oauth-provider");
+    return store(sessionRepository, new SecurityContextImpl(token));
+  }
+
+  private ResponseEntity<String> currentUser(String sessionId) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add(
+        HttpHeaders.COOKIE,
+        "SESSION="
+            + Base64.getEncoder().encodeToString(sessionId.getBytes(StandardCharsets.UTF_8)));
+    return restTemplate.exchange(
+        "/api/currentUser", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+  }
+
+  @Test
+  public void a_login_stored_in_the_database_is_served_by_this_instance() {
+    String sessionId = loggedInSession();
+
+    byte[] stored =
+        jdbcTemplate.queryForObject(
+            "SELECT A.ATTRIBUTE_BYTES FROM SPRING_SESSION_ATTRIBUTES A"
+                + " JOIN SPRING_SESSION S ON S.PRIMARY_ID = A.SESSION_PRIMARY_ID"
+                + " WHERE S.SESSION_ID = ?",
+            byte[].class,
+            sessionId);
+    assertEquals(':', stored[0]);
+
+    ResponseEntity<String> response = currentUser(sessionId);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertTrue(response.getBody().contains("\"email\":\"cgaucho@ucsb.edu\""), response.getBody());
+
+    assertEquals(HttpStatus.FORBIDDEN, currentUser("no-such-session").getStatusCode());
+  }
+
+  @Test
+  public void expired_sessions_are_cleaned_up() {
+    String sessionId = loggedInSession();
+    expire(sessionRepository, sessionId);
+
+    sessionRepository.cleanUpExpiredSessions();
+
+    assertNull(sessionRepository.findById(sessionId));
+    assertEquals(
+        0,
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION_ATTRIBUTES", Long.class));
+  }
+}
@@ -0,0 +1,87 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Runs the slow query log against H2 with every statement counted as slow, so that the bind values,
+ * controller method and EXPLAIN plan of a real statement are captured.
+ */
+@ExtendWith({SpringExtension.class, OutputCaptureExtension.class})
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"app.slowqueries.thresholdMs=0", "app.slowqueries.explain=true"})
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+@WithMockUser(roles = {"ADMIN", "USER"})
+public class SlowQueryIT {
+
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired public ObjectMapper mapper;
+
+  @MockBean UserRepository userRepository;
+
+  @Autowired RestaurantRepository restaurantRepository;
+
+  @Test
+  public void slow_statements_are_logged_and_listed_with_values_handler_and_plan(
+      CapturedOutput output) throws Exception {
+    long id =
+        restaurantRepository
+            .save(Restaurant.builder().name("Freebirds").description("Burritos").build())
+            .getId();
+    mockMvc.perform(get("/api/restaurants?id=" + id)).andExpect(status().isOk());
+
+    String json =
+        mockMvc
+            .perform(get("/api/admin/slowqueries?n=100"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    List<Map<String, Object>> shapes = mapper.readValue(json, new TypeReference<>() {});
+    Map<String, Object> getById =
+        shapes.stream()
+            .filter(shape -> "RestaurantsController.getById".equals(shape.get("handler")))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError(json));
+
+    assertTrue(((String) getById.get("sql")).contains("where"), json);
+    assertEquals("[" + id + "]", getById.get("parameters"), json);
+    assertEquals(1, getById.get("count"), json);
+    assertTrue(((String) getById.get("plan")).toUpperCase().startsWith("SELECT"), json);
+
+    assertTrue(output.getOut().contains("in RestaurantsController.getById: "), output.getOut());
+    assertFalse(output.getOut().contains("with parameters"), output.getOut());
+  }
+}
@@ -0,0 +1,52 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/** Runs the user upsert against the schema built by the Liquibase changesets. */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class UserUpsertIT {
+
+  @Autowired UserRepository userRepository;
+
+  @Test
+  public void upsert_stores_one_row_per_email() {
+    User first =
+        userRepository.upsertByEmail(
+            User.builder().email("new@ucsb.edu").fullName("New").emailVerified(true).build());
+    User second =
+        userRepository.upsertByEmail(
+            User.builder().email("new@ucsb.edu").fullName("Other").admin(true).build());
+
+    assertEquals(first, second);
+    assertEquals("New", second.getFullName());
+    assertEquals(first, userRepository.findByEmail("new@ucsb.edu").get());
+    assertEquals(1, userRepository.count());
+  }
+
+  @Test
+  public void the_schema_rejects_a_second_row_with_the_same_email() {
+    userRepository.save(User.builder().email("dup@ucsb.edu").build());
+    assertThrows(
+        DataIntegrityViolationException.class,
+        () -> userRepository.save(User.builder().email("dup@ucsb.edu").build()));
+  }
+}
@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.UserSearchResult;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Runs the admin user listing and export against the real users table. */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class UsersListingIT {
+
+  @Autowired MockMvc mockMvc;
+
+  @Autowired ObjectMapper mapper;
+
+  @Autowired UserRepository userRepository;
+
+  private User save(String email, boolean admin) {
+    return userRepository.save(
+        User.builder().email(email).hostedDomain("ucsb.edu").admin(admin).build());
+  }
+
+  private String getContent(String url) throws Exception {
+    return mockMvc
+        .perform(get(url))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void users_are_filtered_and_paged_by_id() throws Exception {
+    User a1 = save("a_1@ucsb.edu", false);
+    save("ab1@ucsb.edu", false);
+    User a2 = save("a_2@ucsb.edu", true);
+    User a3 = save("a_3@ucsb.edu", false);
+
+    UserSearchResult first =
+        mapper.readValue(
+            getContent("/api/admin/users?emailPrefix=a_&pageSize=2"), UserSearchResult.class);
+    assertEquals(List.of(a1, a2), first.getContent());
+
+    UserSearchResult second =
+        mapper.readValue(
+            getContent("/api/admin/users?emailPrefix=a_&pageSize=2&afterId=" + first.getNextId()),
+            UserSearchResult.class);
+    assertEquals(List.of(a3), second.getContent());
+    assertEquals(null, second.getNextId());
+
+    UserSearchResult admins =
+        mapper.readValue(getContent("/api/admin/users?admin=true"), UserSearchResult.class);
+    assertEquals(List.of(a2), admins.getContent());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void export_writes_every_matching_user() throws Exception {
+    for (int i = 0; i < 1203; i++) {
+      save("user" + i + "@ucsb.edu", i % 2 == 0);
+    }
+
+    List<User> exported =
+        mapper.readValue(
+            getContent("/api/admin/users/export?admin=true"), new TypeReference<List<User>>() {});
+
+    assertEquals(602, exported.size());
+    assertEquals("user0@ucsb.edu", exported.get(0).getEmail());
+    assertEquals("user1202@ucsb.edu", exported.get(601).getEmail());
+  }
+}
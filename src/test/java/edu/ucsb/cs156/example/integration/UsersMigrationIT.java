@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/** Runs the Liquibase changesets against a USERS table that predates the unique email index. */
+public class UsersMigrationIT {
+
+  private final DriverManagerDataSource dataSource =
+      new DriverManagerDataSource(
+          "jdbc:h2:mem:users-migration-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+
+  private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+  @Test
+  public void duplicate_emails_stop_the_migration_without_deleting_rows() {
+    createOldUsersTable();
+    jdbcTemplate.update("INSERT INTO USERS (EMAIL) VALUES ('dup@ucsb.edu'), ('dup@ucsb.edu')");
+
+    Exception e = assertThrows(Exception.class, this::migrate);
+
+    assertTrue(e.getMessage().contains("docs/users.md"), e.getMessage());
+    assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM USERS", Integer.class));
+  }
+
+  @Test
+  public void distinct_emails_get_the_unique_index() throws LiquibaseException {
+    createOldUsersTable();
+    jdbcTemplate.update("INSERT INTO USERS (EMAIL) VALUES ('a@ucsb.edu'), ('b@ucsb.edu'), (NULL)");
+
+    migrate();
+
+    assertEquals(
+        1,
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'UX_USERS_EMAIL'",
+            Integer.class));
+    assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM USERS", Integer.class));
+  }
+
+  private void createOldUsersTable() {
+    jdbcTemplate.execute(
+        "CREATE TABLE USERS (ID BIGINT AUTO_INCREMENT PRIMARY KEY, EMAIL VARCHAR(255),"
+            + " GOOGLE_SUB VARCHAR(255), PICTURE_URL VARCHAR(255), FULL_NAME VARCHAR(255),"
+            + " GIVEN_NAME VARCHAR(255), FAMILY_NAME VARCHAR(255), EMAIL_VERIFIED BOOLEAN,"
+            + " LOCALE VARCHAR(255), HOSTED_DOMAIN VARCHAR(255), ADMIN BOOLEAN)");
+  }
+
+  private void migrate() throws LiquibaseException {
+    SpringLiquibase liquibase = new SpringLiquibase();
+    liquibase.setDataSource(dataSource);
+    liquibase.setChangeLog("classpath:db/migration/changelog-master.json");
+    liquibase.setResourceLoader(new DefaultResourceLoader());
+    liquibase.afterPropertiesSet();
+  }
+}
@@ -0,0 +1,33 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.services.ArticleSearchService;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import org.junit.jupiter.api.Test;
+
+public class RebuildArticleSearchIndexJobTests {
+
+  @Test
+  public void job_rebuilds_index_and_logs_article_count() throws Exception {
+    // arrange
+    ArticleSearchService service = mock(ArticleSearchService.class);
+    when(service.rebuild()).thenReturn(12);
+    Job job = Job.builder().build();
+    JobContext ctx = new JobContext(null, job);
+
+    RebuildArticleSearchIndexJob rebuildJob =
+        RebuildArticleSearchIndexJob.builder().articleSearchService(service).build();
+
+    // act
+    rebuildJob.accept(ctx);
+
+    // assert
+    verify(service).rebuild();
+    assertEquals("Rebuilding article search index\nIndexed 12 articles", job.getLog());
+  }
+}
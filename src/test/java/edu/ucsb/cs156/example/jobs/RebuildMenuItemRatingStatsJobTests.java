@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.services.MenuItemRatingStatsService;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import org.junit.jupiter.api.Test;
+
+public class RebuildMenuItemRatingStatsJobTests {
+
+  @Test
+  public void job_rebuilds_stats_and_logs_item_count() throws Exception {
+    // arrange
+    MenuItemRatingStatsService service = mock(MenuItemRatingStatsService.class);
+    when(service.rebuildAll()).thenReturn(7);
+    Job job = Job.builder().build();
+    JobContext ctx = new JobContext(null, job);
+
+    RebuildMenuItemRatingStatsJob rebuildJob =
+        RebuildMenuItemRatingStatsJob.builder().menuItemRatingStatsService(service).build();
+
+    // act
+    rebuildJob.accept(ctx);
+
+    // assert
+    verify(service).rebuildAll();
+    assertEquals(
+        "Rebuilding menu item rating stats\nRebuilt rating stats for 7 menu items", job.getLog());
+  }
+}
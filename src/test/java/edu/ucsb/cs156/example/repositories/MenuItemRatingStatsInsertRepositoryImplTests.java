@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class MenuItemRatingStatsInsertRepositoryImplTests {
+
+  private JdbcDataSource dataSource;
+  private MenuItemRatingStatsInsertRepositoryImpl repository;
+
+  @BeforeEach
+  public void setup() {
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:stats-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    new JdbcTemplate(dataSource)
+        .execute(
+            "CREATE TABLE MENU_ITEM_RATING_STATS (ITEM_ID BIGINT PRIMARY KEY,"
+                + " REVIEW_COUNT BIGINT NOT NULL, STARS_SUM BIGINT NOT NULL,"
+                + " ONE_STAR_COUNT BIGINT NOT NULL, TWO_STAR_COUNT BIGINT NOT NULL,"
+                + " THREE_STAR_COUNT BIGINT NOT NULL, FOUR_STAR_COUNT BIGINT NOT NULL,"
+                + " FIVE_STAR_COUNT BIGINT NOT NULL, LAST_REVIEWED TIMESTAMP)");
+    repository = new MenuItemRatingStatsInsertRepositoryImpl();
+    repository.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+  }
+
+  private long reviewCount(long itemId) {
+    return new JdbcTemplate(dataSource)
+        .queryForObject(
+            "SELECT REVIEW_COUNT FROM MENU_ITEM_RATING_STATS WHERE ITEM_ID = ?",
+            Long.class,
+            itemId);
+  }
+
+  private int rows() {
+    return new JdbcTemplate(dataSource)
+        .queryForObject("SELECT COUNT(*) FROM MENU_ITEM_RATING_STATS", Integer.class);
+  }
+
+  @Test
+  public void a_missing_row_is_inserted_empty() {
+    repository.insertIfAbsent(10);
+
+    assertEquals(0, reviewCount(10));
+    assertEquals(1, rows());
+  }
+
+  @Test
+  public void an_existing_row_is_left_alone() {
+    new JdbcTemplate(dataSource)
+        .update("INSERT INTO MENU_ITEM_RATING_STATS VALUES (10, 3, 12, 0, 0, 1, 1, 1, NULL)");
+
+    repository.insertIfAbsent(10);
+    repository.insertIfAbsent(10);
+
+    assertEquals(3, reviewCount(10));
+    assertEquals(1, rows());
+  }
+
+  @Test
+  public void losing_a_race_to_an_uncommitted_insert_is_not_an_error() throws Exception {
+    try (Connection winner = dataSource.getConnection()) {
+      winner.setAutoCommit(false);
+      try (Statement insert = winner.createStatement()) {
+        insert.executeUpdate(
+            "INSERT INTO MENU_ITEM_RATING_STATS VALUES (10, 1, 5, 0, 0, 0, 0, 1, NULL)");
+      }
+
+      CompletableFuture<Void> loser =
+          CompletableFuture.runAsync(() -> repository.insertIfAbsent(10));
+      Thread.sleep(200);
+      winner.commit();
+
+      loser.get(10, TimeUnit.SECONDS);
+    }
+    assertEquals(1, reviewCount(10));
+    assertEquals(1, rows());
+  }
+
+  @Test
+  public void postgres_uses_insert_on_conflict() {
+    assertEquals(
+        MenuItemRatingStatsInsertRepositoryImpl.POSTGRES_INSERT,
+        MenuItemRatingStatsInsertRepositoryImpl.insertSqlFor("PostgreSQL"));
+    assertTrue(
+        MenuItemRatingStatsInsertRepositoryImpl.POSTGRES_INSERT.contains(
+            "ON CONFLICT (ITEM_ID) DO NOTHING"));
+    assertEquals(
+        MenuItemRatingStatsInsertRepositoryImpl.MERGE_INSERT,
+        MenuItemRatingStatsInsertRepositoryImpl.insertSqlFor("H2"));
+  }
+}
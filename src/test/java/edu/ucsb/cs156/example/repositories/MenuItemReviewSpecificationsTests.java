@@ -0,0 +1,107 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+@SuppressWarnings("unchecked")
+public class MenuItemReviewSpecificationsTests {
+
+  private Root<MenuItemReview> root;
+  private CriteriaQuery<?> query;
+  private CriteriaBuilder cb;
+  private Path<Object> path;
+  private Predicate predicate;
+
+  @BeforeEach
+  public void setup() {
+    root = mock(Root.class);
+    query = mock(CriteriaQuery.class);
+    cb = mock(CriteriaBuilder.class);
+    path = mock(Path.class);
+    predicate = mock(Predicate.class);
+  }
+
+  @Test
+  public void absent_filters_produce_no_specification() {
+    assertNull(MenuItemReviewSpecifications.hasItemId(null));
+    assertNull(MenuItemReviewSpecifications.hasReviewerEmail(null));
+    assertNull(MenuItemReviewSpecifications.starsAtLeast(null));
+    assertNull(MenuItemReviewSpecifications.starsAtMost(null));
+    assertNull(MenuItemReviewSpecifications.reviewedOnOrAfter(null));
+    assertNull(MenuItemReviewSpecifications.reviewedOnOrBefore(null));
+  }
+
+  @Test
+  public void hasItemId_compares_item_id() {
+    when(root.get("itemId")).thenReturn(path);
+    when(cb.equal(path, 10L)).thenReturn(predicate);
+    assertSame(predicate, MenuItemReviewSpecifications.hasItemId(10L).toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void hasReviewerEmail_compares_email() {
+    when(root.get("reviewerEmail")).thenReturn(path);
+    when(cb.equal(path, "a@ucsb.edu")).thenReturn(predicate);
+    assertSame(
+        predicate,
+        MenuItemReviewSpecifications.hasReviewerEmail("a@ucsb.edu").toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void star_range_uses_inclusive_bounds() {
+    Path<Integer> stars = mock(Path.class);
+    when(root.<Integer>get("stars")).thenReturn(stars);
+    when(cb.greaterThanOrEqualTo(stars, 2)).thenReturn(predicate);
+    Predicate upper = mock(Predicate.class);
+    when(cb.lessThanOrEqualTo(stars, 4)).thenReturn(upper);
+
+    assertSame(
+        predicate, MenuItemReviewSpecifications.starsAtLeast(2).toPredicate(root, query, cb));
+    assertSame(upper, MenuItemReviewSpecifications.starsAtMost(4).toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void date_range_uses_inclusive_bounds() {
+    LocalDateTime from = LocalDateTime.parse("2022-01-01T00:00:00");
+    LocalDateTime to = LocalDateTime.parse("2022-12-31T23:59:59");
+    Path<LocalDateTime> dateReviewed = mock(Path.class);
+    when(root.<LocalDateTime>get("dateReviewed")).thenReturn(dateReviewed);
+    when(cb.greaterThanOrEqualTo(dateReviewed, from)).thenReturn(predicate);
+    Predicate upper = mock(Predicate.class);
+    when(cb.lessThanOrEqualTo(dateReviewed, to)).thenReturn(upper);
+
+    assertSame(
+        predicate,
+        MenuItemReviewSpecifications.reviewedOnOrAfter(from).toPredicate(root, query, cb));
+    assertSame(
+        upper, MenuItemReviewSpecifications.reviewedOnOrBefore(to).toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void search_combines_present_filters() {
+    when(root.get("itemId")).thenReturn(path);
+    when(cb.equal(path, 10L)).thenReturn(predicate);
+
+    Specification<MenuItemReview> spec =
+        MenuItemReviewSpecifications.search(10L, null, null, null, null, null);
+    assertNotNull(spec);
+    spec.toPredicate(root, query, cb);
+
+    verify(cb).equal(path, 10L);
+  }
+}
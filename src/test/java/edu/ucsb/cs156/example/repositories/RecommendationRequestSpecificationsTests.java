@@ -0,0 +1,146 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+@SuppressWarnings("unchecked")
+public class RecommendationRequestSpecificationsTests {
+
+  private Root<RecommendationRequest> root;
+  private CriteriaQuery<?> query;
+  private CriteriaBuilder cb;
+  private Path<Object> path;
+  private Path<LocalDateTime> dateNeeded;
+  private Predicate predicate;
+
+  private final LocalDateTime cursor = LocalDateTime.parse("2025-11-01T12:00:00");
+
+  @BeforeEach
+  public void setup() {
+    root = mock(Root.class);
+    query = mock(CriteriaQuery.class);
+    cb = mock(CriteriaBuilder.class);
+    path = mock(Path.class);
+    dateNeeded = mock(Path.class);
+    predicate = mock(Predicate.class);
+    when(root.<LocalDateTime>get("dateNeeded")).thenReturn(dateNeeded);
+  }
+
+  @Test
+  public void absent_filters_produce_no_specification() {
+    assertNull(RecommendationRequestSpecifications.hasProfessorEmail(null));
+    assertNull(RecommendationRequestSpecifications.hasRequesterEmail(null));
+    assertNull(RecommendationRequestSpecifications.isDone(null));
+    assertNull(RecommendationRequestSpecifications.neededOnOrAfter(null));
+    assertNull(RecommendationRequestSpecifications.neededOnOrBefore(null));
+    assertNull(RecommendationRequestSpecifications.after(null, 5L));
+  }
+
+  @Test
+  public void hasDateNeeded_excludes_null_deadlines() {
+    when(cb.isNotNull(dateNeeded)).thenReturn(predicate);
+    assertSame(
+        predicate,
+        RecommendationRequestSpecifications.hasDateNeeded().toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void equality_filters_compare_their_field() {
+    when(root.get("professorEmail")).thenReturn(path);
+    when(cb.equal(path, "prof@ucsb.edu")).thenReturn(predicate);
+    assertSame(
+        predicate,
+        RecommendationRequestSpecifications.hasProfessorEmail("prof@ucsb.edu")
+            .toPredicate(root, query, cb));
+
+    Path<Object> requester = mock(Path.class);
+    Predicate requesterPredicate = mock(Predicate.class);
+    when(root.get("requesterEmail")).thenReturn(requester);
+    when(cb.equal(requester, "student@ucsb.edu")).thenReturn(requesterPredicate);
+    assertSame(
+        requesterPredicate,
+        RecommendationRequestSpecifications.hasRequesterEmail("student@ucsb.edu")
+            .toPredicate(root, query, cb));
+
+    Path<Object> done = mock(Path.class);
+    Predicate donePredicate = mock(Predicate.class);
+    when(root.get("done")).thenReturn(done);
+    when(cb.equal(done, false)).thenReturn(donePredicate);
+    assertSame(
+        donePredicate,
+        RecommendationRequestSpecifications.isDone(false).toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void date_range_uses_inclusive_bounds() {
+    LocalDateTime from = LocalDateTime.parse("2025-10-01T00:00:00");
+    LocalDateTime to = LocalDateTime.parse("2025-12-31T23:59:59");
+    when(cb.greaterThanOrEqualTo(dateNeeded, from)).thenReturn(predicate);
+    Predicate upper = mock(Predicate.class);
+    when(cb.lessThanOrEqualTo(dateNeeded, to)).thenReturn(upper);
+
+    assertSame(
+        predicate,
+        RecommendationRequestSpecifications.neededOnOrAfter(from).toPredicate(root, query, cb));
+    assertSame(
+        upper,
+        RecommendationRequestSpecifications.neededOnOrBefore(to).toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void after_with_id_seeks_past_the_last_row() {
+    Path<Long> id = mock(Path.class);
+    when(root.<Long>get("id")).thenReturn(id);
+    Predicate laterDate = mock(Predicate.class);
+    Predicate sameDate = mock(Predicate.class);
+    Predicate laterId = mock(Predicate.class);
+    Predicate sameDateLaterId = mock(Predicate.class);
+    when(cb.greaterThan(dateNeeded, cursor)).thenReturn(laterDate);
+    when(cb.equal(dateNeeded, cursor)).thenReturn(sameDate);
+    when(cb.greaterThan(id, 7L)).thenReturn(laterId);
+    when(cb.and(sameDate, laterId)).thenReturn(sameDateLaterId);
+    when(cb.or(laterDate, sameDateLaterId)).thenReturn(predicate);
+
+    assertSame(
+        predicate,
+        RecommendationRequestSpecifications.after(cursor, 7L).toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void after_without_id_is_strictly_later() {
+    when(cb.greaterThan(dateNeeded, cursor)).thenReturn(predicate);
+    assertSame(
+        predicate,
+        RecommendationRequestSpecifications.after(cursor, null).toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void search_combines_present_filters() {
+    when(root.get("professorEmail")).thenReturn(path);
+    when(cb.equal(path, "prof@ucsb.edu")).thenReturn(predicate);
+
+    Specification<RecommendationRequest> spec =
+        RecommendationRequestSpecifications.search(
+            "prof@ucsb.edu", null, null, null, null, null, null);
+    assertNotNull(spec);
+    spec.toPredicate(root, query, cb);
+
+    verify(cb).isNotNull(dateNeeded);
+    verify(cb).equal(path, "prof@ucsb.edu");
+  }
+}
@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+@SuppressWarnings("unchecked")
+public class UserSpecificationsTests {
+
+  private Root<User> root;
+  private CriteriaQuery<?> query;
+  private CriteriaBuilder cb;
+  private Path<Object> path;
+  private Predicate predicate;
+
+  @BeforeEach
+  public void setup() {
+    root = mock(Root.class);
+    query = mock(CriteriaQuery.class);
+    cb = mock(CriteriaBuilder.class);
+    path = mock(Path.class);
+    predicate = mock(Predicate.class);
+  }
+
+  @Test
+  public void absent_filters_produce_no_specification() {
+    assertNull(UserSpecifications.emailStartsWith(null));
+    assertNull(UserSpecifications.emailStartsWith(""));
+    assertNull(UserSpecifications.isAdmin(null));
+    assertNull(UserSpecifications.hasHostedDomain(null));
+    assertNull(UserSpecifications.after(null));
+  }
+
+  @Test
+  public void email_prefix_is_a_like_with_wildcards_escaped() {
+    Path<String> email = mock(Path.class);
+    when(root.<String>get("email")).thenReturn(email);
+    when(cb.like(email, "cgaucho%", '\\')).thenReturn(predicate);
+    Predicate escaped = mock(Predicate.class);
+    when(cb.like(email, "a\\_b\\%c\\\\%", '\\')).thenReturn(escaped);
+
+    assertSame(
+        predicate, UserSpecifications.emailStartsWith("cgaucho").toPredicate(root, query, cb));
+    assertSame(escaped, UserSpecifications.emailStartsWith("a_b%c\\").toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void equality_filters_compare_their_field() {
+    when(root.get("admin")).thenReturn(path);
+    when(cb.equal(path, true)).thenReturn(predicate);
+    assertSame(predicate, UserSpecifications.isAdmin(true).toPredicate(root, query, cb));
+
+    Path<Object> hostedDomain = mock(Path.class);
+    Predicate domainPredicate = mock(Predicate.class);
+    when(root.get("hostedDomain")).thenReturn(hostedDomain);
+    when(cb.equal(hostedDomain, "ucsb.edu")).thenReturn(domainPredicate);
+    assertSame(
+        domainPredicate,
+        UserSpecifications.hasHostedDomain("ucsb.edu").toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void after_seeks_past_the_last_id() {
+    Path<Long> id = mock(Path.class);
+    when(root.<Long>get("id")).thenReturn(id);
+    when(cb.greaterThan(id, 7L)).thenReturn(predicate);
+    assertSame(predicate, UserSpecifications.after(7L).toPredicate(root, query, cb));
+  }
+
+  @Test
+  public void search_combines_present_filters() {
+    when(root.get("admin")).thenReturn(path);
+    Path<Object> hostedDomain = mock(Path.class);
+    when(root.get("hostedDomain")).thenReturn(hostedDomain);
+
+    Specification<User> spec = UserSpecifications.search(null, false, "ucsb.edu", null);
+    assertNotNull(spec);
+    spec.toPredicate(root, query, cb);
+
+    verify(cb).equal(path, false);
+    verify(cb).equal(hostedDomain, "ucsb.edu");
+  }
+}
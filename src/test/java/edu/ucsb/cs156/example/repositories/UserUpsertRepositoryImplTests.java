@@ -0,0 +1,152 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.entities.User;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class UserUpsertRepositoryImplTests {
+
+  private JdbcDataSource dataSource;
+  private UserUpsertRepositoryImpl repository;
+
+  @BeforeEach
+  public void setup() {
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:users-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute(
+        "CREATE TABLE USERS (ID BIGINT AUTO_INCREMENT PRIMARY KEY, ADMIN BOOLEAN NOT NULL,"
+            + " EMAIL VARCHAR(255), EMAIL_VERIFIED BOOLEAN NOT NULL, FAMILY_NAME VARCHAR(255),"
+            + " FULL_NAME VARCHAR(255), GIVEN_NAME VARCHAR(255), GOOGLE_SUB VARCHAR(255),"
+            + " HOSTED_DOMAIN VARCHAR(255), LOCALE VARCHAR(255), PICTURE_URL VARCHAR(255))");
+    jdbc.execute("CREATE UNIQUE INDEX UX_USERS_EMAIL ON USERS (EMAIL)");
+    repository = new UserUpsertRepositoryImpl();
+    repository.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+  }
+
+  private static User user(String email, String fullName, boolean admin) {
+    return User.builder()
+        .email(email)
+        .googleSub("sub-" + email)
+        .pictureUrl("https://example.org/" + email + ".jpg")
+        .fullName(fullName)
+        .givenName("Given")
+        .familyName("Family")
+        .emailVerified(true)
+        .locale("en")
+        .hostedDomain("ucsb.edu")
+        .admin(admin)
+        .build();
+  }
+
+  private int count(String email) {
+    return new JdbcTemplate(dataSource)
+        .queryForObject("SELECT COUNT(*) FROM USERS WHERE EMAIL = ?", Integer.class, email);
+  }
+
+  @Test
+  public void a_new_user_is_inserted_and_returned_with_its_id() {
+    User stored = repository.upsertByEmail(user("alice@ucsb.edu", "Alice", true));
+
+    assertTrue(stored.getId() > 0);
+    User expected = user("alice@ucsb.edu", "Alice", true);
+    expected.setId(stored.getId());
+    assertEquals(expected, stored);
+    assertEquals(1, count("alice@ucsb.edu"));
+  }
+
+  @Test
+  public void an_existing_user_is_returned_unchanged() {
+    User first = repository.upsertByEmail(user("alice@ucsb.edu", "Alice", false));
+    User second = repository.upsertByEmail(user("alice@ucsb.edu", "Someone Else", true));
+
+    assertEquals(first, second);
+    assertEquals("Alice", second.getFullName());
+    assertFalse(second.getAdmin());
+    assertEquals(1, count("alice@ucsb.edu"));
+  }
+
+  @Test
+  public void parallel_first_logins_store_one_row() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<User>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(
+            pool.submit(
+                () -> {
+                  start.await();
+                  return repository.upsertByEmail(user("bob@ucsb.edu", "Bob", false));
+                }));
+      }
+      start.countDown();
+      long id = results.get(0).get().getId();
+      for (Future<User> result : results) {
+        assertEquals(id, result.get().getId());
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(1, count("bob@ucsb.edu"));
+  }
+
+  @Test
+  public void losing_a_race_to_an_uncommitted_insert_returns_the_winning_row() throws Exception {
+    try (Connection winner = dataSource.getConnection()) {
+      winner.setAutoCommit(false);
+      long winnerId;
+      try (PreparedStatement insert =
+          winner.prepareStatement(
+              "INSERT INTO USERS (EMAIL, ADMIN, EMAIL_VERIFIED, FULL_NAME) VALUES (?, TRUE, TRUE, ?)",
+              new String[] {"ID"})) {
+        insert.setString(1, "carol@ucsb.edu");
+        insert.setString(2, "Carol");
+        insert.executeUpdate();
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+          keys.next();
+          winnerId = keys.getLong(1);
+        }
+      }
+
+      CompletableFuture<User> loser =
+          CompletableFuture.supplyAsync(
+              () -> repository.upsertByEmail(user("carol@ucsb.edu", "Not Carol", false)));
+      Thread.sleep(200);
+      winner.commit();
+
+      User stored = loser.get();
+      assertEquals(winnerId, stored.getId());
+      assertEquals("Carol", stored.getFullName());
+    }
+    assertEquals(1, count("carol@ucsb.edu"));
+  }
+
+  @Test
+  public void postgres_uses_insert_on_conflict() {
+    assertEquals(
+        UserUpsertRepositoryImpl.POSTGRES_UPSERT,
+        UserUpsertRepositoryImpl.upsertSqlFor("PostgreSQL"));
+    assertTrue(UserUpsertRepositoryImpl.POSTGRES_UPSERT.contains("ON CONFLICT (EMAIL) DO NOTHING"));
+    assertEquals(
+        UserUpsertRepositoryImpl.MERGE_UPSERT, UserUpsertRepositoryImpl.upsertSqlFor("H2"));
+  }
+}
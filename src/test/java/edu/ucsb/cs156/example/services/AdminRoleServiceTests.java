@@ -0,0 +1,148 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.AdminRoleCacheStats;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class AdminRoleServiceTests {
+
+  @Mock private UserRepository userRepository;
+
+  @InjectMocks private AdminRoleService adminRoleService;
+
+  private final AtomicLong now = new AtomicLong();
+
+  private final User alice = User.builder().id(1L).email("alice@ucsb.edu").admin(true).build();
+  private final User bob = User.builder().id(2L).email("bob@ucsb.edu").admin(false).build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    adminRoleService.adminEmails = Set.of("phtcon@ucsb.edu");
+    adminRoleService.ttlMs = 600000;
+    adminRoleService.clock = now::get;
+    when(userRepository.findByEmail("alice@ucsb.edu")).thenReturn(Optional.of(alice));
+    when(userRepository.findByEmail("bob@ucsb.edu")).thenReturn(Optional.of(bob));
+    when(userRepository.findByEmail("nobody@ucsb.edu")).thenReturn(Optional.empty());
+  }
+
+  private void advanceMillis(long millis) {
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  @Test
+  public void listed_admins_do_not_touch_the_database() {
+    assertTrue(adminRoleService.isListedAdmin("phtcon@ucsb.edu"));
+    assertFalse(adminRoleService.isListedAdmin("alice@ucsb.edu"));
+    assertTrue(adminRoleService.isAdmin("phtcon@ucsb.edu"));
+    verify(userRepository, never()).findByEmail(any());
+  }
+
+  @Test
+  public void the_stored_admin_flag_is_read_once_and_cached() {
+    assertTrue(adminRoleService.isAdmin("alice@ucsb.edu"));
+    assertTrue(adminRoleService.isAdmin("alice@ucsb.edu"));
+    assertFalse(adminRoleService.isAdmin("bob@ucsb.edu"));
+    assertFalse(adminRoleService.isAdmin("bob@ucsb.edu"));
+    assertFalse(adminRoleService.isAdmin("nobody@ucsb.edu"));
+    assertFalse(adminRoleService.isAdmin("nobody@ucsb.edu"));
+    verify(userRepository, times(1)).findByEmail("alice@ucsb.edu");
+    verify(userRepository, times(1)).findByEmail("bob@ucsb.edu");
+    verify(userRepository, times(1)).findByEmail("nobody@ucsb.edu");
+  }
+
+  @Test
+  public void the_flag_is_read_again_after_the_ttl() {
+    adminRoleService.isAdmin("alice@ucsb.edu");
+    advanceMillis(599999);
+    adminRoleService.isAdmin("alice@ucsb.edu");
+    verify(userRepository, times(1)).findByEmail("alice@ucsb.edu");
+    advanceMillis(1);
+    adminRoleService.isAdmin("alice@ucsb.edu");
+    verify(userRepository, times(2)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void saving_a_user_replaces_the_cached_flag() {
+    assertFalse(adminRoleService.isAdmin("bob@ucsb.edu"));
+    adminRoleService.userSaved(User.builder().id(2L).email("bob@ucsb.edu").admin(true).build());
+    assertTrue(adminRoleService.isAdmin("bob@ucsb.edu"));
+    verify(userRepository, times(1)).findByEmail("bob@ucsb.edu");
+  }
+
+  @Test
+  public void evict_makes_the_next_lookup_read_the_database() {
+    adminRoleService.isAdmin("bob@ucsb.edu");
+    adminRoleService.evict("bob@ucsb.edu");
+    adminRoleService.isAdmin("bob@ucsb.edu");
+    verify(userRepository, times(2)).findByEmail("bob@ucsb.edu");
+  }
+
+  @Test
+  public void purge_drops_only_expired_flags() {
+    adminRoleService.isAdmin("alice@ucsb.edu");
+    advanceMillis(300000);
+    adminRoleService.isAdmin("bob@ucsb.edu");
+    advanceMillis(300000);
+    adminRoleService.purgeExpired();
+    assertEquals(1, adminRoleService.stats().getSize());
+  }
+
+  @Test
+  public void stats_count_listed_hits_and_misses() {
+    assertEquals(new AdminRoleCacheStats(0, 0, 0, 0, 0), adminRoleService.stats());
+
+    adminRoleService.isAdmin("phtcon@ucsb.edu");
+    adminRoleService.isAdmin("alice@ucsb.edu");
+    adminRoleService.isAdmin("alice@ucsb.edu");
+    adminRoleService.isAdmin("alice@ucsb.edu");
+    adminRoleService.isAdmin("bob@ucsb.edu");
+
+    assertEquals(new AdminRoleCacheStats(1, 2, 2, 0.5, 2), adminRoleService.stats());
+  }
+
+  @Test
+  public void hits_and_misses_are_published_as_the_admin_roles_cache() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    adminRoleService.bindTo(registry);
+
+    adminRoleService.isAdmin("phtcon@ucsb.edu"); // listed, neither
+    adminRoleService.isAdmin("alice@ucsb.edu"); // miss
+    adminRoleService.isAdmin("alice@ucsb.edu"); // hit
+
+    assertEquals(
+        1.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "adminRoles", "result", "hit")
+            .functionCounter()
+            .count());
+    assertEquals(
+        1.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "adminRoles", "result", "miss")
+            .functionCounter()
+            .count());
+    assertEquals(1.0, registry.get("cache.size").tag("cache", "adminRoles").gauge().value());
+  }
+}
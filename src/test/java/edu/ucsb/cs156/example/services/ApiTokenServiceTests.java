@@ -0,0 +1,187 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.ApiToken;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.IssuedApiToken;
+import edu.ucsb.cs156.example.repositories.ApiTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class ApiTokenServiceTests {
+
+  @Mock private ApiTokenRepository apiTokenRepository;
+
+  @InjectMocks private ApiTokenService apiTokenService;
+
+  private final AtomicLong now = new AtomicLong();
+
+  private final User alice = User.builder().id(1L).email("alice@ucsb.edu").build();
+
+  private final ApiToken stored =
+      ApiToken.builder()
+          .id(7L)
+          .user(alice)
+          .name("load test")
+          .tokenHash(ApiTokenService.hash("cs156_secret"))
+          .build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    apiTokenService.ttlMs = 60000;
+    apiTokenService.clock = now::get;
+    when(apiTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+    when(apiTokenRepository.findByTokenHash(ApiTokenService.hash("cs156_secret")))
+        .thenReturn(Optional.of(stored));
+  }
+
+  private void advanceMillis(long millis) {
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  @Test
+  public void issued_tokens_are_random_and_only_their_hash_is_stored() {
+    when(apiTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    IssuedApiToken first = apiTokenService.issue(alice, "load test");
+    IssuedApiToken second = apiTokenService.issue(alice, "load test");
+
+    assertTrue(first.getToken().startsWith("cs156_"), first.getToken());
+    assertEquals(6 + 43, first.getToken().length());
+    assertNotEquals(first.getToken(), second.getToken());
+    assertEquals("alice@ucsb.edu", first.getEmail());
+    assertEquals("load test", first.getName());
+
+    ArgumentCaptor<ApiToken> saved = ArgumentCaptor.forClass(ApiToken.class);
+    verify(apiTokenRepository, times(2)).save(saved.capture());
+    ApiToken token = saved.getAllValues().get(0);
+    assertSame(alice, token.getUser());
+    assertEquals(ApiTokenService.hash(first.getToken()), token.getTokenHash());
+    assertEquals(64, token.getTokenHash().length());
+    assertNotNull(token.getCreatedAt());
+  }
+
+  @Test
+  public void a_token_is_read_from_the_database_once_per_ttl() {
+    assertSame(alice, apiTokenService.authenticate("cs156_secret").get());
+    advanceMillis(59999);
+    assertSame(alice, apiTokenService.authenticate("cs156_secret").get());
+    verify(apiTokenRepository, times(1)).findByTokenHash(ApiTokenService.hash("cs156_secret"));
+
+    advanceMillis(1);
+    assertSame(alice, apiTokenService.authenticate("cs156_secret").get());
+    verify(apiTokenRepository, times(2)).findByTokenHash(ApiTokenService.hash("cs156_secret"));
+  }
+
+  @Test
+  public void unknown_tokens_are_rejected_and_not_cached() {
+    assertTrue(apiTokenService.authenticate("cs156_guess").isEmpty());
+    assertTrue(apiTokenService.authenticate("cs156_guess").isEmpty());
+    verify(apiTokenRepository, times(2)).findByTokenHash(ApiTokenService.hash("cs156_guess"));
+  }
+
+  @Test
+  public void find_cached_answers_only_from_memory() {
+    assertTrue(apiTokenService.findCached("cs156_secret").isEmpty());
+    apiTokenService.authenticate("cs156_secret");
+    assertSame(alice, apiTokenService.findCached("cs156_secret").get());
+    assertTrue(apiTokenService.findCached("cs156_guess").isEmpty());
+
+    advanceMillis(60000);
+    assertTrue(apiTokenService.findCached("cs156_secret").isEmpty());
+    verify(apiTokenRepository, times(1)).findByTokenHash(ApiTokenService.hash("cs156_secret"));
+  }
+
+  @Test
+  public void a_token_deleted_elsewhere_is_rejected_once_its_entry_expires() {
+    apiTokenService.authenticate("cs156_secret");
+    when(apiTokenRepository.findByTokenHash(ApiTokenService.hash("cs156_secret")))
+        .thenReturn(Optional.empty());
+
+    advanceMillis(60000);
+    assertTrue(apiTokenService.authenticate("cs156_secret").isEmpty());
+    assertTrue(apiTokenService.authenticate("cs156_secret").isEmpty());
+    verify(apiTokenRepository, times(3)).findByTokenHash(ApiTokenService.hash("cs156_secret"));
+  }
+
+  @Test
+  public void a_revoked_token_is_rejected_at_once() {
+    apiTokenService.authenticate("cs156_secret");
+    when(apiTokenRepository.findByTokenHash(ApiTokenService.hash("cs156_secret")))
+        .thenReturn(Optional.empty());
+
+    apiTokenService.revoke(stored);
+
+    verify(apiTokenRepository).delete(stored);
+    assertTrue(apiTokenService.authenticate("cs156_secret").isEmpty());
+  }
+
+  @Test
+  public void with_a_ttl_of_zero_every_call_reads_the_database() {
+    apiTokenService.ttlMs = 0;
+    apiTokenService.authenticate("cs156_secret");
+    apiTokenService.authenticate("cs156_secret");
+    verify(apiTokenRepository, times(2)).findByTokenHash(ApiTokenService.hash("cs156_secret"));
+  }
+
+  @Test
+  public void purge_drops_only_expired_entries() {
+    apiTokenService.authenticate("cs156_secret");
+    advanceMillis(30000);
+    apiTokenService.purgeExpired();
+    apiTokenService.authenticate("cs156_secret");
+    verify(apiTokenRepository, times(1)).findByTokenHash(ApiTokenService.hash("cs156_secret"));
+
+    advanceMillis(30000);
+    apiTokenService.purgeExpired();
+    // the expired entry is gone, so the next call reads the database again
+    when(apiTokenRepository.findByTokenHash(ApiTokenService.hash("cs156_secret")))
+        .thenReturn(Optional.empty());
+    assertTrue(apiTokenService.authenticate("cs156_secret").isEmpty());
+  }
+
+  @Test
+  public void checks_are_published_as_the_api_tokens_cache() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    apiTokenService.bindTo(registry);
+
+    apiTokenService.authenticate("cs156_secret");
+    apiTokenService.authenticate("cs156_secret");
+    apiTokenService.findCached("cs156_secret");
+    apiTokenService.authenticate("cs156_guess");
+
+    assertEquals(
+        2.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "apiTokens", "result", "hit")
+            .functionCounter()
+            .count());
+    assertEquals(
+        2.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "apiTokens", "result", "miss")
+            .functionCounter()
+            .count());
+    assertEquals(1.0, registry.get("cache.size").tag("cache", "apiTokens").gauge().value());
+  }
+}
@@ -0,0 +1,149 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+public class ArticleSearchServiceTests {
+
+  @Mock private ArticlesRepository articlesRepository;
+
+  @InjectMocks private ArticleSearchService articleSearchService;
+
+  private final Article springTitle =
+      Article.builder()
+          .id(1L)
+          .title("Spring Boot in Practice")
+          .url("https://example.org/boot")
+          .explanation("A book about building apps")
+          .build();
+  private final Article springExplanation =
+      Article.builder()
+          .id(2L)
+          .title("Java Testing")
+          .url("https://example.org/testing")
+          .explanation("Testing Spring apps with JUnit")
+          .build();
+  private final Article unrelated =
+      Article.builder()
+          .id(3L)
+          .title("Cooking for Students")
+          .url("https://example.org/food")
+          .explanation(null)
+          .build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(articlesRepository.findAll())
+        .thenReturn(List.of(springTitle, springExplanation, unrelated));
+    articleSearchService.rebuild();
+  }
+
+  private List<Long> ids(Page<Article> page) {
+    return page.getContent().stream().map(Article::getId).toList();
+  }
+
+  @Test
+  void tokenize_lowercases_and_splits_on_punctuation() {
+    assertEquals(
+        List.of("https", "example", "org", "spring", "boot"),
+        ArticleSearchService.tokenize("https://Example.org/Spring-Boot"));
+    assertEquals(List.of(), ArticleSearchService.tokenize(null));
+    assertEquals(List.of(), ArticleSearchService.tokenize("  --  "));
+  }
+
+  @Test
+  void title_matches_rank_above_explanation_matches() {
+    Page<Article> page = articleSearchService.search("SPRING", PageRequest.of(0, 10));
+
+    assertEquals(List.of(1L, 2L), ids(page));
+    assertEquals(2, page.getTotalElements());
+  }
+
+  @Test
+  void documents_matching_more_terms_rank_higher() {
+    Page<Article> page = articleSearchService.search("testing spring", PageRequest.of(0, 10));
+
+    assertEquals(List.of(2L, 1L), ids(page));
+  }
+
+  @Test
+  void url_terms_are_searchable() {
+    assertEquals(List.of(3L), ids(articleSearchService.search("food", PageRequest.of(0, 10))));
+  }
+
+  @Test
+  void unknown_and_empty_queries_match_nothing() {
+    assertEquals(List.of(), ids(articleSearchService.search("zebra", PageRequest.of(0, 10))));
+    assertEquals(List.of(), ids(articleSearchService.search("", PageRequest.of(0, 10))));
+  }
+
+  @Test
+  void results_are_paged() {
+    Page<Article> second = articleSearchService.search("example", PageRequest.of(1, 2));
+    assertEquals(List.of(3L), ids(second));
+    assertEquals(3, second.getTotalElements());
+
+    Page<Article> beyond = articleSearchService.search("example", PageRequest.of(5, 2));
+    assertEquals(List.of(), ids(beyond));
+  }
+
+  @Test
+  void reindexing_replaces_old_terms() {
+    articleSearchService.index(
+        Article.builder().id(3L).title("Vegan cooking").url("").explanation("").build());
+
+    assertEquals(List.of(), ids(articleSearchService.search("students", PageRequest.of(0, 10))));
+    assertEquals(List.of(3L), ids(articleSearchService.search("vegan", PageRequest.of(0, 10))));
+  }
+
+  @Test
+  void removed_articles_are_no_longer_found() {
+    articleSearchService.remove(1L);
+    articleSearchService.remove(42L);
+
+    assertEquals(List.of(2L), ids(articleSearchService.search("spring", PageRequest.of(0, 10))));
+    assertEquals(List.of(), ids(articleSearchService.search("boot", PageRequest.of(0, 10))));
+  }
+
+  @Test
+  void rebuild_returns_number_of_articles() {
+    when(articlesRepository.findAll()).thenReturn(List.of(unrelated));
+
+    assertEquals(1, articleSearchService.rebuild());
+    assertEquals(List.of(), ids(articleSearchService.search("spring", PageRequest.of(0, 10))));
+  }
+
+  @Test
+  void an_article_saved_during_a_rebuild_is_not_wiped_by_it() throws Exception {
+    Article saved =
+        Article.builder().id(4L).title("Tacos").url("https://example.org/tacos").build();
+    CompletableFuture<?>[] indexing = new CompletableFuture<?>[1];
+    when(articlesRepository.findAll())
+        .thenAnswer(
+            invocation -> {
+              // saved after the rebuild read the table, and indexed while it runs
+              indexing[0] = CompletableFuture.runAsync(() -> articleSearchService.index(saved));
+              Thread.sleep(100);
+              return List.of(unrelated);
+            });
+
+    articleSearchService.rebuild();
+    indexing[0].get(10, TimeUnit.SECONDS);
+
+    assertEquals(List.of(4L), ids(articleSearchService.search("tacos", PageRequest.of(0, 10))));
+  }
+}
@@ -0,0 +1,119 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class DiningCommonsLocationServiceTests {
+
+  @Mock private UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @InjectMocks private DiningCommonsLocationService diningCommonsLocationService;
+
+  private final UCSBDiningCommons ortega =
+      UCSBDiningCommons.builder()
+          .code("ortega")
+          .name("Ortega")
+          .hasSackMeal(true)
+          .hasTakeOutMeal(true)
+          .hasDiningCam(true)
+          .latitude(34.410987)
+          .longitude(-119.84709)
+          .build();
+  private final UCSBDiningCommons carrillo =
+      UCSBDiningCommons.builder()
+          .code("carrillo")
+          .name("Carrillo")
+          .hasSackMeal(false)
+          .hasTakeOutMeal(false)
+          .hasDiningCam(true)
+          .latitude(34.409953)
+          .longitude(-119.85277)
+          .build();
+  private final UCSBDiningCommons portola =
+      UCSBDiningCommons.builder()
+          .code("portola")
+          .name("Portola")
+          .hasSackMeal(true)
+          .hasTakeOutMeal(false)
+          .hasDiningCam(false)
+          .latitude(34.417723)
+          .longitude(-119.867427)
+          .build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(ortega, carrillo, portola));
+    diningCommonsLocationService.rebuild();
+  }
+
+  private List<String> nearestCodes(
+      int k, Boolean hasSackMeal, Boolean hasTakeOutMeal, Boolean hasDiningCam) {
+    return diningCommonsLocationService
+        .nearest(34.4105, -119.8480, k, hasSackMeal, hasTakeOutMeal, hasDiningCam)
+        .stream()
+        .map(NearbyDiningCommons::getCommons)
+        .map(UCSBDiningCommons::getCode)
+        .toList();
+  }
+
+  @Test
+  public void nearest_without_filters_returns_closest_first() {
+    assertEquals(List.of("ortega", "carrillo", "portola"), nearestCodes(3, null, null, null));
+    assertEquals(List.of("ortega"), nearestCodes(1, null, null, null));
+  }
+
+  @Test
+  public void nearest_applies_each_filter() {
+    assertEquals(List.of("ortega", "portola"), nearestCodes(3, true, null, null));
+    assertEquals(List.of("carrillo"), nearestCodes(3, false, null, null));
+    assertEquals(List.of("carrillo", "portola"), nearestCodes(3, null, false, null));
+    assertEquals(List.of("ortega"), nearestCodes(3, null, true, null));
+    assertEquals(List.of("portola"), nearestCodes(3, null, null, false));
+    assertEquals(List.of("ortega", "carrillo"), nearestCodes(3, null, null, true));
+    assertEquals(List.of("ortega"), nearestCodes(3, true, true, true));
+  }
+
+  @Test
+  public void within_applies_the_box_and_filters() {
+    assertEquals(
+        List.of(carrillo, ortega, portola),
+        diningCommonsLocationService.within(34.4, 34.5, -119.9, -119.8, null, null, null));
+    assertEquals(
+        List.of(portola),
+        diningCommonsLocationService.within(34.4, 34.5, -119.9, -119.8, true, false, false));
+    assertEquals(
+        List.of(carrillo, ortega),
+        diningCommonsLocationService.within(34.40, 34.415, -119.9, -119.8, null, null, null));
+  }
+
+  @Test
+  public void saved_and_deleted_commons_update_the_index() {
+    UCSBDiningCommons movedPortola =
+        UCSBDiningCommons.builder()
+            .code("portola")
+            .name("Portola")
+            .hasSackMeal(true)
+            .hasTakeOutMeal(false)
+            .hasDiningCam(false)
+            .latitude(34.4106)
+            .longitude(-119.8481)
+            .build();
+
+    diningCommonsLocationService.commonsSaved(movedPortola);
+    assertEquals(List.of("portola", "ortega", "carrillo"), nearestCodes(3, null, null, null));
+
+    diningCommonsLocationService.commonsDeleted("ortega");
+    assertEquals(List.of("portola", "carrillo"), nearestCodes(3, null, null, null));
+  }
+}
@@ -0,0 +1,132 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.DiningCommonsMenuStation;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class DiningCommonsMenuServiceTests {
+
+  @Mock private UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Mock private UCSBDiningCommonsMenuItemsRepository ucsbDiningCommonsMenuItemsRepository;
+
+  @InjectMocks private DiningCommonsMenuService diningCommonsMenuService;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final UCSBDiningCommonsMenuItems burger =
+      UCSBDiningCommonsMenuItems.builder()
+          .id(1L)
+          .diningCommonsCode("ortega")
+          .name("Burger")
+          .station("Grill")
+          .build();
+  private final UCSBDiningCommonsMenuItems fries =
+      UCSBDiningCommonsMenuItems.builder()
+          .id(2L)
+          .diningCommonsCode("ortega")
+          .name("Fries")
+          .station("Grill")
+          .build();
+  private final UCSBDiningCommonsMenuItems salad =
+      UCSBDiningCommonsMenuItems.builder()
+          .id(3L)
+          .diningCommonsCode("ortega")
+          .name("Salad")
+          .station("Greens")
+          .build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    diningCommonsMenuService.mapper = mapper;
+    when(ucsbDiningCommonsRepository.existsById("ortega")).thenReturn(true);
+    when(ucsbDiningCommonsMenuItemsRepository.findByDiningCommonsCodeOrderByStationAscNameAsc(
+            "ortega"))
+        .thenReturn(List.of(salad, burger, fries));
+  }
+
+  @Test
+  public void menu_is_grouped_by_station_in_query_order() throws Exception {
+    byte[] json = diningCommonsMenuService.getMenuJson("ortega");
+
+    List<DiningCommonsMenuStation> expected =
+        List.of(
+            DiningCommonsMenuStation.builder().station("Greens").items(List.of(salad)).build(),
+            DiningCommonsMenuStation.builder()
+                .station("Grill")
+                .items(List.of(burger, fries))
+                .build());
+    assertArrayEquals(mapper.writeValueAsBytes(expected), json);
+  }
+
+  @Test
+  public void menu_is_cached_until_evicted() {
+    byte[] first = diningCommonsMenuService.getMenuJson("ortega");
+    assertSame(first, diningCommonsMenuService.getMenuJson("ortega"));
+    verify(ucsbDiningCommonsMenuItemsRepository, times(1))
+        .findByDiningCommonsCodeOrderByStationAscNameAsc("ortega");
+
+    diningCommonsMenuService.evict("ortega");
+    diningCommonsMenuService.evict(null);
+    diningCommonsMenuService.getMenuJson("ortega");
+    verify(ucsbDiningCommonsMenuItemsRepository, times(2))
+        .findByDiningCommonsCodeOrderByStationAscNameAsc("ortega");
+  }
+
+  @Test
+  public void empty_commons_has_an_empty_menu() {
+    when(ucsbDiningCommonsRepository.existsById("portola")).thenReturn(true);
+    when(ucsbDiningCommonsMenuItemsRepository.findByDiningCommonsCodeOrderByStationAscNameAsc(
+            "portola"))
+        .thenReturn(List.of());
+
+    assertEquals("[]", new String(diningCommonsMenuService.getMenuJson("portola")));
+  }
+
+  @Test
+  public void unknown_commons_throws_and_is_not_cached() {
+    EntityNotFoundException e =
+        assertThrows(
+            EntityNotFoundException.class,
+            () -> diningCommonsMenuService.getMenuJson("munger-hall"));
+    assertEquals("UCSBDiningCommons with id munger-hall not found", e.getMessage());
+
+    assertThrows(
+        EntityNotFoundException.class, () -> diningCommonsMenuService.getMenuJson("munger-hall"));
+    verify(ucsbDiningCommonsRepository, times(2)).existsById("munger-hall");
+    verify(ucsbDiningCommonsMenuItemsRepository, never())
+        .findByDiningCommonsCodeOrderByStationAscNameAsc("munger-hall");
+  }
+
+  @Test
+  public void serialization_failure_is_rethrown() throws Exception {
+    ObjectMapper failing = mock(ObjectMapper.class);
+    when(failing.writeValueAsBytes(any())).thenThrow(new JsonProcessingException("boom") {});
+    diningCommonsMenuService.mapper = failing;
+
+    assertThrows(UncheckedIOException.class, () -> diningCommonsMenuService.getMenuJson("ortega"));
+  }
+}
@@ -0,0 +1,138 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+public class DiningCommonsSpatialIndexTests {
+
+  private static UCSBDiningCommons commons(String code, Double lat, Double lon, boolean cam) {
+    return UCSBDiningCommons.builder()
+        .code(code)
+        .name(code)
+        .hasDiningCam(cam)
+        .latitude(lat)
+        .longitude(lon)
+        .build();
+  }
+
+  private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a =
+        Math.pow(Math.sin(dLat / 2), 2)
+            + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2))
+                * Math.pow(Math.sin(dLon / 2), 2);
+    return 2 * DiningCommonsSpatialIndex.EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+  }
+
+  @Test
+  public void nearest_returns_commons_in_order_with_distances() {
+    UCSBDiningCommons ortega = commons("ortega", 34.410987, -119.84709, true);
+    UCSBDiningCommons carrillo = commons("carrillo", 34.409953, -119.85277, true);
+    UCSBDiningCommons portola = commons("portola", 34.417723, -119.867427, false);
+    UCSBDiningCommons nowhere = commons("nowhere", null, null, true);
+    UCSBDiningCommons halfway = commons("halfway", 34.41, null, true);
+
+    DiningCommonsSpatialIndex index =
+        DiningCommonsSpatialIndex.build(List.of(portola, ortega, nowhere, halfway, carrillo));
+    assertEquals(3, index.size());
+
+    List<NearbyDiningCommons> result = index.nearest(34.4105, -119.8480, 2, c -> true);
+
+    assertEquals(2, result.size());
+    assertEquals("ortega", result.get(0).getCommons().getCode());
+    assertEquals("carrillo", result.get(1).getCommons().getCode());
+    assertEquals(
+        haversine(34.4105, -119.8480, 34.410987, -119.84709),
+        result.get(0).getDistanceMeters(),
+        0.01);
+  }
+
+  @Test
+  public void nearest_applies_the_filter_and_handles_small_k() {
+    UCSBDiningCommons ortega = commons("ortega", 34.410987, -119.84709, true);
+    UCSBDiningCommons portola = commons("portola", 34.417723, -119.867427, false);
+    DiningCommonsSpatialIndex index = DiningCommonsSpatialIndex.build(List.of(ortega, portola));
+
+    List<NearbyDiningCommons> result =
+        index.nearest(34.4105, -119.8480, 5, c -> !c.getHasDiningCam());
+    assertEquals(List.of(portola), result.stream().map(NearbyDiningCommons::getCommons).toList());
+
+    assertEquals(List.of(), index.nearest(34.4105, -119.8480, 0, c -> true));
+    assertEquals(List.of(), DiningCommonsSpatialIndex.build(List.of()).nearest(0, 0, 3, c -> true));
+  }
+
+  @Test
+  public void nearest_matches_brute_force_on_random_points() {
+    Random random = new Random(42);
+    List<UCSBDiningCommons> all = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      all.add(
+          commons(
+              "c" + i,
+              random.nextDouble() * 180 - 90,
+              random.nextDouble() * 360 - 180,
+              random.nextBoolean()));
+    }
+    DiningCommonsSpatialIndex index = DiningCommonsSpatialIndex.build(all);
+
+    for (int q = 0; q < 50; q++) {
+      double lat = random.nextDouble() * 180 - 90;
+      double lon = random.nextDouble() * 360 - 180;
+      Predicate<UCSBDiningCommons> filter = q % 2 == 0 ? c -> true : c -> c.getHasDiningCam();
+
+      List<String> expected =
+          all.stream()
+              .filter(filter)
+              .sorted(
+                  Comparator.comparingDouble(
+                      c -> haversine(lat, lon, c.getLatitude(), c.getLongitude())))
+              .limit(7)
+              .map(UCSBDiningCommons::getCode)
+              .toList();
+      List<String> actual =
+          index.nearest(lat, lon, 7, filter).stream().map(n -> n.getCommons().getCode()).toList();
+
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void within_returns_commons_inside_the_box() {
+    UCSBDiningCommons ortega = commons("ortega", 34.410987, -119.84709, true);
+    UCSBDiningCommons portola = commons("portola", 34.417723, -119.867427, false);
+    UCSBDiningCommons south = commons("south", 34.0, -119.85, true);
+    UCSBDiningCommons west = commons("west", 34.41, -121.0, true);
+    UCSBDiningCommons north = commons("north", 36.0, -119.85, true);
+    DiningCommonsSpatialIndex index =
+        DiningCommonsSpatialIndex.build(List.of(north, ortega, west, south, portola));
+
+    assertEquals(List.of(ortega, portola), index.within(34.4, 34.5, -119.9, -119.8, c -> true));
+    assertEquals(
+        List.of(ortega), index.within(34.4, 34.5, -119.9, -119.8, c -> c.getHasDiningCam()));
+    assertEquals(List.of(), index.within(40, 50, -180, 180, c -> true));
+  }
+
+  @Test
+  public void within_wraps_across_the_antimeridian() {
+    UCSBDiningCommons east = commons("east", 10.0, 179.5, true);
+    UCSBDiningCommons west = commons("west", 10.5, -179.5, true);
+    UCSBDiningCommons middle = commons("middle", 11.0, 0.0, true);
+    DiningCommonsSpatialIndex index = DiningCommonsSpatialIndex.build(List.of(middle, west, east));
+
+    List<UCSBDiningCommons> result = index.within(0, 20, 179, -179, c -> true);
+
+    assertEquals(List.of(east, west), result);
+    assertTrue(index.within(0, 20, -10, 10, c -> true).contains(middle));
+  }
+}
@@ -0,0 +1,315 @@
+package edu.ucsb.cs156.example.services;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class HelpRequestQueueBroadcasterTests {
+
+  @Mock private HelpRequestRepository helpRequestRepository;
+
+  private HelpRequestQueueBroadcaster broadcaster;
+
+  private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+  private final HelpRequest early =
+      HelpRequest.builder()
+          .id(1L)
+          .teamId("t1")
+          .requestTime(LocalDateTime.of(2025, 10, 1, 9, 0))
+          .build();
+  private final HelpRequest late =
+      HelpRequest.builder()
+          .id(2L)
+          .teamId("t2")
+          .requestTime(LocalDateTime.of(2025, 10, 1, 9, 30))
+          .build();
+  private final HelpRequest sameTimeAsEarly =
+      HelpRequest.builder()
+          .id(3L)
+          .teamId("t3")
+          .requestTime(LocalDateTime.of(2025, 10, 1, 9, 0))
+          .build();
+  private final HelpRequest noTime = HelpRequest.builder().id(4L).teamId("t4").build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    broadcaster = new HelpRequestQueueBroadcaster(2);
+    broadcaster.helpRequestRepository = helpRequestRepository;
+    broadcaster.mapper = mapper;
+    broadcaster.executor = Runnable::run;
+    broadcaster.sender = Runnable::run;
+    when(helpRequestRepository.findAllBySolved(false))
+        .thenReturn(List.of(noTime, late, sameTimeAsEarly, early));
+    broadcaster.load();
+  }
+
+  private static String render(Set<DataWithMediaType> event) {
+    return event.stream().map(d -> d.getData().toString()).collect(Collectors.joining());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<String> sentEvents(SseEmitter emitter, int count) throws IOException {
+    ArgumentCaptor<Set<DataWithMediaType>> captor = ArgumentCaptor.forClass(Set.class);
+    verify(emitter, times(count)).send(captor.capture());
+    return captor.getAllValues().stream().map(HelpRequestQueueBroadcasterTests::render).toList();
+  }
+
+  private String event(String name, Object data) throws JsonProcessingException {
+    return "event:" + name + "\ndata:" + mapper.writeValueAsString(data) + "\n\n";
+  }
+
+  @Test
+  public void new_subscriber_gets_open_requests_ordered_by_request_time() throws Exception {
+    SseEmitter emitter = mock(SseEmitter.class);
+
+    broadcaster.register(emitter);
+
+    assertEquals(
+        List.of(event("snapshot", List.of(early, sameTimeAsEarly, late, noTime))),
+        sentEvents(emitter, 1));
+    assertEquals(1, broadcaster.subscriberCount());
+  }
+
+  @Test
+  public void changes_are_broadcast_to_every_subscriber() throws Exception {
+    SseEmitter first = mock(SseEmitter.class);
+    SseEmitter second = mock(SseEmitter.class);
+    broadcaster.register(first);
+    broadcaster.register(second);
+
+    HelpRequest created =
+        HelpRequest.builder()
+            .id(5L)
+            .teamId("t5")
+            .requestTime(LocalDateTime.of(2025, 10, 1, 8, 0))
+            .build();
+    HelpRequest solvedEarly =
+        HelpRequest.builder()
+            .id(1L)
+            .teamId("t1")
+            .requestTime(early.getRequestTime())
+            .solved(true)
+            .build();
+    HelpRequest solvedUnknown = HelpRequest.builder().id(99L).solved(true).build();
+
+    broadcaster.requestSaved(created);
+    broadcaster.requestSaved(solvedEarly);
+    broadcaster.requestSaved(solvedUnknown); // was never open, nothing to send
+    broadcaster.requestDeleted(2L);
+    broadcaster.requestDeleted(98L); // was never open, nothing to send
+
+    List<String> expected =
+        List.of(
+            event("snapshot", List.of(early, sameTimeAsEarly, late, noTime)),
+            event("upsert", created),
+            event("remove", Map.of("id", 1L)),
+            event("remove", Map.of("id", 2L)));
+    assertEquals(expected, sentEvents(first, 4));
+    assertEquals(expected, sentEvents(second, 4));
+
+    SseEmitter third = mock(SseEmitter.class);
+    broadcaster.register(third);
+    assertEquals(
+        List.of(event("snapshot", List.of(created, sameTimeAsEarly, noTime))),
+        sentEvents(third, 1));
+  }
+
+  @Test
+  public void subscribers_that_fail_are_dropped() throws Exception {
+    SseEmitter deadOnArrival = mock(SseEmitter.class);
+    doThrow(new IOException("gone")).when(deadOnArrival).send(anySet());
+    broadcaster.register(deadOnArrival);
+    assertEquals(0, broadcaster.subscriberCount());
+
+    SseEmitter goesAway = mock(SseEmitter.class);
+    broadcaster.register(goesAway);
+    assertEquals(1, broadcaster.subscriberCount());
+    doThrow(new IllegalStateException("complete")).when(goesAway).send(anySet());
+    broadcaster.requestDeleted(1L);
+    assertEquals(0, broadcaster.subscriberCount());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void completion_timeout_and_error_unsubscribe() throws Exception {
+    SseEmitter completed = mock(SseEmitter.class);
+    broadcaster.register(completed);
+    ArgumentCaptor<Runnable> onCompletion = ArgumentCaptor.forClass(Runnable.class);
+    verify(completed).onCompletion(onCompletion.capture());
+    onCompletion.getValue().run();
+    assertEquals(0, broadcaster.subscriberCount());
+
+    SseEmitter timedOut = mock(SseEmitter.class);
+    broadcaster.register(timedOut);
+    ArgumentCaptor<Runnable> onTimeout = ArgumentCaptor.forClass(Runnable.class);
+    verify(timedOut).onTimeout(onTimeout.capture());
+    onTimeout.getValue().run();
+    assertEquals(0, broadcaster.subscriberCount());
+
+    SseEmitter failed = mock(SseEmitter.class);
+    broadcaster.register(failed);
+    ArgumentCaptor<Consumer<Throwable>> onError = ArgumentCaptor.forClass(Consumer.class);
+    verify(failed).onError(onError.capture());
+    onError.getValue().accept(new IOException("reset"));
+    assertEquals(0, broadcaster.subscriberCount());
+  }
+
+  @Test
+  public void heartbeat_sends_a_comment() throws Exception {
+    SseEmitter emitter = mock(SseEmitter.class);
+    broadcaster.register(emitter);
+
+    broadcaster.heartbeat();
+
+    assertEquals(":keep-alive\n\n", sentEvents(emitter, 2).get(1));
+  }
+
+  @Test
+  public void subscribe_returns_a_registered_emitter_with_the_configured_timeout() {
+    broadcaster.emitterTimeoutMs = 1234L;
+
+    SseEmitter emitter = broadcaster.subscribe();
+
+    assertEquals(1234L, emitter.getTimeout());
+    assertEquals(1, broadcaster.subscriberCount());
+  }
+
+  @Test
+  public void shutdown_completes_subscribers() {
+    SseEmitter emitter = mock(SseEmitter.class);
+    broadcaster.register(emitter);
+
+    broadcaster.shutdown();
+
+    verify(emitter).complete();
+  }
+
+  @Test
+  public void serialization_failure_is_rethrown() throws Exception {
+    ObjectMapper failing = mock(ObjectMapper.class);
+    when(failing.writeValueAsString(any())).thenThrow(new JsonProcessingException("boom") {});
+    broadcaster.mapper = failing;
+    SseEmitter emitter = mock(SseEmitter.class);
+
+    assertThrows(UncheckedIOException.class, () -> broadcaster.register(emitter));
+    verify(emitter, never()).send(anySet());
+  }
+
+  @Test
+  public void the_broadcaster_thread_and_subscribers_are_published() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    broadcaster.bindTo(registry);
+
+    broadcaster.register(mock(SseEmitter.class));
+
+    assertEquals(1.0, registry.get("helpqueue.subscribers").gauge().value());
+    assertEquals(
+        0.0, registry.get("executor.queued").tag("name", "helpQueueBroadcaster").gauge().value());
+  }
+
+  /** An emitter that counts what it is sent, and can be made to block like a stalled client. */
+  private static class CountingEmitter extends SseEmitter {
+    private final AtomicInteger sent = new AtomicInteger();
+    private final CountDownLatch unblock;
+
+    CountingEmitter(CountDownLatch unblock) {
+      this.unblock = unblock;
+    }
+
+    @Override
+    public void send(Set<DataWithMediaType> items) throws IOException {
+      sent.incrementAndGet();
+      try {
+        unblock.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  @Test
+  public void a_slow_subscriber_does_not_hold_up_the_others() throws Exception {
+    HelpRequestQueueBroadcaster threads = new HelpRequestQueueBroadcaster(2);
+    broadcaster.executor = threads.executor;
+    broadcaster.sender = threads.sender;
+    CountDownLatch unblock = new CountDownLatch(1);
+    CountingEmitter slow = new CountingEmitter(unblock);
+    CountingEmitter fast = new CountingEmitter(new CountDownLatch(0));
+    broadcaster.register(slow);
+    broadcaster.register(fast);
+
+    broadcaster.requestDeleted(1L);
+    broadcaster.requestDeleted(2L);
+
+    // the slow client is still stuck writing its snapshot
+    await().atMost(5, SECONDS).until(() -> fast.sent.get() == 3);
+    assertEquals(1, slow.sent.get());
+
+    unblock.countDown();
+    await().atMost(5, SECONDS).until(() -> slow.sent.get() == 3);
+  }
+
+  @Test
+  public void a_subscriber_that_falls_behind_is_dropped_and_completed() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    broadcaster.bindTo(registry);
+    broadcaster.subscriberBacklog = 2;
+    List<Runnable> drains = new ArrayList<>();
+    broadcaster.sender = drains::add;
+    SseEmitter stuck = mock(SseEmitter.class);
+    broadcaster.register(stuck);
+
+    broadcaster.requestDeleted(1L);
+    assertEquals(1, broadcaster.subscriberCount());
+    broadcaster.requestDeleted(2L);
+
+    assertEquals(0, broadcaster.subscriberCount());
+    verify(stuck).complete();
+    assertEquals(1.0, registry.get("helpqueue.dropped").functionCounter().count());
+
+    // the events it had room for are still written, once, by the one drain that was started
+    assertEquals(1, drains.size());
+    drains.get(0).run();
+    assertEquals(
+        List.of(
+            event("snapshot", List.of(early, sameTimeAsEarly, late, noTime)),
+            event("remove", Map.of("id", 1L))),
+        sentEvents(stuck, 2));
+  }
+}
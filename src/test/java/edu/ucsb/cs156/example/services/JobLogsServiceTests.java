@@ -7,7 +7,9 @@ import static org.mockito.Mockito.when;
 import edu.ucsb.cs156.example.entities.Job;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.services.jobs.JobService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -64,4 +66,27 @@ public class JobLogsServiceTests {
     // Act & Assert
     assertThrows(IllegalArgumentException.class, () -> jobService.getJobLogs(jobId));
   }
+
+  @Test
+  void running_and_finished_jobs_are_published() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    jobService.bindTo(registry);
+    AtomicReference<Double> activeWhileRunning = new AtomicReference<>();
+
+    jobService.runJobAsync(
+        Job.builder().build(),
+        ctx -> activeWhileRunning.set(registry.get("jobs.active").gauge().value()));
+    jobService.runJobAsync(
+        Job.builder().build(),
+        ctx -> {
+          throw new IllegalStateException("boom");
+        });
+
+    assertEquals(1.0, activeWhileRunning.get());
+    assertEquals(0.0, registry.get("jobs.active").gauge().value());
+    assertEquals(
+        1.0, registry.get("jobs.finished").tag("status", "complete").functionCounter().count());
+    assertEquals(
+        1.0, registry.get("jobs.finished").tag("status", "error").functionCounter().count());
+  }
 }
@@ -0,0 +1,337 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItems;
+import edu.ucsb.cs156.example.models.MenuItemLeaderboardEntry;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class MenuItemLeaderboardServiceTests {
+
+  @Mock private MenuItemReviewRepository menuItemReviewRepository;
+
+  @Mock private UCSBDiningCommonsMenuItemsRepository menuItemsRepository;
+
+  @InjectMocks private MenuItemLeaderboardService leaderboard;
+
+  private final LocalDateTime now = LocalDateTime.parse("2025-06-01T12:00:00");
+
+  private final UCSBDiningCommonsMenuItems pizza =
+      UCSBDiningCommonsMenuItems.builder()
+          .id(1)
+          .name("Pizza")
+          .diningCommonsCode("ortega")
+          .station("Grill")
+          .build();
+  private final UCSBDiningCommonsMenuItems tacos =
+      UCSBDiningCommonsMenuItems.builder()
+          .id(2)
+          .name("Tacos")
+          .diningCommonsCode("carrillo")
+          .station("Mex")
+          .build();
+  private final UCSBDiningCommonsMenuItems salad =
+      UCSBDiningCommonsMenuItems.builder()
+          .id(3)
+          .name("Salad")
+          .diningCommonsCode("ortega")
+          .station("Greens")
+          .build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    leaderboard.clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    when(menuItemsRepository.findAll()).thenReturn(List.of(pizza, tacos, salad));
+  }
+
+  @AfterEach
+  public void cleanup() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private MenuItemReview review(long itemId, int stars, LocalDateTime dateReviewed) {
+    return MenuItemReview.builder().itemId(itemId).stars(stars).dateReviewed(dateReviewed).build();
+  }
+
+  private List<Long> ids(List<MenuItemLeaderboardEntry> entries) {
+    return entries.stream().map(MenuItemLeaderboardEntry::getItemId).toList();
+  }
+
+  @Test
+  void empty_leaderboard_returns_nothing() {
+    assertEquals(List.of(), leaderboard.top(10, null));
+    assertEquals(List.of(), leaderboard.top(10, "ortega"));
+  }
+
+  @Test
+  void rebuild_ranks_items_by_decayed_bayesian_score() {
+    when(menuItemReviewRepository.findAll())
+        .thenReturn(
+            List.of(
+                review(1, 5, now.minusDays(1)),
+                review(1, 5, now.minusDays(2)),
+                review(1, 4, now.minusDays(3)),
+                review(2, 5, now.minusDays(1)),
+                review(3, 2, now.minusDays(1)),
+                review(3, 1, now.minusDays(1))));
+
+    leaderboard.rebuildFromDatabase();
+
+    List<MenuItemLeaderboardEntry> top = leaderboard.top(10, null);
+    // one five star review for tacos is shrunk towards the mean more than pizza's three
+    assertEquals(List.of(1L, 2L, 3L), ids(top));
+    assertEquals("Pizza", top.get(0).getName());
+    assertEquals("ortega", top.get(0).getDiningCommonsCode());
+    assertEquals("Grill", top.get(0).getStation());
+    assertEquals(3, top.get(0).getReviewCount());
+    assertEquals(14.0 / 3, top.get(0).getAverageStars(), 1e-9);
+    assertTrue(top.get(0).getScore() > top.get(1).getScore());
+
+    assertEquals(List.of(1L, 3L), ids(leaderboard.top(10, "ortega")));
+    assertEquals(List.of(2L), ids(leaderboard.top(10, "carrillo")));
+    assertEquals(List.of(), ids(leaderboard.top(10, "dlg")));
+    assertEquals(List.of(1L), ids(leaderboard.top(1, null)));
+    assertEquals(List.of(), ids(leaderboard.top(-1, null)));
+  }
+
+  @Test
+  void old_reviews_count_less_than_recent_ones() {
+    when(menuItemReviewRepository.findAll())
+        .thenReturn(
+            List.of(
+                review(1, 5, now.minusDays(365)),
+                review(1, 5, now.minusDays(365)),
+                review(1, 5, now.minusDays(365)),
+                review(2, 4, now.minusDays(1)),
+                review(2, 4, now.minusDays(1)),
+                review(2, 4, now.minusDays(1)),
+                review(3, 1, now.minusDays(1)),
+                review(3, 1, now.minusDays(1)),
+                review(3, 1, now.minusDays(1))));
+
+    leaderboard.rebuildFromDatabase();
+
+    // a year-old perfect record decays back to the prior, below fresh four star reviews
+    assertEquals(List.of(2L, 1L, 3L), ids(leaderboard.top(10, null)));
+  }
+
+  @Test
+  void undated_reviews_count_towards_totals_but_not_decayed_score() {
+    when(menuItemReviewRepository.findAll()).thenReturn(List.of(review(1, 5, null)));
+
+    leaderboard.rebuildFromDatabase();
+
+    MenuItemLeaderboardEntry entry = leaderboard.top(10, null).get(0);
+    assertEquals(1, entry.getReviewCount());
+    assertEquals(5.0, entry.getScore(), 1e-9);
+  }
+
+  @Test
+  void heaps_are_bounded_by_maxK() {
+    leaderboard.maxK = 2;
+    when(menuItemReviewRepository.findAll())
+        .thenReturn(
+            List.of(
+                review(1, 5, now.minusDays(1)),
+                review(2, 4, now.minusDays(1)),
+                review(3, 3, now.minusDays(1))));
+
+    leaderboard.rebuildFromDatabase();
+
+    assertEquals(List.of(1L, 2L), ids(leaderboard.top(10, null)));
+    assertEquals(List.of(1L, 3L), ids(leaderboard.top(10, "ortega")));
+  }
+
+  @Test
+  void ties_are_broken_by_review_count_then_item_id() {
+    when(menuItemReviewRepository.findAll())
+        .thenReturn(List.of(review(3, 4, now), review(2, 4, now)));
+
+    leaderboard.rebuildFromDatabase();
+
+    assertEquals(List.of(2L, 3L), ids(leaderboard.top(10, null)));
+  }
+
+  @Test
+  void review_writes_without_transaction_apply_immediately() {
+    when(menuItemReviewRepository.findAll()).thenReturn(List.of());
+    leaderboard.rebuildFromDatabase();
+
+    MenuItemReview tacoReview = review(2, 5, now);
+    leaderboard.reviewAdded(tacoReview);
+    leaderboard.reviewAdded(review(1, 3, now));
+    assertEquals(List.of(2L, 1L), ids(leaderboard.top(10, null)));
+
+    MenuItemReview updated = review(2, 1, now);
+    leaderboard.reviewUpdated(tacoReview, updated);
+    assertEquals(List.of(1L, 2L), ids(leaderboard.top(10, null)));
+
+    leaderboard.reviewRemoved(updated);
+    assertEquals(List.of(1L), ids(leaderboard.top(10, null)));
+  }
+
+  @Test
+  void review_writes_inside_transaction_wait_for_commit() {
+    when(menuItemReviewRepository.findAll()).thenReturn(List.of());
+    leaderboard.rebuildFromDatabase();
+    TransactionSynchronizationManager.initSynchronization();
+
+    leaderboard.reviewAdded(review(1, 5, now));
+    assertEquals(List.of(), leaderboard.top(10, null));
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertEquals(List.of(1L), ids(leaderboard.top(10, null)));
+  }
+
+  @Test
+  void menu_item_writes_inside_transaction_wait_for_commit() {
+    when(menuItemReviewRepository.findAll()).thenReturn(List.of(review(1, 5, now)));
+    leaderboard.rebuildFromDatabase();
+    TransactionSynchronizationManager.initSynchronization();
+
+    leaderboard.menuItemChanged(
+        UCSBDiningCommonsMenuItems.builder()
+            .id(1)
+            .name("Deep Dish")
+            .diningCommonsCode("carrillo")
+            .station("Grill")
+            .build());
+    leaderboard.menuItemDeleted(2);
+    assertEquals(List.of(), ids(leaderboard.top(10, "carrillo")));
+    assertEquals(List.of(1L), ids(leaderboard.top(10, "ortega")));
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertEquals(List.of(1L), ids(leaderboard.top(10, "carrillo")));
+    assertEquals(List.of(), ids(leaderboard.top(10, "ortega")));
+  }
+
+  @Test
+  void menu_item_changes_move_items_between_commons() {
+    when(menuItemReviewRepository.findAll()).thenReturn(List.of(review(1, 5, now)));
+    leaderboard.rebuildFromDatabase();
+
+    leaderboard.menuItemChanged(
+        UCSBDiningCommonsMenuItems.builder()
+            .id(1)
+            .name("Deep Dish")
+            .diningCommonsCode("carrillo")
+            .station("Grill")
+            .build());
+
+    assertEquals(List.of(), ids(leaderboard.top(10, "ortega")));
+    assertEquals("Deep Dish", leaderboard.top(10, "carrillo").get(0).getName());
+
+    leaderboard.menuItemDeleted(1);
+    leaderboard.menuItemDeleted(99);
+
+    assertEquals(List.of(), ids(leaderboard.top(10, "carrillo")));
+    MenuItemLeaderboardEntry orphan = leaderboard.top(10, null).get(0);
+    assertNull(orphan.getName());
+    assertNull(orphan.getDiningCommonsCode());
+    assertNull(orphan.getStation());
+  }
+
+  @Test
+  void a_new_menu_item_is_described_before_it_has_reviews() {
+    when(menuItemReviewRepository.findAll()).thenReturn(List.of());
+    leaderboard.rebuildFromDatabase();
+
+    leaderboard.menuItemChanged(
+        UCSBDiningCommonsMenuItems.builder()
+            .id(7)
+            .name("Tacos")
+            .diningCommonsCode("ortega")
+            .station("Entrees")
+            .build());
+    assertEquals(List.of(), ids(leaderboard.top(10, "ortega")));
+
+    leaderboard.reviewAdded(review(7, 4, now));
+    assertEquals("Tacos", leaderboard.top(10, "ortega").get(0).getName());
+  }
+
+  @Test
+  void a_short_half_life_ranks_without_overflowing() {
+    leaderboard.setHalfLifeDays(0.5);
+    when(menuItemReviewRepository.findAll())
+        .thenReturn(
+            List.of(
+                review(1, 5, now.minusDays(3)),
+                review(2, 3, now.minusHours(1)),
+                review(3, 1, now.plusYears(1000))));
+
+    leaderboard.rebuildFromDatabase();
+
+    List<MenuItemLeaderboardEntry> top = leaderboard.top(10, null);
+    // the three day old review has decayed to almost nothing, so pizza sits at the mean of 3
+    assertEquals(List.of(1L, 2L, 3L), ids(top));
+    assertEquals(3.0, top.get(0).getScore(), 0.01);
+    top.forEach(entry -> assertTrue(entry.getScore() >= 1 && entry.getScore() <= 5));
+  }
+
+  @Test
+  void decay_keeps_working_as_time_passes() {
+    MenuItemReview pizzaReview = review(1, 5, now);
+    when(menuItemReviewRepository.findAll())
+        .thenReturn(List.of(pizzaReview, review(2, 1, now.minusDays(1))));
+    leaderboard.rebuildFromDatabase();
+
+    LocalDateTime later = now.plusYears(200);
+    leaderboard.clock = Clock.fixed(later.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    leaderboard.rerank();
+    // both reviews have decayed back to the prior
+    assertEquals(3.0, leaderboard.top(10, null).get(0).getScore(), 1e-9);
+
+    leaderboard.reviewRemoved(pizzaReview);
+    leaderboard.reviewAdded(review(1, 4, later));
+    List<MenuItemLeaderboardEntry> top = leaderboard.top(10, null);
+    assertEquals(List.of(1L, 2L), ids(top));
+    assertEquals((5 * 2.5 + 4) / 6, top.get(0).getScore(), 1e-9);
+    assertEquals(2.5, top.get(1).getScore(), 1e-9);
+
+    // a clock that goes backwards does not move the reference time back
+    leaderboard.clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    leaderboard.rerank();
+    assertEquals((5 * 2.5 + 4) / 6, leaderboard.top(10, null).get(0).getScore(), 1e-9);
+  }
+
+  @Test
+  void reviews_written_before_the_first_rebuild_are_ranked() {
+    leaderboard.reviewAdded(review(9, 4, now.minusDays(1)));
+
+    MenuItemLeaderboardEntry entry = leaderboard.top(10, null).get(0);
+    assertEquals(9, entry.getItemId());
+    assertEquals(4.0, entry.getScore(), 1e-9);
+  }
+
+  @Test
+  void the_half_life_must_be_positive() {
+    assertThrows(IllegalArgumentException.class, () -> leaderboard.setHalfLifeDays(0));
+    assertThrows(IllegalArgumentException.class, () -> leaderboard.setHalfLifeDays(-1));
+    assertThrows(IllegalArgumentException.class, () -> leaderboard.setHalfLifeDays(Double.NaN));
+    leaderboard.setHalfLifeDays(7);
+    assertEquals(7, leaderboard.halfLifeDays);
+  }
+}
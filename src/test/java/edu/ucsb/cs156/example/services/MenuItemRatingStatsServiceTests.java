@@ -0,0 +1,286 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.MenuItemRatingStats;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.MenuItemRatingStatsRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class MenuItemRatingStatsServiceTests {
+
+  @Mock private MenuItemRatingStatsRepository menuItemRatingStatsRepository;
+
+  @Mock private MenuItemReviewRepository menuItemReviewRepository;
+
+  @InjectMocks private MenuItemRatingStatsService menuItemRatingStatsService;
+
+  private final LocalDateTime jan = LocalDateTime.parse("2022-01-03T00:00:00");
+  private final LocalDateTime mar = LocalDateTime.parse("2022-03-11T00:00:00");
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  private MenuItemReview review(long itemId, int stars, LocalDateTime dateReviewed) {
+    return MenuItemReview.builder().itemId(itemId).stars(stars).dateReviewed(dateReviewed).build();
+  }
+
+  @Test
+  void getStats_fills_in_empty_stats_for_unreviewed_items() {
+    MenuItemRatingStats stats10 =
+        MenuItemRatingStats.builder().itemId(10).reviewCount(2).starsSum(7).build();
+    when(menuItemRatingStatsRepository.findAllById(List.of(12L, 10L))).thenReturn(List.of(stats10));
+
+    List<MenuItemRatingStats> result = menuItemRatingStatsService.getStats(List.of(12L, 10L));
+
+    assertEquals(List.of(MenuItemRatingStats.empty(12), stats10), result);
+    assertEquals(3.5, result.get(1).getAverageStars());
+    assertEquals(0.0, result.get(0).getAverageStars());
+  }
+
+  @Test
+  void reviewAdded_creates_stats_for_first_review() {
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L))
+        .thenReturn(Optional.empty(), Optional.of(MenuItemRatingStats.empty(10)));
+
+    menuItemRatingStatsService.reviewAdded(review(10, 4, jan));
+
+    verify(menuItemRatingStatsRepository).insertIfAbsent(10L);
+    MenuItemRatingStats expected =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(1)
+            .starsSum(4)
+            .fourStarCount(1)
+            .lastReviewed(jan)
+            .build();
+    verify(menuItemRatingStatsRepository).save(expected);
+  }
+
+  @Test
+  void reviewAdded_updates_existing_stats_and_keeps_latest_date() {
+    MenuItemRatingStats stats =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(1)
+            .starsSum(5)
+            .fiveStarCount(1)
+            .lastReviewed(mar)
+            .build();
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(stats));
+
+    menuItemRatingStatsService.reviewAdded(review(10, 1, jan));
+    menuItemRatingStatsService.reviewAdded(review(10, 2, null));
+    menuItemRatingStatsService.reviewAdded(review(10, 3, jan));
+
+    assertEquals(4, stats.getReviewCount());
+    assertEquals(11, stats.getStarsSum());
+    assertEquals(1, stats.getOneStarCount());
+    assertEquals(1, stats.getTwoStarCount());
+    assertEquals(1, stats.getThreeStarCount());
+    assertEquals(0, stats.getFourStarCount());
+    assertEquals(1, stats.getFiveStarCount());
+    assertEquals(mar, stats.getLastReviewed());
+    verify(menuItemRatingStatsRepository, never()).insertIfAbsent(anyLong());
+  }
+
+  @Test
+  void out_of_range_stars_fail_without_touching_the_aggregates() {
+    MenuItemRatingStats stats =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(2)
+            .starsSum(8)
+            .fourStarCount(2)
+            .build();
+    MenuItemRatingStats before =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(2)
+            .starsSum(8)
+            .fourStarCount(2)
+            .build();
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(stats));
+
+    IllegalArgumentException added =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> menuItemRatingStatsService.reviewAdded(review(10, 7, jan)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> menuItemRatingStatsService.reviewRemoved(review(10, 0, jan)));
+
+    assertEquals("stars must be between 1 and 5 but was 7", added.getMessage());
+    assertEquals(before, stats);
+    verify(menuItemRatingStatsRepository, never()).save(any());
+  }
+
+  @Test
+  void reviewRemoved_does_nothing_when_item_has_no_stats() {
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L)).thenReturn(Optional.empty());
+
+    menuItemRatingStatsService.reviewRemoved(review(10, 4, jan));
+
+    verify(menuItemRatingStatsRepository, never()).save(any());
+    verify(menuItemRatingStatsRepository, never()).delete(any());
+  }
+
+  @Test
+  void reviewRemoved_deletes_stats_for_last_review() {
+    MenuItemRatingStats stats =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(1)
+            .starsSum(4)
+            .fourStarCount(1)
+            .build();
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(stats));
+
+    menuItemRatingStatsService.reviewRemoved(review(10, 4, jan));
+
+    verify(menuItemRatingStatsRepository).delete(stats);
+    verify(menuItemRatingStatsRepository, never()).save(any());
+  }
+
+  @Test
+  void reviewRemoved_of_latest_review_recomputes_last_reviewed() {
+    MenuItemRatingStats stats =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(2)
+            .starsSum(7)
+            .threeStarCount(1)
+            .fourStarCount(1)
+            .lastReviewed(mar)
+            .build();
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(stats));
+    when(menuItemReviewRepository.findFirstByItemIdOrderByDateReviewedDesc(10L))
+        .thenReturn(Optional.of(review(10, 3, jan)));
+
+    menuItemRatingStatsService.reviewRemoved(review(10, 4, mar));
+
+    assertEquals(1, stats.getReviewCount());
+    assertEquals(3, stats.getStarsSum());
+    assertEquals(0, stats.getFourStarCount());
+    assertEquals(jan, stats.getLastReviewed());
+    verify(menuItemRatingStatsRepository).save(stats);
+  }
+
+  @Test
+  void reviewRemoved_of_latest_review_with_no_dated_reviews_left_clears_last_reviewed() {
+    MenuItemRatingStats stats =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(2)
+            .starsSum(7)
+            .lastReviewed(mar)
+            .build();
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(stats));
+    when(menuItemReviewRepository.findFirstByItemIdOrderByDateReviewedDesc(10L))
+        .thenReturn(Optional.empty());
+
+    menuItemRatingStatsService.reviewRemoved(review(10, 4, mar));
+
+    assertNull(stats.getLastReviewed());
+  }
+
+  @Test
+  void reviewRemoved_of_older_review_keeps_last_reviewed() {
+    MenuItemRatingStats stats =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(3)
+            .starsSum(9)
+            .lastReviewed(mar)
+            .build();
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(stats));
+
+    menuItemRatingStatsService.reviewRemoved(review(10, 2, jan));
+    menuItemRatingStatsService.reviewRemoved(review(10, 2, null));
+
+    assertEquals(mar, stats.getLastReviewed());
+    verify(menuItemReviewRepository, never()).findFirstByItemIdOrderByDateReviewedDesc(10L);
+  }
+
+  @Test
+  void reviewUpdated_moves_review_between_items() {
+    MenuItemRatingStats stats10 =
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(2)
+            .starsSum(9)
+            .fourStarCount(1)
+            .fiveStarCount(1)
+            .lastReviewed(mar)
+            .build();
+    MenuItemRatingStats stats12 = MenuItemRatingStats.empty(12);
+    when(menuItemRatingStatsRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(stats10));
+    when(menuItemRatingStatsRepository.findByIdForUpdate(12L)).thenReturn(Optional.of(stats12));
+
+    menuItemRatingStatsService.reviewUpdated(review(10, 4, jan), review(12, 2, jan));
+
+    assertEquals(1, stats10.getReviewCount());
+    assertEquals(5, stats10.getStarsSum());
+    assertEquals(0, stats10.getFourStarCount());
+    assertEquals(1, stats12.getReviewCount());
+    assertEquals(1, stats12.getTwoStarCount());
+    assertEquals(jan, stats12.getLastReviewed());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void rebuildAll_recomputes_all_items() {
+    when(menuItemReviewRepository.findAll())
+        .thenReturn(List.of(review(10, 5, jan), review(10, 3, mar), review(12, 1, jan)));
+
+    int items = menuItemRatingStatsService.rebuildAll();
+
+    assertEquals(2, items);
+    verify(menuItemRatingStatsRepository).deleteAll();
+    ArgumentCaptor<Collection<MenuItemRatingStats>> captor =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(menuItemRatingStatsRepository).saveAll(captor.capture());
+    List<MenuItemRatingStats> saved = new ArrayList<>(captor.getValue());
+    saved.sort((a, b) -> Long.compare(a.getItemId(), b.getItemId()));
+
+    assertEquals(
+        MenuItemRatingStats.builder()
+            .itemId(10)
+            .reviewCount(2)
+            .starsSum(8)
+            .threeStarCount(1)
+            .fiveStarCount(1)
+            .lastReviewed(mar)
+            .build(),
+        saved.get(0));
+    assertEquals(
+        MenuItemRatingStats.builder()
+            .itemId(12)
+            .reviewCount(1)
+            .starsSum(1)
+            .oneStarCount(1)
+            .lastReviewed(jan)
+            .build(),
+        saved.get(1));
+  }
+}
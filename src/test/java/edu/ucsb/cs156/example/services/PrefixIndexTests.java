@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.ucsb.cs156.example.models.TypeaheadSuggestion;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class PrefixIndexTests {
+
+  private static List<String> texts(List<TypeaheadSuggestion> suggestions) {
+    return suggestions.stream().map(TypeaheadSuggestion::getText).toList();
+  }
+
+  private final PrefixIndex index =
+      PrefixIndex.build(
+          Map.of(
+              "1", "Freebirds",
+              "2", "Woodstock's Pizza",
+              "3", "Pizza My Heart",
+              "4", "Café Crème",
+              "5", "Pizza My Heart",
+              "6", "The Habit"));
+
+  @Test
+  public void matches_are_case_and_accent_insensitive() {
+    assertEquals(List.of("Freebirds"), texts(index.suggest("FREE", 10)));
+    assertEquals(List.of("Café Crème"), texts(index.suggest("cafe", 10)));
+    assertEquals(List.of("Café Crème"), texts(index.suggest("  CRÈM", 10)));
+  }
+
+  @Test
+  public void whole_name_matches_come_before_word_matches() {
+    assertEquals(
+        List.of("Pizza My Heart", "Pizza My Heart", "Woodstock's Pizza"),
+        texts(index.suggest("pizza", 10)));
+  }
+
+  @Test
+  public void equal_keys_are_all_found_in_id_order() {
+    List<TypeaheadSuggestion> result = index.suggest("pizza my", 10);
+    assertEquals(List.of("3", "5"), result.stream().map(TypeaheadSuggestion::getId).toList());
+  }
+
+  @Test
+  public void each_entry_is_suggested_once_and_limit_is_respected() {
+    // "Pizza My Heart" matches both as a whole name and on the word "my"... but only once
+    assertEquals(List.of("Pizza My Heart"), texts(index.suggest("piz", 1)));
+    assertEquals(List.of("Pizza My Heart", "Pizza My Heart"), texts(index.suggest("m", 10)));
+    assertEquals(List.of("The Habit"), texts(index.suggest("h", 1)));
+    assertEquals(
+        List.of("The Habit", "Pizza My Heart", "Pizza My Heart"), texts(index.suggest("h", 10)));
+  }
+
+  @Test
+  public void an_entry_with_several_matching_words_is_suggested_once() {
+    PrefixIndex cafes = PrefixIndex.build(Map.of("1", "Daily Grind Grill"));
+    assertEquals(List.of("Daily Grind Grill"), texts(cafes.suggest("gri", 10)));
+  }
+
+  @Test
+  public void blank_prefix_zero_limit_or_no_match_return_nothing() {
+    assertEquals(List.of(), index.suggest("   ", 10));
+    assertEquals(List.of(), index.suggest("pizza", 0));
+    assertEquals(List.of(), index.suggest("zzz", 10));
+  }
+
+  @Test
+  public void null_texts_are_skipped() {
+    Map<String, String> textById = new HashMap<>();
+    textById.put("1", null);
+    textById.put("2", "Chipotle");
+    PrefixIndex withNull = PrefixIndex.build(textById);
+
+    assertEquals(1, withNull.size());
+    assertEquals(List.of("Chipotle"), texts(withNull.suggest("c", 10)));
+  }
+}
@@ -0,0 +1,141 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RateLimitServiceTests {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final RateLimitService service = new RateLimitService();
+  private final AtomicLong now = new AtomicLong(-5 * SECOND);
+
+  @BeforeEach
+  public void setup() {
+    service.clock = now::get;
+    service.setLimits(List.of("/api/*/post = 3", "/api/**=60", " "));
+  }
+
+  private int allowed(String path, String client, boolean user, int attempts) {
+    int allowed = 0;
+    for (int i = 0; i < attempts; i++) {
+      if (service.tryAcquire(path, client, user) == 0) {
+        allowed++;
+      }
+    }
+    return allowed;
+  }
+
+  @Test
+  public void a_full_bucket_allows_a_burst_then_refills_evenly() {
+    assertEquals(3, allowed("/api/ucsbdates/post", "alice", true, 5));
+
+    // three per minute: one token every 20 seconds
+    assertEquals(20 * SECOND, service.tryAcquire("/api/ucsbdates/post", "alice", true));
+    now.addAndGet(19 * SECOND);
+    assertEquals(SECOND, service.tryAcquire("/api/ucsbdates/post", "alice", true));
+    now.addAndGet(SECOND);
+    assertEquals(1, allowed("/api/ucsbdates/post", "alice", true, 2));
+
+    now.addAndGet(10 * 60 * SECOND);
+    assertEquals(3, allowed("/api/ucsbdates/post", "alice", true, 5));
+  }
+
+  @Test
+  public void buckets_are_per_client_and_per_pattern() {
+    assertEquals(3, allowed("/api/ucsbdates/post", "alice", true, 5));
+    assertEquals(3, allowed("/api/ucsbdates/post", "bob", true, 5));
+    assertEquals(3, allowed("/api/articles/post", "10.0.0.1", false, 5));
+    assertEquals(3, allowed("/api/articles/post", "alice", false, 5));
+    assertEquals(60, allowed("/api/ucsbdates/all", "alice", true, 70));
+  }
+
+  @Test
+  public void paths_without_a_limit_are_never_refused() {
+    assertEquals(1000, allowed("/login/oauth2/code/google", "alice", true, 1000));
+  }
+
+  @Test
+  public void rejections_are_counted_per_pattern_and_kind_of_client() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    service.bindTo(registry);
+
+    allowed("/api/ucsbdates/post", "alice", true, 5);
+    allowed("/api/ucsbdates/post", "10.0.0.1", false, 4);
+
+    assertEquals(
+        2.0,
+        registry
+            .get(RateLimitService.METRIC)
+            .tags("pattern", "/api/*/post", "client", "user")
+            .functionCounter()
+            .count());
+    assertEquals(
+        1.0,
+        registry
+            .get(RateLimitService.METRIC)
+            .tags("pattern", "/api/*/post", "client", "address")
+            .functionCounter()
+            .count());
+    assertEquals(4, registry.find(RateLimitService.METRIC).functionCounters().size());
+  }
+
+  @Test
+  public void full_buckets_are_purged() {
+    allowed("/api/ucsbdates/post", "alice", true, 3);
+    allowed("/api/ucsbdates/all", "bob", true, 1);
+    assertEquals(2, service.purgeFullBuckets());
+
+    // bob's one token is back after a second, alice's three after a minute
+    now.addAndGet(SECOND);
+    assertEquals(1, service.purgeFullBuckets());
+    now.addAndGet(60 * SECOND);
+    assertEquals(0, service.purgeFullBuckets());
+    assertEquals(3, allowed("/api/ucsbdates/post", "alice", true, 5));
+  }
+
+  @Test
+  public void concurrent_requests_never_exceed_the_limit() throws Exception {
+    service.setLimits(List.of("/api/**=1000"));
+    AtomicInteger allowed = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  return;
+                }
+                allowed.addAndGet(allowed("/api/ucsbdates/all", "alice", true, 500));
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(1000, allowed.get());
+  }
+
+  @Test
+  public void malformed_limits_are_rejected() {
+    assertThrows(IllegalArgumentException.class, () -> service.setLimits(List.of("/api/**")));
+    assertThrows(IllegalArgumentException.class, () -> service.setLimits(List.of("/api/**=0")));
+    assertThrows(NumberFormatException.class, () -> service.setLimits(List.of("/api/**=x")));
+    assertEquals(0, service.tryAcquire("/api/ucsbdates/post", "alice", true));
+  }
+}
@@ -0,0 +1,367 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import edu.ucsb.cs156.example.models.SlowQueryShape;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class SlowQueryServiceTests {
+
+  /** Stands in for a controller. */
+  static class WidgetsController {
+    public String getById() {
+      return "widget";
+    }
+  }
+
+  private SlowQueryService service;
+
+  private final Connection connection = mock(Connection.class);
+  private final DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+  private final PreparedStatement explainStatement = mock(PreparedStatement.class);
+  private final ResultSet planRows = mock(ResultSet.class);
+  private final Savepoint savepoint = mock(Savepoint.class);
+
+  private static final String BY_ID = "select w.id, w.name from widgets w where w.id=?";
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger(SlowQueryService.class);
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  @BeforeEach
+  public void setup() throws Exception {
+    service = new SlowQueryService();
+    service.thresholdMs = 100;
+    when(connection.getMetaData()).thenReturn(metaData);
+    when(metaData.getDatabaseProductName()).thenReturn("H2");
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.setSavepoint()).thenReturn(savepoint);
+    when(connection.prepareStatement(anyString())).thenReturn(explainStatement);
+    when(explainStatement.executeQuery()).thenReturn(planRows);
+    when(planRows.next()).thenReturn(true, true, false);
+    when(planRows.getString(1)).thenReturn("SELECT ...", "/* PUBLIC.PRIMARY_KEY: ID = ?1 */");
+    appender.start();
+    logger.addAppender(appender);
+  }
+
+  @AfterEach
+  public void teardown() {
+    RequestContextHolder.resetRequestAttributes();
+    logger.detachAppender(appender);
+  }
+
+  private List<String> warnings() {
+    return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+  }
+
+  private ExecutionInfo execution(long ms) throws SQLException {
+    Statement statement = mock(Statement.class);
+    when(statement.getConnection()).thenReturn(connection);
+    ExecutionInfo execution = new ExecutionInfo();
+    execution.setElapsedTime(ms);
+    execution.setStatement(statement);
+    return execution;
+  }
+
+  private static ParameterSetOperation set(String method, Class<?> type, int index, Object value)
+      throws Exception {
+    return new ParameterSetOperation(
+        PreparedStatement.class.getMethod(method, int.class, type), new Object[] {index, value});
+  }
+
+  private static QueryInfo query(String sql, List<ParameterSetOperation>... batches) {
+    QueryInfo query = new QueryInfo(sql);
+    query.setParametersList(new ArrayList<>(List.of(batches)));
+    return query;
+  }
+
+  private static QueryInfo byId(long id) throws Exception {
+    return query(BY_ID, List.of(set("setLong", long.class, 1, id)));
+  }
+
+  private void run(long ms, QueryInfo... queries) throws SQLException {
+    service.afterQuery(execution(ms), List.of(queries));
+  }
+
+  private void inHandler() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/widgets");
+    request.setAttribute(
+        HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+        new HandlerMethod(new WidgetsController(), WidgetsController.class.getMethod("getById")));
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  @Test
+  public void statements_are_timed_per_shape() throws Exception {
+    run(5, byId(1));
+    run(30, byId(2));
+    run(10, byId(3));
+    run(1, query("select count(*) from widgets"));
+
+    List<SlowQueryShape> slowest = service.slowest(10);
+
+    assertEquals(2, slowest.size());
+    SlowQueryShape widget = slowest.get(0);
+    assertEquals(BY_ID, widget.getSql());
+    assertEquals(3, widget.getCount());
+    assertEquals(45, widget.getTotalMs());
+    assertEquals(30, widget.getMaxMs());
+    assertEquals(15.0, widget.getMeanMs());
+    assertEquals("none", widget.getHandler());
+    assertEquals("[2]", widget.getParameters());
+    assertNull(widget.getPlan());
+    assertEquals("select count(*) from widgets", slowest.get(1).getSql());
+    assertEquals("[]", slowest.get(1).getParameters());
+  }
+
+  @Test
+  public void shapes_are_ordered_by_slowest_then_total_time_and_limited() throws Exception {
+    run(20, query("select a from t"));
+    run(20, query("select b from t"));
+    run(20, query("select b from t"));
+    run(50, query("select c from t"));
+
+    List<SlowQueryShape> slowest = service.slowest(2);
+
+    assertEquals(2, slowest.size());
+    assertEquals("select c from t", slowest.get(0).getSql());
+    assertEquals("select b from t", slowest.get(1).getSql());
+  }
+
+  @Test
+  public void reset_forgets_all_timings() throws Exception {
+    run(5, byId(1));
+    service.reset();
+    assertEquals(List.of(), service.slowest(10));
+  }
+
+  @Test
+  public void each_statement_of_a_batch_is_timed() throws Exception {
+    run(
+        5,
+        query(
+            "insert into widgets (name, id) values (?, ?)",
+            List.of(set("setString", String.class, 1, "a"), set("setLong", long.class, 2, 1L)),
+            List.of(set("setString", String.class, 1, "b"), set("setLong", long.class, 2, 2L))),
+        query("update widgets set name='c' where id=3"));
+
+    Map<String, SlowQueryShape> bySql =
+        service.slowest(10).stream()
+            .collect(Collectors.toMap(SlowQueryShape::getSql, Function.identity()));
+    assertEquals(
+        "['a', 1] ['b', 2]",
+        bySql.get("insert into widgets (name, id) values (?)").getParameters());
+    assertEquals("[]", bySql.get("update widgets set name=? where id=?").getParameters());
+  }
+
+  @Test
+  public void literals_value_lists_and_whitespace_are_normalized() {
+    assertEquals(
+        "select * from t1_0 where a in (?) and b=? and c=? and d=?",
+        SlowQueryService.normalize(
+            "select *\n  from t1_0 where a in (?, ?,?) and b='it''s' and c=42 and d=1.5 "));
+  }
+
+  @Test
+  public void bind_values_are_formatted_and_truncated() throws Exception {
+    QueryInfo query =
+        query(
+            "insert into t values (?, ?, ?, ?)",
+            List.of(
+                set("setNull", int.class, 1, Types.VARCHAR),
+                set("setBytes", byte[].class, 2, new byte[16]),
+                set("setString", String.class, 3, "x".repeat(150)),
+                set("setInt", int.class, 4, 7)));
+
+    assertEquals(
+        "[null, <16 bytes>, '" + "x".repeat(100) + "...', 7]", SlowQueryService.parameters(query));
+  }
+
+  @Test
+  public void slow_statements_are_logged_with_their_handler() throws Exception {
+    inHandler();
+    run(150, byId(7));
+
+    SlowQueryShape shape = service.slowest(1).get(0);
+    assertEquals("WidgetsController.getById", shape.getHandler());
+    assertEquals("[7]", shape.getParameters());
+    verify(connection, never()).prepareStatement(anyString());
+    assertEquals(List.of("Slow SQL (150 ms) in WidgetsController.getById: " + BY_ID), warnings());
+  }
+
+  @Test
+  public void bind_values_and_plans_are_kept_out_of_the_log_by_default() throws Exception {
+    service.explain = true;
+    run(150, byId(7));
+
+    assertEquals("[7]", service.slowest(1).get(0).getParameters());
+    assertEquals(List.of("Slow SQL (150 ms) in none: " + BY_ID), warnings());
+  }
+
+  @Test
+  public void bind_values_and_plans_are_logged_when_turned_on() throws Exception {
+    service.logParameters = true;
+    service.explain = true;
+    run(150, byId(7));
+    service.explain = false;
+    run(150, query("delete from widgets where id=?"));
+
+    assertEquals(
+        List.of(
+            "Slow SQL (150 ms) in none: "
+                + BY_ID
+                + " with parameters [7]\nSELECT ...\n/* PUBLIC.PRIMARY_KEY: ID = ?1 */",
+            "Slow SQL (150 ms) in none: delete from widgets where id=? with parameters []"),
+        warnings());
+  }
+
+  @Test
+  public void the_slowest_execution_is_kept_even_when_a_later_one_is_slow() throws Exception {
+    run(300, byId(1));
+    inHandler();
+    run(200, byId(2));
+
+    SlowQueryShape shape = service.slowest(1).get(0);
+    assertEquals("none", shape.getHandler());
+    assertEquals("[1]", shape.getParameters());
+  }
+
+  @Test
+  public void a_negative_threshold_turns_logging_off_but_keeps_timings() throws Exception {
+    service.thresholdMs = -1;
+    service.explain = true;
+    run(1000, byId(1));
+
+    assertEquals(1000, service.slowest(1).get(0).getMaxMs());
+    verify(connection, never()).prepareStatement(anyString());
+  }
+
+  @Test
+  public void slow_selects_are_explained_once_per_shape() throws Exception {
+    service.explain = true;
+    run(150, byId(7));
+    run(150, byId(8));
+
+    assertEquals(
+        "SELECT ...\n/* PUBLIC.PRIMARY_KEY: ID = ?1 */", service.slowest(1).get(0).getPlan());
+    verify(connection, times(1)).prepareStatement("EXPLAIN " + BY_ID);
+    verify(explainStatement).setLong(1, 7L);
+    verify(connection, never()).setSavepoint();
+  }
+
+  @Test
+  public void selects_without_bind_values_are_explained() throws Exception {
+    service.explain = true;
+    run(150, query("WITH x AS (select 1) select * from x"));
+
+    verify(connection).prepareStatement("EXPLAIN WITH x AS (select 1) select * from x");
+  }
+
+  @Test
+  public void other_statements_and_other_databases_are_not_explained() throws Exception {
+    service.explain = true;
+    run(150, query("delete from widgets where id=?"));
+    when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+    run(150, byId(1));
+
+    assertNull(service.slowest(1).get(0).getPlan());
+    verify(connection, never()).prepareStatement(anyString());
+  }
+
+  @Test
+  public void in_a_transaction_explain_runs_inside_a_savepoint() throws Exception {
+    service.explain = true;
+    when(connection.getAutoCommit()).thenReturn(false);
+    run(150, byId(7));
+
+    verify(connection).releaseSavepoint(savepoint);
+    verify(connection, never()).rollback(savepoint);
+  }
+
+  @Test
+  public void a_failed_explain_rolls_back_to_its_savepoint_and_is_retried_later() throws Exception {
+    service.explain = true;
+    when(connection.getAutoCommit()).thenReturn(false);
+    when(explainStatement.executeQuery()).thenThrow(new SQLException("syntax"));
+    run(150, byId(7));
+
+    assertNull(service.slowest(1).get(0).getPlan());
+    verify(connection).rollback(savepoint);
+
+    run(150, byId(8));
+    verify(connection, times(2)).prepareStatement("EXPLAIN " + BY_ID);
+  }
+
+  @Test
+  public void a_failed_explain_outside_a_transaction_is_only_logged() throws Exception {
+    service.explain = true;
+    when(explainStatement.executeQuery()).thenThrow(new SQLException("syntax"));
+    run(150, byId(7));
+
+    assertNull(service.slowest(1).get(0).getPlan());
+    verify(connection, never()).rollback(savepoint);
+  }
+
+  @Test
+  public void statements_run_by_explain_are_not_timed() throws Exception {
+    service.explain = true;
+    when(explainStatement.executeQuery())
+        .thenAnswer(
+            invocation -> {
+              run(150, query("EXPLAIN " + BY_ID));
+              return planRows;
+            });
+    run(150, byId(7));
+
+    assertEquals(1, service.slowest(10).size());
+  }
+
+  @Test
+  public void once_full_new_shapes_are_not_kept() throws Exception {
+    service.maxShapes = 1;
+    run(5, query("select a from t"));
+    run(500, query("select b from t"));
+    run(5, query("select c from t"));
+    run(5, query("select d from t"));
+    run(5, query("select e from t"));
+    run(5, query("select f from t"));
+    run(5, query("select a from t"));
+
+    List<SlowQueryShape> slowest = service.slowest(10);
+    assertEquals(1, slowest.size());
+    assertEquals(2, slowest.get(0).getCount());
+  }
+}
@@ -0,0 +1,109 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.models.TypeaheadSuggestion;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.services.TypeaheadService.Type;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class TypeaheadServiceTests {
+
+  @Mock private RestaurantRepository restaurantRepository;
+
+  @Mock private UCSBOrganizationRepository ucsbOrganizationRepository;
+
+  @InjectMocks private TypeaheadService typeaheadService;
+
+  private final Restaurant freebirds =
+      Restaurant.builder().id(1L).name("Freebirds").description("burritos").build();
+  private final Restaurant habit =
+      Restaurant.builder().id(2L).name("The Habit").description("burgers").build();
+  private final UCSBOrganization waterPolo =
+      UCSBOrganization.builder()
+          .orgCode("WPC")
+          .orgTranslationShort("WATER POLO CLUB")
+          .orgTranslation("Water Polo Club at UCSB")
+          .build();
+  private final UCSBOrganization krc =
+      UCSBOrganization.builder()
+          .orgCode("KRC")
+          .orgTranslationShort("KOREAN RADIO CL")
+          .orgTranslation("Korean Radio Club")
+          .build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(restaurantRepository.findAll()).thenReturn(List.of(freebirds, habit));
+    when(ucsbOrganizationRepository.findAll()).thenReturn(List.of(waterPolo, krc));
+    typeaheadService.rebuild();
+  }
+
+  private List<String> ids(Type type, String prefix) {
+    return typeaheadService.suggest(type, prefix, 10).stream()
+        .map(TypeaheadSuggestion::getId)
+        .toList();
+  }
+
+  @Test
+  public void each_type_searches_its_own_field() {
+    assertEquals(List.of("1"), ids(Type.RESTAURANT, "free"));
+    assertEquals(List.of("2"), ids(Type.RESTAURANT, "habit"));
+    assertEquals(List.of("WPC"), ids(Type.ORGANIZATION_SHORT, "water polo c"));
+    assertEquals(List.of(), ids(Type.ORGANIZATION_SHORT, "ucsb"));
+    assertEquals(List.of("WPC"), ids(Type.ORGANIZATION, "ucsb"));
+    assertEquals(List.of("KRC", "WPC"), ids(Type.ORGANIZATION, "club"));
+  }
+
+  @Test
+  public void restaurant_writes_update_the_index() {
+    typeaheadService.restaurantSaved(
+        Restaurant.builder().id(1L).name("Chipotle").description("burritos").build());
+    typeaheadService.restaurantSaved(
+        Restaurant.builder().id(3L).name("Freebirds World Burrito").build());
+
+    assertEquals(List.of("3"), ids(Type.RESTAURANT, "free"));
+    assertEquals(List.of("1"), ids(Type.RESTAURANT, "chip"));
+
+    typeaheadService.restaurantDeleted(3L);
+    assertEquals(List.of(), ids(Type.RESTAURANT, "free"));
+  }
+
+  @Test
+  public void organization_writes_update_both_fields() {
+    typeaheadService.organizationSaved(
+        UCSBOrganization.builder()
+            .orgCode("KRC")
+            .orgTranslationShort("KCR")
+            .orgTranslation("Korean College Radio")
+            .build());
+
+    assertEquals(List.of("KRC"), ids(Type.ORGANIZATION_SHORT, "kcr"));
+    assertEquals(List.of("WPC"), ids(Type.ORGANIZATION, "club"));
+
+    typeaheadService.organizationDeleted("WPC");
+    assertEquals(List.of(), ids(Type.ORGANIZATION, "club"));
+    assertEquals(List.of(), ids(Type.ORGANIZATION_SHORT, "water"));
+  }
+
+  @Test
+  public void rebuild_replaces_everything() {
+    when(restaurantRepository.findAll()).thenReturn(List.of(habit));
+    when(ucsbOrganizationRepository.findAll()).thenReturn(List.of());
+    typeaheadService.rebuild();
+
+    assertEquals(List.of(), ids(Type.RESTAURANT, "free"));
+    assertEquals(List.of("2"), ids(Type.RESTAURANT, "the"));
+    assertEquals(List.of(), ids(Type.ORGANIZATION, "club"));
+  }
+}
@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class UCSBDateCalendarServiceTests {
+
+  @Mock private UCSBDateRepository ucsbDateRepository;
+
+  @InjectMocks private UCSBDateCalendarService ucsbDateCalendarService;
+
+  private static UCSBDate date(long id, String quarter, String name, String time) {
+    return UCSBDate.builder()
+        .id(id)
+        .quarterYYYYQ(quarter)
+        .name(name)
+        .localDateTime(time == null ? null : LocalDateTime.parse(time))
+        .build();
+  }
+
+  private final UCSBDate springStart = date(1L, "20222", "firstDay", "2022-03-28T00:00:00");
+  private final UCSBDate springEnd = date(2L, "20222", "lastDay", "2022-06-03T00:00:00");
+  private final UCSBDate springTba = date(3L, "20222", "commencement", null);
+  private final UCSBDate fallStart = date(4L, "20224", "firstDay", "2022-09-22T00:00:00");
+  private final UCSBDate sameTimeAsFall = date(5L, "20224", "convocation", "2022-09-22T00:00:00");
+  private final UCSBDate noQuarter = date(6L, null, "holiday", "2022-07-04T00:00:00");
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(ucsbDateRepository.findAll())
+        .thenReturn(
+            List.of(sameTimeAsFall, springTba, fallStart, noQuarter, springEnd, springStart));
+    ucsbDateCalendarService.rebuild();
+  }
+
+  private static LocalDateTime t(String time) {
+    return LocalDateTime.parse(time);
+  }
+
+  @Test
+  public void quarter_returns_its_dates_in_time_order_with_untimed_dates_last() {
+    assertEquals(
+        List.of(springStart, springEnd, springTba), ucsbDateCalendarService.quarter("20222"));
+    assertEquals(List.of(fallStart, sameTimeAsFall), ucsbDateCalendarService.quarter("20224"));
+    assertEquals(List.of(), ucsbDateCalendarService.quarter("20223"));
+  }
+
+  @Test
+  public void range_is_inclusive_and_skips_untimed_dates() {
+    assertEquals(
+        List.of(springEnd, noQuarter, fallStart, sameTimeAsFall),
+        ucsbDateCalendarService.range(t("2022-06-03T00:00:00"), t("2022-09-22T00:00:00")));
+    assertEquals(
+        List.of(noQuarter),
+        ucsbDateCalendarService.range(t("2022-06-03T00:00:01"), t("2022-09-21T23:59:59")));
+    assertEquals(
+        List.of(),
+        ucsbDateCalendarService.range(t("2022-12-31T00:00:00"), t("2022-01-01T00:00:00")));
+  }
+
+  @Test
+  public void saved_dates_replace_their_old_entries() {
+    UCSBDate movedEnd = date(2L, "20224", "lastDay", "2022-12-09T00:00:00");
+    ucsbDateCalendarService.dateSaved(movedEnd);
+
+    assertEquals(List.of(springStart, springTba), ucsbDateCalendarService.quarter("20222"));
+    assertEquals(
+        List.of(fallStart, sameTimeAsFall, movedEnd), ucsbDateCalendarService.quarter("20224"));
+    assertEquals(
+        List.of(movedEnd),
+        ucsbDateCalendarService.range(t("2022-10-01T00:00:00"), t("2022-12-31T00:00:00")));
+
+    UCSBDate added = date(7L, "20231", "firstDay", "2023-01-09T00:00:00");
+    ucsbDateCalendarService.dateSaved(added);
+    assertEquals(List.of(added), ucsbDateCalendarService.quarter("20231"));
+  }
+
+  @Test
+  public void indexed_dates_are_copies() {
+    UCSBDate mutable = date(8L, "20231", "firstDay", "2023-01-09T00:00:00");
+    ucsbDateCalendarService.dateSaved(mutable);
+
+    mutable.setName("changed without saving");
+
+    assertEquals("firstDay", ucsbDateCalendarService.quarter("20231").get(0).getName());
+  }
+
+  @Test
+  public void deleted_dates_are_removed_from_both_indexes() {
+    ucsbDateCalendarService.dateDeleted(1L);
+    ucsbDateCalendarService.dateDeleted(3L);
+    ucsbDateCalendarService.dateDeleted(6L);
+    ucsbDateCalendarService.dateDeleted(99L);
+
+    assertEquals(List.of(springEnd), ucsbDateCalendarService.quarter("20222"));
+    assertEquals(
+        List.of(springEnd, fallStart, sameTimeAsFall),
+        ucsbDateCalendarService.range(t("2022-01-01T00:00:00"), t("2022-12-31T00:00:00")));
+  }
+}
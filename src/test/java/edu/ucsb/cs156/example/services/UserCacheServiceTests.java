@@ -0,0 +1,281 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class UserCacheServiceTests {
+
+  @Mock private UserRepository userRepository;
+
+  @InjectMocks private UserCacheService userCacheService;
+
+  private final AtomicLong now = new AtomicLong();
+
+  private final User alice = User.builder().id(1L).email("alice@ucsb.edu").admin(false).build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    userCacheService.ttlMs = 30000;
+    userCacheService.clock = now::get;
+    when(userRepository.findByEmail("alice@ucsb.edu")).thenReturn(Optional.of(alice));
+    when(userRepository.findByEmail("nobody@ucsb.edu")).thenReturn(Optional.empty());
+    when(userRepository.upsertByEmail(any())).thenReturn(alice);
+  }
+
+  @AfterEach
+  public void teardown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private void advanceMillis(long millis) {
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  private void startRequest() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+  @Test
+  public void repeated_lookups_within_the_ttl_query_once() {
+    assertSame(alice, userCacheService.findByEmail("alice@ucsb.edu").get());
+    advanceMillis(29999);
+    assertEquals(alice, userCacheService.findByEmail("alice@ucsb.edu").get());
+    verify(userRepository, times(1)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void lookups_after_the_ttl_query_again() {
+    userCacheService.findByEmail("alice@ucsb.edu");
+    advanceMillis(30000);
+    userCacheService.findByEmail("alice@ucsb.edu");
+    verify(userRepository, times(2)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void missing_users_are_cached_too() {
+    assertFalse(userCacheService.findByEmail("nobody@ucsb.edu").isPresent());
+    assertFalse(userCacheService.findByEmail("nobody@ucsb.edu").isPresent());
+    verify(userRepository, times(1)).findByEmail("nobody@ucsb.edu");
+  }
+
+  @Test
+  public void a_request_looks_a_user_up_at_most_once_even_without_the_ttl_cache() {
+    userCacheService.ttlMs = 0;
+    startRequest();
+    userCacheService.findByEmail("alice@ucsb.edu");
+    userCacheService.findByEmail("alice@ucsb.edu");
+    userCacheService.findByEmail("nobody@ucsb.edu");
+    userCacheService.findByEmail("nobody@ucsb.edu");
+    verify(userRepository, times(1)).findByEmail("alice@ucsb.edu");
+    verify(userRepository, times(1)).findByEmail("nobody@ucsb.edu");
+
+    startRequest();
+    userCacheService.findByEmail("alice@ucsb.edu");
+    verify(userRepository, times(2)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void without_the_ttl_cache_or_a_request_every_lookup_queries() {
+    userCacheService.ttlMs = 0;
+    userCacheService.findByEmail("alice@ucsb.edu");
+    userCacheService.findByEmail("alice@ucsb.edu");
+    verify(userRepository, times(2)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void put_replaces_the_cached_user_and_the_request_memo() {
+    startRequest();
+    userCacheService.findByEmail("alice@ucsb.edu");
+    User admin = User.builder().id(1L).email("alice@ucsb.edu").admin(true).build();
+    userCacheService.put(admin);
+
+    assertTrue(userCacheService.findByEmail("alice@ucsb.edu").get().getAdmin());
+    RequestContextHolder.resetRequestAttributes();
+    assertTrue(userCacheService.findByEmail("alice@ucsb.edu").get().getAdmin());
+    verify(userRepository, times(1)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void changing_a_user_handed_out_does_not_change_the_cached_one() {
+    userCacheService.findByEmail("alice@ucsb.edu").get().setAdmin(true);
+    userCacheService.findOrCreate(User.builder().email("alice@ucsb.edu").build()).setAdmin(true);
+
+    assertFalse(userCacheService.findByEmail("alice@ucsb.edu").get().getAdmin());
+    assertFalse(
+        userCacheService.findOrCreate(User.builder().email("alice@ucsb.edu").build()).getAdmin());
+    verify(userRepository, times(1)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void changing_a_user_after_put_does_not_change_the_cached_one() {
+    User admin = User.builder().id(1L).email("alice@ucsb.edu").admin(true).build();
+    userCacheService.put(admin);
+    admin.setAdmin(false);
+    assertTrue(userCacheService.findByEmail("alice@ucsb.edu").get().getAdmin());
+  }
+
+  @Test
+  public void a_request_keeps_the_copy_it_was_handed() {
+    userCacheService.findByEmail("alice@ucsb.edu");
+    startRequest();
+    User login = User.builder().email("alice@ucsb.edu").build();
+    User first = userCacheService.findOrCreate(login);
+    assertSame(first, userCacheService.findOrCreate(login));
+    assertSame(first, userCacheService.findByEmail("alice@ucsb.edu").get());
+  }
+
+  @Test
+  public void put_without_the_ttl_cache_only_updates_the_request_memo() {
+    userCacheService.ttlMs = 0;
+    User admin = User.builder().id(1L).email("alice@ucsb.edu").admin(true).build();
+    userCacheService.put(admin);
+    assertFalse(userCacheService.findByEmail("alice@ucsb.edu").get().getAdmin());
+
+    startRequest();
+    userCacheService.put(admin);
+    assertTrue(userCacheService.findByEmail("alice@ucsb.edu").get().getAdmin());
+  }
+
+  @Test
+  public void evict_makes_the_next_lookup_query() {
+    startRequest();
+    userCacheService.findByEmail("alice@ucsb.edu");
+    userCacheService.evict("alice@ucsb.edu");
+    userCacheService.findByEmail("alice@ucsb.edu");
+    verify(userRepository, times(2)).findByEmail("alice@ucsb.edu");
+
+    RequestContextHolder.resetRequestAttributes();
+    userCacheService.evict("alice@ucsb.edu");
+    userCacheService.findByEmail("alice@ucsb.edu");
+    verify(userRepository, times(3)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void purge_drops_only_expired_entries() {
+    userCacheService.findByEmail("alice@ucsb.edu");
+    advanceMillis(20000);
+    userCacheService.findByEmail("nobody@ucsb.edu");
+    advanceMillis(10000);
+    userCacheService.purgeExpired();
+
+    userCacheService.findByEmail("nobody@ucsb.edu");
+    userCacheService.findByEmail("alice@ucsb.edu");
+    verify(userRepository, times(1)).findByEmail("nobody@ucsb.edu");
+    verify(userRepository, times(2)).findByEmail("alice@ucsb.edu");
+  }
+
+  @Test
+  public void the_request_memo_is_a_request_attribute() {
+    startRequest();
+    userCacheService.findByEmail("alice@ucsb.edu");
+    Object memo =
+        RequestContextHolder.getRequestAttributes()
+            .getAttribute(UserCacheService.REQUEST_ATTRIBUTE, 0);
+    assertEquals(Map.of("alice@ucsb.edu", Optional.of(alice)), memo);
+  }
+
+  @Test
+  public void find_or_create_reads_a_stored_user_once_and_then_uses_the_cache() {
+    User login = User.builder().email("alice@ucsb.edu").build();
+    assertSame(alice, userCacheService.findOrCreate(login));
+    assertEquals(alice, userCacheService.findOrCreate(login));
+    verify(userRepository, times(1)).findByEmail("alice@ucsb.edu");
+    verify(userRepository, never()).upsertByEmail(any());
+  }
+
+  @Test
+  public void find_or_create_upserts_only_an_email_that_is_not_stored() {
+    User login = User.builder().email("new@ucsb.edu").build();
+    assertSame(alice, userCacheService.findOrCreate(login));
+    assertEquals(
+        alice, userCacheService.findOrCreate(User.builder().email("alice@ucsb.edu").build()));
+    verify(userRepository, times(1)).findByEmail("new@ucsb.edu");
+    verify(userRepository, times(1)).upsertByEmail(login);
+  }
+
+  @Test
+  public void find_or_create_uses_the_request_memo_and_skips_cached_misses() {
+    userCacheService.ttlMs = 0;
+    startRequest();
+    User login = User.builder().email("alice@ucsb.edu").build();
+    assertSame(alice, userCacheService.findOrCreate(login));
+    assertSame(alice, userCacheService.findOrCreate(login));
+    verify(userRepository, times(1)).findByEmail("alice@ucsb.edu");
+
+    userCacheService.ttlMs = 30000;
+    startRequest();
+    userCacheService.findByEmail("nobody@ucsb.edu");
+    User nobody = User.builder().email("nobody@ucsb.edu").build();
+    userCacheService.findOrCreate(nobody);
+    RequestContextHolder.resetRequestAttributes();
+    userCacheService.findOrCreate(nobody);
+    verify(userRepository, times(3)).findByEmail("nobody@ucsb.edu");
+    verify(userRepository, times(2)).upsertByEmail(nobody);
+  }
+
+  @Test
+  public void find_or_create_reads_again_after_the_ttl() {
+    User login = User.builder().email("alice@ucsb.edu").build();
+    userCacheService.findOrCreate(login);
+    advanceMillis(30000);
+    userCacheService.findOrCreate(login);
+    verify(userRepository, times(2)).findByEmail("alice@ucsb.edu");
+    verify(userRepository, never()).upsertByEmail(any());
+  }
+
+  @Test
+  public void hits_and_misses_are_published_as_the_users_cache() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    userCacheService.bindTo(registry);
+
+    userCacheService.findByEmail("alice@ucsb.edu"); // miss
+    userCacheService.findByEmail("alice@ucsb.edu"); // hit
+    startRequest();
+    userCacheService.findByEmail("alice@ucsb.edu"); // hit
+    userCacheService.findByEmail("alice@ucsb.edu"); // hit, from the request memo
+    userCacheService.findOrCreate(User.builder().email("alice@ucsb.edu").build()); // hit
+    userCacheService.findOrCreate(User.builder().email("new@ucsb.edu").build()); // miss
+
+    assertEquals(
+        4.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "users", "result", "hit")
+            .functionCounter()
+            .count());
+    assertEquals(
+        2.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "users", "result", "miss")
+            .functionCounter()
+            .count());
+    assertEquals(1.0, registry.get("cache.size").tag("cache", "users").gauge().value());
+  }
+}
@@ -1,8 +1,11 @@
 package edu.ucsb.cs156.example.testconfig;
 
 import edu.ucsb.cs156.example.config.SecurityConfig;
+import edu.ucsb.cs156.example.services.AdminRoleService;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.RateLimitService;
+import edu.ucsb.cs156.example.services.UserCacheService;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
@@ -20,4 +23,19 @@ public class TestConfig {
   public GrantedAuthoritiesService grantedAuthoritiesService() {
     return new GrantedAuthoritiesService();
   }
+
+  @Bean
+  public UserCacheService userCacheService() {
+    return new UserCacheService();
+  }
+
+  @Bean
+  public AdminRoleService adminRoleService() {
+    return new AdminRoleService();
+  }
+
+  @Bean
+  public RateLimitService rateLimitService() {
+    return new RateLimitService();
+  }
 }